@@ -0,0 +1,362 @@
+package com.danielflower.crickam.scorer;
+
+import com.danielflower.crickam.scorer.events.BallCompletedEvent;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The values of a list of balls that are most often used in analysis, stored as arrays of primitives with a column
+ * for each value.
+ * <p>A {@link BallCompletedEvent} holds its delivery, swing and trajectory as separate objects with boxed fields,
+ * so totalling a value over many balls means following several references per ball. This class copies those values
+ * once into primitive arrays so that filters and totals become simple loops over an index, for example the average
+ * speed of short balls that went for four:</p>
+ * <pre>{@code
+ * BallColumns columns = BallColumns.of(innings.balls());
+ * long total = 0;
+ * int count = 0;
+ * for (int i = 0; i < columns.size(); i++) {
+ *     if (columns.batterRuns(i) == 4 && columns.hasSpeed(i) && columns.hasPositionOfBounce(i)
+ *             && columns.positionOfBounce(i) <= 14.5) {
+ *         total += columns.speedInKilometers(i);
+ *         count++;
+ *     }
+ * }
+ * }</pre>
+ * <p>Values that can be unknown have a {@code hasX} method, and their value method returns 0 when the value is
+ * unknown.</p>
+ * <p>Columns can be built from any {@link Balls}, such as those of a match, innings, over, batter, bowler or
+ * partnership, and are not updated when more balls are bowled.</p>
+ */
+@Immutable
+public final class BallColumns {
+
+    private static final ShotType[] SHOT_TYPES = ShotType.values();
+
+    private final ImmutableList<BallCompletedEvent> balls;
+    private final int[] runs;
+    private final int[] batterRuns;
+    private final int[] extras;
+    private final long[] valid;
+    private final long[] wickets;
+    private final int[] speed;
+    private final long[] hasSpeed;
+    private final double[] bounce;
+    private final long[] hasBounce;
+    private final double[] line;
+    private final long[] hasLine;
+    private final byte[] shotType;
+    private final long[] hasShotType;
+    private final double[] direction;
+    private final long[] hasDirection;
+    private final double[] distance;
+    private final long[] hasDistance;
+
+    private BallColumns(ImmutableList<BallCompletedEvent> balls) {
+        this.balls = balls;
+        int size = balls.size();
+        int words = (size + 63) >>> 6;
+        runs = new int[size];
+        batterRuns = new int[size];
+        extras = new int[size];
+        valid = new long[words];
+        wickets = new long[words];
+        speed = new int[size];
+        hasSpeed = new long[words];
+        bounce = new double[size];
+        hasBounce = new long[words];
+        line = new double[size];
+        hasLine = new long[words];
+        shotType = new byte[size];
+        hasShotType = new long[words];
+        direction = new double[size];
+        hasDirection = new long[words];
+        distance = new double[size];
+        hasDistance = new long[words];
+
+        int i = 0;
+        for (BallCompletedEvent ball : balls) {
+            Score score = ball.score();
+            runs[i] = score.teamRuns();
+            batterRuns[i] = score.batterRuns();
+            extras[i] = score.extras();
+            if (score.validDeliveries() > 0) set(valid, i);
+            if (ball.dismissal() != null) set(wickets, i);
+
+            Delivery delivery = ball.delivery();
+            if (delivery != null) {
+                if (delivery.speedInKilometers() != null) {
+                    speed[i] = delivery.speedInKilometers();
+                    set(hasSpeed, i);
+                }
+                if (delivery.positionOfBounce() != null) {
+                    bounce[i] = delivery.positionOfBounce();
+                    set(hasBounce, i);
+                }
+                if (delivery.horizontalPitchInMeters() != null) {
+                    line[i] = delivery.horizontalPitchInMeters();
+                    set(hasLine, i);
+                }
+            }
+            Swing swing = ball.swing();
+            if (swing != null && swing.shotType() != null) {
+                shotType[i] = (byte) swing.shotType().ordinal();
+                set(hasShotType, i);
+            }
+            Trajectory trajectory = ball.trajectoryAtImpact();
+            if (trajectory != null) {
+                if (trajectory.directionInDegreesRelativeToBatter() != null) {
+                    direction[i] = trajectory.directionInDegreesRelativeToBatter();
+                    set(hasDirection, i);
+                }
+                if (trajectory.distanceInMeters() != null) {
+                    distance[i] = trajectory.distanceInMeters();
+                    set(hasDistance, i);
+                }
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Copies the values of the given balls into columns.
+     *
+     * @param balls The balls, for example from {@link Innings#balls()} or {@link BatterInnings#balls()}
+     * @return The columns, where the value at index {@code i} of each column is for the ball at index {@code i} of
+     * the balls
+     */
+    public static @Nonnull BallColumns of(Balls balls) {
+        return new BallColumns(balls.list());
+    }
+
+    /**
+     * @return The number of balls, including invalid balls such as wides
+     */
+    public @Nonnegative int size() {
+        return runs.length;
+    }
+
+    /**
+     * @param index The index of the ball
+     * @return The ball that the values at the index came from
+     */
+    public @Nonnull BallCompletedEvent ball(int index) {
+        return balls.get(index);
+    }
+
+    /**
+     * @param index The index of the ball
+     * @return The runs scored by the batting team from the ball, including extras
+     * @see Score#teamRuns()
+     */
+    public int runs(int index) {
+        return runs[index];
+    }
+
+    /**
+     * @param index The index of the ball
+     * @return The runs credited to the batter
+     * @see Score#batterRuns()
+     */
+    public int batterRuns(int index) {
+        return batterRuns[index];
+    }
+
+    /**
+     * @param index The index of the ball
+     * @return The extras scored from the ball
+     * @see Score#extras()
+     */
+    public int extras(int index) {
+        return extras[index];
+    }
+
+    /**
+     * @param index The index of the ball
+     * @return True if the ball counted as one of the balls of the over
+     */
+    public boolean isValid(int index) {
+        checkIndex(index);
+        return isSet(valid, index);
+    }
+
+    /**
+     * @param index The index of the ball
+     * @return True if a batter was dismissed on this ball
+     */
+    public boolean isWicket(int index) {
+        checkIndex(index);
+        return isSet(wickets, index);
+    }
+
+    /**
+     * @param index The index of the ball
+     * @return True if the speed of the delivery is known
+     */
+    public boolean hasSpeed(int index) {
+        checkIndex(index);
+        return isSet(hasSpeed, index);
+    }
+
+    /**
+     * @param index The index of the ball
+     * @return The speed of the delivery, or 0 if unknown
+     * @see Delivery#speedInKilometers()
+     */
+    public int speedInKilometers(int index) {
+        return speed[index];
+    }
+
+    /**
+     * @param index The index of the ball
+     * @return True if where the ball bounced is known
+     */
+    public boolean hasPositionOfBounce(int index) {
+        checkIndex(index);
+        return isSet(hasBounce, index);
+    }
+
+    /**
+     * @param index The index of the ball
+     * @return The number of meters from the bowling crease where the ball bounced, or 0 if unknown
+     * @see Delivery#positionOfBounce()
+     */
+    public double positionOfBounce(int index) {
+        return bounce[index];
+    }
+
+    /**
+     * @param index The index of the ball
+     * @return True if the line of the delivery is known
+     */
+    public boolean hasLine(int index) {
+        checkIndex(index);
+        return isSet(hasLine, index);
+    }
+
+    /**
+     * @param index The index of the ball
+     * @return The distance in meters from the horizontal middle of the pitch where the ball pitched, or 0 if unknown
+     * @see Delivery#horizontalPitchInMeters()
+     */
+    public double horizontalPitchInMeters(int index) {
+        return line[index];
+    }
+
+    /**
+     * @param index The index of the ball
+     * @return True if the shot played is known
+     */
+    public boolean hasShotType(int index) {
+        checkIndex(index);
+        return isSet(hasShotType, index);
+    }
+
+    /**
+     * @param index The index of the ball
+     * @return The {@link ShotType#ordinal()} of the shot played, or -1 if unknown
+     */
+    public int shotTypeOrdinal(int index) {
+        return hasShotType(index) ? shotType[index] : -1;
+    }
+
+    /**
+     * @param index The index of the ball
+     * @return The shot played, or null if unknown
+     * @see Swing#shotType()
+     */
+    public @Nullable ShotType shotType(int index) {
+        return hasShotType(index) ? SHOT_TYPES[shotType[index]] : null;
+    }
+
+    /**
+     * @param index The index of the ball
+     * @return True if the direction the ball went after being hit is known
+     */
+    public boolean hasDirection(int index) {
+        checkIndex(index);
+        return isSet(hasDirection, index);
+    }
+
+    /**
+     * @param index The index of the ball
+     * @return The direction the ball went after being hit, or 0 if unknown
+     * @see Trajectory#directionInDegreesRelativeToBatter()
+     */
+    public double directionInDegreesRelativeToBatter(int index) {
+        return direction[index];
+    }
+
+    /**
+     * @param index The index of the ball
+     * @return True if the distance the ball travelled after being hit is known
+     */
+    public boolean hasDistance(int index) {
+        checkIndex(index);
+        return isSet(hasDistance, index);
+    }
+
+    /**
+     * @param index The index of the ball
+     * @return The distance the ball travelled after being hit, or 0 if unknown
+     * @see Trajectory#distanceInMeters()
+     */
+    public double distanceInMeters(int index) {
+        return distance[index];
+    }
+
+    /**
+     * @return The total of {@link #runs(int)} over all the balls
+     */
+    public long totalRuns() {
+        long total = 0;
+        for (int value : runs) {
+            total += value;
+        }
+        return total;
+    }
+
+    /**
+     * @return The number of balls where {@link #isWicket(int)} is true
+     */
+    public int wicketCount() {
+        return count(wickets);
+    }
+
+    /**
+     * @return The number of balls where {@link #isValid(int)} is true
+     */
+    public int validCount() {
+        return count(valid);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= runs.length) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of range for " + runs.length + " balls");
+        }
+    }
+
+    private static int count(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    private static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    @Override
+    public String toString() {
+        return "BallColumns{" + runs.length + " balls}";
+    }
+}
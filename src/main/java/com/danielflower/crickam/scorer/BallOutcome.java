@@ -0,0 +1,107 @@
+package com.danielflower.crickam.scorer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The result of a single simulated ball: the runs it added to the batting team's total, whether it counted as one
+ * of the balls of the over, and whether a wicket fell.
+ * <p>Get instances from {@link #of(int, boolean, boolean)}. Common outcomes are cached, so a
+ * {@link BallOutcomeModel} can return them on every ball without creating any objects.</p>
+ *
+ * @see MatchSimulator
+ */
+@Immutable
+public final class BallOutcome {
+
+    private static final int CACHED_RUNS = 8;
+    private static final BallOutcome[] CACHE = new BallOutcome[CACHED_RUNS * 4];
+
+    static {
+        for (int runs = 0; runs < CACHED_RUNS; runs++) {
+            for (int flags = 0; flags < 4; flags++) {
+                CACHE[runs * 4 + flags] = new BallOutcome(runs, (flags & 1) != 0, (flags & 2) != 0);
+            }
+        }
+    }
+
+    /**
+     * A valid ball with no runs and no wicket
+     */
+    public static final BallOutcome DOT = of(0, true, false);
+
+    /**
+     * A valid ball where the batter was dismissed without any runs being scored
+     */
+    public static final BallOutcome WICKET = of(0, true, true);
+
+    private final int runs;
+    private final boolean valid;
+    private final boolean wicket;
+
+    private BallOutcome(int runs, boolean valid, boolean wicket) {
+        this.runs = runs;
+        this.valid = valid;
+        this.wicket = wicket;
+    }
+
+    /**
+     * @param runs The runs added to the batting team's total, including any extras
+     * @param valid True if the ball counts as one of the balls of the over; false for wides and no-balls
+     * @param wicket True if a batter was dismissed
+     * @return An outcome with the given values
+     */
+    public static @Nonnull BallOutcome of(@Nonnegative int runs, boolean valid, boolean wicket) {
+        if (runs < 0) {
+            throw new IllegalArgumentException("runs cannot be negative but was " + runs);
+        }
+        if (runs < CACHED_RUNS) {
+            return CACHE[runs * 4 + (valid ? 1 : 0) + (wicket ? 2 : 0)];
+        }
+        return new BallOutcome(runs, valid, wicket);
+    }
+
+    /**
+     * @return The runs added to the batting team's total, including any extras
+     */
+    public @Nonnegative int runs() {
+        return runs;
+    }
+
+    /**
+     * @return True if the ball counts as one of the balls of the over
+     */
+    public boolean valid() {
+        return valid;
+    }
+
+    /**
+     * @return True if a batter was dismissed
+     */
+    public boolean wicket() {
+        return wicket;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BallOutcome that = (BallOutcome) o;
+        return runs == that.runs && valid == that.valid && wicket == that.wicket;
+    }
+
+    @Override
+    public int hashCode() {
+        return runs * 4 + (valid ? 1 : 0) + (wicket ? 2 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return "BallOutcome{" +
+            "runs=" + runs +
+            ", valid=" + valid +
+            ", wicket=" + wicket +
+            '}';
+    }
+}
@@ -0,0 +1,47 @@
+package com.danielflower.crickam.scorer;
+
+import com.danielflower.crickam.scorer.events.BallCompletedEvent;
+
+import javax.annotation.Nonnull;
+import java.util.SplittableRandom;
+
+/**
+ * Decides what happens on each ball of a simulated match.
+ * <p>A model is called from several threads at once, each with its own innings and random number generator, so
+ * implementations must be thread safe. Models are called once per ball of every simulation, so they should avoid
+ * creating objects; {@link BallOutcome#of(int, boolean, boolean)} returns cached instances for common outcomes.</p>
+ * <p>A model must eventually return valid balls or wickets, otherwise an innings can never end.</p>
+ *
+ * @see MatchSimulator
+ */
+@FunctionalInterface
+public interface BallOutcomeModel {
+
+    /**
+     * @param innings The state of the innings before the ball is bowled. This is updated in place after the ball,
+     *                so it should not be kept.
+     * @param random The random number generator of the current thread
+     * @return The result of the next ball
+     */
+    @Nonnull BallOutcome nextBall(SimulatedInnings innings, SplittableRandom random);
+
+    /**
+     * Creates a model where each ball is a copy of a ball picked at random from the given balls, for example the
+     * balls of the match so far.
+     *
+     * @param balls The balls to pick from, which must not be empty
+     * @return A model that repeats the given balls
+     */
+    static @Nonnull BallOutcomeModel fromBalls(Balls balls) {
+        if (balls.size() == 0) {
+            throw new IllegalArgumentException("At least one ball is needed to create a model");
+        }
+        BallOutcome[] outcomes = new BallOutcome[balls.size()];
+        int i = 0;
+        for (BallCompletedEvent ball : balls) {
+            Score score = ball.runsScored();
+            outcomes[i++] = BallOutcome.of(score.teamRuns(), score.validDeliveries() > 0, ball.dismissal() != null);
+        }
+        return (innings, random) -> outcomes[random.nextInt(outcomes.length)];
+    }
+}
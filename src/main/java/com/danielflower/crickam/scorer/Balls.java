@@ -21,7 +21,7 @@ public final class Balls implements Iterable<BallCompletedEvent> {
         this(ImmutableList.emptyList(), Score.EMPTY);
     }
 
-    private Balls(ImmutableList<BallCompletedEvent> balls, Score score) {
+    Balls(ImmutableList<BallCompletedEvent> balls, Score score) {
         this.balls = Objects.requireNonNull(balls);
         this.score = Objects.requireNonNull(score);
     }
@@ -28,7 +28,7 @@ public final class BatterInnings {
     private final Instant inningsEndTime;
     private final Dismissal dismissal;
 
-    private BatterInnings(BattingState state, Player player, Balls balls, @Nonnegative int numberCameIn, @Nullable Instant inningsStartTime, @Nullable Instant inningsEndTime, @Nullable Dismissal dismissal) {
+    BatterInnings(BattingState state, Player player, Balls balls, @Nonnegative int numberCameIn, @Nullable Instant inningsStartTime, @Nullable Instant inningsEndTime, @Nullable Dismissal dismissal) {
         this.state = requireNonNull(state, "state");
         this.player = requireNonNull(player, "player");
         this.balls = requireNonNull(balls, "balls");
@@ -0,0 +1,210 @@
+package com.danielflower.crickam.scorer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The batting record of a player over a number of innings, such as a career, a series or a season.
+ * <p>Records are calculated by a {@link StatsQuery}, or by adding batter innings to an {@link Accumulator}.</p>
+ */
+@Immutable
+public final class BattingStats {
+
+    private final Player player;
+    private final int innings;
+    private final int notOuts;
+    private final int runs;
+    private final int balls;
+    private final int fifties;
+    private final int hundreds;
+    private final int highestScore;
+    private final boolean highestScoreNotOut;
+
+    private BattingStats(Player player, int innings, int notOuts, int runs, int balls, int fifties, int hundreds, int highestScore, boolean highestScoreNotOut) {
+        this.player = player;
+        this.innings = innings;
+        this.notOuts = notOuts;
+        this.runs = runs;
+        this.balls = balls;
+        this.fifties = fifties;
+        this.hundreds = hundreds;
+        this.highestScore = highestScore;
+        this.highestScoreNotOut = highestScoreNotOut;
+    }
+
+    /**
+     * @return The batter
+     */
+    public @Nonnull Player player() {
+        return player;
+    }
+
+    /**
+     * @return The number of innings batted
+     */
+    public @Nonnegative int innings() {
+        return innings;
+    }
+
+    /**
+     * @return The number of innings where the batter was not out at the end
+     */
+    public @Nonnegative int notOuts() {
+        return notOuts;
+    }
+
+    /**
+     * @return The total runs scored
+     */
+    public @Nonnegative int runs() {
+        return runs;
+    }
+
+    /**
+     * @return The number of balls faced
+     * @see Score#facedByBatter()
+     */
+    public @Nonnegative int balls() {
+        return balls;
+    }
+
+    /**
+     * @return The number of innings with a score from 50 to 99
+     */
+    public @Nonnegative int fifties() {
+        return fifties;
+    }
+
+    /**
+     * @return The number of innings with a score of 100 or more
+     */
+    public @Nonnegative int hundreds() {
+        return hundreds;
+    }
+
+    /**
+     * @return The highest score in a single innings
+     */
+    public @Nonnegative int highestScore() {
+        return highestScore;
+    }
+
+    /**
+     * @return True if the batter was not out in the innings of their {@link #highestScore()}
+     */
+    public boolean highestScoreNotOut() {
+        return highestScoreNotOut;
+    }
+
+    /**
+     * @return The runs scored per dismissal, or null if the batter has never been out
+     */
+    public @Nullable Double average() {
+        int dismissals = innings - notOuts;
+        return dismissals == 0 ? null : (double) runs / dismissals;
+    }
+
+    /**
+     * @return The runs scored per 100 balls faced, or null if no balls have been faced
+     */
+    public @Nullable Double strikeRate() {
+        return balls == 0 ? null : 100.0 * runs / balls;
+    }
+
+    @Override
+    public String toString() {
+        return "BattingStats{" +
+            "player=" + player +
+            ", innings=" + innings +
+            ", notOuts=" + notOuts +
+            ", runs=" + runs +
+            ", balls=" + balls +
+            ", highestScore=" + highestScore + (highestScoreNotOut ? "*" : "") +
+            ", fifties=" + fifties +
+            ", hundreds=" + hundreds +
+            '}';
+    }
+
+    /**
+     * @param player The batter
+     * @return An empty accumulator for the given batter
+     */
+    public static @Nonnull Accumulator accumulator(Player player) {
+        return new Accumulator(requireNonNull(player, "player"));
+    }
+
+    /**
+     * A mutable total of the innings of one batter. Accumulators for different sets of innings can be added
+     * together, so that the innings can be totalled in parallel.
+     * <p>This class is not thread safe.</p>
+     */
+    public static final class Accumulator {
+        private final Player player;
+        private int innings;
+        private int notOuts;
+        private int runs;
+        private int balls;
+        private int fifties;
+        private int hundreds;
+        private int highestScore = -1;
+        private boolean highestScoreNotOut;
+
+        private Accumulator(Player player) {
+            this.player = player;
+        }
+
+        /**
+         * @param batterInnings An innings of the batter
+         * @return This accumulator
+         */
+        public @Nonnull Accumulator add(BatterInnings batterInnings) {
+            Score score = batterInnings.score();
+            int inningsRuns = score.batterRuns();
+            boolean notOut = batterInnings.state() != BattingState.DISMISSED && batterInnings.state() != BattingState.RETIRED_OUT;
+            innings++;
+            if (notOut) notOuts++;
+            runs += inningsRuns;
+            balls += score.facedByBatter();
+            if (inningsRuns >= 100) {
+                hundreds++;
+            } else if (inningsRuns >= 50) {
+                fifties++;
+            }
+            addHighScore(inningsRuns, notOut);
+            return this;
+        }
+
+        /**
+         * @param other Another accumulator for the same batter
+         * @return This accumulator
+         */
+        public @Nonnull Accumulator add(Accumulator other) {
+            innings += other.innings;
+            notOuts += other.notOuts;
+            runs += other.runs;
+            balls += other.balls;
+            fifties += other.fifties;
+            hundreds += other.hundreds;
+            addHighScore(other.highestScore, other.highestScoreNotOut);
+            return this;
+        }
+
+        private void addHighScore(int score, boolean notOut) {
+            if (score > highestScore || (score == highestScore && notOut)) {
+                highestScore = score;
+                highestScoreNotOut = notOut;
+            }
+        }
+
+        /**
+         * @return The record of all the innings added so far
+         */
+        public @Nonnull BattingStats build() {
+            return new BattingStats(player, innings, notOuts, runs, balls, fifties, hundreds, Math.max(0, highestScore), highestScoreNotOut);
+        }
+    }
+}
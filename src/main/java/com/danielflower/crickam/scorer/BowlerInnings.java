@@ -17,6 +17,7 @@ public final class BowlerInnings {
     private final ImmutableList<BowlingSpell> spells;
     private final ImmutableList<Over> overs;
     private final int wickets;
+    private final int maidens;
 
     /**
      * @return The bowler
@@ -69,21 +70,22 @@ public final class BowlerInnings {
      * @return The number of maidens bowled in this innings.
      */
     public @Nonnegative int maidens() {
-        return (int) overs.stream().filter(over -> over.isMaiden() && over.balls().list().get(0).bowler().samePlayer(bowler)).count();
+        return maidens;
     }
 
-    private BowlerInnings(Player bowler, Balls balls, ImmutableList<BowlingSpell> spells, ImmutableList<Over> overs, @Nonnegative int wickets) {
+    BowlerInnings(Player bowler, Balls balls, ImmutableList<BowlingSpell> spells, ImmutableList<Over> overs, @Nonnegative int wickets, @Nonnegative int maidens) {
         this.bowler = bowler;
         this.balls = balls;
         this.spells = spells;
         this.overs = overs;
         this.wickets = wickets;
+        this.maidens = maidens;
     }
 
     static BowlerInnings newInnings(Over over, Player bowler) {
-        BowlingSpell spell = new BowlingSpell(bowler, 1, ImmutableList.of(over), new Balls(), 0);
+        BowlingSpell spell = new BowlingSpell(bowler, 1, ImmutableList.of(over), new Balls(), 0, 0);
         ImmutableList<BowlingSpell> spells = ImmutableList.emptyList();
-        return new BowlerInnings(bowler, new Balls(), spells.add(spell), ImmutableList.of(over), 0);
+        return new BowlerInnings(bowler, new Balls(), spells.add(spell), ImmutableList.of(over), 0, 0);
     }
 
     BowlerInnings onBall(Over over, BallCompletedEvent ball) {
@@ -92,7 +94,7 @@ public final class BowlerInnings {
         Over previousOver = bowlingSpell.overs().last();
         ImmutableList<BowlingSpell> spells;
         if (previousOver != null && (over.overNumber() - previousOver.overNumber()) > 2) {
-            spells = this.spells.add(new BowlingSpell(bowler, bowlingSpell.spellNumber() + 1, ImmutableList.of(over), new Balls(), wickets).onBall(over, ball));
+            spells = this.spells.add(new BowlingSpell(bowler, bowlingSpell.spellNumber() + 1, ImmutableList.of(over), new Balls(), 0, 0).onBall(over, ball));
         } else {
             spells = this.spells.removeLast().add(bowlingSpell.onBall(over, ball));
         }
@@ -101,7 +103,25 @@ public final class BowlerInnings {
             wickets++;
         }
         ImmutableList<Over> newOvers = addOverWithPreviousRemovedIfSame(overs, over);
-        return new BowlerInnings(bowler, balls.add(ball), spells, newOvers, wickets);
+        return new BowlerInnings(bowler, balls.add(ball), spells, newOvers, wickets, maidens + maidensChange(overs, over, bowler));
+    }
+
+    /**
+     * @return The change in the number of maidens credited to the bowler when the given over is added to the overs,
+     * replacing the last over if it is the same over
+     */
+    static int maidensChange(ImmutableList<Over> overs, Over toAddOrReplace, Player bowler) {
+        int change = isMaidenBy(toAddOrReplace, bowler) ? 1 : 0;
+        Over lastOver = overs.last();
+        if (lastOver != null && lastOver.overNumber() == toAddOrReplace.overNumber() && isMaidenBy(lastOver, bowler)) {
+            change--;
+        }
+        return change;
+    }
+
+    private static boolean isMaidenBy(Over over, Player bowler) {
+        BallCompletedEvent first = over.balls().list().first();
+        return over.isMaiden() && first != null && first.bowler().samePlayer(bowler);
     }
 
     static ImmutableList<Over> addOverWithPreviousRemovedIfSame(ImmutableList<Over> overs, Over toAddOrReplace) {
@@ -142,6 +162,7 @@ public final class BowlerInnings {
         if (o == null || getClass() != o.getClass()) return false;
         BowlerInnings that = (BowlerInnings) o;
         return wickets == that.wickets &&
+            maidens == that.maidens &&
             Objects.equals(bowler, that.bowler) &&
             Objects.equals(balls, that.balls) &&
             Objects.equals(spells, that.spells) &&
@@ -150,7 +171,7 @@ public final class BowlerInnings {
 
     @Override
     public int hashCode() {
-        return Objects.hash(bowler, balls, spells, overs, wickets);
+        return Objects.hash(bowler, balls, spells, overs, wickets, maidens);
     }
 }
 
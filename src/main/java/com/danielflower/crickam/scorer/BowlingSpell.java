@@ -9,6 +9,7 @@ import javax.annotation.concurrent.Immutable;
 import java.util.Objects;
 
 import static com.danielflower.crickam.scorer.BowlerInnings.addOverWithPreviousRemovedIfSame;
+import static com.danielflower.crickam.scorer.BowlerInnings.maidensChange;
 
 /**
  * A bowling spell for a single bowler.
@@ -22,6 +23,7 @@ public final class BowlingSpell {
     private final ImmutableList<Over> overs;
 	private final Balls balls;
     private final int wickets;
+    private final int maidens;
 
     /**
      * @return The bowler
@@ -62,7 +64,7 @@ public final class BowlingSpell {
      * @return The number of maidens bowled in this spell
      */
     public @Nonnegative int maidens() {
-        return (int) overs.stream().filter(over -> over.isMaiden() && over.balls().list().get(0).bowler().samePlayer(bowler)).count();
+        return maidens;
     }
 
     /**
@@ -74,12 +76,13 @@ public final class BowlingSpell {
         return wickets;
     }
 
-	BowlingSpell(Player bowler, @Nonnegative int spellNumber, ImmutableList<Over> overs, Balls balls, @Nonnegative int wickets) {
+	BowlingSpell(Player bowler, @Nonnegative int spellNumber, ImmutableList<Over> overs, Balls balls, @Nonnegative int wickets, @Nonnegative int maidens) {
 		this.bowler = bowler;
         this.spellNumber = spellNumber;
         this.overs = overs;
         this.balls = balls;
         this.wickets = wickets;
+        this.maidens = maidens;
     }
 
     @Override
@@ -89,6 +92,7 @@ public final class BowlingSpell {
         BowlingSpell that = (BowlingSpell) o;
         return spellNumber == that.spellNumber &&
             wickets == that.wickets &&
+            maidens == that.maidens &&
             Objects.equals(bowler, that.bowler) &&
             Objects.equals(overs, that.overs) &&
             Objects.equals(balls, that.balls);
@@ -96,7 +100,7 @@ public final class BowlingSpell {
 
     @Override
     public int hashCode() {
-        return Objects.hash(bowler, spellNumber, overs, balls, wickets);
+        return Objects.hash(bowler, spellNumber, overs, balls, wickets, maidens);
     }
 
     @Override
@@ -111,7 +115,7 @@ public final class BowlingSpell {
         if (ball.dismissal() !=null && ball.dismissal().type().creditedToBowler()) {
             wickets++;
         }
-        return new BowlingSpell(bowler, spellNumber, newOvers, balls.add(ball), wickets);
+        return new BowlingSpell(bowler, spellNumber, newOvers, balls.add(ball), wickets, maidens + maidensChange(overs, over, bowler));
     }
 }
 
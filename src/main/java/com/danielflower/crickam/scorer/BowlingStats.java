@@ -0,0 +1,209 @@
+package com.danielflower.crickam.scorer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The bowling record of a player over a number of innings, such as a career, a series or a season.
+ * <p>Records are calculated by a {@link StatsQuery}, or by adding bowler innings to an {@link Accumulator}.</p>
+ */
+@Immutable
+public final class BowlingStats {
+
+    private final Player player;
+    private final int innings;
+    private final int balls;
+    private final int runs;
+    private final int wickets;
+    private final int maidens;
+    private final int bestWickets;
+    private final int bestRuns;
+
+    private BowlingStats(Player player, int innings, int balls, int runs, int wickets, int maidens, int bestWickets, int bestRuns) {
+        this.player = player;
+        this.innings = innings;
+        this.balls = balls;
+        this.runs = runs;
+        this.wickets = wickets;
+        this.maidens = maidens;
+        this.bestWickets = bestWickets;
+        this.bestRuns = bestRuns;
+    }
+
+    /**
+     * @return The bowler
+     */
+    public @Nonnull Player player() {
+        return player;
+    }
+
+    /**
+     * @return The number of innings the player bowled in
+     */
+    public @Nonnegative int innings() {
+        return innings;
+    }
+
+    /**
+     * @return The number of valid balls bowled
+     */
+    public @Nonnegative int balls() {
+        return balls;
+    }
+
+    /**
+     * @return The runs conceded, which does not include byes and leg byes
+     * @see Score#bowlerRuns()
+     */
+    public @Nonnegative int runs() {
+        return runs;
+    }
+
+    /**
+     * @return The number of wickets taken
+     */
+    public @Nonnegative int wickets() {
+        return wickets;
+    }
+
+    /**
+     * @return The number of maiden overs bowled
+     */
+    public @Nonnegative int maidens() {
+        return maidens;
+    }
+
+    /**
+     * @return The wickets taken in the bowler's best innings, which is the innings with the most wickets and then
+     * the fewest runs conceded
+     */
+    public @Nonnegative int bestWickets() {
+        return bestWickets;
+    }
+
+    /**
+     * @return The runs conceded in the bowler's best innings
+     * @see #bestWickets()
+     */
+    public @Nonnegative int bestRuns() {
+        return bestRuns;
+    }
+
+    /**
+     * @return The best innings figures written as wickets and runs, for example {@code 5/23}
+     */
+    public @Nonnull String bestFigures() {
+        return bestWickets + "/" + bestRuns;
+    }
+
+    /**
+     * @return The runs conceded per wicket, or null if no wickets have been taken
+     */
+    public @Nullable Double average() {
+        return wickets == 0 ? null : (double) runs / wickets;
+    }
+
+    /**
+     * @return The runs conceded per six balls, or null if no balls have been bowled
+     */
+    public @Nullable Double economy() {
+        return balls == 0 ? null : 6.0 * runs / balls;
+    }
+
+    /**
+     * @return The number of balls bowled per wicket, or null if no wickets have been taken
+     */
+    public @Nullable Double strikeRate() {
+        return wickets == 0 ? null : (double) balls / wickets;
+    }
+
+    @Override
+    public String toString() {
+        return "BowlingStats{" +
+            "player=" + player +
+            ", innings=" + innings +
+            ", balls=" + balls +
+            ", runs=" + runs +
+            ", wickets=" + wickets +
+            ", maidens=" + maidens +
+            ", best=" + bestFigures() +
+            '}';
+    }
+
+    /**
+     * @param player The bowler
+     * @return An empty accumulator for the given bowler
+     */
+    public static @Nonnull Accumulator accumulator(Player player) {
+        return new Accumulator(requireNonNull(player, "player"));
+    }
+
+    /**
+     * A mutable total of the innings of one bowler. Accumulators for different sets of innings can be added
+     * together, so that the innings can be totalled in parallel.
+     * <p>This class is not thread safe.</p>
+     */
+    public static final class Accumulator {
+        private final Player player;
+        private int innings;
+        private int balls;
+        private int runs;
+        private int wickets;
+        private int maidens;
+        private int bestWickets = -1;
+        private int bestRuns;
+
+        private Accumulator(Player player) {
+            this.player = player;
+        }
+
+        /**
+         * @param bowlerInnings An innings of the bowler
+         * @return This accumulator
+         */
+        public @Nonnull Accumulator add(BowlerInnings bowlerInnings) {
+            Score score = bowlerInnings.score();
+            innings++;
+            balls += score.validDeliveries();
+            runs += score.bowlerRuns();
+            wickets += bowlerInnings.wickets();
+            maidens += bowlerInnings.maidens();
+            addBest(bowlerInnings.wickets(), score.bowlerRuns());
+            return this;
+        }
+
+        /**
+         * @param other Another accumulator for the same bowler
+         * @return This accumulator
+         */
+        public @Nonnull Accumulator add(Accumulator other) {
+            innings += other.innings;
+            balls += other.balls;
+            runs += other.runs;
+            wickets += other.wickets;
+            maidens += other.maidens;
+            if (other.bestWickets >= 0) {
+                addBest(other.bestWickets, other.bestRuns);
+            }
+            return this;
+        }
+
+        private void addBest(int inningsWickets, int inningsRuns) {
+            if (inningsWickets > bestWickets || (inningsWickets == bestWickets && inningsRuns < bestRuns)) {
+                bestWickets = inningsWickets;
+                bestRuns = inningsRuns;
+            }
+        }
+
+        /**
+         * @return The record of all the innings added so far
+         */
+        public @Nonnull BowlingStats build() {
+            return new BowlingStats(player, innings, balls, runs, wickets, maidens, Math.max(0, bestWickets), bestRuns);
+        }
+    }
+}
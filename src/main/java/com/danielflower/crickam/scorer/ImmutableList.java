@@ -8,68 +8,80 @@ import java.util.*;
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collector;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
+/**
+ * An immutable list.
+ * <p>The values are stored in a persistent vector (a 32-way trie with a tail) so that adding, removing the last
+ * item, creating sub lists and looking up values by index do not copy the list. Any version of a list can be
+ * added to without affecting other lists that share its structure.</p>
+ *
+ * @param <T> The type of item in the list
+ */
 @Immutable
 public final class ImmutableList<T> implements Iterable<T> {
 
     public static final ImmutableList<?> EMPTY = new ImmutableList<>();
-    private final List<T> arrayList;
 
     /**
-     * Index of the first element in this list.
+     * The values of this list. The vector may contain more values than this list, for example when this list
+     * is a sub list of another list.
+     */
+    private final Vector vector;
+
+    /**
+     * Index in the vector of the first element in this list.
      */
     private final int first;
 
     /**
-     * Index of the last element in this list, or a value less than first if its empty.
+     * The number of elements in this list.
      */
-    private final int last;
+    private final int size;
 
-    protected ImmutableList(@Nonnull List<T> arrayList, @Nonnegative int first, int last) {
-        this.arrayList = arrayList;
+    private ImmutableList(@Nonnull Vector vector, @Nonnegative int first, @Nonnegative int size) {
+        this.vector = vector;
         this.first = first;
-        this.last = last;
+        this.size = size;
     }
 
     public ImmutableList() {
-        this(new ArrayList<>(), 0, -1);
+        this(Vector.EMPTY, 0, 0);
     }
 
     public ImmutableList(Collection<T> values) {
-        this(new ArrayList<>(values), 0, values.size() - 1);
+        this(Vector.of(values.toArray()));
+    }
+
+    private ImmutableList(Vector vector) {
+        this(vector, 0, vector.count);
     }
 
     @SafeVarargs
     public static @Nonnull <V> ImmutableList<V> of(V... values) {
-        ArrayList<V> objects = new ArrayList<>(Arrays.asList(values));
-        return new ImmutableList<>(objects, 0, objects.size() - 1);
+        return new ImmutableList<>(Vector.of(values));
     }
 
     public @Nonnegative int size() {
-        return last - first + 1;
+        return size;
     }
 
     public @Nonnull ImmutableList<T> replace(T oldValue, T newValue) {
         if (Objects.equals(oldValue, newValue)) {
             return this;
         }
-        if (!contains(oldValue)) {
-            return this;
-        }
-        if (Objects.equals(this.last(), oldValue) && indexOf(oldValue) == last) {
-            return this.removeLast().add(newValue);
-        }
-        ImmutableList<T> copy = new ImmutableList<>();
+        ImmutableList<T> copy = this;
+        int index = 0;
         for (T existing : this) {
             if (Objects.equals(oldValue, existing)) {
-                copy = copy.add(newValue);
-            } else {
-                copy = copy.add(existing);
+                copy = copy.set(index, newValue);
             }
+            index++;
         }
         return copy;
     }
@@ -93,29 +105,66 @@ public final class ImmutableList<T> implements Iterable<T> {
         return -1;
     }
 
-    public @Nonnull ImmutableList<T> add(T value) {
-        List<T> toUse = this.arrayList;
-        int newFirst = this.first;
-        int newLast = this.last + 1;
-        if (last < toUse.size() - 1) {
-            toUse = new ArrayList<>(arrayList.subList(first, last + 1));
-            newFirst = 0;
-            newLast = last - first + 1;
+    /**
+     * Finds the first value that matches a predicate
+     * @param predicate The test to apply to each value
+     * @return The index of the first value that matches, or -1 if none match
+     */
+    public int indexWhere(Predicate<? super T> predicate) {
+        int index = 0;
+        for (T val : this) {
+            if (predicate.test(val)) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+    /**
+     * Creates a copy of this list with the value at the given index changed. Only the path to the changed value
+     * is copied, so this is O(log n).
+     * @param index The zero-based index of the value to change
+     * @param value The new value
+     * @return A new list, or this list if the value at that index is already the given value
+     * @throws IndexOutOfBoundsException The index is not in this list
+     */
+    public @Nonnull ImmutableList<T> set(int index, T value) {
+        if (get(index) == value) {
+            return this;
         }
-        toUse.add(value);
-        return new ImmutableList<>(toUse, newFirst, newLast);
+        return new ImmutableList<>(vector.set(first + index, value), first, size);
+    }
+
+    /**
+     * Creates a copy of this list with the value at the given index changed by the given function.
+     * @param index The zero-based index of the value to change
+     * @param updater A function that takes the current value and returns the new value
+     * @return A new list, or this list if the updater returned the existing value
+     * @throws IndexOutOfBoundsException The index is not in this list
+     * @see #set(int, Object)
+     */
+    public @Nonnull ImmutableList<T> update(int index, UnaryOperator<T> updater) {
+        return set(index, updater.apply(get(index)));
+    }
+
+    public @Nonnull ImmutableList<T> add(T value) {
+        int end = first + size;
+        // If something has already been added after the end of this list then that slot is overwritten in a
+        // copy of the path to it, so the other list is unaffected.
+        Vector newVector = end == vector.count ? vector.push(value) : vector.set(end, value);
+        return new ImmutableList<>(newVector, first, size + 1);
     }
 
     public boolean isEmpty() {
-        return first > last;
+        return size == 0;
     }
 
     public @Nonnull ImmutableList<T> subList(int firstIndex, int lastIndex) {
         if (firstIndex < 0) throw new IllegalArgumentException("firstIndex must be non-negative but was " + firstIndex);
-        int newFirst = this.first + firstIndex;
-        int newLast = this.first + lastIndex;
-        if (newLast > last) throw new IllegalArgumentException("The lastIndex value " + lastIndex + " is too large. Max value allowed is " + (size() - 1));
-        return new ImmutableList<>(arrayList, newFirst, newLast);
+        if (lastIndex > size - 1) throw new IllegalArgumentException("The lastIndex value " + lastIndex + " is too large. Max value allowed is " + (size - 1));
+        if (lastIndex < firstIndex - 1) throw new IllegalArgumentException("The lastIndex value " + lastIndex + " is less than the firstIndex value " + firstIndex);
+        return new ImmutableList<>(vector, first + firstIndex, lastIndex - firstIndex + 1);
     }
 
     @Override
@@ -123,6 +172,11 @@ public final class ImmutableList<T> implements Iterable<T> {
         return new ImmutableListIterator();
     }
 
+    @Override
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliterator(iterator(), size, Spliterator.ORDERED | Spliterator.IMMUTABLE);
+    }
+
     public @Nonnull Stream<T> stream() {
         return StreamSupport.stream(spliterator(), false);
     }
@@ -131,18 +185,21 @@ public final class ImmutableList<T> implements Iterable<T> {
      * @return the first item in this list, or null if the list is empty
      */
     public @Nullable T first() {
-        return isEmpty() ? null : arrayList.get(first);
+        return isEmpty() ? null : get(0);
     }
 
     /**
      * @return the last item in this list, or null if the list is empty
      */
     public @Nullable T last() {
-        return isEmpty() ? null : arrayList.get(last);
+        return isEmpty() ? null : get(size - 1);
     }
 
     public @Nonnull T get(int index) {
-        return arrayList.get(index);
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (T) vector.get(first + index);
     }
 
     public boolean contains(T item) {
@@ -153,7 +210,7 @@ public final class ImmutableList<T> implements Iterable<T> {
         if (size() == 0) {
             throw new IllegalStateException("The list was empty");
         }
-        return subList(0, last -1);
+        return new ImmutableList<>(vector, first, size - 1);
     }
 
     public @Nonnull Iterator<T> reverseIterator() {
@@ -162,23 +219,29 @@ public final class ImmutableList<T> implements Iterable<T> {
 
     private class ImmutableListIterator implements Iterator<T> {
         private int index = first;
+        private final int end = first + size;
+        private Object[] leaf;
 
         @Override
         public boolean hasNext() {
-            return index <= last;
+            return index < end;
         }
 
         @Override
         public T next() {
             if (hasNext()) {
-                return arrayList.get(index++);
+                if (leaf == null || (index & Vector.MASK) == 0) {
+                    leaf = vector.leafFor(index);
+                }
+                return (T) leaf[index++ & Vector.MASK];
             }
             throw new NoSuchElementException();
         }
     }
 
     private class ReversedIterator implements Iterator<T> {
-        private int index = last;
+        private int index = first + size - 1;
+        private Object[] leaf;
 
         @Override
         public boolean hasNext() {
@@ -188,7 +251,10 @@ public final class ImmutableList<T> implements Iterable<T> {
         @Override
         public T next() {
             if (hasNext()) {
-                return arrayList.get(index--);
+                if (leaf == null || (index & Vector.MASK) == Vector.MASK) {
+                    leaf = vector.leafFor(index);
+                }
+                return (T) leaf[index-- & Vector.MASK];
             }
             throw new NoSuchElementException();
         }
@@ -199,21 +265,34 @@ public final class ImmutableList<T> implements Iterable<T> {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ImmutableList<?> that = (ImmutableList<?>) o;
-        return asList().equals(that.asList());
-    }
-
-    private @Nonnull List<T> asList() {
-        return Collections.unmodifiableList(this.arrayList.subList(first, last + 1));
+        if (size != that.size) return false;
+        if (vector == that.vector && first == that.first) return true;
+        Iterator<?> others = that.iterator();
+        for (T value : this) {
+            if (!Objects.equals(value, others.next())) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(asList());
+        int hash = 1;
+        for (T value : this) {
+            hash = 31 * hash + Objects.hashCode(value);
+        }
+        // the same value as Objects.hash(java.util.List) for a list with the same values
+        return 31 + hash;
     }
 
     @Override
     public String toString() {
-        return asList().toString();
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (T value : this) {
+            joiner.add(String.valueOf(value));
+        }
+        return joiner.toString();
     }
 
     /**
@@ -260,4 +339,125 @@ public final class ImmutableList<T> implements Iterable<T> {
             return Collections.emptySet();
         }
     }
+
+    /**
+     * A persistent vector where values are stored in the leaves of a 32-way trie, except for the last 1 to 32 values
+     * which are stored in a separate tail array so that appending is usually just a copy of the tail.
+     * <p>None of the arrays are changed after construction, so a new vector shares all the arrays of the old one
+     * except for the path from the root to the changed leaf.</p>
+     */
+    @Immutable
+    private static final class Vector {
+        private static final int BITS = 5;
+        private static final int WIDTH = 1 << BITS;
+        private static final int MASK = WIDTH - 1;
+        private static final Vector EMPTY = new Vector(0, BITS, new Object[WIDTH], new Object[0]);
+
+        private final int count;
+        private final int shift;
+        private final Object[] root;
+        private final Object[] tail;
+
+        private Vector(int count, int shift, Object[] root, Object[] tail) {
+            this.count = count;
+            this.shift = shift;
+            this.root = root;
+            this.tail = tail;
+        }
+
+        static Vector of(Object[] values) {
+            Vector vector = EMPTY;
+            for (int start = 0; start < values.length; start += WIDTH) {
+                Object[] chunk = Arrays.copyOfRange(values, start, Math.min(start + WIDTH, values.length));
+                vector = vector.count == 0 ? new Vector(chunk.length, BITS, EMPTY.root, chunk) : vector.pushTail(chunk);
+            }
+            return vector;
+        }
+
+        private int tailOffset() {
+            return count < WIDTH ? 0 : ((count - 1) >>> BITS) << BITS;
+        }
+
+        Object[] leafFor(int index) {
+            if (index >= tailOffset()) {
+                return tail;
+            }
+            Object[] node = root;
+            for (int level = shift; level > 0; level -= BITS) {
+                node = (Object[]) node[(index >>> level) & MASK];
+            }
+            return node;
+        }
+
+        Object get(int index) {
+            return leafFor(index)[index & MASK];
+        }
+
+        Vector push(Object value) {
+            if (count - tailOffset() < WIDTH) {
+                Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+                newTail[tail.length] = value;
+                return new Vector(count + 1, shift, root, newTail);
+            }
+            return pushTail(new Object[]{value});
+        }
+
+        /**
+         * Moves the current tail, which must be full, into the trie and uses the given values as the new tail.
+         */
+        private Vector pushTail(Object[] newTail) {
+            Object[] newRoot;
+            int newShift = shift;
+            if ((count >>> BITS) > (1 << shift)) {
+                newRoot = new Object[WIDTH];
+                newRoot[0] = root;
+                newRoot[1] = newPath(shift, tail);
+                newShift += BITS;
+            } else {
+                newRoot = pushLeaf(shift, root, tail);
+            }
+            return new Vector(count + newTail.length, newShift, newRoot, newTail);
+        }
+
+        private Object[] pushLeaf(int level, Object[] parent, Object[] leaf) {
+            int subIndex = ((count - 1) >>> level) & MASK;
+            Object[] copy = parent.clone();
+            if (level == BITS) {
+                copy[subIndex] = leaf;
+            } else {
+                Object[] child = (Object[]) parent[subIndex];
+                copy[subIndex] = child == null ? newPath(level - BITS, leaf) : pushLeaf(level - BITS, child, leaf);
+            }
+            return copy;
+        }
+
+        private static Object[] newPath(int level, Object[] leaf) {
+            if (level == 0) {
+                return leaf;
+            }
+            Object[] node = new Object[WIDTH];
+            node[0] = newPath(level - BITS, leaf);
+            return node;
+        }
+
+        Vector set(int index, Object value) {
+            if (index >= tailOffset()) {
+                Object[] newTail = tail.clone();
+                newTail[index & MASK] = value;
+                return new Vector(count, shift, root, newTail);
+            }
+            return new Vector(count, shift, set(shift, root, index, value), tail);
+        }
+
+        private static Object[] set(int level, Object[] node, int index, Object value) {
+            Object[] copy = node.clone();
+            if (level == 0) {
+                copy[index & MASK] = value;
+            } else {
+                int subIndex = (index >>> level) & MASK;
+                copy[subIndex] = set(level - BITS, (Object[]) node[subIndex], index, value);
+            }
+            return copy;
+        }
+    }
 }
@@ -0,0 +1,267 @@
+package com.danielflower.crickam.scorer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable hash map.
+ * <p>This is a hash array mapped trie, so putting a value copies only the nodes on the path to that value and
+ * shares everything else with the original map.</p>
+ * <p>Keys are compared with {@link Object#equals(Object)}, or for maps created with {@link #playerMap()}, with
+ * {@link Player#samePlayer(Player)}. Keys are found by their {@link Object#hashCode()}, so in a player map a player
+ * whose hash code differs from an existing key will not be found even if it is the same player. Callers should
+ * fall back to a search when a lookup in a player map fails.</p>
+ *
+ * @param <K> The type of key
+ * @param <V> The type of value
+ */
+@Immutable
+final class ImmutableMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final Node EMPTY_NODE = new Node(0, new Object[0]);
+    private static final ImmutableMap<?, ?> EMPTY = new ImmutableMap<Object, Object>(EMPTY_NODE, 0, Objects::equals);
+    private static final ImmutableMap<?, ?> EMPTY_PLAYER_MAP = new ImmutableMap<Player, Object>(EMPTY_NODE, 0, Player::samePlayer);
+
+    private final Node root;
+    private final int size;
+    private final BiPredicate<K, K> sameKey;
+
+    private ImmutableMap(Node root, @Nonnegative int size, BiPredicate<K, K> sameKey) {
+        this.root = root;
+        this.size = size;
+        this.sameKey = sameKey;
+    }
+
+    /**
+     * @return An empty map where keys are compared with {@link Object#equals(Object)}
+     */
+    static @Nonnull <K, V> ImmutableMap<K, V> empty() {
+        return (ImmutableMap<K, V>) EMPTY;
+    }
+
+    /**
+     * @return An empty map where keys are compared with {@link Player#samePlayer(Player)}
+     */
+    static @Nonnull <V> ImmutableMap<Player, V> playerMap() {
+        return (ImmutableMap<Player, V>) EMPTY_PLAYER_MAP;
+    }
+
+    /**
+     * Creates a map with all the entries of the given map in one go, without creating any intermediate maps.
+     * @param source The entries to copy, which must not have null values
+     * @return A map where keys are compared with {@link Object#equals(Object)}
+     */
+    static @Nonnull <K, V> ImmutableMap<K, V> copyOf(Map<K, V> source) {
+        Entry[] entries = new Entry[source.size()];
+        int i = 0;
+        for (Map.Entry<K, V> entry : source.entrySet()) {
+            entries[i++] = new Entry(entry.getKey(), requireNonNull(entry.getValue(), "value"));
+        }
+        return new ImmutableMap<>(build(entries, 0, entries.length, 0), entries.length, Objects::equals);
+    }
+
+    /**
+     * @return The number of keys in this map
+     */
+    @Nonnegative int size() {
+        return size;
+    }
+
+    /**
+     * @param key The key to find
+     * @return The value for the key, or null if there is no value
+     */
+    @Nullable V get(K key) {
+        int hash = key.hashCode();
+        Node node = root;
+        for (int shift = 0; ; shift += BITS) {
+            int bit = bit(hash, shift);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            Object child = node.children[index(node.bitmap, bit)];
+            if (child instanceof Node) {
+                node = (Node) child;
+            } else if (child instanceof Entry) {
+                Entry entry = (Entry) child;
+                return matches(entry, hash, key) ? (V) entry.value : null;
+            } else {
+                for (Entry entry : (Entry[]) child) {
+                    if (matches(entry, hash, key)) {
+                        return (V) entry.value;
+                    }
+                }
+                return null;
+            }
+        }
+    }
+
+    /**
+     * @param key The key
+     * @param value The value to associate with the key
+     * @return A new map with the value set, replacing any existing value for that key
+     */
+    @Nonnull ImmutableMap<K, V> put(K key, V value) {
+        requireNonNull(value, "value");
+        int newSize = get(key) == null ? size + 1 : size;
+        return new ImmutableMap<>(put(root, 0, new Entry(key, value)), newSize, sameKey);
+    }
+
+    /**
+     * @param action The action to perform on each key and value, in no particular order
+     */
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        forEach(root, action);
+    }
+
+    private static <K, V> void forEach(Node node, BiConsumer<? super K, ? super V> action) {
+        for (Object child : node.children) {
+            if (child instanceof Node) {
+                forEach((Node) child, action);
+            } else if (child instanceof Entry) {
+                Entry entry = (Entry) child;
+                action.accept((K) entry.key, (V) entry.value);
+            } else {
+                for (Entry entry : (Entry[]) child) {
+                    action.accept((K) entry.key, (V) entry.value);
+                }
+            }
+        }
+    }
+
+    private boolean matches(Entry entry, int hash, Object key) {
+        return entry.hash == hash && sameKey.test((K) entry.key, (K) key);
+    }
+
+    private Node put(Node node, int shift, Entry entry) {
+        int bit = bit(entry.hash, shift);
+        int index = index(node.bitmap, bit);
+        if ((node.bitmap & bit) == 0) {
+            Object[] children = new Object[node.children.length + 1];
+            System.arraycopy(node.children, 0, children, 0, index);
+            children[index] = entry;
+            System.arraycopy(node.children, index, children, index + 1, node.children.length - index);
+            return new Node(node.bitmap | bit, children);
+        }
+
+        Object existing = node.children[index];
+        Object replacement;
+        if (existing instanceof Node) {
+            replacement = put((Node) existing, shift + BITS, entry);
+        } else if (existing instanceof Entry) {
+            Entry existingEntry = (Entry) existing;
+            if (matches(existingEntry, entry.hash, entry.key)) {
+                replacement = entry;
+            } else if (existingEntry.hash == entry.hash) {
+                replacement = new Entry[]{existingEntry, entry};
+            } else {
+                replacement = put(put(EMPTY_NODE, shift + BITS, existingEntry), shift + BITS, entry);
+            }
+        } else {
+            Entry[] collisions = (Entry[]) existing;
+            if (collisions[0].hash == entry.hash) {
+                replacement = withCollision(collisions, entry);
+            } else {
+                Node pushedDown = new Node(bit(collisions[0].hash, shift + BITS), new Object[]{collisions});
+                replacement = put(pushedDown, shift + BITS, entry);
+            }
+        }
+        Object[] children = node.children.clone();
+        children[index] = replacement;
+        return new Node(node.bitmap, children);
+    }
+
+    private Entry[] withCollision(Entry[] collisions, Entry entry) {
+        for (int i = 0; i < collisions.length; i++) {
+            if (matches(collisions[i], entry.hash, entry.key)) {
+                Entry[] copy = collisions.clone();
+                copy[i] = entry;
+                return copy;
+            }
+        }
+        Entry[] copy = new Entry[collisions.length + 1];
+        System.arraycopy(collisions, 0, copy, 0, collisions.length);
+        copy[collisions.length] = entry;
+        return copy;
+    }
+
+    private static Node build(Entry[] entries, int from, int to, int shift) {
+        Arrays.sort(entries, from, to, Comparator.comparingInt(entry -> (entry.hash >>> shift) & MASK));
+        int bitmap = 0;
+        Object[] children = new Object[to - from];
+        int childCount = 0;
+        for (int start = from; start < to; ) {
+            int bit = bit(entries[start].hash, shift);
+            int end = start + 1;
+            while (end < to && bit(entries[end].hash, shift) == bit) {
+                end++;
+            }
+            bitmap |= bit;
+            children[childCount++] = buildChild(entries, start, end, shift + BITS);
+            start = end;
+        }
+        return new Node(bitmap, Arrays.copyOf(children, childCount));
+    }
+
+    private static Object buildChild(Entry[] entries, int from, int to, int shift) {
+        if (to - from == 1) {
+            return entries[from];
+        }
+        for (int i = from + 1; i < to; i++) {
+            if (entries[i].hash != entries[from].hash) {
+                return build(entries, from, to, shift);
+            }
+        }
+        return Arrays.copyOfRange(entries, from, to);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static int index(int bitmap, int bit) {
+        return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    @Override
+    public String toString() {
+        return "ImmutableMap{size=" + size + '}';
+    }
+
+    /**
+     * A trie node. Each child is a {@link Node}, an {@link Entry}, or an array of entries that have the same hash.
+     */
+    private static final class Node {
+        private final int bitmap;
+        private final Object[] children;
+
+        private Node(int bitmap, Object[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+    }
+
+    private static final class Entry {
+        private final Object key;
+        private final int hash;
+        private final Object value;
+
+        private Entry(Object key, Object value) {
+            this.key = key;
+            this.hash = key.hashCode();
+            this.value = value;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 import java.time.Instant;
+import java.util.function.Function;
 
 import static com.danielflower.crickam.scorer.Crictils.stateGuard;
 import static com.danielflower.crickam.scorer.ImmutableList.emptyList;
@@ -35,12 +36,15 @@ public final class Innings {
     private final Instant endTime;
     private final Balls balls;
     private final ImmutableList<BowlerInnings> bowlerInningses;
+    private final ImmutableMap<Player, Integer> batterPositions;
+    private final ImmutableMap<Player, Integer> bowlerPositions;
+    private final Matchups matchups;
     private final InningsStartingEvent data;
     private final State state;
     private final Integer maxOvers;
     private final Integer maxBalls;
     private final Integer target;
-    private Innings(InningsStartingEvent data, Score score, ImmutableList<Partnership> partnerships, @Nullable BatterInnings currentStriker, @Nullable BatterInnings currentNonStriker, ImmutableList<BatterInnings> batters, ImmutableList<Player> yetToBat, ImmutableList<Over> completedOvers, @Nullable Over currentOver, @Nullable Instant endTime, Balls balls, ImmutableList<BowlerInnings> bowlerInningses, State state, @Nullable Integer maxOvers, @Nullable Integer maxBalls, @Nullable Integer target) {
+    private Innings(InningsStartingEvent data, Score score, ImmutableList<Partnership> partnerships, @Nullable BatterInnings currentStriker, @Nullable BatterInnings currentNonStriker, ImmutableList<BatterInnings> batters, ImmutableList<Player> yetToBat, ImmutableList<Over> completedOvers, @Nullable Over currentOver, @Nullable Instant endTime, Balls balls, ImmutableList<BowlerInnings> bowlerInningses, ImmutableMap<Player, Integer> batterPositions, ImmutableMap<Player, Integer> bowlerPositions, Matchups matchups, State state, @Nullable Integer maxOvers, @Nullable Integer maxBalls, @Nullable Integer target) {
         this.score = score;
         this.maxOvers = maxOvers;
         this.maxBalls = maxBalls;
@@ -58,16 +62,44 @@ public final class Innings {
         this.endTime = endTime;
         this.balls = requireNonNull(balls);
         this.bowlerInningses = requireNonNull(bowlerInningses, "bowlerInningses");
+        this.batterPositions = requireNonNull(batterPositions, "batterPositions");
+        this.bowlerPositions = requireNonNull(bowlerPositions, "bowlerPositions");
+        this.matchups = requireNonNull(matchups, "matchups");
         this.yetToBat = requireNonNull(yetToBat);
         this.state = requireNonNull(state);
     }
 
     static @Nonnull Innings newInnings(InningsStartingEvent event) {
         return new Innings(event, event.startingScore(), emptyList(), null, null, emptyList(), event.battingTeam().battingOrder(),
-            emptyList(), null, null, new Balls(), emptyList(), State.NOT_STARTED,
+            emptyList(), null, null, new Balls(), emptyList(), ImmutableMap.playerMap(), ImmutableMap.playerMap(), Matchups.empty(), State.NOT_STARTED,
             event.maxOvers(), event.maxBalls(), event.target());
     }
 
+    /**
+     * Creates an innings with its state already known, such as one read from a {@link MatchSnapshot}
+     */
+    static @Nonnull Innings restored(InningsStartingEvent data, Score score, ImmutableList<Partnership> partnerships, @Nullable BatterInnings currentStriker,
+                                     @Nullable BatterInnings currentNonStriker, ImmutableList<BatterInnings> batters, ImmutableList<Player> yetToBat,
+                                     ImmutableList<Over> completedOvers, @Nullable Over currentOver, @Nullable Instant endTime, Balls balls,
+                                     ImmutableList<BowlerInnings> bowlerInningses, State state, @Nullable Integer maxOvers, @Nullable Integer maxBalls, @Nullable Integer target) {
+        ImmutableMap<Player, Integer> batterPositions = ImmutableMap.playerMap();
+        for (int i = 0; i < batters.size(); i++) {
+            if (batterPositions.get(batters.get(i).player()) == null) {
+                batterPositions = batterPositions.put(batters.get(i).player(), i);
+            }
+        }
+        ImmutableMap<Player, Integer> bowlerPositions = ImmutableMap.playerMap();
+        for (int i = 0; i < bowlerInningses.size(); i++) {
+            bowlerPositions = bowlerPositions.put(bowlerInningses.get(i).bowler(), i);
+        }
+        Matchups matchups = Matchups.empty();
+        for (BallCompletedEvent ball : balls) {
+            matchups = matchups.onBall(ball);
+        }
+        return new Innings(data, score, partnerships, currentStriker, currentNonStriker, batters, yetToBat, completedOvers, currentOver,
+            endTime, balls, bowlerInningses, batterPositions, bowlerPositions, matchups, state, maxOvers, maxBalls, target);
+    }
+
     public @Nonnull Innings onEvent(MatchEvent event) {
         if (state == State.COMPLETED) {
             throw new IllegalStateException("No events can be added after innings completion");
@@ -81,6 +113,9 @@ public final class Innings {
         Instant endTime = this.endTime;
         Balls balls = this.balls;
         ImmutableList<BowlerInnings> bowlerInningses = this.bowlerInningses;
+        ImmutableMap<Player, Integer> batterPositions = this.batterPositions;
+        ImmutableMap<Player, Integer> bowlerPositions = this.bowlerPositions;
+        Matchups matchups = this.matchups;
         State newState = this.state;
         BatterInnings striker = this.currentStriker;
         BatterInnings nonStriker = this.currentNonStriker;
@@ -105,17 +140,18 @@ public final class Innings {
 
             balls = balls.add(ball);
             newScore = newScore.add(ball.runsScored());
+            matchups = matchups.onBall(ball);
 
             currentOver = currentOver.onEvent(ball);
 
             Player bowler = ball.bowler();
-            BowlerInnings bowlerInnings = getBowlerInnings(bowler);
-            if (bowlerInnings == null) {
-                bowlerInnings = BowlerInnings.newInnings(currentOver, bowler)
-                    .onBall(currentOver, ball);
-                bowlerInningses = bowlerInningses.add(bowlerInnings);
+            Over over = currentOver;
+            int bowlerIndex = position(bowlerPositions, bowlerInningses, bowler, BowlerInnings::bowler);
+            if (bowlerIndex == -1) {
+                bowlerPositions = bowlerPositions.put(bowler, bowlerInningses.size());
+                bowlerInningses = bowlerInningses.add(BowlerInnings.newInnings(over, bowler).onBall(over, ball));
             } else {
-                bowlerInningses = replaceBowlerInnings(bowlerInningses, bowlerInnings.onBall(currentOver, ball));
+                bowlerInningses = bowlerInningses.update(bowlerIndex, bi -> bi.onBall(over, ball));
             }
 
             if (ball.playersCrossed()) {
@@ -132,6 +168,7 @@ public final class Innings {
             BowlerInnings bi = getBowlerInnings(e.bowler());
             if (bi == null) {
                 bi = BowlerInnings.newInnings(currentOver, currentOver.bowler());
+                bowlerPositions = bowlerPositions.put(bi.bowler(), bowlerInningses.size());
                 bowlerInningses = bowlerInningses.add(bi);
             }
             newState = State.IN_PROGRESS;
@@ -148,8 +185,17 @@ public final class Innings {
             nonStriker = null;
         } else if (event instanceof BatterInningsStartingEvent) {
             BatterInningsStartingEvent e = (BatterInningsStartingEvent) event;
-            yetToBat = yetToBat.stream().filter(p -> !p.samePlayer(e.batter())).collect(toImmutableList());
+            Player next = yetToBat.first();
+            if (next != null && next.samePlayer(e.batter())) {
+                yetToBat = yetToBat.subList(1, yetToBat.size() - 1);
+            } else {
+                yetToBat = yetToBat.stream().filter(p -> !p.samePlayer(e.batter())).collect(toImmutableList());
+            }
             BatterInnings newBatterInnings = BatterInnings.newInnings(e.batter(), batters.size() + 1, e.time());
+            if (batterPositions.get(e.batter()) == null) {
+                // a batter resuming after retiring keeps their first position, as lookups find their first innings
+                batterPositions = batterPositions.put(e.batter(), batters.size());
+            }
             batters = batters.add(newBatterInnings);
             if (striker != null || nonStriker != null) {
                 Partnership newPartnership = Partnership.newPartnership(partnerships.size() + 1, striker == null ? nonStriker.player() : striker.player(), newBatterInnings.player(), e.time());
@@ -164,18 +210,19 @@ public final class Innings {
             }
         }
 
+        // the batters list is in the order batters came in, so a batter's position is numberCameIn - 1
         if (striker != null) {
             striker = striker.onEvent(event);
-            batters = replaceBatterInnings(batters, striker);
+            batters = batters.set(striker.numberCameIn() - 1, striker);
         }
         if (nonStriker != null) {
             nonStriker = nonStriker.onEvent(event);
-            batters = replaceBatterInnings(batters, nonStriker);
+            batters = batters.set(nonStriker.numberCameIn() - 1, nonStriker);
         }
 
         Partnership currentValue = currentPartnership();
         if (currentValue != null) {
-            partnerships = partnerships.replace(currentValue, currentValue.onEvent(event));
+            partnerships = partnerships.set(partnerships.size() - 1, currentValue.onEvent(event));
         }
 
         if (event instanceof BatterInningsCompletedEvent) {
@@ -195,30 +242,8 @@ public final class Innings {
             }
         }
 
-        return new Innings(data, newScore, partnerships, striker, nonStriker, batters, yetToBat, completedOvers, currentOver, endTime, balls, bowlerInningses, newState, maxOvers, maxBalls, target);
-
-    }
-
-    private ImmutableList<BatterInnings> replaceBatterInnings(ImmutableList<BatterInnings> list, BatterInnings newValue) {
-        BatterInnings original = null;
-        for (BatterInnings existing : list) {
-            if (existing.sameInnings(newValue)) {
-                original = existing;
-                break;
-            }
-        }
-        return original == null ? list.add(newValue) : list.replace(original, newValue);
-    }
+        return new Innings(data, newScore, partnerships, striker, nonStriker, batters, yetToBat, completedOvers, currentOver, endTime, balls, bowlerInningses, batterPositions, bowlerPositions, matchups, newState, maxOvers, maxBalls, target);
 
-    private ImmutableList<BowlerInnings> replaceBowlerInnings(ImmutableList<BowlerInnings> list, BowlerInnings newValue) {
-        BowlerInnings original = null;
-        for (BowlerInnings existing : list) {
-            if (existing.bowler().samePlayer(newValue.bowler())) {
-                original = existing;
-                break;
-            }
-        }
-        return original == null ? list.add(newValue) : list.replace(original, newValue);
     }
 
     /**
@@ -343,6 +368,14 @@ public final class Innings {
         return bowlerInningses;
     }
 
+    /**
+     * @return Every batter-versus-bowler pairing in the innings so far, for example to find the runs a batter has
+     * scored off a bowler
+     */
+    public @Nonnull Matchups matchups() {
+        return matchups;
+    }
+
     /**
      * @return The score in the innings so far. Access {@link Score#teamRuns()} for the total number of runs in this innings.
      */
@@ -387,22 +420,30 @@ public final class Innings {
 
     private @Nonnull BatterInnings findBatterInnings(Player target) {
         requireNonNull(target, "target");
-        for (BatterInnings batter : batters) {
-            if (target.samePlayer(batter.player())) {
-                return batter;
-            }
+        int index = position(batterPositions, batters, target, BatterInnings::player);
+        if (index == -1) {
+            throw new IllegalStateException(target + " does not have a batter innings");
         }
-        throw new IllegalStateException(target + " does not have a batter innings");
+        return batters.get(index);
     }
 
     private @Nullable BowlerInnings getBowlerInnings(Player target) {
         requireNonNull(target, "target");
-        for (BowlerInnings bowlerInnings : bowlerInningses) {
-            if (bowlerInnings.bowler().samePlayer(target)) {
-                return bowlerInnings;
-            }
+        int index = position(bowlerPositions, bowlerInningses, target, BowlerInnings::bowler);
+        return index == -1 ? null : bowlerInningses.get(index);
+    }
+
+    /**
+     * Finds the index of a player's innings in a list, using the map of player positions if possible.
+     * <p>If the player is not in the map, the list is searched in case the player's {@code hashCode} is not
+     * consistent with {@link Player#samePlayer(Player)}.</p>
+     */
+    private static <T> int position(ImmutableMap<Player, Integer> positions, ImmutableList<T> list, Player player, Function<T, Player> playerOf) {
+        Integer position = positions.get(player);
+        if (position != null) {
+            return position;
         }
-        return null;
+        return list.indexWhere(t -> playerOf.apply(t).samePlayer(player));
     }
 
     /**
@@ -453,6 +494,13 @@ public final class Innings {
         return data.inningsNumberForBattingTeam();
     }
 
+    /**
+     * @return The event that started this innings
+     */
+    @Nonnull InningsStartingEvent startingEvent() {
+        return data;
+    }
+
     /**
      * @return The time the innings started
      */
@@ -529,12 +577,11 @@ public final class Innings {
      * @throws IllegalArgumentException The given player has not started batting
      */
     public @Nonnull BatterInnings batterInnings(Player player) throws IllegalArgumentException {
-        for (BatterInnings batter : batters) {
-            if (batter.player().samePlayer(player)) {
-                return batter;
-            }
+        int index = position(batterPositions, batters, player, BatterInnings::player);
+        if (index == -1) {
+            throw new IllegalArgumentException("That player has not batted");
         }
-        throw new IllegalArgumentException("That player has not batted");
+        return batters.get(index);
     }
 
     @Override
@@ -32,15 +32,23 @@ public final class Match {
 
     private final ImmutableList<Innings> completedInningsList;
     private final Innings currentInnings;
+    private final ImmutableList<Innings> inningsList;
+    private final ImmutableMap<LineUp<?>, Score> completedScoresByTeam;
+    private final ImmutableMap<LineUp<?>, Integer> completedInningsCountByTeam;
     private final Balls balls;
+    private final MatchSituation situation;
 
-    private Match(FixedData data, State state, @Nullable MatchResult result, ImmutableList<Innings> completedInningsList, @Nullable Innings currentInnings, Balls balls) {
+    private Match(FixedData data, State state, @Nullable MatchResult result, ImmutableList<Innings> completedInningsList, @Nullable Innings currentInnings, ImmutableList<Innings> inningsList, ImmutableMap<LineUp<?>, Score> completedScoresByTeam, ImmutableMap<LineUp<?>, Integer> completedInningsCountByTeam, Balls balls) {
         this.data = requireNonNull(data);
         this.state = requireNonNull(state);
         this.result = result;
         this.completedInningsList = requireNonNull(completedInningsList);
         this.currentInnings = currentInnings;
+        this.inningsList = requireNonNull(inningsList);
+        this.completedScoresByTeam = requireNonNull(completedScoresByTeam);
+        this.completedInningsCountByTeam = requireNonNull(completedInningsCountByTeam);
         this.balls = requireNonNull(balls);
+        this.situation = MatchSituation.of(this);
     }
 
     static @Nonnull
@@ -48,7 +56,26 @@ public final class Match {
         FixedData fd = new FixedData(e.customData(), e.matchID(), e.time(), e.scheduledStartTime(),
             e.teamLineUps(), e.inningsPerTeam(), e.oversPerInnings(),
             e.numberOfScheduledDays(), e.ballsPerInnings(), e.timeZone());
-        return new Match(fd, State.NOT_STARTED, null, emptyList(), null, new Balls());
+        return new Match(fd, State.NOT_STARTED, null, emptyList(), null, emptyList(), ImmutableMap.empty(), ImmutableMap.empty(), new Balls());
+    }
+
+    /**
+     * Creates a match with its state already known, such as one read from a {@link MatchSnapshot}
+     */
+    static @Nonnull Match restored(MatchStartingEvent e, State state, @Nullable MatchResult result, ImmutableList<Innings> completedInningsList,
+                                   @Nullable Innings currentInnings, Balls balls) {
+        ImmutableMap<LineUp<?>, Score> completedScoresByTeam = ImmutableMap.empty();
+        ImmutableMap<LineUp<?>, Integer> completedInningsCountByTeam = ImmutableMap.empty();
+        for (Innings innings : completedInningsList) {
+            LineUp<?> team = innings.battingTeam();
+            Score score = completedScoresByTeam.get(team);
+            Integer count = completedInningsCountByTeam.get(team);
+            completedScoresByTeam = completedScoresByTeam.put(team, score == null ? innings.score() : score.add(innings.score()));
+            completedInningsCountByTeam = completedInningsCountByTeam.put(team, count == null ? 1 : count + 1);
+        }
+        ImmutableList<Innings> inningsList = currentInnings == null ? completedInningsList : completedInningsList.add(currentInnings);
+        return new Match(newMatch(e).data, state, result, completedInningsList, currentInnings, inningsList,
+            completedScoresByTeam, completedInningsCountByTeam, balls);
     }
 
     /**
@@ -90,7 +117,7 @@ public final class Match {
      */
     public @Nonnull
     ImmutableList<Innings> inningsList() {
-        return currentInnings == null ? completedInningsList : completedInningsList.add(currentInnings);
+        return inningsList;
     }
 
     /**
@@ -182,7 +209,15 @@ public final class Match {
      */
     public @Nonnull
     MatchResult calculateResult() {
-        return MatchResult.fromMatch(this);
+        return situation.provisionalResult();
+    }
+
+    /**
+     * @return The runs required, balls remaining, lead and provisional result as at this point in the match
+     */
+    public @Nonnull
+    MatchSituation situation() {
+        return situation;
     }
 
     /**
@@ -206,10 +241,14 @@ public final class Match {
         Balls newBalls = this.balls;
         Innings newCurrentInnings = this.currentInnings;
 
-        ImmutableList<Innings> newInningsList = completedInningsList;
+        ImmutableList<Innings> newCompletedInningsList = completedInningsList;
+        ImmutableList<Innings> newInningsList = inningsList;
+        ImmutableMap<LineUp<?>, Score> newCompletedScoresByTeam = completedScoresByTeam;
+        ImmutableMap<LineUp<?>, Integer> newCompletedInningsCountByTeam = completedInningsCountByTeam;
         if (event instanceof InningsStartingEvent) {
             newState = State.IN_PROGRESS;
             newCurrentInnings = Innings.newInnings((InningsStartingEvent) event);
+            newInningsList = newCompletedInningsList.add(newCurrentInnings);
         } else if (event instanceof MatchCompletedEvent) {
             // don't pass to the innings
             newState = State.COMPLETED;
@@ -220,14 +259,19 @@ public final class Match {
                     newBalls = newBalls.add((BallCompletedEvent) event);
                 }
                 newCurrentInnings = newCurrentInnings.onEvent(event);
+                newInningsList = newCompletedInningsList.add(newCurrentInnings);
 
                 if (event instanceof InningsCompletedEvent) {
-                    newInningsList = newInningsList.add(newCurrentInnings);
+                    newCompletedInningsList = newInningsList;
+                    newCompletedScoresByTeam = newCompletedScoresByTeam.put(newCurrentInnings.battingTeam(),
+                        completedScoreOf(newCurrentInnings.battingTeam()).add(newCurrentInnings.score()));
+                    newCompletedInningsCountByTeam = newCompletedInningsCountByTeam.put(newCurrentInnings.battingTeam(),
+                        completedInningsCount(newCurrentInnings.battingTeam()) + 1);
                     newCurrentInnings = null;
                 }
             }
         }
-        return new Match(data, newState, newResult, newInningsList, newCurrentInnings, newBalls);
+        return new Match(data, newState, newResult, newCompletedInningsList, newCurrentInnings, newInningsList, newCompletedScoresByTeam, newCompletedInningsCountByTeam, newBalls);
     }
 
     /**
@@ -237,17 +281,19 @@ public final class Match {
      * @return The score for all innings the team has played in this match
      */
     public Score scoredByTeam(LineUp<?> team) {
-        Score total = Score.EMPTY;
-        ImmutableList<Innings> list = this.completedInningsList;
-        if (currentInnings != null) {
-            list = list.add(currentInnings);
-        }
-        for (Innings innings : list) {
-            if (innings.battingTeam().equals(team)) {
-                total = total.add(innings.score());
-            }
-        }
-        return total;
+        Score completed = completedScoreOf(team);
+        return currentInnings != null && currentInnings.battingTeam().equals(team) ? completed.add(currentInnings.score()) : completed;
+    }
+
+    private Score completedScoreOf(LineUp<?> team) {
+        Score score = completedScoresByTeam.get(team);
+        return score == null ? Score.EMPTY : score;
+    }
+
+    @Nonnegative
+    int completedInningsCount(LineUp<?> team) {
+        Integer count = completedInningsCountByTeam.get(team);
+        return count == null ? 0 : count;
     }
 
     /**
@@ -1,16 +1,24 @@
 package com.danielflower.crickam.scorer;
 
+import com.danielflower.crickam.scorer.events.BallCompletedEvent;
+import com.danielflower.crickam.scorer.events.BatterInningsCompletedEvent;
+import com.danielflower.crickam.scorer.events.InningsCompletedEvent;
+import com.danielflower.crickam.scorer.events.InningsStartingEvent;
+import com.danielflower.crickam.scorer.events.MatchCompletedEvent;
 import com.danielflower.crickam.scorer.events.MatchEvent;
 import com.danielflower.crickam.scorer.events.MatchEventBuilder;
 import com.danielflower.crickam.scorer.events.MatchEvents;
 import com.danielflower.crickam.scorer.events.MatchStartingEvent;
+import com.danielflower.crickam.scorer.events.OverCompletedEvent;
+import com.danielflower.crickam.scorer.events.OverStartingEvent;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.time.*;
-import java.util.Iterator;
-import java.util.TimeZone;
+import java.util.*;
 import java.util.function.Predicate;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static com.danielflower.crickam.scorer.Crictils.requireInRange;
@@ -32,17 +40,82 @@ import static java.util.Objects.requireNonNull;
  * point of time using {@link #asAt(MatchEvent)}, and then add new events using {@link #onEvent(MatchEvent)}
  * to add the dismissal, and then access the new state at {@link #match()}. This would all happen on a copy of the
  * match control, so the original match data would not be changed.</p>
+ * <p>By default every historical state is kept in memory. For long matches where old states are rarely needed, a
+ * control created with {@link #newMatch(MatchStartingEvent, int)} keeps only some states and rebuilds the others
+ * when they are asked for.</p>
  */
 public final class MatchControl {
 
+    private static final int REBUILT_STATES_TO_CACHE = 32;
+
+    /**
+     * The previous controls. When history is sparse, only the checkpointed controls are kept.
+     */
     private final ImmutableList<MatchControl> ancestors;
     private final MatchEvent event;
     private final Match match;
 
-    private MatchControl(ImmutableList<MatchControl> ancestors, MatchEvent event, Match match) {
+    /**
+     * The index of this control in {@link #history()}
+     */
+    private final int position;
+
+    /**
+     * When history is sparse, the events of all the ancestors of this control; otherwise null.
+     */
+    @Nullable
+    private final ImmutableList<MatchEvent> ancestorEvents;
+
+    /**
+     * When history is sparse, the settings shared by all the controls of the match; otherwise null.
+     */
+    @Nullable
+    private final SparseHistory sparseHistory;
+
+    /**
+     * The index in {@link #history()} of each event ID. This may be shared with other controls, so it can have
+     * entries for events that are not in the history of this control.
+     */
+    private final ImmutableMap<UUID, Integer> eventPositions;
+
+    /**
+     * The indexes in {@link #history()} of the events of each event type (including supertypes of the events). This
+     * may be shared with descendants of this control, so the lists can have indexes after this control's position.
+     */
+    private final ImmutableMap<Class<?>, ImmutableList<Integer>> typePositions;
+
+    /**
+     * The indexes in {@link #history()} of the events that have a time that is not before the time of the previous
+     * indexed event, so the times are in order. Like the type positions, this may have indexes after this control.
+     */
+    private final ImmutableList<Integer> timedPositions;
+
+    /**
+     * The index in {@link #history()} of the latest event that is an {@link MatchEvent#undoPoint()}, or -1 if none are
+     */
+    private final int undoPoint;
+
+    /**
+     * The control that {@link #redo()} returns if this control was returned by {@link #undo()}; otherwise null.
+     */
+    @Nullable
+    private final MatchControl redo;
+
+    private MatchControl(ImmutableList<MatchControl> ancestors, MatchEvent event, Match match, int position,
+                         @Nullable ImmutableList<MatchEvent> ancestorEvents, @Nullable SparseHistory sparseHistory,
+                         ImmutableMap<UUID, Integer> eventPositions, ImmutableMap<Class<?>, ImmutableList<Integer>> typePositions,
+                         ImmutableList<Integer> timedPositions, int undoPoint, @Nullable MatchControl redo) {
         this.ancestors = ancestors;
         this.event = event;
         this.match = match;
+        this.position = position;
+        this.ancestorEvents = ancestorEvents;
+        this.sparseHistory = sparseHistory;
+        this.eventPositions = eventPositions;
+        this.typePositions = typePositions;
+        this.timedPositions = timedPositions;
+        this.undoPoint = undoPoint;
+        this.redo = redo;
     }
 
     /**
@@ -53,8 +126,143 @@ public final class MatchControl {
      */
     public static @Nonnull MatchControl newMatch(MatchStartingEvent event) {
         requireNonNull(event, "event");
+        return newMatch(event, null);
+    }
+
+    /**
+     * Creates a new match control object that only keeps some of its historical states in memory.
+     * <p>The state after every {@code checkpointInterval}th event is kept, along with the states at the start and
+     * end of each innings and at the end of each over. Other historical states are rebuilt by re-applying events
+     * to the nearest kept state when they are requested by methods such as {@link #history()},
+     * {@link #asAt(MatchEvent)}, {@link #parent()} and {@link #undo()}. A small number of recently rebuilt states
+     * are cached.</p>
+     * <p>This uses much less memory for long matches, at the cost of those methods being slower and returning
+     * equivalent, rather than identical, instances of historical controls.</p>
+     * @param event A new-match event
+     * @param checkpointInterval The number of events between kept states, where 1 keeps every state
+     * @return A match control object you can use to build up match state
+     * @see #newMatch(MatchStartingEvent)
+     */
+    public static @Nonnull MatchControl newMatch(MatchStartingEvent event, int checkpointInterval) {
+        requireNonNull(event, "event");
+        requireInRange("checkpointInterval", checkpointInterval, 1);
+        return newMatch(event, checkpointInterval == 1 ? null : new SparseHistory(checkpointInterval));
+    }
+
+    /**
+     * Creates a match control by applying all the given events to a new match.
+     * <p>This gives the same result as calling {@link #newMatch(MatchStartingEvent)} followed by
+     * {@link #onEvent(MatchEvent)} for each event. The match state after each event is still created, as every
+     * state is kept in the history, but the indexes of event IDs, types and times are built once with mutable
+     * collections rather than copied a version at a time, and the historical controls are created after all the
+     * events have been applied. For a five day test match this allocates about a quarter less memory than calling
+     * {@link #onEvent(MatchEvent)} for each event.</p>
+     * @param startingEvent A new-match event
+     * @param events The events to apply after the match starts, in order
+     * @return A match control with all the events applied
+     */
+    public static @Nonnull MatchControl replay(MatchStartingEvent startingEvent, Iterable<? extends MatchEvent> events) {
+        requireNonNull(events, "events");
+        return replay(startingEvent, events.iterator());
+    }
+
+    /**
+     * Creates a match control by applying all the given events to a new match.
+     * @param startingEvent A new-match event
+     * @param events The events to apply after the match starts, in order
+     * @return A match control with all the events applied
+     * @see #replay(MatchStartingEvent, Iterable)
+     */
+    public static @Nonnull MatchControl replay(MatchStartingEvent startingEvent, Stream<? extends MatchEvent> events) {
+        requireNonNull(events, "events");
+        return replay(startingEvent, events.iterator());
+    }
+
+    private static MatchControl replay(MatchStartingEvent startingEvent, Iterator<? extends MatchEvent> events) {
+        requireNonNull(startingEvent, "startingEvent");
+        List<MatchEvent> allEvents = new ArrayList<>();
+        List<Match> matches = new ArrayList<>();
+        EventIndex index = new EventIndex();
+
+        MatchEvent event = startingEvent;
+        Match match = Match.newMatch(startingEvent);
+        while (true) {
+            int position = allEvents.size();
+            allEvents.add(event);
+            matches.add(match);
+            index.add(event, position);
+            if (!events.hasNext()) {
+                break;
+            }
+            event = requireNonNull(events.next(), "event");
+            match = match.onEvent(event);
+        }
+
+        ImmutableMap<UUID, Integer> sharedEventPositions = index.eventPositions();
+        ImmutableMap<Class<?>, ImmutableList<Integer>> sharedTypePositions = index.typePositions();
+        ImmutableList<Integer> sharedTimedPositions = index.timedPositions();
+
+        ImmutableList<MatchControl> ancestors = ImmutableList.emptyList();
+        MatchControl control = null;
+        int undoPoint = -1;
+        for (int i = 0; i < allEvents.size(); i++) {
+            if (control != null) {
+                ancestors = ancestors.add(control);
+            }
+            if (allEvents.get(i).undoPoint()) {
+                undoPoint = i;
+            }
+            control = new MatchControl(ancestors, allEvents.get(i), matches.get(i), i, null, null,
+                sharedEventPositions, sharedTypePositions, sharedTimedPositions, undoPoint, null);
+        }
+        return control;
+    }
+
+    /**
+     * Creates a match control from the state of a match that is already known, such as one read from a
+     * {@link MatchSnapshot}, and then applies the events after it.
+     * <p>The control keeps a sparse history, where the known state is kept and the states before it are rebuilt
+     * from the start of the match when they are asked for, so the known state must be at an event that is always
+     * kept in a sparse history, such as an {@link OverCompletedEvent}.</p>
+     * @param events All the events of the match, starting with its {@link MatchStartingEvent}
+     * @param position The index in the events of the last event applied to the given match
+     * @param match The state of the match after the event at the given position
+     * @param checkpointInterval The number of events between kept states
+     * @return A match control with all the events applied
+     */
+    static @Nonnull MatchControl restore(List<? extends MatchEvent> events, @Nonnegative int position, Match match, int checkpointInterval) {
+        requireInRange("checkpointInterval", checkpointInterval, 2);
+        SparseHistory sparseHistory = new SparseHistory(checkpointInterval);
+        MatchControl control = newMatch((MatchStartingEvent) events.get(0), sparseHistory);
+        if (position > 0) {
+            EventIndex index = new EventIndex();
+            int undoPoint = -1;
+            for (int i = 0; i <= position; i++) {
+                MatchEvent event = events.get(i);
+                index.add(event, i);
+                if (event.undoPoint()) {
+                    undoPoint = i;
+                }
+            }
+            control = new MatchControl(ImmutableList.of(control), events.get(position), match, position,
+                new ImmutableList<>(new ArrayList<>(events.subList(0, position))), sparseHistory,
+                index.eventPositions(), index.typePositions(), index.timedPositions(), undoPoint, null);
+            if (!control.isCheckpoint()) {
+                throw new IllegalArgumentException("The state at " + control.event() + " is not kept in a sparse history");
+            }
+        }
+        for (int i = position + 1; i < events.size(); i++) {
+            control = control.onEvent(events.get(i));
+        }
+        return control;
+    }
+
+    private static MatchControl newMatch(MatchStartingEvent event, @Nullable SparseHistory sparseHistory) {
         Match match = Match.newMatch(event);
-        return new MatchControl(ImmutableList.emptyList(), event, match);
+        return new MatchControl(ImmutableList.emptyList(), event, match, 0,
+            sparseHistory == null ? null : ImmutableList.emptyList(), sparseHistory,
+            ImmutableMap.<UUID, Integer>empty().put(event.id(), 0), addTypePositions(ImmutableMap.empty(), event, 0),
+            event.time() == null ? ImmutableList.emptyList() : ImmutableList.of(0), event.undoPoint() ? 0 : -1, null);
     }
 
     /**
@@ -82,8 +290,41 @@ public final class MatchControl {
     public @Nonnull MatchControl onEvent(MatchEvent event) {
         requireNonNull(event, "event");
         Match newMatch = match().onEvent(event);
-        ImmutableList<MatchControl> newHistory = this.ancestors.add(this);
-        return new MatchControl(newHistory, event, newMatch);
+        int newPosition = position + 1;
+        // a new event discards anything that could have been redone
+        MatchControl parent = redo == null ? this : withRedo(null);
+        ImmutableList<MatchControl> newAncestors = isCheckpoint() ? ancestors.add(parent) : ancestors;
+        ImmutableList<MatchEvent> newAncestorEvents = ancestorEvents == null ? null : ancestorEvents.add(this.event);
+        ImmutableMap<UUID, Integer> newPositions = indexOf(event.id()) == -1
+            ? eventPositions.put(event.id(), newPosition)
+            : eventPositions;
+        ImmutableList<Integer> newTimedPositions = isInTimeOrder(event, lastKnownTime())
+            ? positionsBefore(timedPositions, newPosition).add(newPosition)
+            : positionsBefore(timedPositions, newPosition);
+        return new MatchControl(newAncestors, event, newMatch, newPosition, newAncestorEvents, sparseHistory,
+            newPositions, addTypePositions(ownTypePositions(), event, newPosition), newTimedPositions,
+            event.undoPoint() ? newPosition : undoPoint, null);
+    }
+
+    private MatchControl withRedo(@Nullable MatchControl redo) {
+        return new MatchControl(ancestors, event, match, position, ancestorEvents, sparseHistory, eventPositions,
+            typePositions, timedPositions, undoPoint, redo);
+    }
+
+    private static boolean isInTimeOrder(MatchEvent event, @Nullable Instant lastKnownTime) {
+        Instant time = event.time();
+        return time != null && (lastKnownTime == null || !time.isBefore(lastKnownTime));
+    }
+
+    /**
+     * @return true if this control is kept in the history of the controls that come after it
+     */
+    private boolean isCheckpoint() {
+        return sparseHistory == null
+            || position % sparseHistory.checkpointInterval == 0
+            || event instanceof OverCompletedEvent
+            || event instanceof InningsStartingEvent
+            || event instanceof InningsCompletedEvent;
     }
 
     /**
@@ -105,7 +346,7 @@ public final class MatchControl {
      * @see #parent()
      */
     public boolean hasParent() {
-        return !ancestors.isEmpty();
+        return position > 0;
     }
 
     /**
@@ -116,9 +357,8 @@ public final class MatchControl {
      * @throws IllegalStateException if this has no parent
      */
     public @Nonnull MatchControl parent() {
-        MatchControl last = ancestors.last();
-        if (last == null) throw new IllegalStateException("Cannot get the parent of the first event");
-        return last;
+        if (position == 0) throw new IllegalStateException("Cannot get the parent of the first event");
+        return controlAt(position - 1);
     }
 
     /**
@@ -138,14 +378,32 @@ public final class MatchControl {
      * @return All the events and corresponding states in the order they occurred
      */
     public @Nonnull ImmutableList<MatchControl> history() {
-        return ancestors.add(this);
+        if (ancestorEvents == null) {
+            return ancestors.add(this);
+        }
+        ImmutableList<MatchControl> history = ImmutableList.emptyList();
+        Iterator<MatchControl> checkpoints = ancestors.iterator();
+        MatchControl nextCheckpoint = checkpoints.hasNext() ? checkpoints.next() : null;
+        MatchControl previous = null;
+        for (int i = 0; i < position; i++) {
+            MatchControl control;
+            if (nextCheckpoint != null && nextCheckpoint.position == i) {
+                control = nextCheckpoint;
+                nextCheckpoint = checkpoints.hasNext() ? checkpoints.next() : null;
+            } else {
+                control = previous.onEvent(ancestorEvents.get(i));
+            }
+            history = history.add(control);
+            previous = control;
+        }
+        return history.add(this);
     }
 
     /**
      * @return The number of events that have taken place
      */
     public @Nonnegative int eventCount() {
-        return ancestors.size() + 1;
+        return position + 1;
     }
 
     /**
@@ -164,18 +422,104 @@ public final class MatchControl {
         TimeZone tz = match().timeZone();
         if (tz == null) throw new UnsupportedOperationException("No time zone was set on the match (or on the venue) so local times cannot be calculated");
         ZoneId zoneId = tz.toZoneId();
-        ImmutableList<MatchControl> history = history();
-        for (int i = history.size() - 1; i >= 0; i--) {
-            MatchControl er = history.get(i);
-            Instant lastKnownTime = er.event().time();
-            if (lastKnownTime != null) {
-                LocalDate date = ofInstant(lastKnownTime, zoneId);
-                LocalTime time = LocalTime.of(hour, minute, second);
-                LocalDateTime dateTime = LocalDateTime.of(date, time);
-                return dateTime.atZone(zoneId).toInstant();
+        Instant lastKnownTime = timeOfLastTimedEvent();
+        if (lastKnownTime == null) {
+            throw new UnsupportedOperationException("No events have a time recorded against them, so this method cannot know which date to use");
+        }
+        LocalDate date = ofInstant(lastKnownTime, zoneId);
+        LocalTime time = LocalTime.of(hour, minute, second);
+        LocalDateTime dateTime = LocalDateTime.of(date, time);
+        return dateTime.atZone(zoneId).toInstant();
+    }
+
+    /**
+     * @return The latest {@link MatchEvent#time()} of the events that have taken place, or null if no events have a time
+     */
+    public @Nullable Instant lastKnownTime() {
+        Integer last = ownTimedPositions().last();
+        return last == null ? null : eventAt(last).time();
+    }
+
+    /**
+     * Finds the time of the most recent event that has one, which can be earlier than {@link #lastKnownTime()} if an
+     * event was recorded with a time before an earlier event.
+     */
+    private @Nullable Instant timeOfLastTimedEvent() {
+        Integer latest = ownTimedPositions().last();
+        // events after the latest one in the time index either have no time, or are out of time order
+        for (int i = position; i > (latest == null ? -1 : latest); i--) {
+            Instant time = eventAt(i).time();
+            if (time != null) {
+                return time;
             }
         }
-        throw new UnsupportedOperationException("No events have a time recorded against them, so this method cannot know which date to use");
+        return latest == null ? null : eventAt(latest).time();
+    }
+
+    /**
+     * Gets the match control state as at the given time.
+     * <p>Events without a time (or with a time before an earlier event) are treated as happening at the same time
+     * as the previous event that has a time, so the returned state includes such events that follow the last event
+     * before the given time. If no events have a time, this control is returned.</p>
+     * @param time The time to find the state at
+     * @return The {@code MatchControl} as at the given time
+     * @throws IllegalArgumentException The given time is before the first event with a time, even if there are
+     * events without a time before that event
+     */
+    public @Nonnull MatchControl asAt(Instant time) {
+        requireNonNull(time, "time");
+        ImmutableList<Integer> timed = ownTimedPositions();
+        int next = firstTimedIndex(timed, t -> t.isAfter(time));
+        if (next == 0 && !timed.isEmpty()) {
+            throw new IllegalArgumentException("The match had not started at " + time);
+        }
+        int index = (next == timed.size() ? position + 1 : timed.get(next)) - 1;
+        return controlAt(index);
+    }
+
+    /**
+     * Gets the events that happened at or after one time and before another.
+     * <p>As with {@link #asAt(Instant)}, events without a time are treated as happening at the time of the previous
+     * event that has a time.</p>
+     * @param from The earliest time of events to return
+     * @param to The time to return events before
+     * @return The events in the order they occurred
+     * @throws IllegalArgumentException {@code from} is after {@code to}
+     */
+    public @Nonnull Stream<MatchEvent> eventsBetween(Instant from, Instant to) {
+        requireNonNull(from, "from");
+        requireNonNull(to, "to");
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("The from time " + from + " is after the to time " + to);
+        }
+        ImmutableList<Integer> timed = ownTimedPositions();
+        int first = firstTimedIndex(timed, t -> !t.isBefore(from));
+        int end = firstTimedIndex(timed, t -> !t.isBefore(to));
+        int firstPosition = first == timed.size() ? position + 1 : timed.get(first);
+        int endPosition = end == timed.size() ? position + 1 : timed.get(end);
+        return IntStream.range(firstPosition, endPosition).mapToObj(this::eventAt);
+    }
+
+    private ImmutableList<Integer> ownTimedPositions() {
+        return positionsBefore(timedPositions, position + 1);
+    }
+
+    /**
+     * @return The first index in the given timed positions where the time of the event matches the condition, or the
+     * size of the list if none match. The condition must be false for earlier times and true for later times.
+     */
+    private int firstTimedIndex(ImmutableList<Integer> timed, Predicate<Instant> condition) {
+        int low = 0;
+        int high = timed.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (condition.test(eventAt(timed.get(mid)).time())) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
     }
 
     private static LocalDate ofInstant(Instant instant, ZoneId zone) {
@@ -196,35 +540,229 @@ public final class MatchControl {
      *         .map(e -&gt; control.asAt(e))
      *         .orElseThrow();
      * </code></pre>
+     * <p>Events are matched on their {@link MatchEvent#id()}.</p>
      * @param event The event to look up
      * @return The {@code MatchControl} as at the time that the event was added
+     * @throws IllegalArgumentException The event was not applied to this match
      */
     public @Nonnull MatchControl asAt(MatchEvent event) {
         requireNonNull(event, "event");
-        for (MatchControl matchControl : this.history()) {
-            if (matchControl.event().equals(event)) {
-                return matchControl;
+        return asAt(event.id());
+    }
+
+    /**
+     * Gets the match control state as at the time of the event with the given ID.
+     * @param eventID The ID of the event to look up
+     * @return The {@code MatchControl} as at the time that the event was added
+     * @throws IllegalArgumentException No event with the given ID was applied to this match
+     * @see #asAt(MatchEvent)
+     */
+    public @Nonnull MatchControl asAt(UUID eventID) {
+        return controlAt(requireIndexOf(eventID));
+    }
+
+    private int requireIndexOf(UUID eventID) {
+        int index = indexOf(eventID);
+        if (index == -1) {
+            throw new IllegalArgumentException("No matching event found on this match");
+        }
+        return index;
+    }
+
+    private MatchEvent eventAt(int index) {
+        if (index == position) {
+            return event;
+        }
+        return ancestorEvents == null ? ancestors.get(index).event() : ancestorEvents.get(index);
+    }
+
+    private MatchControl controlAt(int index) {
+        if (index == position) {
+            return this;
+        }
+        if (ancestorEvents == null) {
+            return ancestors.get(index);
+        }
+        MatchControl checkpoint = ancestors.get(checkpointBefore(index));
+        if (checkpoint.position == index) {
+            return checkpoint;
+        }
+        MatchControl cached = sparseHistory.rebuilt(ancestorEvents.get(index).id());
+        if (cached != null && isRebuiltFrom(cached, checkpoint, index)) {
+            return cached;
+        }
+        MatchControl control = checkpoint;
+        for (int i = checkpoint.position + 1; i <= index; i++) {
+            control = control.onEvent(ancestorEvents.get(i));
+            sparseHistory.cache(control);
+        }
+        return control;
+    }
+
+    /**
+     * @return The index in {@link #ancestors} of the last checkpoint at or before the given history index
+     */
+    private int checkpointBefore(int index) {
+        int low = 0;
+        int high = ancestors.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (ancestors.get(mid).position <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
             }
         }
-        throw new IllegalArgumentException("No matching event found on this match");
+        return low;
+    }
+
+    /**
+     * @return true if the given control is the state of this match at the given index, which is after the given checkpoint
+     */
+    private boolean isRebuiltFrom(MatchControl control, MatchControl checkpoint, int index) {
+        if (control.position != index || control.ancestors.last() != checkpoint || control.event != ancestorEvents.get(index)) {
+            return false;
+        }
+        for (int i = checkpoint.position + 1; i < index; i++) {
+            if (control.ancestorEvents.get(i) != ancestorEvents.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the position of an event in {@link #history()}
+     * <p>Events are matched on their {@link MatchEvent#id()}.</p>
+     * @param event The event to look up
+     * @return The zero-based index of the event in the history, or -1 if the event was not applied to this match
+     */
+    public int indexOf(MatchEvent event) {
+        requireNonNull(event, "event");
+        return indexOf(event.id());
+    }
+
+    private int indexOf(UUID eventID) {
+        Integer index = eventPositions.get(requireNonNull(eventID, "eventID"));
+        return index != null && index <= position && eventAt(index).id().equals(eventID) ? index : -1;
     }
 
     /**
      * Returns a stream of the events that have happened on this match.
      * <p>Note that given a single event, the entire state of that match at that point can be found by
      * using the {@link #asAt(MatchEvent)} method.</p>
+     * <p>The event class can be a concrete event type, or a supertype such as an interface implemented by
+     * several event types, in which case all events of that type are returned in the order they occurred.</p>
      * @param eventClass The type of event to filter by
      * @param <T> The type of stream that will be returned
      * @return A stream
      */
     public @Nonnull <T extends MatchEvent> Stream<T> eventStream(Class<T> eventClass) {
-        Class<? extends MatchEvent> clazz = requireNonNull(eventClass, "eventClass");
-        return history().stream()
-            .filter(c -> c.event().getClass().equals(clazz))
-            .map(MatchControl::event)
+        requireNonNull(eventClass, "eventClass");
+        return positionsOf(eventClass).stream()
+            .map(this::eventAt)
             .map(eventClass::cast);
     }
 
+    /**
+     * @param eventClass The type of event to count, which may be a supertype of the event types
+     * @return The number of events of the given type that have taken place
+     * @see #eventStream(Class)
+     */
+    public @Nonnegative int eventCount(Class<? extends MatchEvent> eventClass) {
+        requireNonNull(eventClass, "eventClass");
+        return positionsOf(eventClass).size();
+    }
+
+    /**
+     * @param eventClass The type of event to find, which may be a supertype of the event types
+     * @param <T> The type of event that will be returned
+     * @return The most recent event of the given type, or null if there have been no events of that type
+     * @see #eventStream(Class)
+     */
+    public @Nullable <T extends MatchEvent> T lastEvent(Class<T> eventClass) {
+        requireNonNull(eventClass, "eventClass");
+        Integer last = positionsOf(eventClass).last();
+        return last == null ? null : eventClass.cast(eventAt(last));
+    }
+
+    private ImmutableList<Integer> positionsOf(Class<?> eventClass) {
+        return positionsBefore(typePositions.get(eventClass), position + 1);
+    }
+
+    /**
+     * @return The positions in the given list that are less than the given position
+     */
+    private static ImmutableList<Integer> positionsBefore(@Nullable ImmutableList<Integer> positions, int position) {
+        if (positions == null) {
+            return ImmutableList.emptyList();
+        }
+        Integer last = positions.last();
+        if (last == null || last < position) {
+            return positions;
+        }
+        int low = 0;
+        int high = positions.size() - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (positions.get(mid) < position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return positions.subList(0, low - 1);
+    }
+
+    /**
+     * @return The type positions with any positions after this control removed, for when they are shared with
+     * descendants of this control
+     */
+    private ImmutableMap<Class<?>, ImmutableList<Integer>> ownTypePositions() {
+        // every event is a MatchEvent, so this list has positions after this control only if the map is shared
+        Integer lastPosition = typePositions.get(MatchEvent.class).last();
+        if (lastPosition == null || lastPosition <= position) {
+            return typePositions;
+        }
+        Map<Class<?>, ImmutableList<Integer>> own = new HashMap<>();
+        typePositions.forEach((type, positions) -> {
+            ImmutableList<Integer> before = positionsBefore(positions, position + 1);
+            if (!before.isEmpty()) {
+                own.put(type, before);
+            }
+        });
+        return ImmutableMap.copyOf(own);
+    }
+
+    private static ImmutableMap<Class<?>, ImmutableList<Integer>> addTypePositions(ImmutableMap<Class<?>, ImmutableList<Integer>> typePositions, MatchEvent event, int position) {
+        for (Class<?> type : EVENT_TYPES.get(event.getClass())) {
+            typePositions = typePositions.put(type, positionsBefore(typePositions.get(type), position).add(position));
+        }
+        return typePositions;
+    }
+
+    /**
+     * For each event class, the class itself and all its superclasses and interfaces that are match events.
+     */
+    private static final ClassValue<ImmutableList<Class<?>>> EVENT_TYPES = new ClassValue<ImmutableList<Class<?>>>() {
+        @Override
+        protected ImmutableList<Class<?>> computeValue(Class<?> eventClass) {
+            Set<Class<?>> types = new LinkedHashSet<>();
+            Deque<Class<?>> toVisit = new ArrayDeque<>();
+            toVisit.add(eventClass);
+            while (!toVisit.isEmpty()) {
+                Class<?> type = toVisit.remove();
+                if (MatchEvent.class.isAssignableFrom(type) && types.add(type)) {
+                    if (type.getSuperclass() != null) {
+                        toVisit.add(type.getSuperclass());
+                    }
+                    toVisit.addAll(Arrays.asList(type.getInterfaces()));
+                }
+            }
+            return new ImmutableList<>(types);
+        }
+    };
+
     /**
      * A predicate that returns true if the innings number of the match after applying the event is the same as the
      * given innings number.
@@ -245,18 +783,217 @@ public final class MatchControl {
      * @return The match with the last user generated event undone.
      */
     public @Nonnull MatchControl undo() {
-        return currentUndoPoint().parent();
+        if (undoPoint <= 0) {
+            throw new IllegalStateException("Cannot undo the first match event");
+        }
+        return controlAt(undoPoint - 1).withRedo(this);
     }
 
-    private MatchControl currentUndoPoint() {
-        Iterator<MatchControl> all = history().reverseIterator();
-        while (all.hasNext()) {
-            MatchControl control = all.next();
-            if (control.event().undoPoint()) {
-                return control;
+    /**
+     * Calls {@link #undo()} the given number of times.
+     * @param times The number of undo points to roll back
+     * @return The match with the given number of user generated events undone.
+     * @throws IllegalStateException There are fewer than the given number of events to undo
+     */
+    public @Nonnull MatchControl undo(@Nonnegative int times) {
+        requireInRange("times", times, 0);
+        MatchControl control = this;
+        for (int i = 0; i < times; i++) {
+            control = control.undo();
+        }
+        return control;
+    }
+
+    /**
+     * @return true if this control was returned from {@link #undo()} and so can be redone
+     */
+    public boolean canRedo() {
+        return redo != null;
+    }
+
+    /**
+     * Reverses the last {@link #undo()}.
+     * <p>After an undo, the undone events can be redone until a new event is added with {@link #onEvent(MatchEvent)}.</p>
+     * @return The match control that was undone to get this control
+     * @throws IllegalStateException This control was not returned from {@link #undo()}
+     * @see #canRedo()
+     */
+    public @Nonnull MatchControl redo() {
+        if (redo == null) {
+            throw new IllegalStateException("There is nothing to redo");
+        }
+        return redo;
+    }
+
+    /**
+     * Replaces a past event, and re-applies all the events that came after it.
+     * <p>Values in the later events that are derived from the state of the match, such as the ball numbers,
+     * bowlers, strikers and scores, are recalculated. The original object is not changed.</p>
+     * @param eventID The ID of the event to replace
+     * @param event The new event. This is applied as-is, so any derived values must be set already.
+     * @return A new Match Control object
+     * @throws IllegalArgumentException No event with the given ID was applied to this match, or the first event
+     * is being replaced with an event that is not a {@link MatchStartingEvent}
+     */
+    public @Nonnull MatchControl replaceEvent(UUID eventID, MatchEvent event) {
+        requireNonNull(event, "event");
+        int index = requireIndexOf(eventID);
+        if (index == 0) {
+            if (!(event instanceof MatchStartingEvent)) {
+                throw new IllegalArgumentException("The first event can only be replaced with a " + MatchStartingEvent.class.getSimpleName());
             }
+            return reapplyAfter(newMatch((MatchStartingEvent) event, sparseHistory), index);
+        }
+        return reapplyAfter(controlAt(index - 1).onEvent(event), index);
+    }
+
+    /**
+     * Inserts an event after a past event, and re-applies all the events that came after it.
+     * @param eventID The ID of the event to insert after
+     * @param event The new event. This is applied as-is, so any derived values must be set already.
+     * @return A new Match Control object
+     * @throws IllegalArgumentException No event with the given ID was applied to this match
+     * @see #replaceEvent(UUID, MatchEvent)
+     */
+    public @Nonnull MatchControl insertAfter(UUID eventID, MatchEvent event) {
+        requireNonNull(event, "event");
+        int index = requireIndexOf(eventID);
+        return reapplyAfter(controlAt(index).onEvent(event), index);
+    }
+
+    /**
+     * Removes a past event, and re-applies all the events that came after it.
+     * @param eventID The ID of the event to remove
+     * @return A new Match Control object
+     * @throws IllegalArgumentException No event with the given ID was applied to this match, or it is the first event
+     * @see #replaceEvent(UUID, MatchEvent)
+     */
+    public @Nonnull MatchControl removeEvent(UUID eventID) {
+        int index = requireIndexOf(eventID);
+        if (index == 0) {
+            throw new IllegalArgumentException("The first event of a match cannot be removed");
+        }
+        return reapplyAfter(controlAt(index - 1), index);
+    }
+
+    private MatchControl reapplyAfter(MatchControl control, int index) {
+        for (int i = index + 1; i <= position; i++) {
+            MatchEvent original = eventAt(i);
+            MatchEvent rederived = rederive(original, control.match());
+            control = control.onEvent(rederived.equals(original) ? original : rederived);
+        }
+        return control;
+    }
+
+    /**
+     * @return A copy of the event where the values derived from the state of the match are recalculated from the given match
+     */
+    private static MatchEvent rederive(MatchEvent event, Match match) {
+        MatchEventBuilder<?, ?> builder;
+        if (event instanceof BallCompletedEvent) {
+            BallCompletedEvent ball = (BallCompletedEvent) event;
+            BallCompletedEvent.Builder ballBuilder = ball.newBuilder()
+                .withBowler(null)
+                .withStriker(null)
+                .withNonStriker(null)
+                .withOverNumber(null)
+                .withNumberInOver(null)
+                .withNumberInMatch(null);
+            if (ball.dismissal() != null && ball.dismissal().batter().samePlayer(ball.striker())) {
+                ballBuilder.withDismissedBatter(null);
+            }
+            builder = ballBuilder;
+        } else if (event instanceof OverStartingEvent) {
+            builder = ((OverStartingEvent) event).newBuilder()
+                .withStriker(null)
+                .withNonStriker(null)
+                .withInningsNumber(null)
+                .withNumberInInnings(null);
+        } else if (event instanceof OverCompletedEvent) {
+            builder = ((OverCompletedEvent) event).newBuilder()
+                .withBowler(null)
+                .withMaiden(null)
+                .withInningsNumber(null)
+                .withOverNumber(null)
+                .withBallsInOver(null)
+                .withScore(null);
+        } else if (event instanceof BatterInningsCompletedEvent) {
+            builder = ((BatterInningsCompletedEvent) event).newBuilder()
+                .withScore(null);
+        } else if (event instanceof InningsCompletedEvent) {
+            builder = ((InningsCompletedEvent) event).newBuilder()
+                .withInningsNumber(null)
+                .withScore(null);
+        } else if (event instanceof MatchCompletedEvent) {
+            builder = ((MatchCompletedEvent) event).newBuilder()
+                .withResult(null);
+        } else {
+            return event;
+        }
+        return builder.apply(match).build();
+    }
+
+    /**
+     * The positions of events in a history, built up one event at a time with mutable collections and then copied
+     * into the immutable maps that controls share.
+     */
+    private static final class EventIndex {
+        private final Map<UUID, Integer> eventPositions = new HashMap<>();
+        private final Map<Class<?>, List<Integer>> typePositions = new HashMap<>();
+        private final List<Integer> timedPositions = new ArrayList<>();
+        private Instant lastKnownTime;
+
+        private void add(MatchEvent event, int position) {
+            eventPositions.putIfAbsent(event.id(), position);
+            for (Class<?> type : EVENT_TYPES.get(event.getClass())) {
+                typePositions.computeIfAbsent(type, t -> new ArrayList<>()).add(position);
+            }
+            if (isInTimeOrder(event, lastKnownTime)) {
+                timedPositions.add(position);
+                lastKnownTime = event.time();
+            }
+        }
+
+        private ImmutableMap<UUID, Integer> eventPositions() {
+            return ImmutableMap.copyOf(eventPositions);
+        }
+
+        private ImmutableMap<Class<?>, ImmutableList<Integer>> typePositions() {
+            Map<Class<?>, ImmutableList<Integer>> typeLists = new HashMap<>();
+            for (Map.Entry<Class<?>, List<Integer>> entry : typePositions.entrySet()) {
+                typeLists.put(entry.getKey(), new ImmutableList<>(entry.getValue()));
+            }
+            return ImmutableMap.copyOf(typeLists);
+        }
+
+        private ImmutableList<Integer> timedPositions() {
+            return new ImmutableList<>(timedPositions);
+        }
+    }
+
+    /**
+     * The settings and recently rebuilt states shared by all the controls of a match with sparse history.
+     */
+    private static final class SparseHistory {
+        private final int checkpointInterval;
+        private final Map<UUID, MatchControl> rebuilt = new LinkedHashMap<UUID, MatchControl>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, MatchControl> eldest) {
+                return size() > REBUILT_STATES_TO_CACHE;
+            }
+        };
+
+        private SparseHistory(int checkpointInterval) {
+            this.checkpointInterval = checkpointInterval;
+        }
+
+        private synchronized @Nullable MatchControl rebuilt(UUID eventID) {
+            return rebuilt.get(eventID);
+        }
+
+        private synchronized void cache(MatchControl control) {
+            rebuilt.put(control.event().id(), control);
         }
-        throw new IllegalStateException("Cannot undo the first match event");
     }
 
 }
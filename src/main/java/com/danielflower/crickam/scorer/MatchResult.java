@@ -224,49 +224,7 @@ public final class MatchResult {
      * @return The calculated result of the given match
      */
     public static @Nonnull MatchResult fromMatch(Match match) {
-        if (match.inningsList().last() != null) {
-            Innings innings = match.inningsList().last();
-            boolean isLastInnings = innings.target() != null;
-            if (!isLastInnings) {
-                if (match.inningsList().stream().filter(i -> i.battingTeam().equals(innings.battingTeam()) && i.shouldBeComplete()).count() >= match.numberOfInningsPerTeam()) {
-                    // the team that just completed their innings will bat no more. But have they exceeded the other team's score?
-                    int justFinishedBattingTotalScore = match.scoredByTeam(innings.battingTeam()).teamRuns();
-                    int otherTeamScore = match.scoredByTeam(innings.bowlingTeam()).teamRuns();
-                    int difference = otherTeamScore - justFinishedBattingTotalScore;
-                    if (difference > 0) {
-                        return MatchResult.matchResult()
-                            .withResultType(ResultType.WON)
-                            .withWinningTeam(innings.bowlingTeam())
-                            .withWonBy(Measure.INNINGS_AND_RUNS)
-                            .withWonByAmount(difference)
-                            .build();
-                    }
-                }
-            }
-            if (isLastInnings) {
-                int remaining = innings.target() - innings.score().teamRuns();
-                if (remaining <= 0) {
-                    return matchResult()
-                        .withResultType(ResultType.WON)
-                        .withWinningTeam(innings.battingTeam())
-                        .withWonBy(Measure.WICKETS)
-                        .withWonByAmount(innings.yetToBat().size() + 1)
-                        .build();
-                } else if (innings.shouldBeComplete()) {
-                    if (remaining > 1) {
-                        return matchResult()
-                            .withResultType(ResultType.WON)
-                            .withWinningTeam(innings.bowlingTeam())
-                            .withWonBy(Measure.RUNS)
-                            .withWonByAmount(remaining - 1)
-                            .build();
-                    } else {
-                        return MatchResult.matchResult().withResultType(ResultType.TIED).build();
-                    }
-                }
-            }
-        }
-        return NoResult;
+        return match.calculateResult();
     }
 
 
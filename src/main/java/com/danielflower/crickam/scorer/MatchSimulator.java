@@ -0,0 +1,428 @@
+package com.danielflower.crickam.scorer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static com.danielflower.crickam.scorer.Crictils.stateGuard;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Estimates the chances of each result of a match by playing out the rest of the match many times.
+ * <p>Each simulation starts from the state of a {@link Match}, such as {@link MatchControl#match()} after the latest
+ * ball, and bowls ball after ball using a {@link BallOutcomeModel} until the match has a result:</p>
+ * <pre>{@code
+ * MatchSimulator simulator = MatchSimulator.matchSimulator(BallOutcomeModel.fromBalls(control.match().balls()))
+ *     .withSimulations(100_000)
+ *     .build();
+ * SimulationResult result = simulator.simulate(control.match());
+ * double chance = result.winProbability(control.match().teams().get(0));
+ * }</pre>
+ * <p>The match is only read, never changed. Simulated innings are held in a {@link SimulatedInnings} which is
+ * updated in place, so the simulation does not create events or {@link Innings} objects for each ball.</p>
+ * <p>Innings end when the batting team is all out, when the innings' maximum number of balls has been bowled, or
+ * when the target has been reached. The team batting first enforces the follow-on whenever it is able to, unless
+ * {@link Builder#withFollowOnEnforced(boolean)} is false. Teams never declare. In first class matches, which have
+ * no limit on the balls in an innings, the match is drawn once the number of balls that can be bowled in its
+ * scheduled days has been bowled. If no innings has started, the first team in {@link Match#teams()} bats first.</p>
+ * <p>Simulations are run in batches on a {@link ForkJoinPool}. Each batch has its own random number generator
+ * split from one generator, so the results for a given seed are the same no matter how many threads are used.</p>
+ */
+@Immutable
+public final class MatchSimulator {
+
+    /**
+     * The number of simulations run by each task, each of which has its own random number generator
+     */
+    private static final int SIMULATIONS_PER_BATCH = 1024;
+
+    private static final int TIE = 2;
+    private static final int DRAW = 3;
+    private static final int IN_PROGRESS = -1;
+
+    private final BallOutcomeModel model;
+    private final int simulations;
+    private final Long seed;
+    private final int ballsPerDay;
+    private final boolean followOnEnforced;
+
+    private MatchSimulator(BallOutcomeModel model, int simulations, @Nullable Long seed, int ballsPerDay, boolean followOnEnforced) {
+        if (simulations < 1) {
+            throw new IllegalArgumentException("simulations must be at least 1 but was " + simulations);
+        }
+        if (ballsPerDay < 1) {
+            throw new IllegalArgumentException("ballsPerDay must be at least 1 but was " + ballsPerDay);
+        }
+        this.model = requireNonNull(model, "model");
+        this.simulations = simulations;
+        this.seed = seed;
+        this.ballsPerDay = ballsPerDay;
+        this.followOnEnforced = followOnEnforced;
+    }
+
+    /**
+     * @param model The model that decides what happens on each ball
+     * @return A new builder
+     */
+    public static @Nonnull Builder matchSimulator(BallOutcomeModel model) {
+        return new Builder(requireNonNull(model, "model"));
+    }
+
+    /**
+     * Simulates the rest of the match on the common fork-join pool
+     *
+     * @param match A match that has not completed
+     * @return The chances of each result
+     */
+    public @Nonnull SimulationResult simulate(Match match) {
+        return simulate(match, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Simulates the rest of the match on the given pool
+     *
+     * @param match A match that has not completed
+     * @param pool The pool to run on
+     * @return The chances of each result
+     * @throws IllegalStateException The match has completed
+     */
+    public @Nonnull SimulationResult simulate(Match match, ForkJoinPool pool) {
+        stateGuard(match.state() != Match.State.COMPLETED, () -> "The match has already completed");
+        Start start = new Start(match);
+        int batches = (simulations + SIMULATIONS_PER_BATCH - 1) / SIMULATIONS_PER_BATCH;
+        SplittableRandom root = seed == null ? new SplittableRandom() : new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[batches];
+        for (int i = 0; i < batches; i++) {
+            randoms[i] = root.split();
+        }
+        Tally tally = pool.invoke(new Task(start, randoms, 0, batches));
+        return new SimulationResult(start.teams[0], start.teams[1], simulations, tally.results, start.projectedInningsNumber,
+            tally.projectedScores, tally.projectedCount);
+    }
+
+    /**
+     * @return The number of times the match is simulated
+     */
+    public @Nonnegative int simulations() {
+        return simulations;
+    }
+
+    /**
+     * @return The seed of the random number generator, or null if a different seed is used each time
+     */
+    public @Nullable Long seed() {
+        return seed;
+    }
+
+    /**
+     * @return The number of valid balls that can be bowled in a day of a first class match
+     */
+    public @Nonnegative int ballsPerDay() {
+        return ballsPerDay;
+    }
+
+    /**
+     * @return True if the follow-on is enforced whenever it is available
+     */
+    public boolean followOnEnforced() {
+        return followOnEnforced;
+    }
+
+    @Override
+    public String toString() {
+        return "MatchSimulator{" +
+            "simulations=" + simulations +
+            ", seed=" + seed +
+            ", ballsPerDay=" + ballsPerDay +
+            ", followOnEnforced=" + followOnEnforced +
+            '}';
+    }
+
+    /**
+     * The state of the match that every simulation starts from, where teams are referred to by their index in
+     * {@link Match#teams()}
+     */
+    private final class Start {
+        private final LineUp<?>[] teams = new LineUp<?>[2];
+        private final int[] totals = new int[2];
+        private final int[] inningsCount = new int[2];
+        private final int inningsPerTeam;
+        private final Integer ballsPerInnings;
+        private final int followOnMargin;
+        private final long matchBalls;
+        private final int completed;
+        private final Innings current;
+        private final Innings last;
+        private final int projectedInningsNumber;
+
+        private Start(Match match) {
+            ImmutableList<LineUp<?>> matchTeams = match.teams();
+            if (matchTeams.size() != 2) {
+                throw new IllegalArgumentException("Only matches between 2 teams can be simulated");
+            }
+            teams[0] = matchTeams.get(0);
+            teams[1] = matchTeams.get(1);
+            for (Innings innings : match.completedInningsList()) {
+                int team = teamIndex(innings.battingTeam());
+                totals[team] += innings.score().teamRuns();
+                inningsCount[team]++;
+            }
+            inningsPerTeam = match.numberOfInningsPerTeam();
+            ballsPerInnings = match.ballsPerInnings();
+            followOnMargin = MatchSituation.followOnMargin(match.numberOfScheduledDays());
+            matchBalls = ballsPerInnings == null
+                ? Math.max(0, (long) match.numberOfScheduledDays() * ballsPerDay - match.balls().score().validDeliveries())
+                : -1;
+            completed = match.completedInningsList().size();
+            current = match.currentInnings();
+            last = match.completedInningsList().last();
+            projectedInningsNumber = current != null ? match.inningsList().size() : completed + 1;
+        }
+
+        private int teamIndex(LineUp<?> team) {
+            if (teams[0].sameTeam(team)) return 0;
+            if (teams[1].sameTeam(team)) return 1;
+            throw new IllegalArgumentException(team + " is not playing in this match");
+        }
+    }
+
+    /**
+     * The totals of the simulations run by one task
+     */
+    private static final class Tally {
+        private final long[] results = new long[4];
+        private long[] projectedScores = new long[256];
+        private long projectedCount;
+
+        private void addProjectedScore(int runs) {
+            ensureCapacity(runs + 1);
+            projectedScores[runs]++;
+            projectedCount++;
+        }
+
+        private void ensureCapacity(int length) {
+            if (length > projectedScores.length) {
+                projectedScores = Arrays.copyOf(projectedScores, Math.max(length, projectedScores.length * 2));
+            }
+        }
+
+        private Tally add(Tally other) {
+            for (int i = 0; i < results.length; i++) {
+                results[i] += other.results[i];
+            }
+            ensureCapacity(other.projectedScores.length);
+            for (int runs = 0; runs < other.projectedScores.length; runs++) {
+                projectedScores[runs] += other.projectedScores[runs];
+            }
+            projectedCount += other.projectedCount;
+            return this;
+        }
+    }
+
+    private final class Task extends RecursiveTask<Tally> {
+        private final Start start;
+        private final SplittableRandom[] randoms;
+        private final int from;
+        private final int to;
+
+        private Task(Start start, SplittableRandom[] randoms, int from, int to) {
+            this.start = start;
+            this.randoms = randoms;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from == 1) {
+                Tally tally = new Tally();
+                Simulation simulation = new Simulation(start, randoms[from]);
+                int count = Math.min(SIMULATIONS_PER_BATCH, simulations - from * SIMULATIONS_PER_BATCH);
+                for (int i = 0; i < count; i++) {
+                    tally.results[simulation.run(tally)]++;
+                }
+                return tally;
+            }
+            int mid = (from + to) >>> 1;
+            Task left = new Task(start, randoms, from, mid);
+            left.fork();
+            Tally right = new Task(start, randoms, mid, to).compute();
+            return left.join().add(right);
+        }
+    }
+
+    /**
+     * The mutable state of one simulated match, which is reset at the start of each simulation
+     */
+    private final class Simulation {
+        private final Start start;
+        private final SplittableRandom random;
+        private final SimulatedInnings innings = new SimulatedInnings();
+        private final int[] totals = new int[2];
+        private final int[] inningsCount = new int[2];
+        private int completed;
+        private long matchBalls;
+
+        private Simulation(Start start, SplittableRandom random) {
+            this.start = start;
+            this.random = random;
+        }
+
+        /**
+         * @return The index of the winning team, or {@link #TIE} or {@link #DRAW}
+         */
+        private int run(Tally tally) {
+            System.arraycopy(start.totals, 0, totals, 0, 2);
+            System.arraycopy(start.inningsCount, 0, inningsCount, 0, 2);
+            completed = start.completed;
+            matchBalls = start.matchBalls;
+
+            Innings current = start.current;
+            if (current != null) {
+                int bat = start.teamIndex(current.battingTeam());
+                Score score = current.score();
+                int wicketsRemaining = Math.min(current.wicketsRemaining(), current.battingTeam().battingOrder().size() - 1 - score.wickets());
+                innings.reset(start.projectedInningsNumber, start.teams[bat], start.teams[1 - bat], score.teamRuns(), score.wickets(),
+                    Math.max(0, wicketsRemaining), score.validDeliveries(), current.maxBalls(), current.target(), current.followingOn());
+            } else if (start.last == null) {
+                startInnings(0, null, false);
+            } else {
+                Innings last = start.last;
+                int result = afterInnings(start.teamIndex(last.battingTeam()), last.target() != null && last.score().teamRuns() >= last.target(), false);
+                if (result != IN_PROGRESS) {
+                    return result;
+                }
+            }
+
+            while (true) {
+                while (!innings.isComplete() && matchBalls != 0) {
+                    BallOutcome outcome = model.nextBall(innings, random);
+                    innings.onBall(outcome);
+                    if (outcome.valid() && matchBalls > 0) {
+                        matchBalls--;
+                    }
+                }
+                if (innings.inningsNumber() == start.projectedInningsNumber) {
+                    tally.addProjectedScore(innings.runs());
+                }
+                int bat = innings.battingTeam() == start.teams[0] ? 0 : 1;
+                totals[bat] += innings.runs();
+                inningsCount[bat]++;
+                completed++;
+                int result = afterInnings(bat, innings.targetReached(), !innings.isComplete());
+                if (result != IN_PROGRESS) {
+                    return result;
+                }
+            }
+        }
+
+        /**
+         * Decides the result after an innings, or if there is no result yet, starts the next innings
+         */
+        private int afterInnings(int bat, boolean targetReached, boolean outOfTime) {
+            int other = 1 - bat;
+            int perTeam = start.inningsPerTeam;
+            if (targetReached) {
+                return bat;
+            }
+            if (outOfTime) {
+                return DRAW;
+            }
+            if (inningsCount[bat] >= perTeam && totals[bat] < totals[other]) {
+                return other;
+            }
+            if (inningsCount[bat] >= perTeam && inningsCount[other] >= perTeam) {
+                return totals[bat] > totals[other] ? bat : totals[bat] == totals[other] ? TIE : other;
+            }
+            if (matchBalls == 0) {
+                return DRAW;
+            }
+            int next = other;
+            boolean followingOn = false;
+            if (perTeam == 2 && completed == 2 && followOnEnforced && totals[other] - totals[bat] >= start.followOnMargin) {
+                next = bat;
+                followingOn = true;
+            }
+            if (inningsCount[next] >= perTeam) {
+                next = 1 - next;
+            }
+            int nextOther = 1 - next;
+            Integer target = inningsCount[next] + 1 == perTeam && inningsCount[nextOther] == perTeam
+                ? totals[nextOther] - totals[next] + 1 : null;
+            startInnings(next, target, followingOn);
+            return IN_PROGRESS;
+        }
+
+        private void startInnings(int bat, @Nullable Integer target, boolean followingOn) {
+            LineUp<?> battingTeam = start.teams[bat];
+            innings.reset(completed + 1, battingTeam, start.teams[1 - bat], 0, 0, Math.max(0, battingTeam.battingOrder().size() - 1),
+                0, start.ballsPerInnings, target, followingOn);
+        }
+    }
+
+    /**
+     * A builder of {@link MatchSimulator} objects
+     */
+    public static final class Builder {
+        private final BallOutcomeModel model;
+        private int simulations = 10000;
+        private Long seed;
+        private int ballsPerDay = 540;
+        private boolean followOnEnforced = true;
+
+        private Builder(BallOutcomeModel model) {
+            this.model = model;
+        }
+
+        /**
+         * @param simulations The number of times to play out the match, which defaults to 10000
+         * @return This builder
+         */
+        public @Nonnull Builder withSimulations(@Nonnegative int simulations) {
+            this.simulations = simulations;
+            return this;
+        }
+
+        /**
+         * @param seed The seed for the random number generator so that results can be repeated, or null (the
+         *             default) to use a different seed each time
+         * @return This builder
+         */
+        public @Nonnull Builder withSeed(@Nullable Long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * @param ballsPerDay The number of valid balls that can be bowled in each day of a first class match, which
+         *                    defaults to 540 (90 overs)
+         * @return This builder
+         */
+        public @Nonnull Builder withBallsPerDay(@Nonnegative int ballsPerDay) {
+            this.ballsPerDay = ballsPerDay;
+            return this;
+        }
+
+        /**
+         * @param followOnEnforced If true (the default) the team batting first always enforces the follow-on when
+         *                         it is available; if false the follow-on is never enforced
+         * @return This builder
+         */
+        public @Nonnull Builder withFollowOnEnforced(boolean followOnEnforced) {
+            this.followOnEnforced = followOnEnforced;
+            return this;
+        }
+
+        /**
+         * @return A new simulator
+         */
+        public @Nonnull MatchSimulator build() {
+            return new MatchSimulator(model, simulations, seed, ballsPerDay, followOnEnforced);
+        }
+    }
+}
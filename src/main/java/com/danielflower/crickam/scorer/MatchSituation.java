@@ -0,0 +1,177 @@
+package com.danielflower.crickam.scorer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import static com.danielflower.crickam.scorer.MatchResult.matchResult;
+
+/**
+ * Where a match is up to: the runs needed, balls and wickets left, how far the batting team leads or trails,
+ * and what the result would be if the match ended now.
+ * <p>A new situation is calculated with each event, so getting it from {@link Match#situation()} is cheap.</p>
+ */
+@Immutable
+public final class MatchSituation {
+
+    private static final MatchSituation NOT_STARTED = new MatchSituation(null, null, 0, null, null, 0, false, MatchResult.NoResult);
+
+    private final LineUp<?> battingTeam;
+    private final LineUp<?> bowlingTeam;
+    private final int lead;
+    private final Integer runsRequired;
+    private final Integer ballsRemaining;
+    private final int wicketsInHand;
+    private final boolean followOnAvailable;
+    private final MatchResult provisionalResult;
+
+    private MatchSituation(@Nullable LineUp<?> battingTeam, @Nullable LineUp<?> bowlingTeam, int lead, @Nullable Integer runsRequired, @Nullable Integer ballsRemaining, @Nonnegative int wicketsInHand, boolean followOnAvailable, MatchResult provisionalResult) {
+        this.battingTeam = battingTeam;
+        this.bowlingTeam = bowlingTeam;
+        this.lead = lead;
+        this.runsRequired = runsRequired;
+        this.ballsRemaining = ballsRemaining;
+        this.wicketsInHand = wicketsInHand;
+        this.followOnAvailable = followOnAvailable;
+        this.provisionalResult = provisionalResult;
+    }
+
+    static @Nonnull MatchSituation of(Match match) {
+        Innings innings = match.inningsList().last();
+        if (innings == null) {
+            return NOT_STARTED;
+        }
+        LineUp<?> battingTeam = innings.battingTeam();
+        LineUp<?> bowlingTeam = innings.bowlingTeam();
+        int lead = match.scoredByTeam(battingTeam).teamRuns() - match.scoredByTeam(bowlingTeam).teamRuns();
+        Integer target = innings.target();
+        Integer runsRequired = target == null ? null : target - innings.score().teamRuns();
+        boolean inProgress = innings == match.currentInnings();
+        int wicketsInHand = Math.max(0, battingTeam.battingOrder().size() - 1 - innings.score().wickets());
+
+        boolean followOnAvailable = !inProgress && match.numberOfInningsPerTeam() > 1
+            && match.completedInningsList().size() == 2 && -lead >= followOnMargin(match.numberOfScheduledDays());
+
+        MatchResult result = MatchResult.NoResult;
+        if (runsRequired == null) {
+            int inningsPlayed = match.completedInningsCount(battingTeam) + (inProgress && innings.shouldBeComplete() ? 1 : 0);
+            if (inningsPlayed >= match.numberOfInningsPerTeam() && lead < 0) {
+                // the batting team will bat no more and has not caught up with the other team's score
+                result = matchResult()
+                    .withResultType(MatchResult.ResultType.WON)
+                    .withWinningTeam(bowlingTeam)
+                    .withWonBy(MatchResult.Measure.INNINGS_AND_RUNS)
+                    .withWonByAmount(-lead)
+                    .build();
+            }
+        } else if (runsRequired <= 0) {
+            result = matchResult()
+                .withResultType(MatchResult.ResultType.WON)
+                .withWinningTeam(battingTeam)
+                .withWonBy(MatchResult.Measure.WICKETS)
+                .withWonByAmount(innings.yetToBat().size() + 1)
+                .build();
+        } else if (innings.shouldBeComplete()) {
+            result = runsRequired > 1
+                ? matchResult()
+                    .withResultType(MatchResult.ResultType.WON)
+                    .withWinningTeam(bowlingTeam)
+                    .withWonBy(MatchResult.Measure.RUNS)
+                    .withWonByAmount(runsRequired - 1)
+                    .build()
+                : matchResult().withResultType(MatchResult.ResultType.TIED).build();
+        }
+
+        Integer ballsRemaining = innings.numberOfBallsRemaining();
+        return new MatchSituation(battingTeam, bowlingTeam, lead, runsRequired == null ? null : Math.max(0, runsRequired),
+            ballsRemaining == null ? null : Math.max(0, ballsRemaining), wicketsInHand, followOnAvailable, result);
+    }
+
+    /**
+     * @return The minimum lead that allows the team batting first to enforce the follow-on, which depends on the
+     * length of the match
+     */
+    static int followOnMargin(int scheduledDays) {
+        return scheduledDays >= 5 ? 200 : scheduledDays >= 3 ? 150 : scheduledDays == 2 ? 100 : 75;
+    }
+
+    /**
+     * @return The team batting in the current innings, or the last team to bat if no innings is in progress, or
+     * null if no innings has started.
+     */
+    public @Nullable LineUp<?> battingTeam() {
+        return battingTeam;
+    }
+
+    /**
+     * @return The team bowling in the current (or last) innings, or null if no innings has started.
+     */
+    public @Nullable LineUp<?> bowlingTeam() {
+        return bowlingTeam;
+    }
+
+    /**
+     * @return The number of runs the batting team has scored in the match more than the bowling team. This is
+     * negative when the batting team is trailing.
+     */
+    public int lead() {
+        return lead;
+    }
+
+    /**
+     * @return The number of runs the batting team needs to win (which is 0 once the target has been reached), or
+     * null if the innings has no target.
+     */
+    public @Nullable Integer runsRequired() {
+        return runsRequired;
+    }
+
+    /**
+     * @return The number of valid deliveries left in the innings, or null if the innings has no limit.
+     */
+    public @Nullable Integer ballsRemaining() {
+        return ballsRemaining;
+    }
+
+    /**
+     * @return The number of wickets the batting team has left before it is all out
+     */
+    public @Nonnegative int wicketsInHand() {
+        return wicketsInHand;
+    }
+
+    /**
+     * @return True if the second innings of a two-innings match has just finished with the team that batted first
+     * far enough ahead to make the other team follow on.
+     */
+    public boolean followOnAvailable() {
+        return followOnAvailable;
+    }
+
+    /**
+     * @return The result the match would have if it ended now
+     * @see Match#calculateResult()
+     */
+    public @Nonnull MatchResult provisionalResult() {
+        return provisionalResult;
+    }
+
+    @Override
+    public String toString() {
+        if (battingTeam == null) {
+            return "Not started";
+        }
+        if (provisionalResult.resultType() != MatchResult.ResultType.NO_RESULT) {
+            return provisionalResult.toString();
+        }
+        if (runsRequired != null) {
+            return battingTeam.teamName() + " need " + runsRequired + (runsRequired == 1 ? " run" : " runs")
+                + (ballsRemaining == null ? "" : " from " + ballsRemaining + (ballsRemaining == 1 ? " ball" : " balls"));
+        }
+        if (lead == 0) {
+            return "Scores level";
+        }
+        return battingTeam.teamName() + (lead > 0 ? " lead by " : " trail by ") + Math.abs(lead) + (Math.abs(lead) == 1 ? " run" : " runs");
+    }
+}
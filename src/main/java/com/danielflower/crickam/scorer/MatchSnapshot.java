@@ -0,0 +1,467 @@
+package com.danielflower.crickam.scorer;
+
+import com.danielflower.crickam.scorer.events.*;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Saves the state of a match so that it can be restored without re-applying all of its events.
+ * <p>A snapshot holds the {@link Match} of a control, with its innings, overs, batter and bowler innings, spells,
+ * partnerships and balls, but not the events themselves. To restore a control, the snapshot is given all the events
+ * of the match (which are cheap to read, for example from an {@link EventLog}) and only the events after the
+ * snapshot are applied. Balls are written as their position in the match's events, and players are written with
+ * the player dictionary of an {@link EventCodec}.</p>
+ * <p>Objects that are shared within a match, such as the balls and overs that are in the lists of the innings, the
+ * batters and the bowlers, are written once and are shared again when the snapshot is read.</p>
+ * <p>Snapshots can only be taken after an {@link OverCompletedEvent}, {@link InningsStartingEvent} or
+ * {@link InningsCompletedEvent}, which are the states that a control with a sparse history always keeps.</p>
+ */
+public final class MatchSnapshot {
+
+    private static final int MAGIC = 0x43524b53;
+    private static final int VERSION = 1;
+    private static final int NULL = -1;
+    private static final int NEW = -2;
+
+    private static final Match.State[] MATCH_STATES = Match.State.values();
+    private static final Innings.State[] INNINGS_STATES = Innings.State.values();
+    private static final BattingState[] BATTING_STATES = BattingState.values();
+    private static final DismissalType[] DISMISSAL_TYPES = DismissalType.values();
+    private static final MatchResult.ResultType[] RESULT_TYPES = MatchResult.ResultType.values();
+    private static final MatchResult.Measure[] MEASURES = MatchResult.Measure.values();
+
+    private MatchSnapshot() {
+    }
+
+    /**
+     * Writes the current state of a match at the position of the buffer, advancing the position to the end of the
+     * snapshot.
+     *
+     * @param control The match to save
+     * @param codec The codec used for the events of the match
+     * @param buffer The buffer to write to
+     * @throws IllegalArgumentException The last event of the control is not the start or end of an over or
+     * innings, or the match has a player who is not in the codec's dictionary
+     * @throws BufferOverflowException There is not enough space in the buffer
+     */
+    public static void write(MatchControl control, EventCodec codec, ByteBuffer buffer) {
+        requireNonNull(control, "control");
+        MatchEvent event = control.event();
+        if (!(event instanceof OverCompletedEvent || event instanceof InningsStartingEvent || event instanceof InningsCompletedEvent)) {
+            throw new IllegalArgumentException("Snapshots can only be taken at the end of an over or the start or end of an innings, but the last event was " + event);
+        }
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(control.eventCount() - 1);
+        buffer.putLong(event.id().getMostSignificantBits());
+        buffer.putLong(event.id().getLeastSignificantBits());
+        new Writer(control, codec, buffer).writeMatch(control.match());
+    }
+
+    /**
+     * Restores a match from a snapshot, applying the events that came after the snapshot was taken.
+     * <p>The returned control has a sparse history (see {@link MatchControl#newMatch(MatchStartingEvent, int)}) in
+     * which the states before the snapshot are rebuilt from the start of the match when they are asked for.</p>
+     *
+     * @param snapshot A buffer positioned at the start of a snapshot written by {@link #write(MatchControl, EventCodec, ByteBuffer)}
+     * @param codec The codec used for the events of the match
+     * @param events All the events of the match, starting with its {@link MatchStartingEvent}
+     * @param checkpointInterval The number of events between kept states in the history of the returned control,
+     *                           which must be at least 2
+     * @return A control with the state of the snapshot and all the events after it applied
+     * @throws IllegalArgumentException The snapshot is not a snapshot of the given events, for example because some
+     * of the events before it were undone
+     */
+    public static @Nonnull MatchControl restore(ByteBuffer snapshot, EventCodec codec, List<? extends MatchEvent> events, int checkpointInterval) {
+        requireNonNull(events, "events");
+        if (snapshot.getInt() != MAGIC) {
+            throw new IllegalArgumentException("The buffer does not hold a match snapshot");
+        }
+        int version = snapshot.getInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported snapshot version " + version + " (expected " + VERSION + ")");
+        }
+        int position = snapshot.getInt();
+        UUID eventID = new UUID(snapshot.getLong(), snapshot.getLong());
+        if (position >= events.size() || !events.get(position).id().equals(eventID)) {
+            throw new IllegalArgumentException("The snapshot was taken at event " + eventID + " which is not at position " + position + " of the events");
+        }
+        if (!(events.get(0) instanceof MatchStartingEvent)) {
+            throw new IllegalArgumentException("The first event is not a " + MatchStartingEvent.class.getSimpleName());
+        }
+        Match match = new Reader(codec, snapshot, events).readMatch((MatchStartingEvent) events.get(0));
+        return MatchControl.restore(events, position, match, checkpointInterval);
+    }
+
+    private static final class Writer {
+        private final MatchControl control;
+        private final EventCodec codec;
+        private final ByteBuffer buffer;
+        private final Map<Object, Integer> ids = new IdentityHashMap<>();
+
+        private Writer(MatchControl control, EventCodec codec, ByteBuffer buffer) {
+            this.control = control;
+            this.codec = codec;
+            this.buffer = buffer;
+        }
+
+        private void writeMatch(Match match) {
+            buffer.put((byte) match.state().ordinal());
+            writeResult(match.result());
+            writeList(match.completedInningsList(), this::writeInnings);
+            writeShared(match.currentInnings(), this::writeInnings);
+            writeShared(match.balls(), this::writeBalls);
+        }
+
+        private void writeResult(@Nullable MatchResult result) {
+            buffer.put((byte) (result == null ? 0 : 1));
+            if (result != null) {
+                buffer.put((byte) result.resultType().ordinal());
+                buffer.putInt(result.winningTeam() == null ? NULL : teamIndex(result.winningTeam()));
+                buffer.put((byte) (result.wonBy() == null ? NULL : result.wonBy().ordinal()));
+                writeNullableInt(result.wonByAmount());
+                buffer.put((byte) (result.duckworthLewisApplied() ? 1 : 0));
+            }
+        }
+
+        private int teamIndex(LineUp<?> team) {
+            ImmutableList<LineUp<?>> teams = control.match().teams();
+            for (int i = 0; i < teams.size(); i++) {
+                if (teams.get(i).sameTeam(team)) {
+                    return i;
+                }
+            }
+            throw new IllegalArgumentException(team + " is not one of the teams in this match");
+        }
+
+        private void writeInnings(Innings innings) {
+            buffer.putInt(eventPosition(innings.startingEvent()));
+            EventCodec.writeScore(buffer, innings.score());
+            writeList(innings.partnerships(), this::writePartnership);
+            writeShared(innings.currentStriker(), this::writeBatterInnings);
+            writeShared(innings.currentNonStriker(), this::writeBatterInnings);
+            writeList(innings.batterInningsList(), this::writeBatterInnings);
+            buffer.putInt(innings.yetToBat().size());
+            for (Player player : innings.yetToBat()) {
+                codec.writePlayer(buffer, player);
+            }
+            writeList(innings.completedOvers(), this::writeOver);
+            writeShared(innings.currentOver(), this::writeOver);
+            writeInstant(innings.endTime());
+            writeShared(innings.balls(), this::writeBalls);
+            writeList(innings.bowlerInningsList(), this::writeBowlerInnings);
+            buffer.put((byte) innings.state().ordinal());
+            writeNullableInt(innings.maxOvers());
+            writeNullableInt(innings.maxBalls());
+            writeNullableInt(innings.target());
+        }
+
+        private void writePartnership(Partnership partnership) {
+            buffer.put((byte) partnership.state().ordinal());
+            codec.writePlayer(buffer, partnership.firstBatter());
+            codec.writePlayer(buffer, partnership.secondBatter());
+            buffer.putInt(partnership.wicketNumber());
+            writeInstant(partnership.startTime());
+            writeShared(partnership.balls(), this::writeBalls);
+            writeShared(partnership.firstBatterContribution(), this::writeBalls);
+            writeShared(partnership.secondBatterContribution(), this::writeBalls);
+            writeInstant(partnership.endTime());
+        }
+
+        private void writeBatterInnings(BatterInnings batterInnings) {
+            buffer.put((byte) batterInnings.state().ordinal());
+            codec.writePlayer(buffer, batterInnings.player());
+            writeShared(batterInnings.balls(), this::writeBalls);
+            buffer.putInt(batterInnings.numberCameIn());
+            writeInstant(batterInnings.inningsStartTime());
+            writeInstant(batterInnings.inningsEndTime());
+            Dismissal dismissal = batterInnings.dismissal();
+            buffer.put((byte) (dismissal == null ? NULL : dismissal.type().ordinal()));
+            if (dismissal != null) {
+                codec.writePlayer(buffer, dismissal.batter());
+                writeNullablePlayer(dismissal.bowler());
+                writeNullablePlayer(dismissal.fielder());
+            }
+        }
+
+        private void writeBowlerInnings(BowlerInnings bowlerInnings) {
+            codec.writePlayer(buffer, bowlerInnings.bowler());
+            writeShared(bowlerInnings.balls(), this::writeBalls);
+            writeList(bowlerInnings.spells(), this::writeSpell);
+            writeList(bowlerInnings.overs(), this::writeOver);
+            buffer.putInt(bowlerInnings.wickets());
+            buffer.putInt(bowlerInnings.maidens());
+        }
+
+        private void writeSpell(BowlingSpell spell) {
+            codec.writePlayer(buffer, spell.bowler());
+            buffer.putInt(spell.spellNumber());
+            writeList(spell.overs(), this::writeOver);
+            writeShared(spell.balls(), this::writeBalls);
+            buffer.putInt(spell.wickets());
+            buffer.putInt(spell.maidens());
+        }
+
+        private void writeOver(Over over) {
+            buffer.putInt(over.inningsNumber());
+            buffer.putInt(over.overNumber());
+            codec.writePlayer(buffer, over.striker());
+            codec.writePlayer(buffer, over.nonStriker());
+            writeShared(over.balls(), this::writeBalls);
+            codec.writePlayer(buffer, over.bowler());
+            buffer.putInt(over.ballsInOver());
+            writeInstant(over.startTime());
+        }
+
+        private void writeBalls(Balls balls) {
+            buffer.putInt(balls.size());
+            for (BallCompletedEvent ball : balls) {
+                buffer.putInt(eventPosition(ball));
+            }
+        }
+
+        private int eventPosition(MatchEvent event) {
+            int position = control.indexOf(event);
+            if (position == -1) {
+                throw new IllegalArgumentException(event + " is not in the history of the match");
+            }
+            return position;
+        }
+
+        /**
+         * Writes the value the first time it is seen, and after that writes a reference to the first one
+         */
+        private <T> void writeShared(@Nullable T value, Consumer<T> writeValue) {
+            if (value == null) {
+                buffer.putInt(NULL);
+                return;
+            }
+            Integer id = ids.get(value);
+            if (id != null) {
+                buffer.putInt(id);
+                return;
+            }
+            buffer.putInt(NEW);
+            writeValue.accept(value);
+            ids.put(value, ids.size());
+        }
+
+        private <T> void writeList(ImmutableList<T> values, Consumer<T> writeValue) {
+            buffer.putInt(values.size());
+            for (T value : values) {
+                writeShared(value, writeValue);
+            }
+        }
+
+        private void writeNullablePlayer(@Nullable Player player) {
+            buffer.put((byte) (player == null ? 0 : 1));
+            if (player != null) {
+                codec.writePlayer(buffer, player);
+            }
+        }
+
+        private void writeNullableInt(@Nullable Integer value) {
+            buffer.put((byte) (value == null ? 0 : 1));
+            if (value != null) {
+                buffer.putInt(value);
+            }
+        }
+
+        private void writeInstant(@Nullable Instant instant) {
+            buffer.put((byte) (instant == null ? 0 : 1));
+            if (instant != null) {
+                buffer.putLong(instant.getEpochSecond());
+                buffer.putInt(instant.getNano());
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final EventCodec codec;
+        private final ByteBuffer buffer;
+        private final List<? extends MatchEvent> events;
+        private final List<Object> shared = new ArrayList<>();
+
+        private Reader(EventCodec codec, ByteBuffer buffer, List<? extends MatchEvent> events) {
+            this.codec = codec;
+            this.buffer = buffer;
+            this.events = events;
+        }
+
+        private Match readMatch(MatchStartingEvent startingEvent) {
+            Match.State state = MATCH_STATES[buffer.get()];
+            MatchResult result = readResult(startingEvent.teamLineUps());
+            ImmutableList<Innings> completedInningsList = readList(this::readInnings);
+            Innings currentInnings = readShared(this::readInnings);
+            Balls balls = readShared(this::readBalls);
+            return Match.restored(startingEvent, state, result, completedInningsList, currentInnings, balls);
+        }
+
+        private @Nullable MatchResult readResult(ImmutableList<LineUp<?>> teams) {
+            if (buffer.get() == 0) {
+                return null;
+            }
+            MatchResult.ResultType resultType = RESULT_TYPES[buffer.get()];
+            int winningTeam = buffer.getInt();
+            byte wonBy = buffer.get();
+            return MatchResult.matchResult()
+                .withResultType(resultType)
+                .withWinningTeam(winningTeam == NULL ? null : teams.get(winningTeam))
+                .withWonBy(wonBy == NULL ? null : MEASURES[wonBy])
+                .withWonByAmount(readNullableInt())
+                .withDuckworthLewisApplied(buffer.get() == 1)
+                .build();
+        }
+
+        private Innings readInnings() {
+            InningsStartingEvent data = event(buffer.getInt(), InningsStartingEvent.class);
+            Score score = EventCodec.readScore(buffer);
+            ImmutableList<Partnership> partnerships = readList(this::readPartnership);
+            BatterInnings currentStriker = readShared(this::readBatterInnings);
+            BatterInnings currentNonStriker = readShared(this::readBatterInnings);
+            ImmutableList<BatterInnings> batters = readList(this::readBatterInnings);
+            int yetToBatCount = buffer.getInt();
+            List<Player> yetToBat = new ArrayList<>(yetToBatCount);
+            for (int i = 0; i < yetToBatCount; i++) {
+                yetToBat.add(codec.readPlayer(buffer));
+            }
+            ImmutableList<Over> completedOvers = readList(this::readOver);
+            Over currentOver = readShared(this::readOver);
+            Instant endTime = readInstant();
+            Balls balls = readShared(this::readBalls);
+            ImmutableList<BowlerInnings> bowlerInningses = readList(this::readBowlerInnings);
+            Innings.State state = INNINGS_STATES[buffer.get()];
+            return Innings.restored(data, score, partnerships, currentStriker, currentNonStriker, batters,
+                new ImmutableList<>(yetToBat), completedOvers, currentOver, endTime, balls, bowlerInningses, state,
+                readNullableInt(), readNullableInt(), readNullableInt());
+        }
+
+        private Partnership readPartnership() {
+            BattingState state = BATTING_STATES[buffer.get()];
+            Player first = codec.readPlayer(buffer);
+            Player second = codec.readPlayer(buffer);
+            int wicketNumber = buffer.getInt();
+            Instant startTime = readInstant();
+            Balls balls = readShared(this::readBalls);
+            Balls firstBatterContribution = readShared(this::readBalls);
+            Balls secondBatterContribution = readShared(this::readBalls);
+            return Partnership.restored(state, first, second, wicketNumber, startTime, balls, firstBatterContribution,
+                secondBatterContribution, readInstant());
+        }
+
+        private BatterInnings readBatterInnings() {
+            BattingState state = BATTING_STATES[buffer.get()];
+            Player player = codec.readPlayer(buffer);
+            Balls balls = readShared(this::readBalls);
+            int numberCameIn = buffer.getInt();
+            Instant startTime = readInstant();
+            Instant endTime = readInstant();
+            byte dismissalType = buffer.get();
+            Dismissal dismissal = null;
+            if (dismissalType != NULL) {
+                dismissal = Dismissal.dismissal()
+                    .withType(DISMISSAL_TYPES[dismissalType])
+                    .withBatter(codec.readPlayer(buffer))
+                    .withBowler(readNullablePlayer())
+                    .withFielder(readNullablePlayer())
+                    .build();
+            }
+            return new BatterInnings(state, player, balls, numberCameIn, startTime, endTime, dismissal);
+        }
+
+        private BowlerInnings readBowlerInnings() {
+            Player bowler = codec.readPlayer(buffer);
+            Balls balls = readShared(this::readBalls);
+            ImmutableList<BowlingSpell> spells = readList(this::readSpell);
+            ImmutableList<Over> overs = readList(this::readOver);
+            return new BowlerInnings(bowler, balls, spells, overs, buffer.getInt(), buffer.getInt());
+        }
+
+        private BowlingSpell readSpell() {
+            Player bowler = codec.readPlayer(buffer);
+            int spellNumber = buffer.getInt();
+            ImmutableList<Over> overs = readList(this::readOver);
+            Balls balls = readShared(this::readBalls);
+            return new BowlingSpell(bowler, spellNumber, overs, balls, buffer.getInt(), buffer.getInt());
+        }
+
+        private Over readOver() {
+            int inningsNumber = buffer.getInt();
+            int overNumber = buffer.getInt();
+            Player striker = codec.readPlayer(buffer);
+            Player nonStriker = codec.readPlayer(buffer);
+            Balls balls = readShared(this::readBalls);
+            Player bowler = codec.readPlayer(buffer);
+            int ballsInOver = buffer.getInt();
+            return new Over(inningsNumber, overNumber, striker, nonStriker, balls, bowler, ballsInOver, readInstant());
+        }
+
+        private Balls readBalls() {
+            int size = buffer.getInt();
+            List<BallCompletedEvent> balls = new ArrayList<>(size);
+            Score.Accumulator score = Score.accumulator();
+            for (int i = 0; i < size; i++) {
+                BallCompletedEvent ball = event(buffer.getInt(), BallCompletedEvent.class);
+                balls.add(ball);
+                score.add(ball.score());
+            }
+            return new Balls(new ImmutableList<>(balls), score.build());
+        }
+
+        private <T extends MatchEvent> T event(int position, Class<T> type) {
+            MatchEvent event = position < 0 || position >= events.size() ? null : events.get(position);
+            if (!type.isInstance(event)) {
+                throw new IllegalArgumentException("The snapshot expected a " + type.getSimpleName() + " at position " + position + " of the events");
+            }
+            return type.cast(event);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T readShared(Supplier<T> readValue) {
+            int id = buffer.getInt();
+            if (id == NULL) {
+                return null;
+            }
+            if (id == NEW) {
+                T value = readValue.get();
+                shared.add(value);
+                return value;
+            }
+            return (T) shared.get(id);
+        }
+
+        private <T> ImmutableList<T> readList(Supplier<T> readValue) {
+            int size = buffer.getInt();
+            List<T> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(readShared(readValue));
+            }
+            return new ImmutableList<>(values);
+        }
+
+        private @Nullable Player readNullablePlayer() {
+            return buffer.get() == 0 ? null : codec.readPlayer(buffer);
+        }
+
+        private @Nullable Integer readNullableInt() {
+            return buffer.get() == 0 ? null : buffer.getInt();
+        }
+
+        private @Nullable Instant readInstant() {
+            return buffer.get() == 0 ? null : Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+        }
+    }
+}
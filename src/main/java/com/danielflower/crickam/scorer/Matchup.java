@@ -0,0 +1,95 @@
+package com.danielflower.crickam.scorer;
+
+import com.danielflower.crickam.scorer.events.BallCompletedEvent;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The balls bowled by one bowler to one batter in an innings.
+ *
+ * @see Matchups
+ */
+@Immutable
+public final class Matchup {
+
+    private final Player batter;
+    private final Player bowler;
+    private final Score score;
+    private final int dismissals;
+    private final int rowIndex;
+    private final int columnIndex;
+
+    private Matchup(Player batter, Player bowler, Score score, int dismissals, int rowIndex, int columnIndex) {
+        this.batter = batter;
+        this.bowler = bowler;
+        this.score = score;
+        this.dismissals = dismissals;
+        this.rowIndex = rowIndex;
+        this.columnIndex = columnIndex;
+    }
+
+    static Matchup newMatchup(Player batter, Player bowler, int rowIndex, int columnIndex) {
+        return new Matchup(batter, bowler, Score.EMPTY, 0, rowIndex, columnIndex);
+    }
+
+    Matchup onBall(BallCompletedEvent ball) {
+        Dismissal dismissal = ball.dismissal();
+        boolean out = dismissal != null && dismissal.type().creditedToBowler() && dismissal.batter().samePlayer(batter);
+        return new Matchup(batter, bowler, score.add(ball.runsScored()), out ? dismissals + 1 : dismissals, rowIndex, columnIndex);
+    }
+
+    /**
+     * @return The batter
+     */
+    public @Nonnull Player batter() {
+        return batter;
+    }
+
+    /**
+     * @return The bowler
+     */
+    public @Nonnull Player bowler() {
+        return bowler;
+    }
+
+    /**
+     * @return The total score of all the balls this bowler has bowled to this batter, including extras
+     */
+    public @Nonnull Score score() {
+        return score;
+    }
+
+    /**
+     * @return The number of times the bowler has dismissed the batter, counting only dismissals that are
+     * {@link DismissalType#creditedToBowler() credited to the bowler}
+     */
+    public @Nonnegative int dismissals() {
+        return dismissals;
+    }
+
+    /**
+     * @return The position of this matchup in {@link Matchups#forBatter(Player)}
+     */
+    int rowIndex() {
+        return rowIndex;
+    }
+
+    /**
+     * @return The position of this matchup in {@link Matchups#forBowler(Player)}
+     */
+    int columnIndex() {
+        return columnIndex;
+    }
+
+    @Override
+    public String toString() {
+        return "Matchup{" +
+            "batter=" + batter +
+            ", bowler=" + bowler +
+            ", score=" + score +
+            ", dismissals=" + dismissals +
+            '}';
+    }
+}
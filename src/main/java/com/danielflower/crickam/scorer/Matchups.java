@@ -0,0 +1,104 @@
+package com.danielflower.crickam.scorer;
+
+import com.danielflower.crickam.scorer.events.BallCompletedEvent;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import static com.danielflower.crickam.scorer.ImmutableList.emptyList;
+
+/**
+ * Every batter-versus-bowler pairing in an innings, such as all the balls a bowler has bowled to a batter.
+ * <p>Get this from {@link Innings#matchups()}. It is updated as each ball is bowled, so finding a pairing does not
+ * need a search through the balls of the innings. Each new version shares all the pairings that did not change on
+ * a ball with the previous version.</p>
+ */
+@Immutable
+public final class Matchups {
+
+    private static final Matchups EMPTY = new Matchups(ImmutableMap.playerMap(), ImmutableMap.playerMap(), ImmutableMap.playerMap(), 0);
+
+    private final ImmutableMap<Player, ImmutableMap<Player, Matchup>> pairs;
+    private final ImmutableMap<Player, ImmutableList<Matchup>> rows;
+    private final ImmutableMap<Player, ImmutableList<Matchup>> columns;
+    private final int size;
+
+    private Matchups(ImmutableMap<Player, ImmutableMap<Player, Matchup>> pairs, ImmutableMap<Player, ImmutableList<Matchup>> rows,
+                     ImmutableMap<Player, ImmutableList<Matchup>> columns, @Nonnegative int size) {
+        this.pairs = pairs;
+        this.rows = rows;
+        this.columns = columns;
+        this.size = size;
+    }
+
+    static @Nonnull Matchups empty() {
+        return EMPTY;
+    }
+
+    @Nonnull Matchups onBall(BallCompletedEvent ball) {
+        Player batter = ball.striker();
+        Player bowler = ball.bowler();
+        ImmutableMap<Player, Matchup> bowlersOfBatter = pairs.get(batter);
+        if (bowlersOfBatter == null) {
+            bowlersOfBatter = ImmutableMap.playerMap();
+        }
+        ImmutableList<Matchup> row = forBatter(batter);
+        ImmutableList<Matchup> column = forBowler(bowler);
+        Matchup existing = bowlersOfBatter.get(bowler);
+        int newSize = size;
+        if (existing == null) {
+            existing = Matchup.newMatchup(batter, bowler, row.size(), column.size());
+            row = row.add(existing);
+            column = column.add(existing);
+            newSize++;
+        }
+        Matchup updated = existing.onBall(ball);
+        return new Matchups(
+            pairs.put(batter, bowlersOfBatter.put(bowler, updated)),
+            rows.put(batter, row.set(updated.rowIndex(), updated)),
+            columns.put(bowler, column.set(updated.columnIndex(), updated)),
+            newSize);
+    }
+
+    /**
+     * @param batter The batter
+     * @param bowler The bowler
+     * @return The balls bowled by the bowler to the batter, or null if the bowler has not bowled to the batter
+     */
+    public @Nullable Matchup get(Player batter, Player bowler) {
+        ImmutableMap<Player, Matchup> bowlersOfBatter = pairs.get(batter);
+        return bowlersOfBatter == null ? null : bowlersOfBatter.get(bowler);
+    }
+
+    /**
+     * @param batter The batter
+     * @return The matchups of each bowler the batter has faced, in the order the batter first faced them
+     */
+    public @Nonnull ImmutableList<Matchup> forBatter(Player batter) {
+        ImmutableList<Matchup> row = rows.get(batter);
+        return row == null ? emptyList() : row;
+    }
+
+    /**
+     * @param bowler The bowler
+     * @return The matchups of each batter the bowler has bowled to, in the order the bowler first bowled to them
+     */
+    public @Nonnull ImmutableList<Matchup> forBowler(Player bowler) {
+        ImmutableList<Matchup> column = columns.get(bowler);
+        return column == null ? emptyList() : column;
+    }
+
+    /**
+     * @return The number of batter and bowler pairs that have faced each other
+     */
+    public @Nonnegative int size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "Matchups{" + size + " pairs}";
+    }
+}
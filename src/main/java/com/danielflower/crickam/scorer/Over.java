@@ -28,7 +28,7 @@ public final class Over {
 	private final int ballsInOver;
 	private final Instant startTime;
 
-    private Over(@Nonnegative int inningsNumber, @Nonnegative int overNumber, Player striker, Player nonStriker, Balls balls, Player bowler, @Nonnegative int ballsInOver, @Nullable Instant startTime) {
+    Over(@Nonnegative int inningsNumber, @Nonnegative int overNumber, Player striker, Player nonStriker, Balls balls, Player bowler, @Nonnegative int ballsInOver, @Nullable Instant startTime) {
         this.inningsNumber = inningsNumber;
         this.overNumber = overNumber;
         this.striker = Objects.requireNonNull(striker);
@@ -106,6 +106,13 @@ public final class Over {
 		return balls;
 	}
 
+    /**
+     * @return The time of the event that started the over
+     */
+    @Nullable Instant startTime() {
+        return startTime;
+    }
+
     /**
      * @return The runs scored in this over
      */
@@ -139,7 +146,7 @@ public final class Over {
      * @return The number of valid (or legal) balls bowled so far in this over.
      */
 	public @Nonnegative int validDeliveries() {
-		return (int) balls.list().stream().filter(BallCompletedEvent::isValid).count();
+		return balls.score().validDeliveries();
 	}
 
     /**
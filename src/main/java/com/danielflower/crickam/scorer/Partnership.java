@@ -101,6 +101,14 @@ public final class Partnership {
 	    return data.startTime;
     }
 
+    /**
+     * Creates a partnership with its state already known, such as one read from a {@link MatchSnapshot}
+     */
+    static Partnership restored(BattingState state, Player first, Player second, @Nonnegative int wicketNumber, @Nullable Instant startTime,
+                                Balls balls, Balls firstBatterContribution, Balls secondBatterContribution, @Nullable Instant endTime) {
+        return new Partnership(state, new FixedData(first, second, wicketNumber, startTime), balls, firstBatterContribution, secondBatterContribution, endTime);
+    }
+
     private Partnership(BattingState state, FixedData data, Balls balls, Balls firstBatterContribution, Balls secondBatterContribution, @Nullable Instant endTime) {
         this.state = state;
         this.data = requireNonNull(data);
@@ -110,6 +118,13 @@ public final class Partnership {
         this.endTime = endTime;
     }
 
+    /**
+     * @return Whether the partnership is in progress, or the reason it ended
+     */
+    @Nonnull BattingState state() {
+        return state;
+    }
+
     /**
      * @return The balls faced by {@link #firstBatter()} during this partnership
      */
@@ -0,0 +1,102 @@
+package com.danielflower.crickam.scorer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The batting and bowling records of every player found by a {@link StatsQuery}.
+ */
+@Immutable
+public final class PlayerStats {
+
+    private final int matches;
+    private final Map<Player, BattingStats> batting;
+    private final Map<Player, BowlingStats> bowling;
+
+    PlayerStats(int matches, Map<Player, BattingStats> batting, Map<Player, BowlingStats> bowling) {
+        this.matches = matches;
+        this.batting = batting;
+        this.bowling = bowling;
+    }
+
+    /**
+     * @return The number of matches that were included by the query
+     */
+    public @Nonnegative int matches() {
+        return matches;
+    }
+
+    /**
+     * @param player A player
+     * @return The batting record of the player, or null if they did not bat in any of the matches
+     */
+    public @Nullable BattingStats batting(Player player) {
+        return get(batting, player);
+    }
+
+    /**
+     * @param player A player
+     * @return The bowling record of the player, or null if they did not bowl in any of the matches
+     */
+    public @Nullable BowlingStats bowling(Player player) {
+        return get(bowling, player);
+    }
+
+    /**
+     * Finds the value for a player in a map keyed by player
+     * @param map The map to look in
+     * @param player The player to find
+     * @return The value for the player, or null if there is none
+     */
+    static @Nullable <V> V get(Map<Player, V> map, Player player) {
+        V value = map.get(player);
+        if (value != null) {
+            return value;
+        }
+        // players are compared with samePlayer, which may consider players equal that have different hash codes
+        for (Map.Entry<Player, V> entry : map.entrySet()) {
+            if (entry.getKey().samePlayer(player)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The batting records of all players, with the highest run scorers first
+     */
+    public @Nonnull ImmutableList<BattingStats> battingStats() {
+        List<BattingStats> list = new ArrayList<>(batting.values());
+        list.sort(Comparator.comparingInt(BattingStats::runs).reversed()
+            .thenComparingInt(BattingStats::balls)
+            .thenComparing(s -> s.player().name()));
+        return new ImmutableList<>(list);
+    }
+
+    /**
+     * @return The bowling records of all players, with the highest wicket takers first, and then those who have
+     * conceded the fewest runs
+     */
+    public @Nonnull ImmutableList<BowlingStats> bowlingStats() {
+        List<BowlingStats> list = new ArrayList<>(bowling.values());
+        list.sort(Comparator.comparingInt(BowlingStats::wickets).reversed()
+            .thenComparingInt(BowlingStats::runs)
+            .thenComparing(s -> s.player().name()));
+        return new ImmutableList<>(list);
+    }
+
+    @Override
+    public String toString() {
+        return "PlayerStats{" +
+            "matches=" + matches +
+            ", batters=" + batting.size() +
+            ", bowlers=" + bowling.size() +
+            '}';
+    }
+}
@@ -5,9 +5,10 @@ import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
-import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collector;
 
 /**
  * Runs scored, deliveries bowled, and wickets taken either from a single ball, or 0 or multiple balls.
@@ -18,6 +19,42 @@ import java.util.regex.Pattern;
  */
 @Immutable
 public final class Score {
+
+    private static final int BATTER_RUNS = 0;
+    private static final int WIDES = 1;
+    private static final int WIDE_DELIVERIES = 2;
+    private static final int NO_BALLS = 3;
+    private static final int LEG_BYES = 4;
+    private static final int BYES = 5;
+    private static final int PENALTY_RUNS = 6;
+    private static final int WICKETS = 7;
+    private static final int DOTS = 8;
+    private static final int SINGLES = 9;
+    private static final int TWOS = 10;
+    private static final int THREES = 11;
+    private static final int FOURS = 12;
+    private static final int SIXES = 13;
+    private static final int VALID_DELIVERIES = 14;
+    private static final int COUNTERS = 15;
+
+    /**
+     * The packed layout of each counter: which of the two words it is in, and how many bits it gets. The widths
+     * are large enough for an innings; anything larger (or negative) is stored unpacked instead.
+     */
+    private static final int[] WORD = {0, 1, 1, 1, 1, 1, 1, 1, 0, 0, 1, 1, 0, 0, 0};
+    private static final int[] WIDTH = {13, 8, 7, 7, 8, 7, 5, 6, 13, 11, 9, 7, 8, 6, 13};
+    private static final int[] SHIFT = new int[COUNTERS];
+    private static final long[] TOP_BITS = new long[2];
+
+    static {
+        int[] used = new int[2];
+        for (int i = 0; i < COUNTERS; i++) {
+            SHIFT[i] = used[WORD[i]];
+            used[WORD[i]] += WIDTH[i];
+            TOP_BITS[WORD[i]] |= 1L << (SHIFT[i] + WIDTH[i] - 1);
+        }
+    }
+
     /**
      * No balls delivered, with no wickets or runs scored.
      */
@@ -72,44 +109,134 @@ public final class Score {
      */
     public static final Score WICKET = new Score(0, 0, 0, 0, 0, 0, 0, 1, 1, 0, 0, 0, 0, 0, 1);
 
-    private final int batterRuns;
-    private final int wides;
-    private final int wideDeliveries;
-    private final int noBalls;
-    private final int legByes;
-    private final int byes;
-    private final int penaltyRuns;
-    private final int wickets;
-    private final int dots;
-    private final int singles;
-    private final int twos;
-    private final int threes;
-    private final int fours;
-    private final int sixes;
-    private final int validDeliveries;
+    /**
+     * The canonical instances of single-ball scores, in an open-addressed table keyed on the packed words
+     */
+    private static final Score[] FLYWEIGHTS = flyweights();
+
+    private static final int UNKNOWN = -1;
+    private static final int RUNS = 0;
+    private static final int RUNS_AND_WICKET = 1;
+    private static final int WIDE_RUNS = 2;
+    private static final int NO_BALL_RUNS = 3;
+    private static final int BYE_RUNS = 4;
+    private static final int LEG_BYE_RUNS = 5;
+    private static final int MODIFIERS = 6;
+    private static final int MAX_DIGITS = 9;
+
+    /**
+     * The results of {@link #parse(String)}, indexed by the modifier and then the number of runs
+     */
+    private static final Score[][] PARSED = parsedTokens();
+
+    private final long low;
+    private final long high;
+    private final @Nullable int[] unpacked;
 
     private Score(@Nonnegative int batterRuns, @Nonnegative int wides, @Nonnegative int wideDeliveries, @Nonnegative int noBalls, @Nonnegative int legByes, @Nonnegative int byes, @Nonnegative int penaltyRuns, @Nonnegative int wickets, @Nonnegative int dots, @Nonnegative int singles, @Nonnegative int twos, @Nonnegative int threes, @Nonnegative int fours, @Nonnegative int sixes, @Nonnegative int validDeliveries) {
-        this.wideDeliveries = wideDeliveries;
-        if ((singles > 0 || twos > 0 || threes > 0 || fours > 0 || sixes > 0 || byes > 0 || legByes > 0) && ((validDeliveries + wideDeliveries + noBalls) == 0)) {
+        this(new int[]{batterRuns, wides, wideDeliveries, noBalls, legByes, byes, penaltyRuns, wickets, dots, singles, twos, threes, fours, sixes, validDeliveries});
+    }
+
+    private Score(int[] counters) {
+        boolean packable = canPack(counters);
+        this.low = packable ? pack(counters, 0) : 0;
+        this.high = packable ? pack(counters, 1) : 0;
+        this.unpacked = packable ? null : counters;
+    }
+
+    private Score(long low, long high) {
+        this.low = low;
+        this.high = high;
+        this.unpacked = null;
+    }
+
+    private static Score of(int[] counters) {
+        if ((counters[SINGLES] > 0 || counters[TWOS] > 0 || counters[THREES] > 0 || counters[FOURS] > 0 || counters[SIXES] > 0 || counters[BYES] > 0 || counters[LEG_BYES] > 0)
+            && ((counters[VALID_DELIVERIES] + counters[WIDE_DELIVERIES] + counters[NO_BALLS]) == 0)) {
             throw new IllegalStateException("Wickets and runs from the bat can only be scored with valid or invalid balls are set too.");
         }
-        if (wideDeliveries > wides) {
+        if (counters[WIDE_DELIVERIES] > counters[WIDES]) {
             throw new IllegalStateException("There cannot be more wide deliveries than wide runs");
         }
-        this.batterRuns = batterRuns;
-        this.wides = wides;
-        this.noBalls = noBalls;
-        this.legByes = legByes;
-        this.byes = byes;
-        this.penaltyRuns = penaltyRuns;
-        this.wickets = wickets;
-        this.dots = dots;
-        this.singles = singles;
-        this.twos = twos;
-        this.threes = threes;
-        this.fours = fours;
-        this.sixes = sixes;
-        this.validDeliveries = validDeliveries;
+        return canPack(counters) ? packed(pack(counters, 0), pack(counters, 1)) : new Score(counters);
+    }
+
+    private static Score packed(long low, long high) {
+        Score cached = FLYWEIGHTS[find(FLYWEIGHTS, low, high)];
+        return cached == null ? new Score(low, high) : cached;
+    }
+
+    private static Score canonical(Score score) {
+        return score.unpacked == null ? packed(score.low, score.high) : score;
+    }
+
+    private static boolean canPack(int[] counters) {
+        for (int i = 0; i < COUNTERS; i++) {
+            if (counters[i] < 0 || counters[i] >= (1 << WIDTH[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long pack(int[] counters, int word) {
+        long packed = 0;
+        for (int i = 0; i < COUNTERS; i++) {
+            if (WORD[i] == word) {
+                packed |= ((long) counters[i]) << SHIFT[i];
+            }
+        }
+        return packed;
+    }
+
+    private int counter(int index) {
+        if (unpacked != null) {
+            return unpacked[index];
+        }
+        long word = WORD[index] == 0 ? low : high;
+        return (int) ((word >>> SHIFT[index]) & ((1L << WIDTH[index]) - 1));
+    }
+
+    private static Score[] flyweights() {
+        Score[] table = new Score[256];
+        List<Score> scores = new ArrayList<>(Arrays.asList(EMPTY, DOT_BALL, SINGLE, TWO, THREE, FOUR, SIX, WIDE, NO_BALL, BYE, LEG_BYE, WICKET));
+        for (int wickets = 0; wickets <= 1; wickets++) {
+            for (int runs = 0; runs <= 7; runs++) {
+                scores.add(ball(runs, 0, 0, 0, 0, wickets));
+                scores.add(ball(runs, 0, 1, 0, 0, wickets));
+            }
+            for (int extras = 1; extras <= 7; extras++) {
+                scores.add(ball(0, extras, 0, 0, 0, wickets));
+                scores.add(ball(0, 0, 0, extras, 0, wickets));
+                scores.add(ball(0, 0, 0, 0, extras, wickets));
+            }
+        }
+        for (Score score : scores) {
+            int slot = find(table, score.low, score.high);
+            if (table[slot] == null) {
+                table[slot] = score;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * @return The slot holding the given packed score, or else the empty slot where it would go
+     */
+    private static int find(Score[] table, long low, long high) {
+        int mask = table.length - 1;
+        int slot = (int) (((low * 0x9E3779B97F4A7C15L) + high) * 0x9E3779B97F4A7C15L >>> 56) & mask;
+        while (table[slot] != null && (table[slot].low != low || table[slot].high != high)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static Score ball(int batterRuns, int wides, int noBalls, int byes, int legByes, int wickets) {
+        boolean valid = wides == 0 && noBalls == 0;
+        return new Score(batterRuns, wides, wides > 0 ? 1 : 0, noBalls, legByes, byes, 0, wickets,
+            valid && batterRuns == 0 ? 1 : 0, batterRuns == 1 ? 1 : 0, batterRuns == 2 ? 1 : 0,
+            batterRuns == 3 ? 1 : 0, batterRuns == 4 ? 1 : 0, batterRuns == 6 ? 1 : 0, valid ? 1 : 0);
     }
 
     /**
@@ -121,18 +248,36 @@ public final class Score {
         return new Builder();
     }
 
+    /**
+     * Creates an accumulator, which totals many scores without creating a new score for each one added.
+     *
+     * @return A new accumulator with all values at zero
+     */
+    public static @Nonnull Accumulator accumulator() {
+        return new Accumulator();
+    }
+
+    /**
+     * Returns a {@code Collector} that adds up all the scores in a stream.
+     *
+     * @return a {@code Collector} which returns the total of all the input scores, or {@link #EMPTY} if there are none
+     */
+    public static @Nonnull Collector<Score, Accumulator, Score> toTotal() {
+        return Collector.<Score, Accumulator, Score>of(Accumulator::new, Accumulator::add, Accumulator::add, Accumulator::build);
+    }
+
     /**
      * @return The total runs scored for the team (which is runs off the bat plus extras)
      */
     public @Nonnegative int teamRuns() {
-        return bowlerRuns() + legByes + byes;
+        return bowlerRuns() + legByes() + byes();
     }
 
     /**
      * @return The number of runs ascribed to the bowler, which is total runs less byes and leg byes
      */
     public @Nonnegative int bowlerRuns() {
-        return batterRuns() + wides + noBalls + penaltyRuns;
+        return batterRuns() + wides() + noBalls() + penaltyRuns();
     }
 
     /**
@@ -146,7 +291,7 @@ public final class Score {
      * @return The number of runs ascribed by the batter, which is the total runs less extras.
      */
     public @Nonnegative int batterRuns() {
-        return batterRuns;
+        return counter(BATTER_RUNS);
     }
 
     /**
@@ -155,7 +300,7 @@ public final class Score {
      * @see #wideDeliveries()
      */
     public @Nonnegative int wides() {
-        return wides;
+        return counter(WIDES);
     }
 
     /**
@@ -164,7 +309,7 @@ public final class Score {
      * @see #wides()
      */
     public @Nonnegative int wideDeliveries() {
-        return wideDeliveries;
+        return counter(WIDE_DELIVERIES);
     }
 
     /**
@@ -172,35 +317,35 @@ public final class Score {
      * should return one, and {@link #batterRuns()} would return 4.
      */
     public @Nonnegative int noBalls() {
-        return noBalls;
+        return counter(NO_BALLS);
     }
 
     /**
      * @return The number of leg byes scored.
      */
     public @Nonnegative int legByes() {
-        return legByes;
+        return counter(LEG_BYES);
     }
 
     /**
      * @return The number of byes scored.
      */
     public @Nonnegative int byes() {
-        return byes;
+        return counter(BYES);
     }
 
     /**
      * @return The number of penalty runs awarded.
      */
     public @Nonnegative int penaltyRuns() {
-        return penaltyRuns;
+        return counter(PENALTY_RUNS);
     }
 
     /**
      * @return The number of wickets taken.
      */
     public @Nonnegative int wickets() {
-        return wickets;
+        return counter(WICKETS);
     }
 
     /**
@@ -210,28 +355,28 @@ public final class Score {
      * @return The number of dot balls
      */
     public @Nonnegative int dots() {
-        return dots;
+        return counter(DOTS);
     }
 
     /**
      * @return The number of times a single was scored from the bat
      */
     public @Nonnegative int singles() {
-        return singles;
+        return counter(SINGLES);
     }
 
     /**
      * @return The number of times a two was scored from the bat
      */
     public @Nonnegative int twos() {
-        return twos;
+        return counter(TWOS);
     }
 
     /**
      * @return The number of times a three was scored from the bat
      */
     public @Nonnegative int threes() {
-        return threes;
+        return counter(THREES);
     }
 
     /**
@@ -239,7 +384,7 @@ public final class Score {
      * the batters run 4 runs)
      */
     public @Nonnegative int fours() {
-        return fours;
+        return counter(FOURS);
     }
 
     /**
@@ -247,14 +392,14 @@ public final class Score {
      * cases where the batters run 6 runs)
      */
     public @Nonnegative int sixes() {
-        return sixes;
+        return counter(SIXES);
     }
 
     /**
      * @return The number of valid (or legal) deliveries bowled (i.e. the number of balls excluding wides and no-balls).
      */
     public @Nonnegative int validDeliveries() {
-        return validDeliveries;
+        return counter(VALID_DELIVERIES);
     }
 
     /**
@@ -279,14 +424,14 @@ public final class Score {
      * @return The number of extras that count against the bowler, i.e. wides plus no-balls
      */
     public @Nonnegative int bowlingExtras() {
-        return wides + noBalls;
+        return wides() + noBalls();
     }
 
     /**
      * @return The number of extras that do not count against the bowler, i.e. byes, leg byes, and penalty runs
      */
     public @Nonnegative int fieldingExtras() {
-        return byes + legByes + penaltyRuns;
+        return byes() + legByes() + penaltyRuns();
     }
 
     /**
@@ -301,7 +446,7 @@ public final class Score {
      * @return The average number of runs scored from the bat (i.e. excluding extras) per wicket, or null if there have been no wickets
      */
     public @Nullable Double battingAverage() {
-        return wickets == 0 ? null : batterRuns() / (double) wickets;
+        return wickets() == 0 ? null : batterRuns() / (double) wickets();
     }
 
     /**
@@ -309,7 +454,7 @@ public final class Score {
      * @see #bowlerEconomyRate()
      */
     public @Nonnull RPO runsPerOver() {
-        return RPO.fromDouble(validDeliveries == 0 ? 0.0 : 6.0 * (teamRuns() / (double) validDeliveries));
+        return RPO.fromDouble(validDeliveries() == 0 ? 0.0 : 6.0 * (teamRuns() / (double) validDeliveries()));
     }
 
     /**
@@ -317,14 +462,14 @@ public final class Score {
      * @see #runsPerOver()
      */
     public @Nonnull RPO bowlerEconomyRate() {
-        return RPO.fromDouble(validDeliveries == 0 ? 0.0 : 6.0 * ((batterRuns() + bowlingExtras()) / (double) validDeliveries));
+        return RPO.fromDouble(validDeliveries() == 0 ? 0.0 : 6.0 * ((batterRuns() + bowlingExtras()) / (double) validDeliveries()));
     }
 
     /**
      * @return The average number of (valid) balls bowled per wicket, or null if no wickets have been taken.
      */
     public @Nullable Double bowlingStrikeRate() {
-        return wickets == 0 ? null : validDeliveries / (double) wickets;
+        return wickets() == 0 ? null : validDeliveries() / (double) wickets();
     }
 
     /**
@@ -335,23 +480,18 @@ public final class Score {
      * @return A new score which is the addition of the current with the other score.
      */
     public @Nonnull Score add(Score other) {
-        return score()
-            .withBatterRuns(batterRuns + other.batterRuns)
-            .withWides(wides + other.wides)
-            .withWideDeliveries(wideDeliveries + other.wideDeliveries)
-            .withNoBalls(noBalls + other.noBalls)
-            .withLegByes(legByes + other.legByes)
-            .withByes(byes + other.byes)
-            .withPenaltyRuns(penaltyRuns + other.penaltyRuns)
-            .withWickets(wickets + other.wickets)
-            .withDots(dots + other.dots)
-            .withSingles(singles + other.singles)
-            .withTwos(twos + other.twos)
-            .withThrees(threes + other.threes)
-            .withFours(fours + other.fours)
-            .withSixes(sixes + other.sixes)
-            .withValidDeliveries(validDeliveries + other.validDeliveries)
-            .build();
+        if (unpacked == null && other.unpacked == null) {
+            long sumLow = addLanes(low, other.low, TOP_BITS[0]);
+            long sumHigh = addLanes(high, other.high, TOP_BITS[1]);
+            if (!overflows(low, other.low, sumLow, TOP_BITS[0]) && !overflows(high, other.high, sumHigh, TOP_BITS[1])) {
+                return packed(sumLow, sumHigh);
+            }
+        }
+        int[] sums = new int[COUNTERS];
+        for (int i = 0; i < COUNTERS; i++) {
+            sums[i] = counter(i) + other.counter(i);
+        }
+        return of(sums);
     }
 
     /**
@@ -362,43 +502,45 @@ public final class Score {
      * @return A new score which is the addition of the current with the other score.
      */
     public @Nonnull Score subtract(Score other) {
-        return score()
-            .withBatterRuns(batterRuns - other.batterRuns)
-            .withWides(wides - other.wides)
-            .withWideDeliveries(wideDeliveries - other.wideDeliveries)
-            .withNoBalls(noBalls - other.noBalls)
-            .withLegByes(legByes - other.legByes)
-            .withByes(byes - other.byes)
-            .withPenaltyRuns(penaltyRuns - other.penaltyRuns)
-            .withWickets(wickets - other.wickets)
-            .withDots(dots - other.dots)
-            .withSingles(singles - other.singles)
-            .withTwos(twos - other.twos)
-            .withThrees(threes - other.threes)
-            .withFours(fours - other.fours)
-            .withSixes(sixes - other.sixes)
-            .withValidDeliveries(validDeliveries - other.validDeliveries)
-            .build();
+        int[] differences = new int[COUNTERS];
+        for (int i = 0; i < COUNTERS; i++) {
+            differences[i] = counter(i) - other.counter(i);
+        }
+        return of(differences);
+    }
+
+    /**
+     * Adds each counter in one packed word to the same counter in another, without carrying between counters.
+     */
+    private static long addLanes(long x, long y, long topBits) {
+        return ((x & ~topBits) + (y & ~topBits)) ^ ((x ^ y) & topBits);
+    }
+
+    /**
+     * @return True if any counter in {@link #addLanes(long, long, long)} carried out of its top bit
+     */
+    private static boolean overflows(long x, long y, long sum, long topBits) {
+        return (((x & y) | ((x | y) & ~sum)) & topBits) != 0;
     }
 
     @Override
     public @Nonnull String toString() {
         return "Score{" +
-            "batterRuns=" + batterRuns +
-            ", wides=" + wides +
-            ", wideDeliveries=" + wideDeliveries +
-            ", noBalls=" + noBalls +
-            ", legByes=" + legByes +
-            ", byes=" + byes +
-            ", penaltyRuns=" + penaltyRuns +
-            ", wickets=" + wickets +
-            ", dots=" + dots +
-            ", singles=" + singles +
-            ", twos=" + twos +
-            ", threes=" + threes +
-            ", fours=" + fours +
-            ", sixes=" + sixes +
-            ", validDeliveries=" + validDeliveries +
+            "batterRuns=" + batterRuns() +
+            ", wides=" + wides() +
+            ", wideDeliveries=" + wideDeliveries() +
+            ", noBalls=" + noBalls() +
+            ", legByes=" + legByes() +
+            ", byes=" + byes() +
+            ", penaltyRuns=" + penaltyRuns() +
+            ", wickets=" + wickets() +
+            ", dots=" + dots() +
+            ", singles=" + singles() +
+            ", twos=" + twos() +
+            ", threes=" + threes() +
+            ", fours=" + fours() +
+            ", sixes=" + sixes() +
+            ", validDeliveries=" + validDeliveries() +
             '}';
     }
 
@@ -425,55 +567,116 @@ public final class Score {
      * @param text A score, such as &quot;1&quot;, &quot;1lb&quot; &quot;W&quot; etc
      * @return A built score, or null if unknown
      */
-    public static Score parse(String text) {
-        if (".".equals(text)) return DOT_BALL;
-        if ("W".equals(text)) return WICKET;
-        Pattern pattern = Pattern.compile("^(?<num>[0-9]+)(?<modifier>[A-Za-z]+)?$");
-        Matcher matcher = pattern.matcher(text);
-        if (!matcher.matches()) {
+    public static @Nullable Score parse(String text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Parses a whitespace-separated list of scorecard values, such as the balls of an over
+     * like &quot;1 . 4 W 2lb 1w&quot;.
+     *
+     * @param text The scores, each in a format allowed by {@link #parse(String)}
+     * @return The scores in the order they appear in the text
+     * @throws IllegalArgumentException if any score is unknown
+     */
+    public static @Nonnull ImmutableList<Score> parseAll(CharSequence text) {
+        List<Score> scores = new ArrayList<>();
+        int length = text.length();
+        int start = 0;
+        while (start < length) {
+            if (Character.isWhitespace(text.charAt(start))) {
+                start++;
+                continue;
+            }
+            int end = start + 1;
+            while (end < length && !Character.isWhitespace(text.charAt(end))) {
+                end++;
+            }
+            Score score = parse(text, start, end);
+            if (score == null) {
+                throw new IllegalArgumentException("Unknown score: " + text.subSequence(start, end));
+            }
+            scores.add(score);
+            start = end;
+        }
+        return new ImmutableList<>(scores);
+    }
+
+    private static @Nullable Score parse(CharSequence text, int start, int end) {
+        if (end - start == 1) {
+            char c = text.charAt(start);
+            if (c == '.') return DOT_BALL;
+            if (c == 'W') return WICKET;
+        }
+        int runs = 0;
+        int index = start;
+        while (index < end && text.charAt(index) >= '0' && text.charAt(index) <= '9') {
+            if (index - start == MAX_DIGITS) {
+                return null;
+            }
+            runs = runs * 10 + (text.charAt(index) - '0');
+            index++;
+        }
+        if (index == start) {
+            return null;
+        }
+        int modifier = modifier(text, index, end);
+        if (modifier == UNKNOWN) {
             return null;
         }
-        int runs = Integer.parseInt(matcher.group("num"));
-        String modifier = matcher.group("modifier");
-        Builder score = Score.score();
-        int batterRuns = runs;
-        boolean dotBallIfNoRuns = true;
-        if (modifier == null) {
-            score.withValidDeliveries(1);
-        } else {
-            switch (modifier) {
-                case "W":
-                    score.withWickets(1).withValidDeliveries(1).withBatterRuns(runs);
-                    break;
-                case "w":
-                    batterRuns = 0;
-                    score.withWides(runs).withWideDeliveries(1);
-                    dotBallIfNoRuns = false;
-                    break;
-                case "nb":
-                    batterRuns = runs - 1;
-                    score.withNoBalls(1).withBatterRuns(batterRuns);
-                    dotBallIfNoRuns = false;
-                    break;
-                case "b":
-                    batterRuns = 0;
-                    score.withByes(runs).withValidDeliveries(1);
-                    break;
-                case "lb":
-                    batterRuns = 0;
-                    score.withLegByes(runs).withValidDeliveries(1).withDots(1);
-                    break;
+        return runs < PARSED[modifier].length ? PARSED[modifier][runs] : token(runs, modifier);
+    }
+
+    private static int modifier(CharSequence text, int start, int end) {
+        switch (end - start) {
+            case 0:
+                return RUNS;
+            case 1:
+                switch (text.charAt(start)) {
+                    case 'W': return RUNS_AND_WICKET;
+                    case 'w': return WIDE_RUNS;
+                    case 'b': return BYE_RUNS;
+                    default: return UNKNOWN;
+                }
+            case 2:
+                if (text.charAt(start + 1) != 'b') return UNKNOWN;
+                switch (text.charAt(start)) {
+                    case 'n': return NO_BALL_RUNS;
+                    case 'l': return LEG_BYE_RUNS;
+                    default: return UNKNOWN;
+                }
+            default:
+                return UNKNOWN;
+        }
+    }
+
+    private static Score[][] parsedTokens() {
+        Score[][] table = new Score[MODIFIERS][10];
+        for (int modifier = 0; modifier < MODIFIERS; modifier++) {
+            for (int runs = 0; runs < table[modifier].length; runs++) {
+                table[modifier][runs] = token(runs, modifier);
             }
         }
-        return score
-            .withBatterRuns(batterRuns)
-            .withDots(dotBallIfNoRuns && batterRuns == 0 ? 1 : 0)
-            .withSingles(batterRuns == 1 ? 1 : 0)
-            .withTwos(batterRuns == 2 ? 1 : 0)
-            .withThrees(batterRuns == 3 ? 1 : 0)
-            .withFours(batterRuns == 4 ? 1 : 0)
-            .withSixes(batterRuns == 6 ? 1 : 0)
-            .build();
+        return table;
+    }
+
+    private static @Nullable Score token(int runs, int modifier) {
+        switch (modifier) {
+            case RUNS:
+                return canonical(ball(runs, 0, 0, 0, 0, 0));
+            case RUNS_AND_WICKET:
+                return canonical(ball(runs, 0, 0, 0, 0, 1));
+            case WIDE_RUNS:
+                return runs == 0 ? null : canonical(ball(0, runs, 0, 0, 0, 0));
+            case NO_BALL_RUNS:
+                return runs == 0 ? null : canonical(ball(runs - 1, 0, 1, 0, 0, 0));
+            case BYE_RUNS:
+                return canonical(ball(0, 0, 0, runs, 0, 0));
+            case LEG_BYE_RUNS:
+                return canonical(ball(0, 0, 0, 0, runs, 0));
+            default:
+                return null;
+        }
     }
 
     @Override
@@ -481,26 +684,24 @@ public final class Score {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Score score = (Score) o;
-        return batterRuns == score.batterRuns &&
-            wides == score.wides &&
-            wideDeliveries == score.wideDeliveries &&
-            noBalls == score.noBalls &&
-            legByes == score.legByes &&
-            byes == score.byes &&
-            penaltyRuns == score.penaltyRuns &&
-            wickets == score.wickets &&
-            dots == score.dots &&
-            singles == score.singles &&
-            twos == score.twos &&
-            threes == score.threes &&
-            fours == score.fours &&
-            sixes == score.sixes &&
-            validDeliveries == score.validDeliveries;
+        if (unpacked == null && score.unpacked == null) {
+            return low == score.low && high == score.high;
+        }
+        for (int i = 0; i < COUNTERS; i++) {
+            if (counter(i) != score.counter(i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public @Nonnegative int hashCode() {
-        return Objects.hash(batterRuns, wides, wideDeliveries, noBalls, legByes, byes, penaltyRuns, wickets, dots, singles, twos, threes, fours, sixes, validDeliveries);
+        int result = 1;
+        for (int i = 0; i < COUNTERS; i++) {
+            result = 31 * result + counter(i);
+        }
+        return result;
     }
 
     /**
@@ -717,20 +918,51 @@ public final class Score {
                 .withWideDeliveries(score.wideDeliveries());
         }
 
-        private static final Score[] COMMON = new Score[]{
-            EMPTY, DOT_BALL, SIX, FOUR, THREE, TWO, SINGLE, WIDE, NO_BALL, WICKET, BYE, LEG_BYE
-        };
-
         public @Nonnull Score build() {
-            Score score = new Score(batterRuns, wides, wideDeliveries, noBalls, legByes, byes, penaltyRuns, wickets,
-                dots, singles, twos, threes, fours, sixes, validDeliveries);
-            for (Score cached : COMMON) {
-                if (score.equals(cached)) {
-                    return cached;
-                }
+            return of(new int[]{batterRuns, wides, wideDeliveries, noBalls, legByes, byes, penaltyRuns, wickets,
+                dots, singles, twos, threes, fours, sixes, validDeliveries});
+        }
+
+    }
+
+    /**
+     * A mutable running total of scores.
+     * <p>Adding a score to an accumulator updates its counters in place, so a score is only created when
+     * {@link #build()} is called. This makes it suitable for totalling large numbers of scores. It is not
+     * thread safe.</p>
+     *
+     * @see #toTotal()
+     */
+    public static final class Accumulator {
+        private final int[] counters = new int[COUNTERS];
+
+        /**
+         * @param score The score to add to the total
+         * @return This accumulator
+         */
+        public @Nonnull Accumulator add(Score score) {
+            for (int i = 0; i < COUNTERS; i++) {
+                counters[i] += score.counter(i);
+            }
+            return this;
+        }
+
+        /**
+         * @param other Another accumulator whose total should be added to this one
+         * @return This accumulator
+         */
+        public @Nonnull Accumulator add(Accumulator other) {
+            for (int i = 0; i < COUNTERS; i++) {
+                counters[i] += other.counters[i];
             }
-            return score;
+            return this;
         }
 
+        /**
+         * @return The total of all the scores added so far
+         */
+        public @Nonnull Score build() {
+            return of(counters.clone());
+        }
     }
 }
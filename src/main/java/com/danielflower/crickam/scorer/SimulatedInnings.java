@@ -0,0 +1,149 @@
+package com.danielflower.crickam.scorer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * An innings being played out by a {@link MatchSimulator}, as seen by a {@link BallOutcomeModel}.
+ * <p>Unlike {@link Innings}, this only holds the totals of the innings and is changed in place as each simulated
+ * ball is bowled, so a simulation does not need to create any objects per ball. The same object is reused for each
+ * innings of each simulation run by a thread.</p>
+ * <p>This class is not thread safe.</p>
+ */
+public final class SimulatedInnings {
+
+    private LineUp<?> battingTeam;
+    private LineUp<?> bowlingTeam;
+    private int inningsNumber;
+    private int runs;
+    private int wickets;
+    private int wicketsRemaining;
+    private int ballsBowled;
+    private Integer maxBalls;
+    private Integer target;
+    private boolean followingOn;
+
+    SimulatedInnings() {
+    }
+
+    void reset(int inningsNumber, LineUp<?> battingTeam, LineUp<?> bowlingTeam, int runs, int wickets, int wicketsRemaining,
+               int ballsBowled, @Nullable Integer maxBalls, @Nullable Integer target, boolean followingOn) {
+        this.inningsNumber = inningsNumber;
+        this.battingTeam = battingTeam;
+        this.bowlingTeam = bowlingTeam;
+        this.runs = runs;
+        this.wickets = wickets;
+        this.wicketsRemaining = wicketsRemaining;
+        this.ballsBowled = ballsBowled;
+        this.maxBalls = maxBalls;
+        this.target = target;
+        this.followingOn = followingOn;
+    }
+
+    void onBall(BallOutcome outcome) {
+        runs += outcome.runs();
+        if (outcome.valid()) {
+            ballsBowled++;
+        }
+        if (outcome.wicket()) {
+            wickets++;
+            wicketsRemaining--;
+        }
+    }
+
+    /**
+     * @return True if the batting team is all out, has no balls left, or has reached its target
+     */
+    boolean isComplete() {
+        return wicketsRemaining <= 0
+            || (maxBalls != null && ballsBowled >= maxBalls)
+            || targetReached();
+    }
+
+    boolean targetReached() {
+        return target != null && runs >= target;
+    }
+
+    /**
+     * @return The number of this innings in the match, where the first innings is 1
+     */
+    public @Nonnegative int inningsNumber() {
+        return inningsNumber;
+    }
+
+    /**
+     * @return The team batting in this innings
+     */
+    public @Nonnull LineUp<?> battingTeam() {
+        return battingTeam;
+    }
+
+    /**
+     * @return The team bowling in this innings
+     */
+    public @Nonnull LineUp<?> bowlingTeam() {
+        return bowlingTeam;
+    }
+
+    /**
+     * @return The runs scored in this innings so far, including extras
+     */
+    public @Nonnegative int runs() {
+        return runs;
+    }
+
+    /**
+     * @return The number of wickets that have fallen in this innings so far
+     */
+    public @Nonnegative int wickets() {
+        return wickets;
+    }
+
+    /**
+     * @return The number of wickets left before the batting team is all out
+     */
+    public @Nonnegative int wicketsRemaining() {
+        return wicketsRemaining;
+    }
+
+    /**
+     * @return The number of valid balls bowled in this innings so far
+     */
+    public @Nonnegative int ballsBowled() {
+        return ballsBowled;
+    }
+
+    /**
+     * @return The maximum number of valid balls in this innings, or null if there is no limit
+     */
+    public @Nullable Integer maxBalls() {
+        return maxBalls;
+    }
+
+    /**
+     * @return The score the batting team needs to reach to win, or null if this innings has no target
+     */
+    public @Nullable Integer target() {
+        return target;
+    }
+
+    /**
+     * @return True if the batting team is following on
+     */
+    public boolean followingOn() {
+        return followingOn;
+    }
+
+    @Override
+    public String toString() {
+        return "SimulatedInnings{" +
+            "inningsNumber=" + inningsNumber +
+            ", battingTeam=" + battingTeam.teamName() +
+            ", score=" + runs + "/" + wickets +
+            ", ballsBowled=" + ballsBowled +
+            ", maxBalls=" + maxBalls +
+            ", target=" + target +
+            '}';
+    }
+}
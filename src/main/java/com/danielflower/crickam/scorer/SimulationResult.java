@@ -0,0 +1,143 @@
+package com.danielflower.crickam.scorer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.Arrays;
+
+/**
+ * The chances of each result of a match, as estimated by a {@link MatchSimulator}.
+ * <p>Along with the result of the match, the final score of the innings in progress (or the next innings to start
+ * if none is in progress) is recorded in each simulation, giving the chances of that innings ending on each
+ * score.</p>
+ */
+@Immutable
+public final class SimulationResult {
+
+    private final LineUp<?> firstTeam;
+    private final LineUp<?> secondTeam;
+    private final int simulations;
+    private final long[] results;
+    private final int projectedInningsNumber;
+    private final long[] projectedScores;
+    private final long projectedCount;
+
+    SimulationResult(LineUp<?> firstTeam, LineUp<?> secondTeam, int simulations, long[] results, int projectedInningsNumber, long[] projectedScores, long projectedCount) {
+        this.firstTeam = firstTeam;
+        this.secondTeam = secondTeam;
+        this.simulations = simulations;
+        this.results = results.clone();
+        this.projectedInningsNumber = projectedInningsNumber;
+        int length = projectedScores.length;
+        while (length > 0 && projectedScores[length - 1] == 0) {
+            length--;
+        }
+        this.projectedScores = Arrays.copyOf(projectedScores, length);
+        this.projectedCount = projectedCount;
+    }
+
+    /**
+     * @return The number of times the match was simulated
+     */
+    public @Nonnegative int simulations() {
+        return simulations;
+    }
+
+    /**
+     * @param team One of the teams in the match
+     * @return The fraction of simulations, from 0 to 1, that the team won
+     */
+    public double winProbability(LineUp<?> team) {
+        if (firstTeam.sameTeam(team)) return probability(results[0]);
+        if (secondTeam.sameTeam(team)) return probability(results[1]);
+        throw new IllegalArgumentException(team + " is not playing in this match");
+    }
+
+    /**
+     * @return The fraction of simulations, from 0 to 1, that ended in a tie
+     */
+    public double tieProbability() {
+        return probability(results[2]);
+    }
+
+    /**
+     * @return The fraction of simulations, from 0 to 1, that ended in a draw
+     */
+    public double drawProbability() {
+        return probability(results[3]);
+    }
+
+    private double probability(long count) {
+        return (double) count / simulations;
+    }
+
+    /**
+     * @return The number of the innings in the match whose final score is projected, where the first innings is 1
+     */
+    public @Nonnegative int projectedInningsNumber() {
+        return projectedInningsNumber;
+    }
+
+    /**
+     * @param runs A score
+     * @return The fraction of simulations where the projected innings ended on exactly this score. This is 0 if the
+     * match had a result before the innings was played.
+     */
+    public double projectedScoreProbability(int runs) {
+        if (runs < 0 || runs >= projectedScores.length) {
+            return 0;
+        }
+        return (double) projectedScores[runs] / simulations;
+    }
+
+    /**
+     * @return The average final score of the projected innings, or null if the match had a result before the
+     * innings was played
+     */
+    public @Nullable Double averageProjectedScore() {
+        if (projectedCount == 0) {
+            return null;
+        }
+        double total = 0;
+        for (int runs = 0; runs < projectedScores.length; runs++) {
+            total += (double) runs * projectedScores[runs];
+        }
+        return total / projectedCount;
+    }
+
+    /**
+     * @param fraction A number from 0 to 1, for example 0.9 for the 90th percentile
+     * @return The lowest score that the projected innings ended on or below in at least the given fraction of the
+     * simulations where it was played, or null if the match had a result before the innings was played
+     */
+    public @Nullable Integer projectedScorePercentile(double fraction) {
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("fraction must be between 0 and 1 but was " + fraction);
+        }
+        if (projectedCount == 0) {
+            return null;
+        }
+        long needed = Math.max(1, (long) Math.ceil(fraction * projectedCount));
+        long seen = 0;
+        for (int runs = 0; runs < projectedScores.length; runs++) {
+            seen += projectedScores[runs];
+            if (seen >= needed) {
+                return runs;
+            }
+        }
+        return projectedScores.length - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "SimulationResult{" +
+            "simulations=" + simulations +
+            ", " + firstTeam.teamName() + "=" + winProbability(firstTeam) +
+            ", " + secondTeam.teamName() + "=" + winProbability(secondTeam) +
+            ", tie=" + tieProbability() +
+            ", draw=" + drawProbability() +
+            ", averageProjectedScore=" + averageProjectedScore() +
+            '}';
+    }
+}
@@ -0,0 +1,323 @@
+package com.danielflower.crickam.scorer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A query that totals the batting and bowling records of every player over a number of matches.
+ * <p>Create a query with {@link #statsQuery()}, optionally restricting it to a format, a team or a range of dates,
+ * and then run it against any collection of matches:</p>
+ * <pre>{@code
+ * PlayerStats stats = StatsQuery.statsQuery()
+ *     .withOversPerInnings(20)
+ *     .withTeamName("New Zealand")
+ *     .build()
+ *     .run(matches);
+ * BattingStats batting = stats.batting(player);
+ * }</pre>
+ * <p>Matches are split between the threads of a {@link ForkJoinPool}, with each thread totalling its matches into
+ * its own {@link BattingStats.Accumulator} and {@link BowlingStats.Accumulator} per player, and the partial totals
+ * are added together as the threads finish. The result is the same no matter how the matches are split.</p>
+ * <p>Players are matched across matches with {@link Player#samePlayer(Player)}. Players are first looked up by
+ * hash code, and players not found that way are compared with every player seen so far, so queries are quickest when
+ * the same player objects, or players whose hash codes agree with {@code samePlayer}, are used in each match.</p>
+ */
+@Immutable
+public final class StatsQuery {
+
+    /**
+     * The number of matches below which a task totals its matches rather than splitting them further
+     */
+    private static final int MIN_MATCHES_PER_TASK = 4;
+
+    private final Integer inningsPerTeam;
+    private final Integer oversPerInnings;
+    private final String teamName;
+    private final Instant startTime;
+    private final Instant endTime;
+
+    private StatsQuery(@Nullable Integer inningsPerTeam, @Nullable Integer oversPerInnings, @Nullable String teamName, @Nullable Instant startTime, @Nullable Instant endTime) {
+        if (startTime != null && endTime != null && endTime.isBefore(startTime)) {
+            throw new IllegalArgumentException("The end time " + endTime + " is before the start time " + startTime);
+        }
+        this.inningsPerTeam = inningsPerTeam;
+        this.oversPerInnings = oversPerInnings;
+        this.teamName = teamName;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    /**
+     * @return A new builder with no restrictions
+     */
+    public static @Nonnull Builder statsQuery() {
+        return new Builder();
+    }
+
+    /**
+     * Totals the matches on the common fork-join pool
+     *
+     * @param matches The matches to total, which may be complete or in progress
+     * @return The records of every player in the matching matches
+     */
+    public @Nonnull PlayerStats run(Collection<Match> matches) {
+        return run(matches, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Totals the matches on the given pool
+     *
+     * @param matches The matches to total, which may be complete or in progress
+     * @param pool The pool to run on
+     * @return The records of every player in the matching matches
+     */
+    public @Nonnull PlayerStats run(Collection<Match> matches, ForkJoinPool pool) {
+        Match[] array = matches.toArray(new Match[0]);
+        int threshold = Math.max(MIN_MATCHES_PER_TASK, array.length / (pool.getParallelism() * 4));
+        Partial partial = pool.invoke(new Task(array, 0, array.length, threshold));
+        return partial.build();
+    }
+
+    /**
+     * @param match A match
+     * @return True if the match is included by this query's format and date restrictions
+     */
+    public boolean includes(Match match) {
+        if (inningsPerTeam != null && match.numberOfInningsPerTeam() != inningsPerTeam) {
+            return false;
+        }
+        if (oversPerInnings != null && !oversPerInnings.equals(match.oversPerInnings())) {
+            return false;
+        }
+        if (startTime != null || endTime != null) {
+            Instant time = match.time() != null ? match.time() : match.scheduledStartTime();
+            if (time == null) return false;
+            if (startTime != null && time.isBefore(startTime)) return false;
+            if (endTime != null && !time.isBefore(endTime)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of innings per team that matches must have, or null for any
+     */
+    public @Nullable Integer inningsPerTeam() {
+        return inningsPerTeam;
+    }
+
+    /**
+     * @return The number of overs per innings that matches must have, or null for any
+     */
+    public @Nullable Integer oversPerInnings() {
+        return oversPerInnings;
+    }
+
+    /**
+     * @return The name of the team that players must be batting or bowling for, or null for any
+     */
+    public @Nullable String teamName() {
+        return teamName;
+    }
+
+    /**
+     * @return The earliest start time (inclusive) of matches, or null for no limit
+     */
+    public @Nullable Instant startTime() {
+        return startTime;
+    }
+
+    /**
+     * @return The latest start time (exclusive) of matches, or null for no limit
+     */
+    public @Nullable Instant endTime() {
+        return endTime;
+    }
+
+    @Override
+    public String toString() {
+        return "StatsQuery{" +
+            "inningsPerTeam=" + inningsPerTeam +
+            ", oversPerInnings=" + oversPerInnings +
+            ", teamName='" + teamName + '\'' +
+            ", startTime=" + startTime +
+            ", endTime=" + endTime +
+            '}';
+    }
+
+    private void addMatch(Partial partial, Match match) {
+        if (!includes(match)) {
+            return;
+        }
+        partial.matches++;
+        for (Innings innings : match.inningsList()) {
+            if (teamName == null || teamName.equals(innings.battingTeam().teamName())) {
+                for (BatterInnings batterInnings : innings.batterInningsList()) {
+                    Player player = batterInnings.player();
+                    BattingStats.Accumulator accumulator = PlayerStats.get(partial.batting, player);
+                    if (accumulator == null) {
+                        accumulator = BattingStats.accumulator(player);
+                        partial.batting.put(player, accumulator);
+                    }
+                    accumulator.add(batterInnings);
+                }
+            }
+            if (teamName == null || teamName.equals(innings.bowlingTeam().teamName())) {
+                for (BowlerInnings bowlerInnings : innings.bowlerInningsList()) {
+                    Player player = bowlerInnings.bowler();
+                    BowlingStats.Accumulator accumulator = PlayerStats.get(partial.bowling, player);
+                    if (accumulator == null) {
+                        accumulator = BowlingStats.accumulator(player);
+                        partial.bowling.put(player, accumulator);
+                    }
+                    accumulator.add(bowlerInnings);
+                }
+            }
+        }
+    }
+
+    /**
+     * The totals of the matches seen by one task
+     */
+    private static final class Partial {
+        private int matches;
+        private final Map<Player, BattingStats.Accumulator> batting = new HashMap<>();
+        private final Map<Player, BowlingStats.Accumulator> bowling = new HashMap<>();
+
+        private Partial add(Partial other) {
+            matches += other.matches;
+            other.batting.forEach((player, acc) -> {
+                BattingStats.Accumulator existing = PlayerStats.get(batting, player);
+                if (existing == null) {
+                    batting.put(player, acc);
+                } else {
+                    existing.add(acc);
+                }
+            });
+            other.bowling.forEach((player, acc) -> {
+                BowlingStats.Accumulator existing = PlayerStats.get(bowling, player);
+                if (existing == null) {
+                    bowling.put(player, acc);
+                } else {
+                    existing.add(acc);
+                }
+            });
+            return this;
+        }
+
+        private PlayerStats build() {
+            Map<Player, BattingStats> battingStats = new HashMap<>(batting.size() * 2);
+            batting.forEach((player, acc) -> battingStats.put(player, acc.build()));
+            Map<Player, BowlingStats> bowlingStats = new HashMap<>(bowling.size() * 2);
+            bowling.forEach((player, acc) -> bowlingStats.put(player, acc.build()));
+            return new PlayerStats(matches, battingStats, bowlingStats);
+        }
+    }
+
+    private final class Task extends RecursiveTask<Partial> {
+        private final Match[] matches;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        private Task(Match[] matches, int from, int to, int threshold) {
+            this.matches = matches;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= threshold) {
+                Partial partial = new Partial();
+                for (int i = from; i < to; i++) {
+                    addMatch(partial, matches[i]);
+                }
+                return partial;
+            }
+            int mid = (from + to) >>> 1;
+            Task left = new Task(matches, from, mid, threshold);
+            left.fork();
+            Partial right = new Task(matches, mid, to, threshold).compute();
+            return left.join().add(right);
+        }
+    }
+
+    /**
+     * A builder of {@link StatsQuery} objects
+     */
+    public static final class Builder {
+        private Integer inningsPerTeam;
+        private Integer oversPerInnings;
+        private String teamName;
+        private Instant startTime;
+        private Instant endTime;
+
+        private Builder() {
+        }
+
+        /**
+         * @param inningsPerTeam The number of innings per team of the matches to include, for example {@code 2} for
+         *                       test matches, or null for any
+         * @return This builder
+         */
+        public @Nonnull Builder withInningsPerTeam(@Nullable Integer inningsPerTeam) {
+            this.inningsPerTeam = inningsPerTeam;
+            return this;
+        }
+
+        /**
+         * @param oversPerInnings The number of overs per innings of the matches to include, for example {@code 20}
+         *                        for T20 matches, or null for any
+         * @return This builder
+         */
+        public @Nonnull Builder withOversPerInnings(@Nullable Integer oversPerInnings) {
+            this.oversPerInnings = oversPerInnings;
+            return this;
+        }
+
+        /**
+         * @param teamName When set, only batting for this team and bowling against other teams is counted
+         * @return This builder
+         * @see LineUp#teamName()
+         */
+        public @Nonnull Builder withTeamName(@Nullable String teamName) {
+            this.teamName = teamName;
+            return this;
+        }
+
+        /**
+         * @param startTime When set, only matches starting at or after this time are included
+         * @return This builder
+         */
+        public @Nonnull Builder withStartTime(@Nullable Instant startTime) {
+            this.startTime = startTime;
+            return this;
+        }
+
+        /**
+         * @param endTime When set, only matches starting before this time are included
+         * @return This builder
+         */
+        public @Nonnull Builder withEndTime(@Nullable Instant endTime) {
+            this.endTime = endTime;
+            return this;
+        }
+
+        /**
+         * @return A new query
+         */
+        public @Nonnull StatsQuery build() {
+            return new StatsQuery(inningsPerTeam, oversPerInnings, teamName, startTime, endTime);
+        }
+    }
+}
@@ -0,0 +1,664 @@
+package com.danielflower.crickam.scorer.events;
+
+import com.danielflower.crickam.scorer.*;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.UUID;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes match events to, and reads them from, a compact binary format.
+ * <p>A codec is created for a single match with {@link #forMatch(MatchStartingEvent)} or
+ * {@link #forLineUps(ImmutableList)}. Players are not written by name but as their position in the batting order of
+ * one of the match's line-ups, and line-ups are written as their index in {@link MatchStartingEvent#teamLineUps()},
+ * so decoding gives back the same player and line-up objects used by the match. This means that the line-ups
+ * themselves are not written when a {@link MatchStartingEvent} is encoded, and that a player who is not in the
+ * batting order of either team, such as a substitute fielder, can only be encoded by a codec created with
+ * {@link #forLineUps(ImmutableList, ImmutableList)} that lists them as one of its other players.</p>
+ * <p>Each event begins with a byte holding the format version in the top four bits and the type of event in the
+ * bottom four. Numbers are written as variable length integers, so most take a single byte; optional values are
+ * marked as present or absent with bit flags; and scores are written as a mask of the counters that are not zero
+ * followed by the value of each of those counters. Enums are written as their ordinal, so new constants may only
+ * be added at the end of an enum.</p>
+ * <p>Custom data cannot be encoded, so encoding an event that has any throws an exception.</p>
+ * <p>Codecs are immutable and may be shared between threads, but a buffer must only be used by one thread at a
+ * time.</p>
+ */
+@Immutable
+public final class EventCodec {
+
+    /**
+     * The version of the format written by this class
+     */
+    public static final int VERSION = 1;
+
+    private static final int MATCH_STARTING = 0;
+    private static final int INNINGS_STARTING = 1;
+    private static final int BATTER_INNINGS_STARTING = 2;
+    private static final int OVER_STARTING = 3;
+    private static final int BALL_COMPLETED = 4;
+    private static final int OVER_COMPLETED = 5;
+    private static final int BATTER_INNINGS_COMPLETED = 6;
+    private static final int INNINGS_COMPLETED = 7;
+    private static final int MATCH_COMPLETED = 8;
+
+    // flags common to all events
+    private static final int UNDO_POINT = 1;
+    private static final int HAS_TIME = 1 << 1;
+    // flags for the rest of each event start here
+    private static final int FIRST_FLAG = 1 << 2;
+
+    private static final DismissalType[] DISMISSAL_TYPES = DismissalType.values();
+    private static final BattingState[] BATTING_STATES = BattingState.values();
+    private static final DeliveryType[] DELIVERY_TYPES = DeliveryType.values();
+    private static final WicketSide[] WICKET_SIDES = WicketSide.values();
+    private static final ShotType[] SHOT_TYPES = ShotType.values();
+    private static final ImpactOnBat[] IMPACTS = ImpactOnBat.values();
+    private static final MatchResult.ResultType[] RESULT_TYPES = MatchResult.ResultType.values();
+    private static final MatchResult.Measure[] MEASURES = MatchResult.Measure.values();
+
+    private final ImmutableList<LineUp<?>> teams;
+    private final Player[] players;
+    private final Map<Player, Integer> playerIndexes = new HashMap<>();
+
+    private EventCodec(ImmutableList<LineUp<?>> teams, ImmutableList<Player> otherPlayers) {
+        this.teams = teams;
+        int count = otherPlayers.size();
+        for (LineUp<?> team : teams) {
+            count += team.battingOrder().size();
+        }
+        this.players = new Player[count];
+        int index = 0;
+        for (LineUp<?> team : teams) {
+            for (Player player : team.battingOrder()) {
+                players[index] = player;
+                playerIndexes.putIfAbsent(player, index);
+                index++;
+            }
+        }
+        for (Player player : otherPlayers) {
+            players[index] = player;
+            playerIndexes.putIfAbsent(player, index);
+            index++;
+        }
+    }
+
+    /**
+     * @param matchStartingEvent The event that started the match
+     * @return A codec that can encode and decode the events of the given match
+     */
+    public static @Nonnull EventCodec forMatch(MatchStartingEvent matchStartingEvent) {
+        return forLineUps(matchStartingEvent.teamLineUps());
+    }
+
+    /**
+     * Creates a codec for a match before its starting event is available, for example to read its events back
+     * from storage.
+     *
+     * @param teamLineUps The line-ups of the match, in the same order as {@link MatchStartingEvent#teamLineUps()}
+     * @return A codec that can encode and decode the events of the match
+     */
+    public static @Nonnull EventCodec forLineUps(ImmutableList<LineUp<?>> teamLineUps) {
+        return forLineUps(teamLineUps, ImmutableList.emptyList());
+    }
+
+    /**
+     * Creates a codec for a match where events refer to players who are not in either batting order, such as
+     * substitute fielders.
+     * <p>The other players are written as their position after the players of the batting orders, so they must be
+     * given in the same order when the events are read back.</p>
+     *
+     * @param teamLineUps The line-ups of the match, in the same order as {@link MatchStartingEvent#teamLineUps()}
+     * @param otherPlayers Players who are not in the batting order of either line-up
+     * @return A codec that can encode and decode the events of the match
+     */
+    public static @Nonnull EventCodec forLineUps(ImmutableList<LineUp<?>> teamLineUps, ImmutableList<Player> otherPlayers) {
+        requireNonNull(teamLineUps, "teamLineUps");
+        requireNonNull(otherPlayers, "otherPlayers");
+        return new EventCodec(teamLineUps, otherPlayers);
+    }
+
+    /**
+     * @return The line-ups of the match this codec is for
+     */
+    public @Nonnull ImmutableList<LineUp<?>> teamLineUps() {
+        return teams;
+    }
+
+    /**
+     * Writes an event at the current position of the buffer, advancing the position to the end of the event.
+     *
+     * @param event The event to write
+     * @param buffer The buffer to write to
+     * @throws IllegalArgumentException If the event has custom data, is not one of the events in this package, or
+     * refers to a player or line-up that is not part of this match
+     * @throws BufferOverflowException If there is not enough space in the buffer, in which case the position of the
+     * buffer is undefined
+     */
+    public void encode(MatchEvent event, ByteBuffer buffer) {
+        if (event.customData() != null) {
+            throw new IllegalArgumentException("Events with custom data cannot be encoded: " + event);
+        }
+        int flags = (event.undoPoint() ? UNDO_POINT : 0) | (event.time() != null ? HAS_TIME : 0);
+        if (event instanceof BallCompletedEvent) {
+            BallCompletedEvent e = (BallCompletedEvent) event;
+            flags |= flag(0, e.playersCrossed()) | flag(1, e.dismissal() != null) | flag(2, e.delivery() != null)
+                | flag(3, e.swing() != null) | flag(4, e.trajectoryAtImpact() != null) | flag(5, e.fielder() != null);
+            writeHeader(buffer, BALL_COMPLETED, flags, event);
+            writePlayer(buffer, e.bowler());
+            writePlayer(buffer, e.striker());
+            writePlayer(buffer, e.nonStriker());
+            writeScore(buffer, e.runsScored());
+            if (e.dismissal() != null) {
+                writeUnsigned(buffer, e.dismissal().type().ordinal());
+                writePlayer(buffer, e.dismissal().batter());
+            }
+            if (e.delivery() != null) writeDelivery(buffer, e.delivery());
+            if (e.swing() != null) writeSwing(buffer, e.swing());
+            if (e.trajectoryAtImpact() != null) writeTrajectory(buffer, e.trajectoryAtImpact());
+            if (e.fielder() != null) writePlayer(buffer, e.fielder());
+            writeUnsigned(buffer, e.overNumber());
+            writeUnsigned(buffer, e.numberInOver());
+            writeUnsigned(buffer, e.numberInMatch());
+        } else if (event instanceof OverStartingEvent) {
+            OverStartingEvent e = (OverStartingEvent) event;
+            writeHeader(buffer, OVER_STARTING, flags, event);
+            writePlayer(buffer, e.bowler());
+            writePlayer(buffer, e.striker());
+            writePlayer(buffer, e.nonStriker());
+            writeUnsigned(buffer, e.ballsInOver());
+            writeUnsigned(buffer, e.overNumber());
+            writeUnsigned(buffer, e.inningsNumber());
+        } else if (event instanceof OverCompletedEvent) {
+            OverCompletedEvent e = (OverCompletedEvent) event;
+            writeHeader(buffer, OVER_COMPLETED, flags | flag(0, e.isMaiden()), event);
+            writePlayer(buffer, e.bowler());
+            writeSigned(buffer, e.inningsNumber());
+            writeSigned(buffer, e.overNumber());
+            writeSigned(buffer, e.ballsInOver());
+            writeScore(buffer, e.score());
+        } else if (event instanceof BatterInningsStartingEvent) {
+            writeHeader(buffer, BATTER_INNINGS_STARTING, flags, event);
+            writePlayer(buffer, ((BatterInningsStartingEvent) event).batter());
+        } else if (event instanceof BatterInningsCompletedEvent) {
+            BatterInningsCompletedEvent e = (BatterInningsCompletedEvent) event;
+            Dismissal dismissal = e.dismissal();
+            flags |= flag(0, dismissal != null)
+                | flag(1, dismissal != null && dismissal.bowler() != null)
+                | flag(2, dismissal != null && dismissal.fielder() != null);
+            writeHeader(buffer, BATTER_INNINGS_COMPLETED, flags, event);
+            writePlayer(buffer, e.batter());
+            writeUnsigned(buffer, e.reason().ordinal());
+            if (dismissal != null) {
+                writeUnsigned(buffer, dismissal.type().ordinal());
+                writePlayer(buffer, dismissal.batter());
+                if (dismissal.bowler() != null) writePlayer(buffer, dismissal.bowler());
+                if (dismissal.fielder() != null) writePlayer(buffer, dismissal.fielder());
+            }
+            writeScore(buffer, e.score());
+        } else if (event instanceof InningsStartingEvent) {
+            InningsStartingEvent e = (InningsStartingEvent) event;
+            flags |= flag(0, e.followingOn()) | flag(1, e.finalInnings()) | flag(2, e.maxBalls() != null)
+                | flag(3, e.maxOvers() != null) | flag(4, e.target() != null);
+            writeHeader(buffer, INNINGS_STARTING, flags, event);
+            writeScore(buffer, e.startingScore());
+            writeUnsigned(buffer, teamIndex(e.battingTeam()));
+            writeUnsigned(buffer, teamIndex(e.bowlingTeam()));
+            if (e.maxBalls() != null) writeSigned(buffer, e.maxBalls());
+            if (e.maxOvers() != null) writeSigned(buffer, e.maxOvers());
+            if (e.target() != null) writeSigned(buffer, e.target());
+            writeSigned(buffer, e.inningsNumberForMatch());
+            writeSigned(buffer, e.inningsNumberForBattingTeam());
+        } else if (event instanceof InningsCompletedEvent) {
+            InningsCompletedEvent e = (InningsCompletedEvent) event;
+            writeHeader(buffer, INNINGS_COMPLETED, flags | flag(0, e.declared()), event);
+            writeUnsigned(buffer, e.inningsNumber());
+            writeScore(buffer, e.score());
+        } else if (event instanceof MatchCompletedEvent) {
+            MatchResult result = ((MatchCompletedEvent) event).result();
+            flags |= flag(0, result.duckworthLewisApplied()) | flag(1, result.winningTeam() != null)
+                | flag(2, result.wonBy() != null) | flag(3, result.wonByAmount() != null);
+            writeHeader(buffer, MATCH_COMPLETED, flags, event);
+            writeUnsigned(buffer, result.resultType().ordinal());
+            if (result.winningTeam() != null) writeUnsigned(buffer, teamIndex(result.winningTeam()));
+            if (result.wonBy() != null) writeUnsigned(buffer, result.wonBy().ordinal());
+            if (result.wonByAmount() != null) writeSigned(buffer, result.wonByAmount());
+        } else if (event instanceof MatchStartingEvent) {
+            MatchStartingEvent e = (MatchStartingEvent) event;
+            if (!e.teamLineUps().equals(teams)) {
+                throw new IllegalArgumentException("The line-ups of " + e + " are not the line-ups of this codec");
+            }
+            flags |= flag(0, e.scheduledStartTime() != null) | flag(1, e.oversPerInnings() != null)
+                | flag(2, e.ballsPerInnings() != null) | flag(3, e.timeZone() != null);
+            writeHeader(buffer, MATCH_STARTING, flags, event);
+            writeUUID(buffer, e.matchID());
+            if (e.scheduledStartTime() != null) writeInstant(buffer, e.scheduledStartTime());
+            writeUnsigned(buffer, e.inningsPerTeam());
+            if (e.oversPerInnings() != null) writeSigned(buffer, e.oversPerInnings());
+            writeUnsigned(buffer, e.numberOfScheduledDays());
+            if (e.ballsPerInnings() != null) writeSigned(buffer, e.ballsPerInnings());
+            if (e.timeZone() != null) writeString(buffer, e.timeZone().getID());
+        } else {
+            throw new IllegalArgumentException("Unsupported event type: " + event.getClass().getName());
+        }
+    }
+
+    /**
+     * Reads an event from the current position of the buffer, advancing the position to the end of the event.
+     *
+     * @param buffer The buffer to read from
+     * @return The event
+     * @throws IllegalArgumentException If the data was not written by this version of the codec, or refers to a
+     * player or line-up that is not part of this match
+     * @throws BufferUnderflowException If the buffer ends before the event does
+     */
+    public @Nonnull MatchEvent decode(ByteBuffer buffer) {
+        int header = buffer.get() & 0xff;
+        int version = header >>> 4;
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported event format version " + version + " (expected " + VERSION + ")");
+        }
+        int type = header & 0x0f;
+        int flags = readUnsigned(buffer);
+        UUID id = readUUID(buffer);
+        Instant time = (flags & HAS_TIME) != 0 ? readInstant(buffer) : null;
+        switch (type) {
+            case BALL_COMPLETED: {
+                BallCompletedEvent.Builder builder = base(new BallCompletedEvent.Builder(), id, time, flags)
+                    .withBowler(readPlayer(buffer))
+                    .withStriker(readPlayer(buffer))
+                    .withNonStriker(readPlayer(buffer))
+                    .withRunsScored(readScore(buffer))
+                    .withPlayersCrossed(isSet(flags, 0));
+                if (isSet(flags, 1)) {
+                    builder.withDismissal(DISMISSAL_TYPES[readUnsigned(buffer)]).withDismissedBatter(readPlayer(buffer));
+                }
+                if (isSet(flags, 2)) builder.withDelivery(readDelivery(buffer));
+                if (isSet(flags, 3)) builder.withSwing(readSwing(buffer));
+                if (isSet(flags, 4)) builder.withTrajectoryAtImpact(readTrajectory(buffer));
+                if (isSet(flags, 5)) builder.withFielder(readPlayer(buffer));
+                return builder
+                    .withOverNumber(readUnsigned(buffer))
+                    .withNumberInOver(readUnsigned(buffer))
+                    .withNumberInMatch(readUnsigned(buffer))
+                    .build();
+            }
+            case OVER_STARTING:
+                return base(new OverStartingEvent.Builder(), id, time, flags)
+                    .withBowler(readPlayer(buffer))
+                    .withStriker(readPlayer(buffer))
+                    .withNonStriker(readPlayer(buffer))
+                    .withBallsInOver(readUnsigned(buffer))
+                    .withNumberInInnings(readUnsigned(buffer))
+                    .withInningsNumber(readUnsigned(buffer))
+                    .build();
+            case OVER_COMPLETED:
+                return base(new OverCompletedEvent.Builder(), id, time, flags)
+                    .withMaiden(isSet(flags, 0))
+                    .withBowler(readPlayer(buffer))
+                    .withInningsNumber(readSigned(buffer))
+                    .withOverNumber(readSigned(buffer))
+                    .withBallsInOver(readSigned(buffer))
+                    .withScore(readScore(buffer))
+                    .build();
+            case BATTER_INNINGS_STARTING:
+                return base(new BatterInningsStartingEvent.Builder(), id, time, flags)
+                    .withBatter(readPlayer(buffer))
+                    .build();
+            case BATTER_INNINGS_COMPLETED: {
+                BatterInningsCompletedEvent.Builder builder = base(new BatterInningsCompletedEvent.Builder(), id, time, flags)
+                    .withBatter(readPlayer(buffer))
+                    .withReason(BATTING_STATES[readUnsigned(buffer)]);
+                if (isSet(flags, 0)) {
+                    Dismissal.Builder dismissal = Dismissal.dismissal()
+                        .withType(DISMISSAL_TYPES[readUnsigned(buffer)])
+                        .withBatter(readPlayer(buffer));
+                    if (isSet(flags, 1)) dismissal.withBowler(readPlayer(buffer));
+                    if (isSet(flags, 2)) dismissal.withFielder(readPlayer(buffer));
+                    builder.withDismissal(dismissal.build());
+                }
+                return builder.withScore(readScore(buffer)).build();
+            }
+            case INNINGS_STARTING:
+                return base(new InningsStartingEvent.Builder(), id, time, flags)
+                    .withFollowingOn(isSet(flags, 0))
+                    .withFinalInnings(isSet(flags, 1))
+                    .withStartingScore(readScore(buffer))
+                    .withBattingTeam(readTeam(buffer))
+                    .withBowlingTeam(readTeam(buffer))
+                    .withMaxBalls(isSet(flags, 2) ? readSigned(buffer) : null)
+                    .withMaxOvers(isSet(flags, 3) ? readSigned(buffer) : null)
+                    .withTarget(isSet(flags, 4) ? readSigned(buffer) : null)
+                    .withInningsNumberForMatch(readSigned(buffer))
+                    .withInningsNumberForBattingTeam(readSigned(buffer))
+                    .build();
+            case INNINGS_COMPLETED:
+                return base(new InningsCompletedEvent.Builder(), id, time, flags)
+                    .withDeclared(isSet(flags, 0))
+                    .withInningsNumber(readUnsigned(buffer))
+                    .withScore(readScore(buffer))
+                    .build();
+            case MATCH_COMPLETED:
+                return base(new MatchCompletedEvent.Builder(), id, time, flags)
+                    .withResult(MatchResult.matchResult()
+                        .withDuckworthLewisApplied(isSet(flags, 0))
+                        .withResultType(RESULT_TYPES[readUnsigned(buffer)])
+                        .withWinningTeam(isSet(flags, 1) ? readTeam(buffer) : null)
+                        .withWonBy(isSet(flags, 2) ? MEASURES[readUnsigned(buffer)] : null)
+                        .withWonByAmount(isSet(flags, 3) ? readSigned(buffer) : null)
+                        .build())
+                    .build();
+            case MATCH_STARTING:
+                return base(new MatchStartingEvent.Builder(), id, time, flags)
+                    .withTeamLineUps(teams)
+                    .withMatchID(readUUID(buffer))
+                    .withScheduledStartTime(isSet(flags, 0) ? readInstant(buffer) : null)
+                    .withInningsPerTeam(readUnsigned(buffer))
+                    .withOversPerInnings(isSet(flags, 1) ? readSigned(buffer) : null)
+                    .withNumberOfScheduledDays(readUnsigned(buffer))
+                    .withBallsPerInnings(isSet(flags, 2) ? readSigned(buffer) : null)
+                    .withTimeZone(isSet(flags, 3) ? TimeZone.getTimeZone(readString(buffer)) : null)
+                    .build();
+            default:
+                throw new IllegalArgumentException("Unknown event type " + type);
+        }
+    }
+
+    private static <B extends BaseMatchEventBuilder<B, T>, T extends MatchEvent> B base(B builder, UUID id, @Nullable Instant time, int flags) {
+        return builder.withID(id).withTime(time).withUndoPoint((flags & UNDO_POINT) != 0);
+    }
+
+    private static int flag(int index, boolean value) {
+        return value ? FIRST_FLAG << index : 0;
+    }
+
+    private static boolean isSet(int flags, int index) {
+        return (flags & (FIRST_FLAG << index)) != 0;
+    }
+
+    private static void writeHeader(ByteBuffer buffer, int type, int flags, MatchEvent event) {
+        buffer.put((byte) ((VERSION << 4) | type));
+        writeUnsigned(buffer, flags);
+        writeUUID(buffer, event.id());
+        if (event.time() != null) writeInstant(buffer, event.time());
+    }
+
+    /**
+     * Writes a player as its index in the player dictionary of this codec, which is how players are written in
+     * events. This allows other formats, such as snapshots of a match, to share the dictionary.
+     *
+     * @param buffer The buffer to write to
+     * @param player A player in the batting order of one of the line-ups of this codec, or one of its other players
+     * @throws IllegalArgumentException The player is not in either batting order or the other players
+     */
+    public void writePlayer(ByteBuffer buffer, Player player) {
+        writeUnsigned(buffer, playerIndex(player));
+    }
+
+    private int playerIndex(Player player) {
+        Integer index = playerIndexes.get(player);
+        if (index != null) {
+            return index;
+        }
+        // players are compared with samePlayer, which may consider players equal that have different hash codes
+        for (int i = 0; i < players.length; i++) {
+            if (players[i].samePlayer(player)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(player + " is not in the batting order of either team or the other players of this codec");
+    }
+
+    /**
+     * @param buffer The buffer to read from
+     * @return A player written with {@link #writePlayer(ByteBuffer, Player)}
+     */
+    public @Nonnull Player readPlayer(ByteBuffer buffer) {
+        int index = readUnsigned(buffer);
+        if (index >= players.length) {
+            throw new IllegalArgumentException("There is no player with index " + index);
+        }
+        return players[index];
+    }
+
+    private int teamIndex(LineUp<?> team) {
+        for (int i = 0; i < teams.size(); i++) {
+            if (teams.get(i).sameTeam(team)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(team + " is not one of the teams in this match");
+    }
+
+    private @Nonnull LineUp<?> readTeam(ByteBuffer buffer) {
+        int index = readUnsigned(buffer);
+        if (index >= teams.size()) {
+            throw new IllegalArgumentException("There is no team with index " + index);
+        }
+        return teams.get(index);
+    }
+
+    /**
+     * Writes a score in the same way as scores are written in events.
+     * <p>Scores are written as a mask of the non-zero counters and then the value of each of them. The counters are
+     * ordered so that those most often set on a single ball come first and fit in the first byte of the mask.</p>
+     *
+     * @param buffer The buffer to write to
+     * @param score The score to write
+     */
+    public static void writeScore(ByteBuffer buffer, Score score) {
+        int[] counters = {
+            score.validDeliveries(), score.batterRuns(), score.dots(), score.singles(), score.wickets(),
+            score.fours(), score.twos(), score.sixes(), score.threes(), score.wides(), score.wideDeliveries(),
+            score.noBalls(), score.legByes(), score.byes(), score.penaltyRuns()
+        };
+        int mask = 0;
+        for (int i = 0; i < counters.length; i++) {
+            if (counters[i] != 0) mask |= 1 << i;
+        }
+        writeUnsigned(buffer, mask);
+        for (int counter : counters) {
+            if (counter != 0) writeSigned(buffer, counter);
+        }
+    }
+
+    /**
+     * @param buffer The buffer to read from
+     * @return A score written with {@link #writeScore(ByteBuffer, Score)}
+     */
+    public static @Nonnull Score readScore(ByteBuffer buffer) {
+        int mask = readUnsigned(buffer);
+        return Score.score()
+            .withValidDeliveries(counter(buffer, mask, 0))
+            .withBatterRuns(counter(buffer, mask, 1))
+            .withDots(counter(buffer, mask, 2))
+            .withSingles(counter(buffer, mask, 3))
+            .withWickets(counter(buffer, mask, 4))
+            .withFours(counter(buffer, mask, 5))
+            .withTwos(counter(buffer, mask, 6))
+            .withSixes(counter(buffer, mask, 7))
+            .withThrees(counter(buffer, mask, 8))
+            .withWides(counter(buffer, mask, 9))
+            .withWideDeliveries(counter(buffer, mask, 10))
+            .withNoBalls(counter(buffer, mask, 11))
+            .withLegByes(counter(buffer, mask, 12))
+            .withByes(counter(buffer, mask, 13))
+            .withPenaltyRuns(counter(buffer, mask, 14))
+            .build();
+    }
+
+    private static int counter(ByteBuffer buffer, int mask, int index) {
+        return (mask & (1 << index)) != 0 ? readSigned(buffer) : 0;
+    }
+
+    private static void writeDelivery(ByteBuffer buffer, Delivery delivery) {
+        int flags = presence(delivery.deliveryType(), delivery.speedInKilometers(), delivery.positionOfBounce(),
+            delivery.horizontalPitchInMeters(), delivery.changeInLineAfterBounceInDegrees(), delivery.bowledFrom());
+        buffer.put((byte) flags);
+        if (delivery.deliveryType() != null) writeUnsigned(buffer, delivery.deliveryType().ordinal());
+        if (delivery.speedInKilometers() != null) writeSigned(buffer, delivery.speedInKilometers());
+        if (delivery.positionOfBounce() != null) buffer.putDouble(delivery.positionOfBounce());
+        if (delivery.horizontalPitchInMeters() != null) buffer.putDouble(delivery.horizontalPitchInMeters());
+        if (delivery.changeInLineAfterBounceInDegrees() != null) buffer.putDouble(delivery.changeInLineAfterBounceInDegrees());
+        if (delivery.bowledFrom() != null) writeUnsigned(buffer, delivery.bowledFrom().ordinal());
+    }
+
+    private static @Nonnull Delivery readDelivery(ByteBuffer buffer) {
+        int flags = buffer.get();
+        return Delivery.delivery()
+            .withDeliveryType((flags & 1) != 0 ? DELIVERY_TYPES[readUnsigned(buffer)] : null)
+            .withSpeedInKilometers((flags & 1 << 1) != 0 ? readSigned(buffer) : null)
+            .withPositionOfBounce((flags & 1 << 2) != 0 ? buffer.getDouble() : null)
+            .withHorizontalPitchInMeters((flags & 1 << 3) != 0 ? buffer.getDouble() : null)
+            .withChangeInLineAfterBounceInDegrees((flags & 1 << 4) != 0 ? buffer.getDouble() : null)
+            .withBowledFrom((flags & 1 << 5) != 0 ? WICKET_SIDES[readUnsigned(buffer)] : null)
+            .build();
+    }
+
+    private static void writeSwing(ByteBuffer buffer, Swing swing) {
+        buffer.put((byte) presence(swing.shotType(), swing.impactOnBat(), swing.timing(), swing.footDirection(), swing.power()));
+        if (swing.shotType() != null) writeUnsigned(buffer, swing.shotType().ordinal());
+        if (swing.impactOnBat() != null) writeUnsigned(buffer, swing.impactOnBat().ordinal());
+        if (swing.timing() != null) buffer.putDouble(swing.timing());
+        if (swing.footDirection() != null) buffer.putDouble(swing.footDirection());
+        if (swing.power() != null) buffer.putDouble(swing.power());
+    }
+
+    private static @Nonnull Swing readSwing(ByteBuffer buffer) {
+        int flags = buffer.get();
+        return Swing.swing()
+            .withShotType((flags & 1) != 0 ? SHOT_TYPES[readUnsigned(buffer)] : null)
+            .withImpact((flags & 1 << 1) != 0 ? IMPACTS[readUnsigned(buffer)] : null)
+            .withTiming((flags & 1 << 2) != 0 ? buffer.getDouble() : null)
+            .withFootDirection((flags & 1 << 3) != 0 ? buffer.getDouble() : null)
+            .withPower((flags & 1 << 4) != 0 ? buffer.getDouble() : null)
+            .build();
+    }
+
+    private static void writeTrajectory(ByteBuffer buffer, Trajectory trajectory) {
+        buffer.put((byte) presence(trajectory.speedInKms(), trajectory.directionInDegreesRelativeToBatter(),
+            trajectory.launchAngle(), trajectory.distanceInMeters()));
+        if (trajectory.speedInKms() != null) writeSigned(buffer, trajectory.speedInKms());
+        if (trajectory.directionInDegreesRelativeToBatter() != null) buffer.putDouble(trajectory.directionInDegreesRelativeToBatter());
+        if (trajectory.launchAngle() != null) buffer.putDouble(trajectory.launchAngle());
+        if (trajectory.distanceInMeters() != null) buffer.putDouble(trajectory.distanceInMeters());
+    }
+
+    private static @Nonnull Trajectory readTrajectory(ByteBuffer buffer) {
+        int flags = buffer.get();
+        return Trajectory.trajectory()
+            .withSpeedInKms((flags & 1) != 0 ? readSigned(buffer) : null)
+            .withDirectionInDegreesRelativeToBatter((flags & 1 << 1) != 0 ? buffer.getDouble() : null)
+            .withLaunchAngle((flags & 1 << 2) != 0 ? buffer.getDouble() : null)
+            .withDistanceInMeters((flags & 1 << 3) != 0 ? buffer.getDouble() : null)
+            .build();
+    }
+
+    private static int presence(Object... values) {
+        int flags = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) flags |= 1 << i;
+        }
+        return flags;
+    }
+
+    private static void writeUUID(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static @Nonnull UUID readUUID(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static void writeInstant(ByteBuffer buffer, Instant instant) {
+        writeSignedLong(buffer, instant.getEpochSecond());
+        writeUnsigned(buffer, instant.getNano());
+    }
+
+    private static @Nonnull Instant readInstant(ByteBuffer buffer) {
+        return Instant.ofEpochSecond(readSignedLong(buffer), readUnsigned(buffer));
+    }
+
+    private static void writeString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeUnsigned(buffer, bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static @Nonnull String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[readUnsigned(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a number seven bits at a time, lowest bits first, with the top bit of each byte set if more follow.
+     */
+    private static void writeUnsigned(ByteBuffer buffer, @Nonnegative long value) {
+        while ((value & ~0x7fL) != 0) {
+            buffer.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long readUnsignedLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed variable length number");
+    }
+
+    private static int readUnsigned(ByteBuffer buffer) {
+        long value = readUnsignedLong(buffer);
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Number out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Writes a number that may be negative, mapping small negative numbers to small positive ones so that they
+     * take as few bytes as small positive ones do.
+     */
+    private static void writeSigned(ByteBuffer buffer, int value) {
+        writeUnsigned(buffer, ((value << 1) ^ (value >> 31)) & 0xffffffffL);
+    }
+
+    private static int readSigned(ByteBuffer buffer) {
+        int value = (int) readUnsignedLong(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeSignedLong(ByteBuffer buffer, long value) {
+        writeUnsigned(buffer, (value << 1) ^ (value >> 63));
+    }
+
+    private static long readSignedLong(ByteBuffer buffer) {
+        long value = readUnsignedLong(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    @Override
+    public String toString() {
+        return "EventCodec{version=" + VERSION + ", teams=" + teams.size() + ", players=" + players.length + '}';
+    }
+}
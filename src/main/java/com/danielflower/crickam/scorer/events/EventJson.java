@@ -0,0 +1,882 @@
+package com.danielflower.crickam.scorer.events;
+
+import com.danielflower.crickam.scorer.*;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Writes match events as JSON, and reads them back, without reflection or an intermediate tree of JSON values.
+ * <p>A codec is created for a single match with {@link #forMatch(MatchStartingEvent)} or
+ * {@link #forLineUps(ImmutableList)}. Players are written as their name and line-ups as their team name, and when
+ * reading they are resolved to the player and line-up objects of the match, so a player must be in the batting
+ * order of one of the line-ups and their name must not be shared with another player in the match. As with the
+ * {@link EventCodec}, the line-ups are not written as part of a {@link MatchStartingEvent} and custom data cannot
+ * be written.</p>
+ * <p>Each event is a JSON object whose first field is {@code "type"}, which is the name of the event class without
+ * the {@code Event} suffix, such as {@code "BallCompleted"}. The other fields have the names of the methods of the
+ * event, and fields with null values are left out. Times are ISO-8601 strings, enums are written as their names, and
+ * scores are objects holding the counters of the score that are not zero. Fields that are not known when reading
+ * are ignored.</p>
+ * <p>Codecs are immutable and may be shared between threads.</p>
+ */
+@Immutable
+public final class EventJson {
+
+    private static final String[] SCORE_FIELDS = {
+        "validDeliveries", "batterRuns", "dots", "singles", "wickets", "fours", "twos", "sixes", "threes", "wides",
+        "wideDeliveries", "noBalls", "legByes", "byes", "penaltyRuns"
+    };
+
+    private final ImmutableList<LineUp<?>> teams;
+    /**
+     * Players by name, where a name shared by more than one player maps to null
+     */
+    private final Map<String, Player> playersByName = new HashMap<>();
+    private final Map<String, LineUp<?>> teamsByName = new HashMap<>();
+
+    private EventJson(ImmutableList<LineUp<?>> teams) {
+        this.teams = teams;
+        for (LineUp<?> team : teams) {
+            for (Player player : team.battingOrder()) {
+                Player existing = playersByName.get(player.name());
+                boolean shared = playersByName.containsKey(player.name()) && (existing == null || !existing.samePlayer(player));
+                playersByName.put(player.name(), shared ? null : player);
+            }
+            teamsByName.put(team.teamName(), teamsByName.containsKey(team.teamName()) ? null : team);
+        }
+    }
+
+    /**
+     * @param matchStartingEvent The event that started the match
+     * @return A codec that can write and read the events of the given match
+     */
+    public static @Nonnull EventJson forMatch(MatchStartingEvent matchStartingEvent) {
+        return forLineUps(matchStartingEvent.teamLineUps());
+    }
+
+    /**
+     * Creates a codec for a match before its starting event is available, for example to read the starting event
+     * itself.
+     *
+     * @param teamLineUps The line-ups of the match, in the same order as {@link MatchStartingEvent#teamLineUps()}
+     * @return A codec that can write and read the events of the match
+     */
+    public static @Nonnull EventJson forLineUps(ImmutableList<LineUp<?>> teamLineUps) {
+        return new EventJson(teamLineUps);
+    }
+
+    /**
+     * @return The line-ups of the match this codec is for
+     */
+    public @Nonnull ImmutableList<LineUp<?>> teamLineUps() {
+        return teams;
+    }
+
+    /**
+     * @param event The event to convert
+     * @return The event as a JSON object
+     * @throws IllegalArgumentException If the event cannot be written (see {@link #write(MatchEvent, Appendable)})
+     */
+    public @Nonnull String toJson(MatchEvent event) {
+        StringBuilder sb = new StringBuilder(256);
+        try {
+            write(event, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes an event as UTF-8 encoded JSON to a stream. The stream is flushed but not closed.
+     *
+     * @param event The event to write
+     * @param out The stream to write to
+     * @throws IOException If the stream cannot be written to
+     * @throws IllegalArgumentException If the event cannot be written (see {@link #write(MatchEvent, Appendable)})
+     */
+    public void write(MatchEvent event, OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        write(event, writer);
+        writer.flush();
+    }
+
+    /**
+     * Writes an event as a JSON object.
+     * <p>If the event cannot be written then an exception is thrown, in which case part of the event may already
+     * have been appended.</p>
+     *
+     * @param event The event to write
+     * @param out The destination, such as a {@link StringBuilder} or {@link Writer}
+     * @throws IOException If appending fails
+     * @throws IllegalArgumentException If the event has custom data, is not one of the events in this package, or
+     * refers to a player or line-up that is not part of this match
+     */
+    public void write(MatchEvent event, Appendable out) throws IOException {
+        if (event.customData() != null) {
+            throw new IllegalArgumentException("Events with custom data cannot be written: " + event);
+        }
+        JsonWriter json = new JsonWriter(out);
+        json.beginObject();
+        if (event instanceof BallCompletedEvent) {
+            BallCompletedEvent e = (BallCompletedEvent) event;
+            writeBase(json, "BallCompleted", event);
+            writePlayer(json, "bowler", e.bowler());
+            writePlayer(json, "striker", e.striker());
+            writePlayer(json, "nonStriker", e.nonStriker());
+            json.name("runsScored");
+            writeScore(json, e.runsScored());
+            json.field("playersCrossed", e.playersCrossed());
+            if (e.dismissal() != null) {
+                json.name("dismissal");
+                writeDismissal(json, e.dismissal());
+            }
+            if (e.delivery() != null) {
+                json.name("delivery");
+                writeDelivery(json, e.delivery());
+            }
+            if (e.swing() != null) {
+                json.name("swing");
+                writeSwing(json, e.swing());
+            }
+            if (e.trajectoryAtImpact() != null) {
+                json.name("trajectoryAtImpact");
+                writeTrajectory(json, e.trajectoryAtImpact());
+            }
+            writePlayer(json, "fielder", e.fielder());
+            json.field("overNumber", e.overNumber());
+            json.field("numberInOver", e.numberInOver());
+            json.field("numberInMatch", e.numberInMatch());
+        } else if (event instanceof OverStartingEvent) {
+            OverStartingEvent e = (OverStartingEvent) event;
+            writeBase(json, "OverStarting", event);
+            writePlayer(json, "bowler", e.bowler());
+            writePlayer(json, "striker", e.striker());
+            writePlayer(json, "nonStriker", e.nonStriker());
+            json.field("ballsInOver", e.ballsInOver());
+            json.field("overNumber", e.overNumber());
+            json.field("inningsNumber", e.inningsNumber());
+        } else if (event instanceof OverCompletedEvent) {
+            OverCompletedEvent e = (OverCompletedEvent) event;
+            writeBase(json, "OverCompleted", event);
+            writePlayer(json, "bowler", e.bowler());
+            json.field("maiden", e.isMaiden());
+            json.field("inningsNumber", e.inningsNumber());
+            json.field("overNumber", e.overNumber());
+            json.field("ballsInOver", e.ballsInOver());
+            json.name("score");
+            writeScore(json, e.score());
+        } else if (event instanceof BatterInningsStartingEvent) {
+            writeBase(json, "BatterInningsStarting", event);
+            writePlayer(json, "batter", ((BatterInningsStartingEvent) event).batter());
+        } else if (event instanceof BatterInningsCompletedEvent) {
+            BatterInningsCompletedEvent e = (BatterInningsCompletedEvent) event;
+            writeBase(json, "BatterInningsCompleted", event);
+            writePlayer(json, "batter", e.batter());
+            json.field("reason", e.reason().name());
+            if (e.dismissal() != null) {
+                json.name("dismissal");
+                writeDismissal(json, e.dismissal());
+            }
+            json.name("score");
+            writeScore(json, e.score());
+        } else if (event instanceof InningsStartingEvent) {
+            InningsStartingEvent e = (InningsStartingEvent) event;
+            writeBase(json, "InningsStarting", event);
+            writeTeam(json, "battingTeam", e.battingTeam());
+            writeTeam(json, "bowlingTeam", e.bowlingTeam());
+            json.name("startingScore");
+            writeScore(json, e.startingScore());
+            json.field("followingOn", e.followingOn());
+            json.field("finalInnings", e.finalInnings());
+            if (e.maxBalls() != null) json.field("maxBalls", e.maxBalls());
+            if (e.maxOvers() != null) json.field("maxOvers", e.maxOvers());
+            if (e.target() != null) json.field("target", e.target());
+            json.field("inningsNumberForMatch", e.inningsNumberForMatch());
+            json.field("inningsNumberForBattingTeam", e.inningsNumberForBattingTeam());
+        } else if (event instanceof InningsCompletedEvent) {
+            InningsCompletedEvent e = (InningsCompletedEvent) event;
+            writeBase(json, "InningsCompleted", event);
+            json.field("inningsNumber", e.inningsNumber());
+            json.field("declared", e.declared());
+            json.name("score");
+            writeScore(json, e.score());
+        } else if (event instanceof MatchCompletedEvent) {
+            MatchResult result = ((MatchCompletedEvent) event).result();
+            writeBase(json, "MatchCompleted", event);
+            json.name("result");
+            json.beginObject();
+            json.field("resultType", result.resultType().name());
+            if (result.winningTeam() != null) writeTeam(json, "winningTeam", result.winningTeam());
+            if (result.wonBy() != null) json.field("wonBy", result.wonBy().name());
+            if (result.wonByAmount() != null) json.field("wonByAmount", result.wonByAmount());
+            json.field("duckworthLewisApplied", result.duckworthLewisApplied());
+            json.endObject();
+        } else if (event instanceof MatchStartingEvent) {
+            MatchStartingEvent e = (MatchStartingEvent) event;
+            if (!e.teamLineUps().equals(teams)) {
+                throw new IllegalArgumentException("The line-ups of " + e + " are not the line-ups of this codec");
+            }
+            writeBase(json, "MatchStarting", event);
+            json.field("matchID", e.matchID().toString());
+            if (e.scheduledStartTime() != null) json.field("scheduledStartTime", e.scheduledStartTime().toString());
+            json.field("inningsPerTeam", e.inningsPerTeam());
+            if (e.oversPerInnings() != null) json.field("oversPerInnings", e.oversPerInnings());
+            json.field("numberOfScheduledDays", e.numberOfScheduledDays());
+            if (e.ballsPerInnings() != null) json.field("ballsPerInnings", e.ballsPerInnings());
+            if (e.timeZone() != null) json.field("timeZone", e.timeZone().getID());
+        } else {
+            throw new IllegalArgumentException("Unsupported event type: " + event.getClass().getName());
+        }
+        json.endObject();
+    }
+
+    /**
+     * Writes a score as a JSON object holding each counter that is not zero, for example
+     * <code>{"batterRuns":4,"fours":1,"validDeliveries":1}</code>.
+     *
+     * @param score The score to write
+     * @param out The destination
+     * @throws IOException If appending fails
+     */
+    public static void writeScore(Score score, Appendable out) throws IOException {
+        writeScore(new JsonWriter(out), score);
+    }
+
+    /**
+     * Writes a delivery as a JSON object with the fields that are not null.
+     *
+     * @param delivery The delivery to write
+     * @param out The destination
+     * @throws IOException If appending fails
+     */
+    public static void writeDelivery(Delivery delivery, Appendable out) throws IOException {
+        writeDelivery(new JsonWriter(out), delivery);
+    }
+
+    /**
+     * Writes a swing as a JSON object with the fields that are not null.
+     *
+     * @param swing The swing to write
+     * @param out The destination
+     * @throws IOException If appending fails
+     */
+    public static void writeSwing(Swing swing, Appendable out) throws IOException {
+        writeSwing(new JsonWriter(out), swing);
+    }
+
+    /**
+     * Writes a trajectory as a JSON object with the fields that are not null.
+     *
+     * @param trajectory The trajectory to write
+     * @param out The destination
+     * @throws IOException If appending fails
+     */
+    public static void writeTrajectory(Trajectory trajectory, Appendable out) throws IOException {
+        writeTrajectory(new JsonWriter(out), trajectory);
+    }
+
+    /**
+     * Writes a dismissal as a JSON object, with the players written as their names.
+     *
+     * @param dismissal The dismissal to write
+     * @param out The destination
+     * @throws IOException If appending fails
+     * @throws IllegalArgumentException If a player in the dismissal is not part of this match
+     */
+    public void writeDismissal(Dismissal dismissal, Appendable out) throws IOException {
+        writeDismissal(new JsonWriter(out), dismissal);
+    }
+
+    /**
+     * Reads a single event.
+     *
+     * @param json A JSON object written by this class
+     * @return The event
+     * @throws IllegalArgumentException If the JSON is not valid, is not an event, has anything after the event,
+     * refers to a player or line-up that is not part of this match, or leaves out a value that is needed to build the
+     * event, in which case it can be read with {@link #readBuilder(CharSequence)}
+     */
+    public @Nonnull MatchEvent read(CharSequence json) {
+        try {
+            JsonReader reader = new JsonReader(json);
+            MatchEvent event = read(reader);
+            if (reader.hasMore()) {
+                throw reader.error("Unexpected content after the event");
+            }
+            return event;
+        } catch (IOException e) {
+            // not possible as nothing is read from a stream
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a single event into a builder without building it.
+     * <p>Events such as a {@link BallCompletedEvent} without its bowler and batters can only be built once the values
+     * that are left out have been worked out from the state of the match, so {@link #read(CharSequence)} cannot read
+     * them. The builder returned here can instead be passed to {@link MatchControl#onEvent(MatchEventBuilder)}, which
+     * fills in those values before building the event.</p>
+     *
+     * @param json A JSON object holding an event, which may leave out values that can be worked out from the match
+     * @return A builder for the event
+     * @throws IllegalArgumentException If the JSON is not valid, is not an event, has anything after the event, or
+     * refers to a player or line-up that is not part of this match
+     */
+    public @Nonnull MatchEventBuilder<?, ?> readBuilder(CharSequence json) {
+        try {
+            JsonReader reader = new JsonReader(json);
+            MatchEventBuilder<?, ?> builder = readBuilder(reader);
+            if (reader.hasMore()) {
+                throw reader.error("Unexpected content after the event");
+            }
+            return builder;
+        } catch (IOException e) {
+            // not possible as nothing is read from a stream
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a stream of events, such as newline delimited JSON, where each event is a JSON object and the objects
+     * are separated by whitespace. Events are passed to the consumer as soon as they have been read.
+     *
+     * @param in The source of the events, which is read until it ends but is not closed
+     * @param consumer Called with each event in the order they were read
+     * @throws IOException If reading fails
+     * @throws IllegalArgumentException If the JSON is not valid, is not a stream of events, refers to a player or
+     * line-up that is not part of this match, or leaves out a value that is needed to build an event
+     */
+    public void readAll(Reader in, Consumer<? super MatchEvent> consumer) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        while (reader.hasMore()) {
+            consumer.accept(read(reader));
+        }
+    }
+
+    private MatchEvent read(JsonReader reader) throws IOException {
+        return build(reader, readBuilder(reader)::build);
+    }
+
+    /**
+     * Calls a builder, reporting a missing or inconsistent value as invalid JSON rather than as the exception thrown
+     * by the builder
+     */
+    private static <T> T build(JsonReader reader, Supplier<T> builder) {
+        try {
+            return builder.get();
+        } catch (NullPointerException | IllegalStateException e) {
+            throw reader.error("A required value was missing or inconsistent (" + e.getMessage() + ")");
+        }
+    }
+
+    private MatchEventBuilder<?, ?> readBuilder(JsonReader reader) throws IOException {
+        reader.beginObject();
+        if (!"type".equals(reader.nextName())) {
+            throw reader.error("The first field of an event must be its type");
+        }
+        String type = reader.nextString();
+        switch (type) {
+            case "BallCompleted":
+                return readBallCompleted(reader);
+            case "OverStarting":
+                return readOverStarting(reader);
+            case "OverCompleted":
+                return readOverCompleted(reader);
+            case "BatterInningsStarting":
+                return readBatterInningsStarting(reader);
+            case "BatterInningsCompleted":
+                return readBatterInningsCompleted(reader);
+            case "InningsStarting":
+                return readInningsStarting(reader);
+            case "InningsCompleted":
+                return readInningsCompleted(reader);
+            case "MatchCompleted":
+                return readMatchCompleted(reader);
+            case "MatchStarting":
+                return readMatchStarting(reader);
+            default:
+                throw reader.error("Unknown event type " + type);
+        }
+    }
+
+    private BallCompletedEvent.Builder readBallCompleted(JsonReader reader) throws IOException {
+        BallCompletedEvent.Builder builder = new BallCompletedEvent.Builder();
+        String name;
+        while ((name = reader.nextName()) != null) {
+            if (reader.nextNull() || readBase(reader, name, builder)) {
+                continue;
+            }
+            switch (name) {
+                case "bowler": builder.withBowler(readPlayer(reader)); break;
+                case "striker": builder.withStriker(readPlayer(reader)); break;
+                case "nonStriker": builder.withNonStriker(readPlayer(reader)); break;
+                case "runsScored": builder.withRunsScored(readScore(reader)); break;
+                case "playersCrossed": builder.withPlayersCrossed(reader.nextBoolean()); break;
+                case "dismissal": {
+                    // the bowler and fielder are worked out from the ball itself
+                    Dismissal dismissal = readDismissal(reader);
+                    builder.withDismissal(dismissal.type()).withDismissedBatter(dismissal.batter());
+                    break;
+                }
+                case "delivery": builder.withDelivery(readDelivery(reader)); break;
+                case "swing": builder.withSwing(readSwing(reader)); break;
+                case "trajectoryAtImpact": builder.withTrajectoryAtImpact(readTrajectory(reader)); break;
+                case "fielder": builder.withFielder(readPlayer(reader)); break;
+                case "overNumber": builder.withOverNumber(reader.nextInt()); break;
+                case "numberInOver": builder.withNumberInOver(reader.nextInt()); break;
+                case "numberInMatch": builder.withNumberInMatch(reader.nextInt()); break;
+                default: reader.skipValue();
+            }
+        }
+        return builder;
+    }
+
+    private OverStartingEvent.Builder readOverStarting(JsonReader reader) throws IOException {
+        OverStartingEvent.Builder builder = new OverStartingEvent.Builder();
+        String name;
+        while ((name = reader.nextName()) != null) {
+            if (reader.nextNull() || readBase(reader, name, builder)) {
+                continue;
+            }
+            switch (name) {
+                case "bowler": builder.withBowler(readPlayer(reader)); break;
+                case "striker": builder.withStriker(readPlayer(reader)); break;
+                case "nonStriker": builder.withNonStriker(readPlayer(reader)); break;
+                case "ballsInOver": builder.withBallsInOver(reader.nextInt()); break;
+                case "overNumber": builder.withNumberInInnings(reader.nextInt()); break;
+                case "inningsNumber": builder.withInningsNumber(reader.nextInt()); break;
+                default: reader.skipValue();
+            }
+        }
+        return builder;
+    }
+
+    private OverCompletedEvent.Builder readOverCompleted(JsonReader reader) throws IOException {
+        OverCompletedEvent.Builder builder = new OverCompletedEvent.Builder();
+        String name;
+        while ((name = reader.nextName()) != null) {
+            if (reader.nextNull() || readBase(reader, name, builder)) {
+                continue;
+            }
+            switch (name) {
+                case "bowler": builder.withBowler(readPlayer(reader)); break;
+                case "maiden": builder.withMaiden(reader.nextBoolean()); break;
+                case "inningsNumber": builder.withInningsNumber(reader.nextInt()); break;
+                case "overNumber": builder.withOverNumber(reader.nextInt()); break;
+                case "ballsInOver": builder.withBallsInOver(reader.nextInt()); break;
+                case "score": builder.withScore(readScore(reader)); break;
+                default: reader.skipValue();
+            }
+        }
+        return builder;
+    }
+
+    private BatterInningsStartingEvent.Builder readBatterInningsStarting(JsonReader reader) throws IOException {
+        BatterInningsStartingEvent.Builder builder = new BatterInningsStartingEvent.Builder();
+        String name;
+        while ((name = reader.nextName()) != null) {
+            if (reader.nextNull() || readBase(reader, name, builder)) {
+                continue;
+            }
+            if (name.equals("batter")) {
+                builder.withBatter(readPlayer(reader));
+            } else {
+                reader.skipValue();
+            }
+        }
+        return builder;
+    }
+
+    private BatterInningsCompletedEvent.Builder readBatterInningsCompleted(JsonReader reader) throws IOException {
+        BatterInningsCompletedEvent.Builder builder = new BatterInningsCompletedEvent.Builder();
+        String name;
+        while ((name = reader.nextName()) != null) {
+            if (reader.nextNull() || readBase(reader, name, builder)) {
+                continue;
+            }
+            switch (name) {
+                case "batter": builder.withBatter(readPlayer(reader)); break;
+                case "reason": builder.withReason(readEnum(reader, BattingState.class)); break;
+                case "dismissal": builder.withDismissal(readDismissal(reader)); break;
+                case "score": builder.withScore(readScore(reader)); break;
+                default: reader.skipValue();
+            }
+        }
+        return builder;
+    }
+
+    private InningsStartingEvent.Builder readInningsStarting(JsonReader reader) throws IOException {
+        InningsStartingEvent.Builder builder = new InningsStartingEvent.Builder();
+        String name;
+        while ((name = reader.nextName()) != null) {
+            if (reader.nextNull() || readBase(reader, name, builder)) {
+                continue;
+            }
+            switch (name) {
+                case "battingTeam": builder.withBattingTeam(readTeam(reader)); break;
+                case "bowlingTeam": builder.withBowlingTeam(readTeam(reader)); break;
+                case "startingScore": builder.withStartingScore(readScore(reader)); break;
+                case "followingOn": builder.withFollowingOn(reader.nextBoolean()); break;
+                case "finalInnings": builder.withFinalInnings(reader.nextBoolean()); break;
+                case "maxBalls": builder.withMaxBalls(reader.nextInt()); break;
+                case "maxOvers": builder.withMaxOvers(reader.nextInt()); break;
+                case "target": builder.withTarget(reader.nextInt()); break;
+                case "inningsNumberForMatch": builder.withInningsNumberForMatch(reader.nextInt()); break;
+                case "inningsNumberForBattingTeam": builder.withInningsNumberForBattingTeam(reader.nextInt()); break;
+                default: reader.skipValue();
+            }
+        }
+        return builder;
+    }
+
+    private InningsCompletedEvent.Builder readInningsCompleted(JsonReader reader) throws IOException {
+        InningsCompletedEvent.Builder builder = new InningsCompletedEvent.Builder();
+        String name;
+        while ((name = reader.nextName()) != null) {
+            if (reader.nextNull() || readBase(reader, name, builder)) {
+                continue;
+            }
+            switch (name) {
+                case "inningsNumber": builder.withInningsNumber(reader.nextInt()); break;
+                case "declared": builder.withDeclared(reader.nextBoolean()); break;
+                case "score": builder.withScore(readScore(reader)); break;
+                default: reader.skipValue();
+            }
+        }
+        return builder;
+    }
+
+    private MatchCompletedEvent.Builder readMatchCompleted(JsonReader reader) throws IOException {
+        MatchCompletedEvent.Builder builder = new MatchCompletedEvent.Builder();
+        String name;
+        while ((name = reader.nextName()) != null) {
+            if (reader.nextNull() || readBase(reader, name, builder)) {
+                continue;
+            }
+            if (name.equals("result")) {
+                builder.withResult(readResult(reader));
+            } else {
+                reader.skipValue();
+            }
+        }
+        return builder;
+    }
+
+    private MatchResult readResult(JsonReader reader) throws IOException {
+        MatchResult.Builder builder = MatchResult.matchResult();
+        reader.beginObject();
+        String name;
+        while ((name = reader.nextName()) != null) {
+            if (reader.nextNull()) {
+                continue;
+            }
+            switch (name) {
+                case "resultType": builder.withResultType(readEnum(reader, MatchResult.ResultType.class)); break;
+                case "winningTeam": builder.withWinningTeam(readTeam(reader)); break;
+                case "wonBy": builder.withWonBy(readEnum(reader, MatchResult.Measure.class)); break;
+                case "wonByAmount": builder.withWonByAmount(reader.nextInt()); break;
+                case "duckworthLewisApplied": builder.withDuckworthLewisApplied(reader.nextBoolean()); break;
+                default: reader.skipValue();
+            }
+        }
+        return build(reader, builder::build);
+    }
+
+    private MatchStartingEvent.Builder readMatchStarting(JsonReader reader) throws IOException {
+        MatchStartingEvent.Builder builder = new MatchStartingEvent.Builder().withTeamLineUps(teams);
+        String name;
+        while ((name = reader.nextName()) != null) {
+            if (reader.nextNull() || readBase(reader, name, builder)) {
+                continue;
+            }
+            switch (name) {
+                case "matchID": builder.withMatchID(readUUID(reader)); break;
+                case "scheduledStartTime": builder.withScheduledStartTime(readInstant(reader)); break;
+                case "inningsPerTeam": builder.withInningsPerTeam(reader.nextInt()); break;
+                case "oversPerInnings": builder.withOversPerInnings(reader.nextInt()); break;
+                case "numberOfScheduledDays": builder.withNumberOfScheduledDays(reader.nextInt()); break;
+                case "ballsPerInnings": builder.withBallsPerInnings(reader.nextInt()); break;
+                case "timeZone": builder.withTimeZone(TimeZone.getTimeZone(reader.nextString())); break;
+                default: reader.skipValue();
+            }
+        }
+        return builder;
+    }
+
+    private static void writeBase(JsonWriter json, String type, MatchEvent event) throws IOException {
+        json.field("type", type);
+        json.field("id", event.id().toString());
+        if (event.time() != null) json.field("time", event.time().toString());
+        json.field("undoPoint", event.undoPoint());
+    }
+
+    /**
+     * Sets the field on the builder if it is common to all events
+     *
+     * @return True if the field was read
+     */
+    private static boolean readBase(JsonReader reader, String name, BaseMatchEventBuilder<?, ?> builder) throws IOException {
+        switch (name) {
+            case "id":
+                builder.withID(readUUID(reader));
+                return true;
+            case "time":
+                builder.withTime(readInstant(reader));
+                return true;
+            case "undoPoint":
+                builder.withUndoPoint(reader.nextBoolean());
+                return true;
+            case "customData":
+                throw reader.error("Custom data cannot be read");
+            default:
+                return false;
+        }
+    }
+
+    private void writePlayer(JsonWriter json, String name, @Nullable Player player) throws IOException {
+        if (player != null) {
+            Player known = playersByName.get(player.name());
+            if (known == null || !known.samePlayer(player)) {
+                throw new IllegalArgumentException(player + " is not a uniquely named player in the batting order of either team");
+            }
+            json.field(name, player.name());
+        }
+    }
+
+    private @Nonnull Player readPlayer(JsonReader reader) throws IOException {
+        String name = reader.nextString();
+        Player player = playersByName.get(name);
+        if (player == null) {
+            throw reader.error("There is no uniquely named player called " + name);
+        }
+        return player;
+    }
+
+    private void writeTeam(JsonWriter json, String name, LineUp<?> team) throws IOException {
+        LineUp<?> known = teamsByName.get(team.teamName());
+        if (known == null || !known.sameTeam(team)) {
+            throw new IllegalArgumentException(team + " is not one of the uniquely named teams in this match");
+        }
+        json.field(name, team.teamName());
+    }
+
+    private @Nonnull LineUp<?> readTeam(JsonReader reader) throws IOException {
+        String name = reader.nextString();
+        LineUp<?> team = teamsByName.get(name);
+        if (team == null) {
+            throw reader.error("There is no uniquely named team called " + name);
+        }
+        return team;
+    }
+
+    private static void writeScore(JsonWriter json, Score score) throws IOException {
+        int[] counters = {
+            score.validDeliveries(), score.batterRuns(), score.dots(), score.singles(), score.wickets(),
+            score.fours(), score.twos(), score.sixes(), score.threes(), score.wides(), score.wideDeliveries(),
+            score.noBalls(), score.legByes(), score.byes(), score.penaltyRuns()
+        };
+        json.beginObject();
+        for (int i = 0; i < counters.length; i++) {
+            if (counters[i] != 0) json.field(SCORE_FIELDS[i], counters[i]);
+        }
+        json.endObject();
+    }
+
+    private static @Nonnull Score readScore(JsonReader reader) throws IOException {
+        Score.Builder builder = Score.score();
+        reader.beginObject();
+        String name;
+        while ((name = reader.nextName()) != null) {
+            if (reader.nextNull()) {
+                continue;
+            }
+            switch (name) {
+                case "validDeliveries": builder.withValidDeliveries(reader.nextInt()); break;
+                case "batterRuns": builder.withBatterRuns(reader.nextInt()); break;
+                case "dots": builder.withDots(reader.nextInt()); break;
+                case "singles": builder.withSingles(reader.nextInt()); break;
+                case "wickets": builder.withWickets(reader.nextInt()); break;
+                case "fours": builder.withFours(reader.nextInt()); break;
+                case "twos": builder.withTwos(reader.nextInt()); break;
+                case "sixes": builder.withSixes(reader.nextInt()); break;
+                case "threes": builder.withThrees(reader.nextInt()); break;
+                case "wides": builder.withWides(reader.nextInt()); break;
+                case "wideDeliveries": builder.withWideDeliveries(reader.nextInt()); break;
+                case "noBalls": builder.withNoBalls(reader.nextInt()); break;
+                case "legByes": builder.withLegByes(reader.nextInt()); break;
+                case "byes": builder.withByes(reader.nextInt()); break;
+                case "penaltyRuns": builder.withPenaltyRuns(reader.nextInt()); break;
+                default: reader.skipValue();
+            }
+        }
+        return builder.build();
+    }
+
+    private void writeDismissal(JsonWriter json, Dismissal dismissal) throws IOException {
+        json.beginObject();
+        json.field("type", dismissal.type().name());
+        writePlayer(json, "batter", dismissal.batter());
+        writePlayer(json, "bowler", dismissal.bowler());
+        writePlayer(json, "fielder", dismissal.fielder());
+        json.endObject();
+    }
+
+    private @Nonnull Dismissal readDismissal(JsonReader reader) throws IOException {
+        Dismissal.Builder builder = Dismissal.dismissal();
+        reader.beginObject();
+        String name;
+        while ((name = reader.nextName()) != null) {
+            if (reader.nextNull()) {
+                continue;
+            }
+            switch (name) {
+                case "type": builder.withType(readEnum(reader, DismissalType.class)); break;
+                case "batter": builder.withBatter(readPlayer(reader)); break;
+                case "bowler": builder.withBowler(readPlayer(reader)); break;
+                case "fielder": builder.withFielder(readPlayer(reader)); break;
+                default: reader.skipValue();
+            }
+        }
+        return build(reader, builder::build);
+    }
+
+    private static void writeDelivery(JsonWriter json, Delivery delivery) throws IOException {
+        json.beginObject();
+        if (delivery.deliveryType() != null) json.field("deliveryType", delivery.deliveryType().name());
+        if (delivery.speedInKilometers() != null) json.field("speedInKilometers", delivery.speedInKilometers());
+        if (delivery.positionOfBounce() != null) json.field("positionOfBounce", delivery.positionOfBounce());
+        if (delivery.horizontalPitchInMeters() != null) json.field("horizontalPitchInMeters", delivery.horizontalPitchInMeters());
+        if (delivery.changeInLineAfterBounceInDegrees() != null) json.field("changeInLineAfterBounceInDegrees", delivery.changeInLineAfterBounceInDegrees());
+        if (delivery.bowledFrom() != null) json.field("bowledFrom", delivery.bowledFrom().name());
+        json.endObject();
+    }
+
+    private static @Nonnull Delivery readDelivery(JsonReader reader) throws IOException {
+        Delivery.Builder builder = Delivery.delivery();
+        reader.beginObject();
+        String name;
+        while ((name = reader.nextName()) != null) {
+            if (reader.nextNull()) {
+                continue;
+            }
+            switch (name) {
+                case "deliveryType": builder.withDeliveryType(readEnum(reader, DeliveryType.class)); break;
+                case "speedInKilometers": builder.withSpeedInKilometers(reader.nextInt()); break;
+                case "positionOfBounce": builder.withPositionOfBounce(reader.nextDouble()); break;
+                case "horizontalPitchInMeters": builder.withHorizontalPitchInMeters(reader.nextDouble()); break;
+                case "changeInLineAfterBounceInDegrees": builder.withChangeInLineAfterBounceInDegrees(reader.nextDouble()); break;
+                case "bowledFrom": builder.withBowledFrom(readEnum(reader, WicketSide.class)); break;
+                default: reader.skipValue();
+            }
+        }
+        return build(reader, builder::build);
+    }
+
+    private static void writeSwing(JsonWriter json, Swing swing) throws IOException {
+        json.beginObject();
+        if (swing.shotType() != null) json.field("shotType", swing.shotType().name());
+        if (swing.impactOnBat() != null) json.field("impactOnBat", swing.impactOnBat().name());
+        if (swing.timing() != null) json.field("timing", swing.timing());
+        if (swing.footDirection() != null) json.field("footDirection", swing.footDirection());
+        if (swing.power() != null) json.field("power", swing.power());
+        json.endObject();
+    }
+
+    private static @Nonnull Swing readSwing(JsonReader reader) throws IOException {
+        Swing.Builder builder = Swing.swing();
+        reader.beginObject();
+        String name;
+        while ((name = reader.nextName()) != null) {
+            if (reader.nextNull()) {
+                continue;
+            }
+            switch (name) {
+                case "shotType": builder.withShotType(readEnum(reader, ShotType.class)); break;
+                case "impactOnBat": builder.withImpact(readEnum(reader, ImpactOnBat.class)); break;
+                case "timing": builder.withTiming(reader.nextDouble()); break;
+                case "footDirection": builder.withFootDirection(reader.nextDouble()); break;
+                case "power": builder.withPower(reader.nextDouble()); break;
+                default: reader.skipValue();
+            }
+        }
+        return build(reader, builder::build);
+    }
+
+    private static void writeTrajectory(JsonWriter json, Trajectory trajectory) throws IOException {
+        json.beginObject();
+        if (trajectory.speedInKms() != null) json.field("speedInKms", trajectory.speedInKms());
+        if (trajectory.directionInDegreesRelativeToBatter() != null) json.field("directionInDegreesRelativeToBatter", trajectory.directionInDegreesRelativeToBatter());
+        if (trajectory.launchAngle() != null) json.field("launchAngle", trajectory.launchAngle());
+        if (trajectory.distanceInMeters() != null) json.field("distanceInMeters", trajectory.distanceInMeters());
+        json.endObject();
+    }
+
+    private static @Nonnull Trajectory readTrajectory(JsonReader reader) throws IOException {
+        Trajectory.Builder builder = Trajectory.trajectory();
+        reader.beginObject();
+        String name;
+        while ((name = reader.nextName()) != null) {
+            if (reader.nextNull()) {
+                continue;
+            }
+            switch (name) {
+                case "speedInKms": builder.withSpeedInKms(reader.nextInt()); break;
+                case "directionInDegreesRelativeToBatter": builder.withDirectionInDegreesRelativeToBatter(reader.nextDouble()); break;
+                case "launchAngle": builder.withLaunchAngle(reader.nextDouble()); break;
+                case "distanceInMeters": builder.withDistanceInMeters(reader.nextDouble()); break;
+                default: reader.skipValue();
+            }
+        }
+        return build(reader, builder::build);
+    }
+
+    private static <E extends Enum<E>> E readEnum(JsonReader reader, Class<E> type) throws IOException {
+        String name = reader.nextString();
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            throw reader.error("Unknown " + type.getSimpleName() + " " + name);
+        }
+    }
+
+    private static @Nonnull UUID readUUID(JsonReader reader) throws IOException {
+        String value = reader.nextString();
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw reader.error("Invalid ID " + value);
+        }
+    }
+
+    private static @Nonnull Instant readInstant(JsonReader reader) throws IOException {
+        String value = reader.nextString();
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            throw reader.error("Invalid time " + value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "EventJson{teams=" + teams.size() + ", players=" + playersByName.size() + '}';
+    }
+}
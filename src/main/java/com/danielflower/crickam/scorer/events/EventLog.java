@@ -0,0 +1,557 @@
+package com.danielflower.crickam.scorer.events;
+
+import com.danielflower.crickam.scorer.MatchControl;
+import com.danielflower.crickam.scorer.MatchSnapshot;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static com.danielflower.crickam.scorer.Crictils.requireInRange;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An append-only log of the events of a single match, stored in a directory so that a match can be recovered after
+ * the process that was scoring it stops.
+ * <p>Events are written with an {@link EventCodec} to segment files which are memory mapped, so appending an event
+ * copies a few dozen bytes into memory and does not make a system call. Each event is written as a frame holding its
+ * length and a CRC-32 checksum, and a frame that was only partly written when the process stopped is detected by its
+ * checksum and discarded when the log is next opened.</p>
+ * <p>Appended events are not durable until the log is synced to disk. This happens when {@link #sync()} or
+ * {@link #close()} is called, and during an append or {@link #syncIfDue()} if the sync interval has passed since the
+ * last sync. As nothing syncs the log in the background, the last events appended before a pause in play stay
+ * unsynced until one of these methods is called, so {@code syncIfDue()} can be called on a schedule to bound how
+ * long events are left unsynced. A single
+ * sync makes all the events appended before it durable, so when several threads append and sync at once, a sync
+ * that finds its events already synced by another thread returns immediately.</p>
+ * <p>Events are never removed from the log. Instead, {@link #undo()} appends a record that undoes the events back to
+ * the last undo point in the same way as {@link MatchControl#undo()} when the log is replayed.</p>
+ * <p>Replaying a long match can take a while, so a {@link MatchSnapshot} of the match can be saved with
+ * {@link #writeSnapshot(MatchControl)} at the end of an over or innings. When the log is opened, the match is
+ * restored from the latest snapshot that matches the events in the log and only the events after it are replayed.
+ * The previous snapshot is kept in case the latest one was not completely written.</p>
+ * <p>This class is thread safe.</p>
+ */
+public final class EventLog implements Closeable {
+
+    /**
+     * The size of each segment file when none is given to {@link #open(Path, EventCodec, int, Duration)}, which is
+     * enough for the events of several five day test matches.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 20;
+
+    /**
+     * The longest time that appended events are left unsynced when none is given to
+     * {@link #open(Path, EventCodec, int, Duration)}
+     */
+    public static final Duration DEFAULT_SYNC_INTERVAL = Duration.ofMillis(200);
+
+    private static final int MAGIC = 0x43524b4c;
+    private static final int FORMAT_VERSION = 1;
+    private static final int SEGMENT_HEADER_SIZE = 8;
+    private static final int FRAME_HEADER_SIZE = 8;
+    private static final byte EVENT = 1;
+    private static final byte UNDO = 2;
+    private static final int SNAPSHOT_HEADER_SIZE = 8;
+    private static final int SNAPSHOTS_TO_KEEP = 2;
+
+    /**
+     * The checkpoint interval of a match restored from a snapshot, which has a sparse history because the states
+     * before the snapshot are not known
+     */
+    private static final int SNAPSHOT_CHECKPOINT_INTERVAL = 32;
+
+    private final Path directory;
+    private final EventCodec codec;
+    private final int segmentSize;
+    private final long syncIntervalNanos;
+    @Nullable
+    private final MatchControl recovered;
+    private final Object syncLock = new Object();
+    private final Object snapshotLock = new Object();
+
+    /**
+     * The positions of the events that are undo points, out of the events that have not been undone
+     */
+    private final List<Integer> undoPoints;
+    private int eventCount;
+    private int segmentIndex;
+    private MappedByteBuffer segment;
+    private boolean closed;
+    private long appendedFrames;
+    private long syncedFrames;
+    private volatile long lastSyncTime = System.nanoTime();
+    private int snapshotBufferSize = 4096;
+
+    private EventLog(Path directory, EventCodec codec, int segmentSize, Duration syncInterval, @Nullable MatchControl recovered,
+                     List<Integer> undoPoints, int eventCount, int segmentIndex, MappedByteBuffer segment) {
+        this.directory = directory;
+        this.codec = codec;
+        this.segmentSize = segmentSize;
+        this.syncIntervalNanos = syncInterval.toNanos();
+        this.recovered = recovered;
+        this.undoPoints = undoPoints;
+        this.eventCount = eventCount;
+        this.segmentIndex = segmentIndex;
+        this.segment = segment;
+    }
+
+    /**
+     * Opens the log in the given directory with the default segment size and sync interval.
+     *
+     * @param directory The directory for the match, which is created if it does not exist
+     * @param codec A codec for the match
+     * @return The log, with any events already in it available from {@link #recovered()}
+     * @throws IOException The log could not be read or created
+     * @see #open(Path, EventCodec, int, Duration)
+     */
+    public static @Nonnull EventLog open(Path directory, EventCodec codec) throws IOException {
+        return open(directory, codec, DEFAULT_SEGMENT_SIZE, DEFAULT_SYNC_INTERVAL);
+    }
+
+    /**
+     * Opens the log in the given directory, replaying any events already in it.
+     * <p>If the last event in the log was not completely written, it is removed from the log. If the directory has
+     * a snapshot that matches the events, the match is restored from it rather than by replaying every event.</p>
+     *
+     * @param directory The directory for the match, which is created if it does not exist
+     * @param codec A codec for the match, created with the same line-ups used when the events were written
+     * @param segmentSize The size in bytes of each new segment file
+     * @param syncInterval The longest time to leave appended events unsynced, or {@link Duration#ZERO} to sync
+     *                     after every append
+     * @return The log, with any events already in it available from {@link #recovered()}
+     * @throws IOException The log could not be read or created, or its contents cannot be decoded with the given
+     * codec
+     */
+    public static @Nonnull EventLog open(Path directory, EventCodec codec, @Nonnegative int segmentSize, Duration syncInterval) throws IOException {
+        requireNonNull(codec, "codec");
+        requireInRange("segmentSize", segmentSize, SEGMENT_HEADER_SIZE + FRAME_HEADER_SIZE + 1);
+        requireNonNull(syncInterval, "syncInterval");
+        Files.createDirectories(directory);
+
+        List<MatchEvent> events = new ArrayList<>();
+        List<Integer> undoPoints = new ArrayList<>();
+        List<Path> segmentFiles = segmentFiles(directory);
+        MappedByteBuffer segment = null;
+        int segmentIndex = 0;
+        for (int i = 0; i < segmentFiles.size(); i++) {
+            Path file = segmentFiles.get(i);
+            segmentIndex = i;
+            segment = map(file, Files.size(file));
+            if (segment.capacity() < SEGMENT_HEADER_SIZE || segment.getInt(0) == 0) {
+                // the process stopped while the segment was being created
+                segment = null;
+                Files.delete(file);
+                continue;
+            }
+            if (segment.getInt(0) != MAGIC || segment.getInt(4) != FORMAT_VERSION) {
+                throw new IOException(file + " is not an event log segment");
+            }
+            segment.position(SEGMENT_HEADER_SIZE);
+            if (!readFrames(file, segment, codec, events, undoPoints)) {
+                // a torn write, so nothing after it can have been written completely
+                for (Path later : segmentFiles.subList(i + 1, segmentFiles.size())) {
+                    Files.delete(later);
+                }
+                break;
+            }
+        }
+        if (segment == null) {
+            segment = createSegment(directory, segmentIndex, segmentSize);
+        } else {
+            truncate(segment);
+        }
+
+        MatchControl recovered = null;
+        if (!events.isEmpty()) {
+            if (!(events.get(0) instanceof MatchStartingEvent)) {
+                throw new IOException("The first event in " + directory + " is not a " + MatchStartingEvent.class.getSimpleName());
+            }
+            recovered = restoreFromSnapshot(directory, codec, events);
+            if (recovered == null) {
+                recovered = MatchControl.replay((MatchStartingEvent) events.get(0), events.subList(1, events.size()));
+            }
+        }
+        return new EventLog(directory, codec, segmentSize, syncInterval, recovered, undoPoints, events.size(), segmentIndex, segment);
+    }
+
+    /**
+     * @return The match as it was when the log was opened, with all events and undos in the log applied, or null
+     * if the log was empty. If it was restored from a snapshot, the match has a sparse history as described in
+     * {@link MatchControl#newMatch(MatchStartingEvent, int)}.
+     */
+    public @Nullable MatchControl recovered() {
+        return recovered;
+    }
+
+    /**
+     * @return The number of events in the log that have not been undone
+     */
+    public synchronized @Nonnegative int eventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Appends an event to the log.
+     * <p>This should be called with each event passed to {@link MatchControl#onEvent(MatchEvent)}, starting with the
+     * {@link MatchStartingEvent} passed to {@link MatchControl#newMatch(MatchStartingEvent)}.</p>
+     * <p>The event is not durable when this returns. The log is synced here only if the sync interval has passed
+     * since the last sync, so call {@link #sync()} if the event must survive the process stopping, or
+     * {@link #syncIfDue()} periodically if it only needs to be durable within the sync interval.</p>
+     *
+     * @param event The event to append
+     * @throws IOException A new segment file could not be created, or the log could not be synced
+     * @throws IllegalArgumentException The event cannot be encoded by the codec, or the first event is not a
+     * {@link MatchStartingEvent}
+     * @throws IllegalStateException The log is closed
+     */
+    public void append(MatchEvent event) throws IOException {
+        requireNonNull(event, "event");
+        synchronized (this) {
+            if (eventCount == 0 && !(event instanceof MatchStartingEvent)) {
+                throw new IllegalArgumentException("The first event must be a " + MatchStartingEvent.class.getSimpleName());
+            }
+            writeFrame(EVENT, event);
+            if (event.undoPoint()) {
+                undoPoints.add(eventCount);
+            }
+            eventCount++;
+        }
+        syncIfDue();
+    }
+
+    /**
+     * Appends a record that undoes the events back to the last undo point, in the same way as
+     * {@link MatchControl#undo()}.
+     *
+     * @throws IOException A new segment file could not be created, or the log could not be synced
+     * @throws IllegalStateException The log is closed, or there is nothing to undo
+     */
+    public void undo() throws IOException {
+        synchronized (this) {
+            int undoPoint = undoPoints.isEmpty() ? -1 : undoPoints.get(undoPoints.size() - 1);
+            if (undoPoint <= 0) {
+                throw new IllegalStateException("Cannot undo the first match event");
+            }
+            writeFrame(UNDO, null);
+            undoPoints.remove(undoPoints.size() - 1);
+            eventCount = undoPoint;
+        }
+        syncIfDue();
+    }
+
+    /**
+     * Forces all events appended so far to be written to disk.
+     *
+     * @throws IOException The log could not be synced
+     * @throws IllegalStateException The log is closed
+     */
+    public void sync() throws IOException {
+        long target;
+        synchronized (this) {
+            target = appendedFrames;
+        }
+        synchronized (syncLock) {
+            MappedByteBuffer toForce;
+            long upTo;
+            synchronized (this) {
+                if (syncedFrames >= target) {
+                    // another thread synced these frames while this one waited
+                    return;
+                }
+                requireOpen();
+                toForce = segment;
+                upTo = appendedFrames;
+            }
+            toForce.force();
+            synchronized (this) {
+                syncedFrames = Math.max(syncedFrames, upTo);
+            }
+            lastSyncTime = System.nanoTime();
+        }
+    }
+
+    /**
+     * Syncs and closes the log. Closing a closed log does nothing.
+     *
+     * @throws IOException The log could not be synced
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+        }
+        sync();
+        synchronized (this) {
+            closed = true;
+        }
+    }
+
+    /**
+     * Saves a snapshot of the match so that it can be restored quickly when the log is next opened.
+     * <p>The log is synced before the snapshot is written, and the snapshot replaces all but the latest of the
+     * existing snapshots once it is completely written.</p>
+     *
+     * @param control The match, with all the events in this log applied
+     * @throws IOException The snapshot could not be written
+     * @throws IllegalArgumentException The last event of the control is not the start or end of an over or innings
+     * @throws IllegalStateException The log is closed
+     * @see MatchSnapshot#write(MatchControl, EventCodec, ByteBuffer)
+     */
+    public void writeSnapshot(MatchControl control) throws IOException {
+        requireNonNull(control, "control");
+        synchronized (this) {
+            requireOpen();
+        }
+        synchronized (snapshotLock) {
+            ByteBuffer buffer;
+            while (true) {
+                buffer = ByteBuffer.allocate(snapshotBufferSize);
+                buffer.position(SNAPSHOT_HEADER_SIZE);
+                try {
+                    MatchSnapshot.write(control, codec, buffer);
+                    break;
+                } catch (BufferOverflowException e) {
+                    snapshotBufferSize *= 2;
+                }
+            }
+            int length = buffer.position() - SNAPSHOT_HEADER_SIZE;
+            buffer.putInt(0, length);
+            buffer.putInt(4, crc(buffer, SNAPSHOT_HEADER_SIZE, length));
+            buffer.flip();
+
+            sync();
+            Path temp = directory.resolve("snapshot.tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Path file = directory.resolve(String.format("snapshot-%08d.snap", control.eventCount() - 1));
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            List<Path> snapshots = snapshotFiles(directory);
+            for (Path old : snapshots.subList(0, Math.max(0, snapshots.size() - SNAPSHOTS_TO_KEEP))) {
+                Files.delete(old);
+            }
+        }
+    }
+
+    /**
+     * Syncs the log if the sync interval has passed since the last sync. Appends call this, but it can also be
+     * called on a schedule, for example with a {@link java.util.concurrent.ScheduledExecutorService} at the sync
+     * interval, so that events are synced even if no more are appended. Calling this on a closed log does nothing.
+     *
+     * @throws IOException The log could not be synced
+     */
+    public void syncIfDue() throws IOException {
+        if (System.nanoTime() - lastSyncTime >= syncIntervalNanos) {
+            sync();
+        }
+    }
+
+    private void requireOpen() {
+        if (closed) {
+            throw new IllegalStateException("The event log for " + directory + " is closed");
+        }
+    }
+
+    private void writeFrame(byte kind, @Nullable MatchEvent event) throws IOException {
+        requireOpen();
+        while (true) {
+            int start = segment.position();
+            try {
+                if (segment.remaining() <= FRAME_HEADER_SIZE) {
+                    throw new BufferOverflowException();
+                }
+                segment.position(start + FRAME_HEADER_SIZE);
+                segment.put(kind);
+                if (event != null) {
+                    codec.encode(event, segment);
+                }
+                int length = segment.position() - start - FRAME_HEADER_SIZE;
+                segment.putInt(start + 4, crc(segment, start + FRAME_HEADER_SIZE, length));
+                // the length goes last so that a frame is never seen with a length but no checksum
+                segment.putInt(start, length);
+                appendedFrames++;
+                return;
+            } catch (BufferOverflowException e) {
+                clear(segment, start, segment.position());
+                if (start == SEGMENT_HEADER_SIZE) {
+                    throw new IllegalArgumentException("The event does not fit in a segment of " + segmentSize + " bytes: " + event);
+                }
+                nextSegment();
+            } catch (RuntimeException e) {
+                clear(segment, start, segment.position());
+                throw e;
+            }
+        }
+    }
+
+    private void nextSegment() throws IOException {
+        // syncing the full segment keeps the rule that a sync covers every frame appended before it
+        segment.force();
+        segmentIndex++;
+        segment = createSegment(directory, segmentIndex, segmentSize);
+    }
+
+    private static boolean readFrames(Path file, MappedByteBuffer segment, EventCodec codec, List<MatchEvent> events, List<Integer> undoPoints) throws IOException {
+        while (segment.remaining() > FRAME_HEADER_SIZE) {
+            int start = segment.position();
+            int length = segment.getInt();
+            int checksum = segment.getInt();
+            if (length == 0) {
+                segment.position(start);
+                return true;
+            }
+            if (length < 0 || length > segment.remaining() || checksum != crc(segment, segment.position(), length)) {
+                segment.position(start);
+                return false;
+            }
+            byte kind = segment.get();
+            if (kind == EVENT) {
+                MatchEvent event;
+                try {
+                    event = codec.decode(segment);
+                } catch (RuntimeException e) {
+                    throw new IOException("The event at position " + start + " of " + file + " could not be decoded", e);
+                }
+                if (event.undoPoint()) {
+                    undoPoints.add(events.size());
+                }
+                events.add(event);
+            } else if (kind == UNDO) {
+                int undoPoint = undoPoints.isEmpty() ? -1 : undoPoints.remove(undoPoints.size() - 1);
+                if (undoPoint <= 0) {
+                    throw new IOException("The undo at position " + start + " of " + file + " has nothing to undo");
+                }
+                events.subList(undoPoint, events.size()).clear();
+            } else {
+                throw new IOException("Unknown record type " + kind + " at position " + start + " of " + file);
+            }
+            if (segment.position() != start + FRAME_HEADER_SIZE + length) {
+                throw new IOException("The record at position " + start + " of " + file + " has the wrong length");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Clears anything after the last frame, such as the remains of a torn write.
+     */
+    private static void truncate(MappedByteBuffer segment) {
+        int end = segment.position();
+        for (int i = end; i < segment.limit(); i++) {
+            if (segment.get(i) != 0) {
+                clear(segment, end, segment.limit());
+                segment.force();
+                return;
+            }
+        }
+    }
+
+    private static void clear(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            buffer.put(i, (byte) 0);
+        }
+        buffer.position(from);
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer frame = buffer.duplicate();
+        frame.limit(offset + length);
+        frame.position(offset);
+        CRC32 crc = new CRC32();
+        crc.update(frame);
+        return (int) crc.getValue();
+    }
+
+    @Nullable
+    private static MatchControl restoreFromSnapshot(Path directory, EventCodec codec, List<MatchEvent> events) throws IOException {
+        List<Path> snapshots = snapshotFiles(directory);
+        Collections.reverse(snapshots);
+        for (Path file : snapshots) {
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            if (buffer.capacity() < SNAPSHOT_HEADER_SIZE) {
+                continue;
+            }
+            int length = buffer.getInt(0);
+            if (length < 0 || length > buffer.capacity() - SNAPSHOT_HEADER_SIZE || buffer.getInt(4) != crc(buffer, SNAPSHOT_HEADER_SIZE, length)) {
+                continue;
+            }
+            buffer.position(SNAPSHOT_HEADER_SIZE);
+            buffer.limit(SNAPSHOT_HEADER_SIZE + length);
+            try {
+                return MatchSnapshot.restore(buffer, codec, events, SNAPSHOT_CHECKPOINT_INTERVAL);
+            } catch (IllegalArgumentException | BufferUnderflowException e) {
+                // taken before some of the events were undone, so an older snapshot or a full replay is needed
+            }
+        }
+        return null;
+    }
+
+    private static List<Path> snapshotFiles(Path directory) throws IOException {
+        return sortedFiles(directory, "snapshot-*.snap");
+    }
+
+    private static List<Path> segmentFiles(Path directory) throws IOException {
+        return sortedFiles(directory, "segment-*.log");
+    }
+
+    private static List<Path> sortedFiles(Path directory, String glob) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        // the file names have zero-padded numbers, so they sort in the order they were written
+        Collections.sort(files);
+        return files;
+    }
+
+    private static MappedByteBuffer createSegment(Path directory, int index, int size) throws IOException {
+        Path file = directory.resolve(String.format("segment-%08d.log", index));
+        MappedByteBuffer segment = map(file, size);
+        segment.putInt(4, FORMAT_VERSION);
+        // the magic number goes last so that a segment is not read until its header is complete
+        segment.putInt(0, MAGIC);
+        segment.position(SEGMENT_HEADER_SIZE);
+        return segment;
+    }
+
+    private static MappedByteBuffer map(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "EventLog{" + directory + '}';
+    }
+}
@@ -0,0 +1,315 @@
+package com.danielflower.crickam.scorer.events;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads JSON tokens one at a time from a {@link Reader} or a string, without building a tree of the values.
+ * <p>Syntax errors are reported with an {@link IllegalArgumentException} that gives the position of the error.</p>
+ */
+final class JsonReader {
+
+    private static final int END = -1;
+
+    @Nullable
+    private final Reader in;
+    private final char[] buffer;
+    private int position;
+    private int limit;
+    /**
+     * The number of characters in the buffers before the current one, for error messages
+     */
+    private long consumed;
+    /**
+     * A bit for each open object or array, set once it has a value so that the next one must follow a comma
+     */
+    private long hasValues;
+    private int depth;
+    private final StringBuilder chars = new StringBuilder();
+
+    JsonReader(Reader in) {
+        this.in = in;
+        this.buffer = new char[4096];
+    }
+
+    JsonReader(CharSequence json) {
+        this.in = null;
+        this.buffer = json.toString().toCharArray();
+        this.limit = buffer.length;
+    }
+
+    /**
+     * @return True if there is anything other than whitespace left to read
+     */
+    boolean hasMore() throws IOException {
+        return peek() != END;
+    }
+
+    void beginObject() throws IOException {
+        expect('{');
+        if (depth == 63) {
+            throw error("Objects are nested too deeply");
+        }
+        depth++;
+        hasValues &= ~(1L << depth);
+    }
+
+    /**
+     * Reads the name of the next field of the current object, or the end of the object
+     *
+     * @return The name, or null if the object has no more fields
+     */
+    @Nullable
+    String nextName() throws IOException {
+        if (!nextInContainer('}')) {
+            return null;
+        }
+        String name = nextString();
+        expect(':');
+        return name;
+    }
+
+    void beginArray() throws IOException {
+        expect('[');
+        if (depth == 63) {
+            throw error("Arrays are nested too deeply");
+        }
+        depth++;
+        hasValues &= ~(1L << depth);
+    }
+
+    /**
+     * @return True if the current array has another value, or false after reading the end of the array
+     */
+    boolean nextInArray() throws IOException {
+        return nextInContainer(']');
+    }
+
+    private boolean nextInContainer(char close) throws IOException {
+        int c = peek();
+        if (c == close) {
+            position++;
+            depth--;
+            return false;
+        }
+        long bit = 1L << depth;
+        if ((hasValues & bit) != 0) {
+            expect(',');
+        }
+        hasValues |= bit;
+        return true;
+    }
+
+    /**
+     * Reads a null if it is the next value
+     *
+     * @return True if the value was null, otherwise nothing is read and false is returned
+     */
+    boolean nextNull() throws IOException {
+        if (peek() != 'n') {
+            return false;
+        }
+        literal("null");
+        return true;
+    }
+
+    boolean nextBoolean() throws IOException {
+        int c = peek();
+        if (c == 't') {
+            literal("true");
+            return true;
+        } else if (c == 'f') {
+            literal("false");
+            return false;
+        }
+        throw error("Expected a boolean");
+    }
+
+    String nextString() throws IOException {
+        expect('"');
+        chars.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                return chars.toString();
+            } else if (c == '\\') {
+                int escaped = read();
+                switch (escaped) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        chars.append((char) escaped);
+                        break;
+                    case 'b':
+                        chars.append('\b');
+                        break;
+                    case 'f':
+                        chars.append('\f');
+                        break;
+                    case 'n':
+                        chars.append('\n');
+                        break;
+                    case 'r':
+                        chars.append('\r');
+                        break;
+                    case 't':
+                        chars.append('\t');
+                        break;
+                    case 'u':
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(read(), 16);
+                            if (digit == -1) {
+                                throw error("Invalid unicode escape");
+                            }
+                            code = (code << 4) | digit;
+                        }
+                        chars.append((char) code);
+                        break;
+                    default:
+                        throw error("Invalid escape character");
+                }
+            } else if (c == END || c < 0x20) {
+                throw error("Unterminated string");
+            } else {
+                chars.append((char) c);
+            }
+        }
+    }
+
+    int nextInt() throws IOException {
+        int c = peek();
+        boolean negative = c == '-';
+        if (negative) {
+            position++;
+        }
+        long value = 0;
+        int digits = 0;
+        while (true) {
+            c = current();
+            if (c < '0' || c > '9') {
+                break;
+            }
+            position++;
+            value = value * 10 + (c - '0');
+            if (++digits > 10) {
+                throw error("Number out of range");
+            }
+        }
+        if (digits == 0 || c == '.' || c == 'e' || c == 'E') {
+            throw error("Expected an integer");
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw error("Number out of range");
+        }
+        return (int) value;
+    }
+
+    double nextDouble() throws IOException {
+        peek();
+        chars.setLength(0);
+        while (true) {
+            int c = current();
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                chars.append((char) c);
+                position++;
+            } else {
+                break;
+            }
+        }
+        try {
+            return Double.parseDouble(chars.toString());
+        } catch (NumberFormatException e) {
+            throw error("Expected a number");
+        }
+    }
+
+    /**
+     * Reads and discards the next value, including any values nested in it
+     */
+    void skipValue() throws IOException {
+        int c = peek();
+        if (c == '{') {
+            beginObject();
+            while (nextName() != null) {
+                skipValue();
+            }
+        } else if (c == '[') {
+            beginArray();
+            while (nextInArray()) {
+                skipValue();
+            }
+        } else if (c == '"') {
+            nextString();
+        } else if (c == 't' || c == 'f') {
+            nextBoolean();
+        } else if (!nextNull()) {
+            nextDouble();
+        }
+    }
+
+    IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at character " + (consumed + position) + " of the JSON");
+    }
+
+    private void literal(String expected) throws IOException {
+        for (int i = 0; i < expected.length(); i++) {
+            if (read() != expected.charAt(i)) {
+                throw error("Expected " + expected);
+            }
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        if (peek() != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+        position++;
+    }
+
+    /**
+     * Skips whitespace and returns the next character without reading it
+     */
+    private int peek() throws IOException {
+        while (true) {
+            int c = current();
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                position++;
+            } else {
+                return c;
+            }
+        }
+    }
+
+    private int current() throws IOException {
+        if (position == limit && !fill()) {
+            return END;
+        }
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        int c = current();
+        if (c != END) {
+            position++;
+        }
+        return c;
+    }
+
+    private boolean fill() throws IOException {
+        if (in == null) {
+            return false;
+        }
+        consumed += limit;
+        position = 0;
+        limit = 0;
+        int read = in.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        limit = read;
+        return true;
+    }
+}
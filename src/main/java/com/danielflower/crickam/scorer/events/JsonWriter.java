@@ -0,0 +1,113 @@
+package com.danielflower.crickam.scorer.events;
+
+import java.io.IOException;
+
+/**
+ * Writes JSON tokens straight to an {@link Appendable}, adding the commas between fields.
+ */
+final class JsonWriter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Appendable out;
+    /**
+     * A bit for each open object, set once the object has a field so that the next one needs a comma
+     */
+    private long hasFields;
+    private int depth;
+
+    JsonWriter(Appendable out) {
+        this.out = out;
+    }
+
+    void beginObject() throws IOException {
+        if (depth == 63) {
+            throw new IllegalStateException("Objects are nested too deeply");
+        }
+        out.append('{');
+        depth++;
+        hasFields &= ~(1L << depth);
+    }
+
+    void endObject() throws IOException {
+        out.append('}');
+        depth--;
+    }
+
+    void name(String name) throws IOException {
+        long bit = 1L << depth;
+        if ((hasFields & bit) != 0) {
+            out.append(',');
+        }
+        hasFields |= bit;
+        string(name);
+        out.append(':');
+    }
+
+    void string(CharSequence value) throws IOException {
+        out.append('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\' || c < 0x20) {
+                out.append(value, start, i);
+                out.append('\\');
+                switch (c) {
+                    case '"':
+                    case '\\':
+                        out.append(c);
+                        break;
+                    case '\n':
+                        out.append('n');
+                        break;
+                    case '\r':
+                        out.append('r');
+                        break;
+                    case '\t':
+                        out.append('t');
+                        break;
+                    default:
+                        out.append("u00").append(HEX[c >> 4]).append(HEX[c & 0xf]);
+                }
+                start = i + 1;
+            }
+        }
+        out.append(value, start, value.length());
+        out.append('"');
+    }
+
+    void number(long value) throws IOException {
+        out.append(Long.toString(value));
+    }
+
+    void number(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("JSON cannot represent " + value);
+        }
+        out.append(Double.toString(value));
+    }
+
+    void bool(boolean value) throws IOException {
+        out.append(value ? "true" : "false");
+    }
+
+    void field(String name, CharSequence value) throws IOException {
+        name(name);
+        string(value);
+    }
+
+    void field(String name, long value) throws IOException {
+        name(name);
+        number(value);
+    }
+
+    void field(String name, double value) throws IOException {
+        name(name);
+        number(value);
+    }
+
+    void field(String name, boolean value) throws IOException {
+        name(name);
+        bool(value);
+    }
+}
@@ -0,0 +1,107 @@
+package com.danielflower.crickam.scorer;
+
+import com.danielflower.crickam.scorer.data.Australia;
+import com.danielflower.crickam.scorer.data.NewZealand;
+import com.danielflower.crickam.scorer.events.MatchEvents;
+import org.junit.jupiter.api.Test;
+
+import static com.danielflower.crickam.scorer.events.MatchEvents.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BallColumnsTest {
+
+    private final SimpleLineUp aus = Australia.oneDayLineUp().build();
+    private final SimpleLineUp nz = NewZealand.oneDayLineUp().build();
+
+    @Test
+    void theValuesOfEachBallAreCopiedIntoColumns() {
+        MatchControl control = MatchControl.newMatch(MatchEvents.matchStarting(1, 50).withTeamLineUps(ImmutableList.of(aus, nz)).build())
+            .onEvent(inningsStarting().withBattingTeam(nz))
+            .onEvent(batterInningsStarting())
+            .onEvent(batterInningsStarting())
+            .onEvent(overStarting(aus.battingOrder().get(10)))
+            .onEvent(ballCompleted("4")
+                .withDelivery(Delivery.delivery().withSpeedInKilometers(141).withPositionOfBounce(12.5).withHorizontalPitchInMeters(-0.25).build())
+                .withSwing(Swing.swing().withShotType(ShotType.PULL).build())
+                .withTrajectoryAtImpact(Trajectory.trajectory().withDirectionInDegreesRelativeToBatter(280.0).withDistanceInMeters(70.5).build()))
+            .onEvent(ballCompleted("2w"))
+            .onEvent(ballCompleted("W").withDismissal(DismissalType.BOWLED)
+                .withDelivery(Delivery.delivery().withSpeedInKilometers(138).build()));
+
+        BallColumns columns = BallColumns.of(control.match().balls());
+        assertThat(columns.size(), is(3));
+        assertThat(columns.ball(1), is(sameInstance(control.match().balls().list().get(1))));
+
+        assertThat(columns.runs(0), is(4));
+        assertThat(columns.batterRuns(0), is(4));
+        assertThat(columns.extras(0), is(0));
+        assertThat(columns.isValid(0), is(true));
+        assertThat(columns.isWicket(0), is(false));
+        assertThat(columns.hasSpeed(0), is(true));
+        assertThat(columns.speedInKilometers(0), is(141));
+        assertThat(columns.hasPositionOfBounce(0), is(true));
+        assertThat(columns.positionOfBounce(0), is(12.5));
+        assertThat(columns.hasLine(0), is(true));
+        assertThat(columns.horizontalPitchInMeters(0), is(-0.25));
+        assertThat(columns.shotType(0), is(ShotType.PULL));
+        assertThat(columns.shotTypeOrdinal(0), is(ShotType.PULL.ordinal()));
+        assertThat(columns.hasDirection(0), is(true));
+        assertThat(columns.directionInDegreesRelativeToBatter(0), is(280.0));
+        assertThat(columns.hasDistance(0), is(true));
+        assertThat(columns.distanceInMeters(0), is(70.5));
+
+        assertThat(columns.runs(1), is(2));
+        assertThat(columns.batterRuns(1), is(0));
+        assertThat(columns.extras(1), is(2));
+        assertThat(columns.isValid(1), is(false));
+        assertThat(columns.hasSpeed(1), is(false));
+        assertThat(columns.speedInKilometers(1), is(0));
+        assertThat(columns.hasShotType(1), is(false));
+        assertThat(columns.shotType(1), is(nullValue()));
+        assertThat(columns.shotTypeOrdinal(1), is(-1));
+
+        assertThat(columns.isWicket(2), is(true));
+        assertThat(columns.speedInKilometers(2), is(138));
+        assertThat(columns.hasPositionOfBounce(2), is(false));
+        assertThat(columns.hasDirection(2), is(false));
+
+        assertThat(columns.totalRuns(), is((long) control.match().balls().score().teamRuns()));
+        assertThat(columns.wicketCount(), is(1));
+        assertThat(columns.validCount(), is(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> columns.isValid(3));
+
+        BallColumns bowler = BallColumns.of(control.match().currentInnings().bowlerInningsList().get(0).balls());
+        assertThat(bowler.size(), is(3));
+        assertThat(bowler.wicketCount(), is(1));
+        assertThat(BallColumns.of(new Balls()).size(), is(0));
+    }
+
+    @Test
+    void columnsCoverManyBalls() {
+        MatchControl control = MatchControl.newMatch(MatchEvents.matchStarting(1, 50).withTeamLineUps(ImmutableList.of(aus, nz)).build())
+            .onEvent(inningsStarting().withBattingTeam(nz))
+            .onEvent(batterInningsStarting())
+            .onEvent(batterInningsStarting());
+        for (int over = 0; over < 20; over++) {
+            control = control.onEvent(overStarting(aus.battingOrder().get(9 + over % 2)));
+            for (int ball = 0; ball < 6; ball++) {
+                control = control.onEvent(ballCompleted(ball % 3 == 0 ? "4" : "1")
+                    .withDelivery(Delivery.delivery().withSpeedInKilometers(120 + ball).build()));
+            }
+            control = control.onEvent(overCompleted());
+        }
+        BallColumns columns = BallColumns.of(control.match().currentInnings().balls());
+        assertThat(columns.size(), is(120));
+        assertThat(columns.validCount(), is(120));
+        assertThat(columns.totalRuns(), is((long) control.match().currentInnings().score().teamRuns()));
+        long fours = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.batterRuns(i) == 4 && columns.hasSpeed(i)) {
+                fours += columns.speedInKilometers(i);
+            }
+        }
+        assertThat(fours, is(20L * (120 + 123)));
+    }
+}
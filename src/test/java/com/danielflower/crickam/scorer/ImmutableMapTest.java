@@ -0,0 +1,133 @@
+package com.danielflower.crickam.scorer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+class ImmutableMapTest {
+
+    @Test
+    public void valuesCanBeAddedWithoutChangingTheOriginal() {
+        SimplePlayer one = new SimplePlayer("One");
+        SimplePlayer two = new SimplePlayer("Two");
+        ImmutableMap<Player, Integer> empty = ImmutableMap.playerMap();
+        ImmutableMap<Player, Integer> withOne = empty.put(one, 1);
+        ImmutableMap<Player, Integer> withBoth = withOne.put(two, 2);
+        ImmutableMap<Player, Integer> replaced = withBoth.put(one, 10);
+
+        assertThat(empty.size(), is(0));
+        assertThat(empty.get(one), is(nullValue()));
+        assertThat(withOne.size(), is(1));
+        assertThat(withOne.get(one), is(1));
+        assertThat(withOne.get(two), is(nullValue()));
+        assertThat(withBoth.size(), is(2));
+        assertThat(withBoth.get(one), is(1));
+        assertThat(withBoth.get(two), is(2));
+        assertThat(replaced.size(), is(2));
+        assertThat(replaced.get(one), is(10));
+    }
+
+    @Test
+    public void manyPlayersCanBeStored() {
+        ImmutableMap<Player, Integer> map = ImmutableMap.playerMap();
+        SimplePlayer[] players = new SimplePlayer[5000];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new SimplePlayer("Player " + i);
+            map = map.put(players[i], i);
+        }
+        assertThat(map.size(), is(players.length));
+        for (int i = 0; i < players.length; i++) {
+            assertThat(map.get(players[i]), is(i));
+        }
+    }
+
+    @Test
+    public void playersWithTheSameHashCodeAreStoredSeparately() {
+        ImmutableMap<Player, String> map = ImmutableMap.playerMap();
+        CollidingPlayer a = new CollidingPlayer("A", 42);
+        CollidingPlayer b = new CollidingPlayer("B", 42);
+        CollidingPlayer c = new CollidingPlayer("C", 42 + 32);
+        map = map.put(a, "a").put(b, "b").put(c, "c").put(b, "b2");
+        assertThat(map.size(), is(3));
+        assertThat(map.get(a), is("a"));
+        assertThat(map.get(b), is("b2"));
+        assertThat(map.get(c), is("c"));
+        assertThat(map.get(new CollidingPlayer("D", 42)), is(nullValue()));
+    }
+
+    @Test
+    public void keysAreComparedWithEqualsByDefault() {
+        ImmutableMap<UUID, String> map = ImmutableMap.empty();
+        UUID id = UUID.randomUUID();
+        map = map.put(id, "one");
+        assertThat(map.get(new UUID(id.getMostSignificantBits(), id.getLeastSignificantBits())), is("one"));
+        assertThat(map.get(UUID.randomUUID()), is(nullValue()));
+    }
+
+    @Test
+    public void mapsCanBeCopiedInOneGo() {
+        Map<Object, Integer> source = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            source.put("Key " + i, i);
+        }
+        CollidingPlayer a = new CollidingPlayer("A", 42);
+        CollidingPlayer b = new CollidingPlayer("B", 42);
+        source.put(a, -1);
+        source.put(b, -2);
+
+        ImmutableMap<Object, Integer> copy = ImmutableMap.copyOf(source);
+        assertThat(copy.size(), is(source.size()));
+        for (Map.Entry<Object, Integer> entry : source.entrySet()) {
+            assertThat(copy.get(entry.getKey()), is(entry.getValue()));
+        }
+        assertThat(copy.get("Key 5000"), is(nullValue()));
+        assertThat(copy.put("Key 1", 100).get("Key 1"), is(100));
+        assertThat(copy.put("Key 1", 100).size(), is(source.size()));
+        assertThat(copy.put(new CollidingPlayer("C", 42), -3).get(a), is(-1));
+        assertThat(ImmutableMap.copyOf(new HashMap<>()).size(), is(0));
+    }
+
+    @Test
+    public void playerMapsUseSamePlayer() {
+        Player one = new SamePlayerByName("One");
+        ImmutableMap<Player, Integer> map = ImmutableMap.<Integer>playerMap().put(one, 1);
+        assertThat(map.get(new SamePlayerByName("One")), is(1));
+        assertThat(map.get(new SamePlayerByName("Two")), is(nullValue()));
+    }
+
+    private static class SamePlayerByName extends SimplePlayer {
+        SamePlayerByName(String fullName) {
+            super(fullName);
+        }
+
+        @Override
+        public boolean samePlayer(Player other) {
+            return other != null && name().equals(other.name());
+        }
+
+        @Override
+        public int hashCode() {
+            return name().hashCode();
+        }
+    }
+
+    private static class CollidingPlayer extends SimplePlayer {
+        private final int hash;
+
+        CollidingPlayer(String name, int hash) {
+            super(name);
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
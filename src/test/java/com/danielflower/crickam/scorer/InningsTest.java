@@ -58,6 +58,33 @@ class InningsTest {
         assertThat(innings().bowlerInningsList().isEmpty(), is(true));
     }
 
+    @Test
+    void oversCountValidDeliveriesAndMaidens() {
+        control = control.onEvent(overStarting().withBowler(bowler1));
+        for (String ball : new String[]{"0", "1w", "0", "1lb", "0", "1nb", "0"}) {
+            control = control.onEvent(ballCompleted(ball));
+        }
+        Over over = innings().currentOver();
+        assertThat(over.validDeliveries(), is(5));
+        assertThat(over.remainingBalls(), is(1));
+        assertThat(over.isComplete(), is(false));
+        assertThat(over.isMaiden(), is(false));
+        assertThat(over.score().dots(), is(5));
+
+        control = control.onEvent(ballCompleted("0")).onEvent(overCompleted())
+            .onEvent(overStarting().withBowler(bowler2));
+        for (String ball : new String[]{"0", "0", "1lb", "0", "2b", "0"}) {
+            control = control.onEvent(ballCompleted(ball));
+        }
+        over = innings().currentOver();
+        assertThat(over.validDeliveries(), is(6));
+        assertThat(over.remainingBalls(), is(0));
+        assertThat(over.isComplete(), is(true));
+        assertThat(over.isMaiden(), is(true));
+        assertThat(innings().overs().get(0).isMaiden(), is(false));
+        assertThat(innings().overs().get(0).validDeliveries(), is(6));
+    }
+
     @Test
     void aNewOverEventAddsToTheOverList() {
         control = control.onEvent(overStarting()
@@ -332,6 +359,40 @@ class InningsTest {
         assertThat(innings().bowlerInningsList().get(2).spells().get(0).maidens(), is(1));
     }
 
+    @Test
+    void maidensAndWicketsAreCountedPerBowlerAndSpell() {
+        control = control.onEvent(overStarting(bowler1).withBallsInOver(2))
+            .onEvent(ballCompleted("0"))
+            .onEvent(ballCompleted("W").withDismissal(DismissalType.BOWLED))
+            .onEvent(batterInningsCompleted())
+            .onEvent(batterInningsStarting());
+        BowlerInnings bowler1Innings = innings().bowlerInningsList().get(0);
+        assertThat(bowler1Innings.maidens(), is(1));
+        assertThat(bowler1Innings.wickets(), is(1));
+
+        // an extra ball after the over was complete means it is no longer a maiden
+        control = control.onEvent(ballCompleted("1nb")).onEvent(overCompleted());
+        bowler1Innings = innings().bowlerInningsList().get(0);
+        assertThat(bowler1Innings.maidens(), is(0));
+        assertThat(bowler1Innings.spells().get(0).maidens(), is(0));
+
+        for (int i = 0; i < 3; i++) {
+            control = control.onEvent(overStarting(bowler2).withBallsInOver(1)).onEvent(ballCompleted("1")).onEvent(overCompleted());
+        }
+        control = control.onEvent(overStarting(bowler1).withBallsInOver(2))
+            .onEvent(ballCompleted("0"))
+            .onEvent(ballCompleted("0"))
+            .onEvent(overCompleted());
+        bowler1Innings = innings().bowlerInningsList().get(0);
+        assertThat(bowler1Innings.spells().size(), is(2));
+        assertThat(bowler1Innings.maidens(), is(1));
+        assertThat(bowler1Innings.wickets(), is(1));
+        assertThat(bowler1Innings.spells().get(0).wickets(), is(1));
+        assertThat(bowler1Innings.spells().get(1).wickets(), is(0));
+        assertThat(bowler1Innings.spells().get(1).maidens(), is(1));
+        assertThat(bowler1Innings.score().dots(), is(4));
+    }
+
     @Test
     void runsAreAscribedToTheFacingBatter() {
         control = control.onEvent(overStarting(bowler1))
@@ -422,6 +483,54 @@ class InningsTest {
 
     }
 
+    @Test
+    void spellWicketsOnlyCountTheWicketsTakenInThatSpell() {
+        control = control.onEvent(oneBallOverStarting(bowler1))
+            .onEvent(ballCompleted("W").withDismissal(DismissalType.BOWLED))
+            .onEvent(batterInningsCompleted())
+            .onEvent(batterInningsStarting())
+            .onEvent(overCompleted());
+        for (int i = 0; i < 3; i++) {
+            control = control.onEvent(oneBallOverStarting(bowler2)).onEvent(ballCompleted("0")).onEvent(overCompleted());
+        }
+        control = control.onEvent(oneBallOverStarting(bowler1))
+            .onEvent(ballCompleted("W").withDismissal(DismissalType.BOWLED))
+            .onEvent(batterInningsCompleted())
+            .onEvent(batterInningsStarting())
+            .onEvent(overCompleted())
+            .onEvent(oneBallOverStarting(bowler2)).onEvent(ballCompleted("0")).onEvent(overCompleted())
+            .onEvent(oneBallOverStarting(bowler1))
+            .onEvent(ballCompleted("W").withDismissal(DismissalType.BOWLED))
+            .onEvent(batterInningsCompleted())
+            .onEvent(batterInningsStarting())
+            .onEvent(overCompleted());
+
+        BowlerInnings bowler1Innings = innings().bowlerInningsList().get(0);
+        assertThat(bowler1Innings.wickets(), is(3));
+        assertThat(bowler1Innings.spells().size(), is(2));
+        assertThat(bowler1Innings.spells().get(0).wickets(), is(1));
+        assertThat(bowler1Innings.spells().get(1).wickets(), is(2));
+        assertThat(innings().bowlerInningsList().get(1).spells().get(0).wickets(), is(0));
+    }
+
+    @Test
+    void aBatterWhoRetiresAndResumesIsFoundByTheirFirstInnings() {
+        control = control.onEvent(overStarting(bowler1))
+            .onEvent(ballCompleted("2"))
+            .onEvent(batterInningsCompleted(BattingState.RETIRED))
+            .onEvent(batterInningsStarting())
+            .onEvent(ballCompleted("0"))
+            .onEvent(batterInningsCompleted(BattingState.RETIRED_OUT).withBatter(number3))
+            .onEvent(batterInningsStarting().withBatter(opener1));
+
+        assertThat(innings().batterInningsList().size(), is(4));
+        BatterInnings first = innings().batterInningsList().get(0);
+        assertThat(first.player(), is(opener1));
+        assertThat(innings().batterInningsList().get(3).player(), is(opener1));
+        assertThat(innings().batterInnings(opener1), sameInstance(first));
+        assertThat(innings().batterInnings(opener1).score().batterRuns(), is(2));
+    }
+
     private OverStartingEvent.Builder oneBallOverStarting(Player bowler1) {
         return overStarting().withBowler(bowler1).withBallsInOver(1);
     }
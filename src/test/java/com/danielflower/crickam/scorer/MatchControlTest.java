@@ -1,20 +1,26 @@
 package com.danielflower.crickam.scorer;
 
 import com.danielflower.crickam.scorer.data.Australia;
+import com.danielflower.crickam.scorer.events.BallCompletedEvent;
+import com.danielflower.crickam.scorer.events.BaseMatchEvent;
 import com.danielflower.crickam.scorer.events.BatterInningsStartingEvent;
+import com.danielflower.crickam.scorer.events.MatchEvent;
 import com.danielflower.crickam.scorer.events.MatchEvents;
 import com.danielflower.crickam.scorer.events.MatchStartingEvent;
+import com.danielflower.crickam.scorer.events.OverCompletedEvent;
 import com.danielflower.crickam.scorer.events.OverStartingEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Instant;
 import java.util.TimeZone;
+import java.util.UUID;
 
 import static com.danielflower.crickam.scorer.data.England.MAHMOOD;
 import static com.danielflower.crickam.scorer.data.England.TOM_CURRAN;
 import static com.danielflower.crickam.scorer.data.NewZealand.*;
 import static com.danielflower.crickam.scorer.events.MatchEvents.*;
+import static java.util.stream.Collectors.toList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -148,6 +154,73 @@ class MatchControlTest {
         // go to the next day, which happens to be the day after daylight savings ended
         control = control.onEvent(ballCompleted("0").withTime(Crictils.localTime(nz, 2019, 9, 29, 10, 0)));
         assertThat(control.localTime(10, 30, 0).toString(), is("2019-09-28T21:30:00Z"));
+
+        // the date comes from the most recent event with a time, even if an earlier event has a later time
+        control = control.onEvent(ballCompleted("0").withTime(Crictils.localTime(nz, 2019, 9, 28, 17, 0)))
+            .onEvent(ballCompleted("0"));
+        assertThat(control.lastKnownTime(), is(Crictils.localTime(nz, 2019, 9, 29, 10, 0)));
+        assertThat(control.localTime(10, 30, 0).toString(), is("2019-09-27T22:30:00Z"));
+    }
+
+    @Test
+    public void statesCanBeFoundByTime() {
+        TimeZone nz = TimeZone.getTimeZone("Pacific/Auckland");
+        Instant start = Crictils.localTime(nz, 2019, 9, 27, 10, 0);
+        MatchControl control = MatchControl.newMatch(
+            MatchEvents.matchStarting(5, null)
+                .withTeamLineUps(ImmutableList.of(this.nz, aus))
+                .withTime(start)
+                .withTimeZone(nz)
+                .build()
+        );
+        control = control.onEvent(inningsStarting().withBattingTeam(this.nz))
+            .onEvent(batterInningsStarting())
+            .onEvent(batterInningsStarting())
+            .onEvent(overStarting().withBowler(aus.battingOrder().last()));
+        MatchControl first = control = control.onEvent(ballCompleted("1").withTime(start.plusSeconds(60)));
+        MatchControl second = control = control.onEvent(ballCompleted("1").withTime(start.plusSeconds(120)));
+        MatchControl untimed = control = control.onEvent(ballCompleted("0"));
+        MatchControl fourth = control = control.onEvent(ballCompleted("4").withTime(start.plusSeconds(180)));
+        MatchControl outOfOrder = control.onEvent(ballCompleted("0").withTime(start.plusSeconds(90)));
+        control = outOfOrder;
+
+        assertThat(control.lastKnownTime(), is(start.plusSeconds(180)));
+        assertThat(first.lastKnownTime(), is(start.plusSeconds(60)));
+        assertThat(control.asAt(start), is(sameInstance(first.parent())));
+        assertThat(control.asAt(start.plusSeconds(60)), is(sameInstance(first)));
+        assertThat(control.asAt(start.plusSeconds(119)), is(sameInstance(first)));
+        assertThat(control.asAt(start.plusSeconds(150)), is(sameInstance(untimed)));
+        assertThat(control.asAt(start.plusSeconds(3600)), is(sameInstance(outOfOrder)));
+        assertThat(untimed.asAt(start.plusSeconds(3600)), is(sameInstance(untimed)));
+        assertThrows(IllegalArgumentException.class, () -> untimed.asAt(start.minusSeconds(1)));
+
+        assertThat(control.eventsBetween(start.plusSeconds(60), start.plusSeconds(180)).collect(toList()),
+            contains(first.event(), second.event(), untimed.event()));
+        assertThat(control.eventsBetween(start.plusSeconds(61), start.plusSeconds(3600)).collect(toList()),
+            contains(second.event(), untimed.event(), fourth.event(), outOfOrder.event()));
+        assertThat(control.eventsBetween(start.plusSeconds(3600), start.plusSeconds(7200)).count(), is(0L));
+        assertThat(control.eventsBetween(start, start.plusSeconds(1)).count(), is(5L));
+        assertThrows(IllegalArgumentException.class, () -> outOfOrder.eventsBetween(start.plusSeconds(1), start));
+
+        MatchControl replayed = MatchControl.replay((MatchStartingEvent) control.history().first().event(),
+            control.history().stream().skip(1).map(MatchControl::event));
+        assertThat(replayed.asAt(start.plusSeconds(150)).event(), is(sameInstance(untimed.event())));
+        assertThat(replayed.asAt(start.plusSeconds(60)).lastKnownTime(), is(start.plusSeconds(60)));
+    }
+
+    @Test
+    public void findingAStateBeforeTheFirstTimedEventIsAnErrorEvenIfEarlierEventsHaveNoTime() {
+        Instant start = Instant.parse("2019-09-26T22:00:00Z");
+        MatchControl untimedStart = MatchControl.newMatch(
+            MatchEvents.matchStarting(5, null).withTeamLineUps(ImmutableList.of(nz, aus)).build()
+        );
+        assertThat(untimedStart.asAt(start), is(sameInstance(untimedStart)));
+
+        MatchControl inningsStarted = untimedStart.onEvent(inningsStarting().withBattingTeam(nz).withTime(start.plusSeconds(60)));
+        MatchControl firstBatter = inningsStarted.onEvent(batterInningsStarting());
+        assertThrows(IllegalArgumentException.class, () -> firstBatter.asAt(start));
+        assertThrows(IllegalArgumentException.class, () -> firstBatter.asAt(start.plusSeconds(59)));
+        assertThat(firstBatter.asAt(start.plusSeconds(60)), is(sameInstance(firstBatter)));
     }
 
     @Test
@@ -191,4 +264,216 @@ class MatchControlTest {
     }
 
 
+    @Test
+    public void undoneEventsCanBeRedoneUntilANewEventIsAdded() {
+        control = control.onEvent(overStarting().withBowler(aus.battingOrder().last()));
+        MatchControl afterFirst = control.onEvent(ballCompleted("1"));
+        MatchControl afterSecond = afterFirst.onEvent(ballCompleted("4"));
+        assertThat(afterSecond.canRedo(), is(false));
+        assertThrows(IllegalStateException.class, afterSecond::redo);
+
+        MatchControl undone = afterSecond.undo();
+        assertThat(undone.event(), is(sameInstance(afterFirst.event())));
+        assertThat(undone.canRedo(), is(true));
+        assertThat(undone.redo(), is(sameInstance(afterSecond)));
+
+        MatchControl undoneTwice = undone.undo();
+        assertThat(undoneTwice.event(), is(sameInstance(control.event())));
+        assertThat(undoneTwice.redo().redo(), is(sameInstance(afterSecond)));
+        assertThat(afterSecond.undo(2).event(), is(sameInstance(control.event())));
+        assertThat(afterSecond.undo(0), is(sameInstance(afterSecond)));
+
+        MatchControl changed = undone.onEvent(ballCompleted("6"));
+        assertThat(changed.canRedo(), is(false));
+        assertThat(changed.parent().canRedo(), is(false));
+        assertThat(changed.parent().event(), is(sameInstance(afterFirst.event())));
+        assertThat(changed.undo().event(), is(sameInstance(afterFirst.event())));
+    }
+
+    @Test
+    public void eventsCanBeLookedUpByID() {
+        MatchControl beforeOver = control;
+        control = control.onEvent(overStarting().withBowler(aus.battingOrder().last()));
+        MatchEvent onAnotherBranch = control.onEvent(ballCompleted("1")).event();
+        MatchControl afterFirst = control.onEvent(ballCompleted("1").withCustomData(new UncomparableData()));
+        MatchControl afterSecond = afterFirst.onEvent(ballCompleted("4"));
+
+        assertThat(afterSecond.asAt(afterFirst.event().id()), is(sameInstance(afterFirst)));
+        assertThat(afterSecond.asAt(afterFirst.event()), is(sameInstance(afterFirst)));
+        assertThat(afterSecond.asAt(afterSecond.event()), is(sameInstance(afterSecond)));
+        assertThat(afterSecond.indexOf(afterFirst.event()), is(afterFirst.eventCount() - 1));
+        assertThat(afterSecond.history().get(afterSecond.indexOf(afterFirst.event())), is(sameInstance(afterFirst)));
+        assertThat(afterSecond.indexOf(onAnotherBranch), is(-1));
+
+        MatchControl fork = beforeOver.onEvent(overStarting().withBowler(aus.battingOrder().get(9)));
+        assertThat(fork.indexOf(afterFirst.event()), is(-1));
+        assertThrows(IllegalArgumentException.class, () -> fork.asAt(afterFirst.event().id()));
+    }
+
+    @Test
+    public void eventsCanBeQueriedByType() {
+        MatchControl beforeOver = control;
+        control = control.onEvent(overStarting().withBowler(aus.battingOrder().last()))
+            .onEvent(ballCompleted("1"))
+            .onEvent(ballCompleted("4"));
+        MatchEvent lastBall = control.event();
+
+        assertThat(control.eventCount(BallCompletedEvent.class), is(2));
+        assertThat(control.eventCount(BatterInningsStartingEvent.class), is(2));
+        assertThat(control.eventCount(OverCompletedEvent.class), is(0));
+        assertThat(control.eventCount(MatchEvent.class), is(control.eventCount()));
+        assertThat(control.eventCount(BaseMatchEvent.class), is(control.eventCount()));
+        assertThat(control.lastEvent(BallCompletedEvent.class), is(sameInstance(lastBall)));
+        assertThat(control.lastEvent(MatchEvent.class), is(sameInstance(lastBall)));
+        assertThat(control.lastEvent(OverCompletedEvent.class), is(nullValue()));
+
+        assertThat(control.eventStream(BallCompletedEvent.class).map(BallCompletedEvent::runsScored).map(Score::teamRuns)
+            .collect(toList()), contains(1, 4));
+        assertThat(control.eventStream(MatchEvent.class).collect(toList()),
+            equalTo(control.history().stream().map(MatchControl::event).collect(toList())));
+
+        assertThat(beforeOver.eventCount(BallCompletedEvent.class), is(0));
+        assertThat(beforeOver.eventStream(BallCompletedEvent.class).count(), is(0L));
+        assertThat(control.undo().eventCount(BallCompletedEvent.class), is(1));
+    }
+
+    @Test
+    public void sparseHistoryCanBeRebuiltFromCheckpoints() {
+        MatchControl full = control;
+        for (int over = 0; over < 10; over++) {
+            full = full.onEvent(overStarting().withBowler(aus.battingOrder().get(9 + over % 2)));
+            for (int ball = 0; ball < 6; ball++) {
+                full = full.onEvent(ballCompleted(ball == 3 ? "4" : "1").withUndoPoint(ball != 4));
+            }
+            full = full.onEvent(overCompleted());
+        }
+        ImmutableList<MatchControl> fullHistory = full.history();
+
+        MatchControl sparse = MatchControl.newMatch((MatchStartingEvent) full.history().first().event(), 5);
+        for (MatchControl state : fullHistory.subList(1, fullHistory.size() - 1)) {
+            sparse = sparse.onEvent(state.event());
+        }
+        ImmutableList<MatchControl> sparseHistory = sparse.history();
+
+        assertThat(sparseHistory.size(), is(fullHistory.size()));
+        assertThat(sparse.eventCount(), is(full.eventCount()));
+        for (int i = fullHistory.size() - 1; i >= 0; i--) {
+            MatchControl expected = fullHistory.get(i);
+            MatchEvent event = expected.event();
+            String expectedScorecard = AsciiScorecardRenderer.toString(expected);
+            assertThat(sparseHistory.get(i).event(), is(sameInstance(event)));
+            assertThat(AsciiScorecardRenderer.toString(sparseHistory.get(i)), equalTo(expectedScorecard));
+            assertThat(AsciiScorecardRenderer.toString(sparse.asAt(event)), equalTo(expectedScorecard));
+            assertThat(sparse.asAt(event).eventCount(), is(i + 1));
+            assertThat(sparse.asAt(event).hasParent(), is(expected.hasParent()));
+            if (expected.hasParent()) {
+                assertThat(sparse.asAt(event).parent().event(), is(sameInstance(expected.parent().event())));
+                assertThat(sparse.asAt(event).undo().event(), is(sameInstance(expected.undo().event())));
+            }
+        }
+
+        MatchControl whatIf = sparse.asAt(fullHistory.get(30).event()).onEvent(ballCompleted("6"));
+        assertThat(whatIf.eventCount(), is(32));
+        assertThat(whatIf.parent().event(), is(sameInstance(fullHistory.get(30).event())));
+        assertThat(whatIf.history().get(29).event(), is(sameInstance(fullHistory.get(29).event())));
+        assertThat(sparse.asAt(fullHistory.get(31).event()).event(), is(sameInstance(fullHistory.get(31).event())));
+    }
+
+    @Test
+    public void matchesCanBeReplayedFromEvents() {
+        control = control.onEvent(overStarting().withBowler(aus.battingOrder().last()))
+            .onEvent(ballCompleted("1"))
+            .onEvent(ballCompleted("4"))
+            .onEvent(ballCompleted("0"));
+        ImmutableList<MatchControl> history = control.history();
+        MatchStartingEvent startingEvent = (MatchStartingEvent) history.first().event();
+
+        MatchControl replayed = MatchControl.replay(startingEvent, history.subList(1, history.size() - 1).stream().map(MatchControl::event));
+        assertThat(replayed.eventCount(), is(control.eventCount()));
+        assertThat(AsciiScorecardRenderer.toString(replayed), equalTo(AsciiScorecardRenderer.toString(control)));
+        for (MatchControl state : history) {
+            MatchControl replayedState = replayed.asAt(state.event());
+            assertThat(replayedState.event(), is(sameInstance(state.event())));
+            assertThat(replayedState.eventCount(), is(state.eventCount()));
+            assertThat(replayedState.eventCount(BallCompletedEvent.class), is(state.eventCount(BallCompletedEvent.class)));
+            assertThat(AsciiScorecardRenderer.toString(replayedState), equalTo(AsciiScorecardRenderer.toString(state)));
+        }
+
+        MatchEvent four = history.get(history.size() - 2).event();
+        MatchControl beforeFour = replayed.asAt(four).parent();
+        assertThat(beforeFour.indexOf(four), is(-1));
+        assertThat(beforeFour.lastEvent(BallCompletedEvent.class).runsScored(), equalTo(Score.SINGLE));
+        MatchControl fork = beforeFour.onEvent(ballCompleted("2")).onEvent(ballCompleted("3"));
+        assertThat(fork.indexOf(four), is(-1));
+        assertThrows(IllegalArgumentException.class, () -> fork.asAt(four));
+        assertThat(fork.eventStream(BallCompletedEvent.class).map(BallCompletedEvent::runsScored).map(Score::teamRuns)
+            .collect(toList()), contains(1, 2, 3));
+
+        MatchControl otherOver = replayed.asAt(replayed.lastEvent(OverStartingEvent.class)).parent()
+            .onEvent(overStarting().withBowler(aus.battingOrder().get(9)))
+            .onEvent(overCompleted());
+        assertThat(otherOver.eventCount(BallCompletedEvent.class), is(0));
+        assertThat(otherOver.lastEvent(BallCompletedEvent.class), is(nullValue()));
+        assertThat(otherOver.onEvent(overStarting().withBowler(aus.battingOrder().last())).onEvent(ballCompleted("6"))
+            .eventCount(BallCompletedEvent.class), is(1));
+
+        assertThat(MatchControl.replay(startingEvent, ImmutableList.emptyList()).eventCount(), is(1));
+    }
+
+    @Test
+    public void pastEventsCanBeCorrected() {
+        control = control.onEvent(overStarting().withBowler(aus.battingOrder().last()));
+        for (String ball : new String[]{"1", "1", "0", "4", "1", "0"}) {
+            control = control.onEvent(ballCompleted(ball));
+        }
+        control = control.onEvent(overCompleted())
+            .onEvent(overStarting().withBowler(aus.battingOrder().get(9)))
+            .onEvent(ballCompleted("2"));
+        ImmutableList<BallCompletedEvent> balls = control.eventStream(BallCompletedEvent.class).collect(ImmutableList.toImmutableList());
+        BallCompletedEvent second = balls.get(1);
+
+        MatchControl legBye = control.replaceEvent(second.id(), second.newBuilder().withRunsScored(Score.parse("1lb")).build());
+        assertThat(legBye.eventCount(), is(control.eventCount()));
+        assertThat(legBye.match().currentInnings().score().legByes(), is(1));
+        assertThat(legBye.match().currentInnings().score().teamRuns(), is(control.match().currentInnings().score().teamRuns()));
+        assertThat(legBye.event(), is(sameInstance(control.event())));
+        assertThat(control.asAt(second).event(), is(sameInstance(second)));
+
+        MatchControl dot = control.replaceEvent(second.id(), second.newBuilder().withRunsScored(Score.DOT_BALL).withPlayersCrossed(false).build());
+        ImmutableList<BallCompletedEvent> afterDot = dot.eventStream(BallCompletedEvent.class).collect(ImmutableList.toImmutableList());
+        assertThat(afterDot.get(2).striker(), is(sameInstance(balls.get(2).nonStriker())));
+        assertThat(afterDot.get(2).numberInOver(), is(balls.get(2).numberInOver()));
+        assertThat(dot.match().currentInnings().score().teamRuns(), is(control.match().currentInnings().score().teamRuns() - 1));
+        assertThat(dot.lastEvent(OverCompletedEvent.class).score().teamRuns(), is(6));
+
+        MatchControl wide = control.insertAfter(balls.get(0).id(), ballCompleted("1w").apply(control.asAt(balls.get(0)).match()).build());
+        ImmutableList<BallCompletedEvent> afterWide = wide.eventStream(BallCompletedEvent.class).collect(ImmutableList.toImmutableList());
+        assertThat(afterWide.size(), is(balls.size() + 1));
+        assertThat(afterWide.get(2).id(), is(second.id()));
+        assertThat(afterWide.get(2).numberInOver(), is(2));
+        assertThat(afterWide.get(2).numberInMatch(), is(second.numberInMatch() + 1));
+        assertThat(afterWide.last().numberInMatch(), is(balls.last().numberInMatch() + 1));
+
+        MatchControl removed = wide.removeEvent(afterWide.get(1).id());
+        assertThat(removed.eventStream(BallCompletedEvent.class).collect(toList()), equalTo(balls.stream().collect(toList())));
+        assertThat(AsciiScorecardRenderer.toString(removed), equalTo(AsciiScorecardRenderer.toString(control)));
+
+        MatchEvent first = control.history().first().event();
+        assertThrows(IllegalArgumentException.class, () -> control.removeEvent(first.id()));
+        assertThrows(IllegalArgumentException.class, () -> control.replaceEvent(first.id(), second));
+        assertThrows(IllegalArgumentException.class, () -> control.removeEvent(UUID.randomUUID()));
+    }
+
+    private static class UncomparableData {
+        @Override
+        public boolean equals(Object obj) {
+            throw new AssertionError("Custom data should not be compared");
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+    }
+
 }
\ No newline at end of file
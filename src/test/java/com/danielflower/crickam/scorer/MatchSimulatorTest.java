@@ -0,0 +1,151 @@
+package com.danielflower.crickam.scorer;
+
+import com.danielflower.crickam.scorer.data.Australia;
+import com.danielflower.crickam.scorer.data.NewZealand;
+import com.danielflower.crickam.scorer.events.MatchEvents;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.danielflower.crickam.scorer.events.MatchEvents.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MatchSimulatorTest {
+
+    private final SimpleLineUp nz = NewZealand.oneDayLineUp().build();
+    private final SimpleLineUp aus = Australia.oneDayLineUp().build();
+
+    @Test
+    void theChaseIsPlayedOutToTheEndOfTheInnings() {
+        // New Zealand make 6 off their one over, and Australia start the chase with a single
+        Match match = oneOverMatch().match();
+
+        SimulationResult dots = simulate(match, (innings, random) -> BallOutcome.DOT);
+        assertThat(dots.winProbability(nz), is(1.0));
+        assertThat(dots.winProbability(aus), is(0.0));
+        assertThat(dots.projectedInningsNumber(), is(2));
+        assertThat(dots.projectedScoreProbability(1), is(1.0));
+        assertThat(dots.averageProjectedScore(), is(1.0));
+
+        SimulationResult sixes = simulate(match, (innings, random) -> BallOutcome.of(6, true, false));
+        assertThat(sixes.winProbability(aus), is(1.0));
+        assertThat(sixes.projectedScorePercentile(0.5), is(7));
+
+        SimulationResult singles = simulate(match, (innings, random) -> BallOutcome.of(1, true, false));
+        assertThat(singles.tieProbability(), is(1.0));
+        assertThat(singles.projectedScorePercentile(1.0), is(6));
+
+        SimulationResult wides = simulate(match, (innings, random) -> innings.runs() < 3 ? BallOutcome.of(1, false, false) : BallOutcome.WICKET);
+        assertThat(wides.winProbability(nz), is(1.0));
+        assertThat(wides.averageProjectedScore(), is(3.0));
+
+        SimulationResult fromStart = MatchSimulator.matchSimulator((innings, random) -> BallOutcome.of(innings.battingTeam() == nz ? 1 : 2, true, false))
+            .withSimulations(10).build()
+            .simulate(MatchControl.newMatch(MatchEvents.matchStarting(1, 1).withTeamLineUps(ImmutableList.of(nz, aus)).build()).match());
+        assertThat(fromStart.projectedInningsNumber(), is(1));
+        assertThat(fromStart.averageProjectedScore(), is(6.0));
+        assertThat(fromStart.winProbability(aus), is(1.0));
+    }
+
+    @Test
+    void randomSimulationsGiveTheSameResultsForTheSameSeedOnAnyNumberOfThreads() {
+        Match match = oneOverMatch().match();
+        BallOutcomeModel model = (innings, random) -> {
+            double value = random.nextDouble();
+            return value < 0.3 ? BallOutcome.DOT : value < 0.6 ? BallOutcome.of(1, true, false)
+                : value < 0.9 ? BallOutcome.of(2, true, false) : BallOutcome.WICKET;
+        };
+        MatchSimulator simulator = MatchSimulator.matchSimulator(model).withSimulations(5000).withSeed(1234L).build();
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool several = new ForkJoinPool(4);
+        try {
+            SimulationResult serial = simulator.simulate(match, single);
+            SimulationResult parallel = simulator.simulate(match, several);
+            assertThat(parallel.toString(), equalTo(serial.toString()));
+            for (int runs = 0; runs < 15; runs++) {
+                assertThat(parallel.projectedScoreProbability(runs), equalTo(serial.projectedScoreProbability(runs)));
+            }
+            assertThat(parallel.simulations(), is(5000));
+            assertThat(parallel.winProbability(nz) + parallel.winProbability(aus) + parallel.tieProbability(), closeTo(1.0, 1e-9));
+            assertThat(parallel.winProbability(nz), is(both(greaterThan(0.1)).and(lessThan(0.9))));
+            assertThat(parallel.drawProbability(), is(0.0));
+            assertThat(parallel.averageProjectedScore(), is(both(greaterThan(3.0)).and(lessThan(8.0))));
+        } finally {
+            single.shutdown();
+            several.shutdown();
+        }
+
+        SimulationResult fromBalls = MatchSimulator.matchSimulator(BallOutcomeModel.fromBalls(match.balls()))
+            .withSimulations(2000).withSeed(99L).build().simulate(match);
+        assertThat(fromBalls.winProbability(nz) + fromBalls.winProbability(aus) + fromBalls.tieProbability(), closeTo(1.0, 1e-9));
+        assertThrows(IllegalArgumentException.class, () -> BallOutcomeModel.fromBalls(new Balls()));
+    }
+
+    @Test
+    void firstClassMatchesRespectTheFollowOnAndTheScheduledDays() {
+        Match match = MatchControl.newMatch(MatchEvents.matchStarting(5, null).withTeamLineUps(ImmutableList.of(nz, aus)).build()).match();
+        AtomicBoolean followedOn = new AtomicBoolean();
+        AtomicInteger lastInnings = new AtomicInteger();
+        // New Zealand score 540 in 100 balls while Australia are out every ball
+        BallOutcomeModel model = (innings, random) -> {
+            lastInnings.accumulateAndGet(innings.inningsNumber(), Math::max);
+            if (innings.followingOn()) followedOn.set(true);
+            if (innings.battingTeam() == aus) return BallOutcome.WICKET;
+            return innings.ballsBowled() % 10 == 9 ? BallOutcome.WICKET : BallOutcome.of(6, true, false);
+        };
+
+        SimulationResult enforced = MatchSimulator.matchSimulator(model).withSimulations(1).build().simulate(match);
+        assertThat(enforced.winProbability(nz), is(1.0));
+        assertThat(enforced.projectedScoreProbability(540), is(1.0));
+        assertThat(followedOn.get(), is(true));
+        assertThat(lastInnings.get(), is(3));
+
+        followedOn.set(false);
+        lastInnings.set(0);
+        SimulationResult notEnforced = MatchSimulator.matchSimulator(model).withSimulations(1).withFollowOnEnforced(false).build().simulate(match);
+        assertThat(notEnforced.winProbability(nz), is(1.0));
+        assertThat(followedOn.get(), is(false));
+        assertThat(lastInnings.get(), is(4));
+
+        SimulationResult outOfTime = MatchSimulator.matchSimulator(model).withSimulations(1).withBallsPerDay(10).build().simulate(match);
+        assertThat(outOfTime.drawProbability(), is(1.0));
+        assertThat(outOfTime.projectedScoreProbability(270), is(1.0));
+    }
+
+    @Test
+    void completedMatchesCannotBeSimulated() {
+        MatchControl control = oneOverMatch()
+            .onEvent(ballCompleted("6"))
+            .onEvent(inningsCompleted())
+            .onEvent(matchCompleted());
+        MatchSimulator simulator = MatchSimulator.matchSimulator((innings, random) -> BallOutcome.DOT).build();
+        assertThrows(IllegalStateException.class, () -> simulator.simulate(control.match()));
+        assertThrows(IllegalArgumentException.class, () -> MatchSimulator.matchSimulator((innings, random) -> BallOutcome.DOT).withSimulations(0).build());
+    }
+
+    private static SimulationResult simulate(Match match, BallOutcomeModel model) {
+        return MatchSimulator.matchSimulator(model).withSimulations(100).build().simulate(match);
+    }
+
+    private MatchControl oneOverMatch() {
+        MatchControl control = MatchControl.newMatch(MatchEvents.matchStarting(1, 1).withTeamLineUps(ImmutableList.of(nz, aus)).build())
+            .onEvent(inningsStarting().withBattingTeam(nz))
+            .onEvent(batterInningsStarting())
+            .onEvent(batterInningsStarting())
+            .onEvent(overStarting(aus.battingOrder().get(10)));
+        for (int i = 0; i < 6; i++) {
+            control = control.onEvent(ballCompleted("1"));
+        }
+        return control.onEvent(overCompleted())
+            .onEvent(inningsCompleted())
+            .onEvent(inningsStarting())
+            .onEvent(batterInningsStarting())
+            .onEvent(batterInningsStarting())
+            .onEvent(overStarting(nz.battingOrder().get(10)))
+            .onEvent(ballCompleted("1"));
+    }
+}
@@ -0,0 +1,106 @@
+package com.danielflower.crickam.scorer;
+
+import com.danielflower.crickam.scorer.data.Australia;
+import com.danielflower.crickam.scorer.data.NewZealand;
+import com.danielflower.crickam.scorer.events.MatchEvents;
+import org.junit.jupiter.api.Test;
+
+import static com.danielflower.crickam.scorer.events.MatchEvents.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class MatchSituationTest {
+    private static final SimpleLineUp aus = Australia.oneDayLineUp().build();
+    private static final Player ausBowler = aus.battingOrder().get(10);
+    private static final SimpleLineUp nz = NewZealand.oneDayLineUp().build();
+    private static final Player nzBowler = nz.battingOrder().get(10);
+
+    @Test
+    void chasesShowRunsRequiredAndBallsRemaining() {
+        MatchControl control = MatchControl.newMatch(MatchEvents.matchStarting()
+            .withTeamLineUps(ImmutableList.of(aus, nz))
+            .withInningsPerTeam(1)
+            .withOversPerInnings(1)
+            .withBallsPerInnings(3)
+            .build()
+        );
+        assertThat(control.match().situation().toString(), is("Not started"));
+        assertThat(control.match().situation().battingTeam(), is(nullValue()));
+
+        control = control.onEvent(inningsStarting().withBattingTeam(aus))
+            .onEvent(batterInningsStarting())
+            .onEvent(batterInningsStarting())
+            .onEvent(overStarting(nzBowler).withBallsInOver(3))
+            .onEvent(ballCompleted("3"));
+        MatchSituation firstInnings = control.match().situation();
+        assertThat(firstInnings.battingTeam(), is(sameInstance(aus)));
+        assertThat(firstInnings.lead(), is(3));
+        assertThat(firstInnings.runsRequired(), is(nullValue()));
+        assertThat(firstInnings.ballsRemaining(), is(2));
+        assertThat(firstInnings.wicketsInHand(), is(10));
+        assertThat(firstInnings.toString(), is("Australia lead by 3 runs"));
+
+        control = control.onEvent(ballCompleted("0"))
+            .onEvent(ballCompleted("0"))
+            .onEvent(overCompleted())
+            .onEvent(inningsCompleted())
+            .onEvent(inningsStarting().withBattingTeam(nz))
+            .onEvent(batterInningsStarting())
+            .onEvent(batterInningsStarting())
+            .onEvent(overStarting(ausBowler).withBallsInOver(3))
+            .onEvent(ballCompleted("1"))
+            .onEvent(ballCompleted("W").withDismissal(DismissalType.BOWLED));
+        MatchSituation chase = control.match().situation();
+        assertThat(chase.battingTeam(), is(sameInstance(nz)));
+        assertThat(chase.bowlingTeam(), is(sameInstance(aus)));
+        assertThat(chase.lead(), is(-2));
+        assertThat(chase.runsRequired(), is(3));
+        assertThat(chase.ballsRemaining(), is(1));
+        assertThat(chase.wicketsInHand(), is(9));
+        assertThat(chase.provisionalResult(), is(MatchResult.NoResult));
+        assertThat(chase.toString(), is("New Zealand need 3 runs from 1 ball"));
+        assertThat(control.match().calculateResult(), is(sameInstance(chase.provisionalResult())));
+
+        MatchSituation won = control.onEvent(batterInningsCompleted())
+            .onEvent(batterInningsStarting())
+            .onEvent(ballCompleted("4"))
+            .match().situation();
+        assertThat(won.runsRequired(), is(0));
+        assertThat(won.ballsRemaining(), is(0));
+        assertThat(won.lead(), is(2));
+        assertThat(won.toString(), is("New Zealand won by 9 wickets"));
+    }
+
+    @Test
+    void theFollowOnIsAvailableWhenTheSecondTeamTrailsByEnough() {
+        MatchControl control = MatchControl.newMatch(MatchEvents.matchStarting(5, null)
+            .withTeamLineUps(ImmutableList.of(aus, nz)).build());
+        control = control.onEvent(inningsStarting().withBattingTeam(aus)
+                .withStartingScore(Score.score().withPenaltyRuns(190).build()))
+            .onEvent(batterInningsStarting())
+            .onEvent(batterInningsStarting())
+            .onEvent(overStarting().withBowler(nzBowler))
+            .onEvent(ballCompleted("4"))
+            .onEvent(ballCompleted("6"))
+            .onEvent(inningsCompleted().withDeclared(true));
+        assertThat(control.match().situation().followOnAvailable(), is(false));
+        assertThat(control.match().situation().toString(), is("Australia lead by 200 runs"));
+
+        MatchControl secondInnings = control.onEvent(inningsStarting().withBattingTeam(nz))
+            .onEvent(batterInningsStarting())
+            .onEvent(batterInningsStarting())
+            .onEvent(overStarting().withBowler(ausBowler))
+            .onEvent(ballCompleted("1"));
+        assertThat(secondInnings.match().situation().lead(), is(-199));
+        assertThat(secondInnings.match().situation().toString(), is("New Zealand trail by 199 runs"));
+        assertThat(secondInnings.onEvent(inningsCompleted().withDeclared(true)).match().situation().followOnAvailable(), is(false));
+
+        MatchControl followOnAvailable = control.onEvent(inningsStarting().withBattingTeam(nz))
+            .onEvent(inningsCompleted().withDeclared(true));
+        assertThat(followOnAvailable.match().situation().lead(), is(-200));
+        assertThat(followOnAvailable.match().situation().followOnAvailable(), is(true));
+        assertThat(followOnAvailable.onEvent(inningsStarting().withBattingTeam(nz).withFollowingOn(true))
+            .match().situation().followOnAvailable(), is(false));
+    }
+
+}
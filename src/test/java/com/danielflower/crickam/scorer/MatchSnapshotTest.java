@@ -0,0 +1,124 @@
+package com.danielflower.crickam.scorer;
+
+import com.danielflower.crickam.scorer.data.Australia;
+import com.danielflower.crickam.scorer.data.NewZealand;
+import com.danielflower.crickam.scorer.events.EventCodec;
+import com.danielflower.crickam.scorer.events.MatchEvent;
+import com.danielflower.crickam.scorer.events.OverCompletedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static com.danielflower.crickam.scorer.events.MatchEvents.*;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MatchSnapshotTest {
+
+    private final SimpleLineUp nz = NewZealand.oneDayLineUp().build();
+    private final SimpleLineUp aus = Australia.oneDayLineUp().build();
+
+    @Test
+    void aMatchCanBeRestoredFromASnapshotAndTheEventsAfterIt() {
+        MatchControl control = MatchControl.newMatch(MatchTest.aMatch()
+            .withInningsPerTeam(1).withOversPerInnings(10).withTeamLineUps(ImmutableList.of(nz, aus)).build());
+        control = playInnings(control, nz, aus);
+        MatchControl atSnapshot = control.asAt(control.eventStream(OverCompletedEvent.class).skip(3).findFirst().get());
+        MatchControl atInningsBreak = control;
+        control = playInnings(control, aus, nz).onEvent(matchCompleted());
+        List<MatchEvent> events = events(control);
+        EventCodec codec = EventCodec.forLineUps(control.match().teams());
+
+        for (MatchControl snapshotted : ImmutableList.of(atSnapshot, atInningsBreak)) {
+            ByteBuffer buffer = ByteBuffer.allocate(65536);
+            MatchSnapshot.write(snapshotted, codec, buffer);
+            buffer.flip();
+            MatchControl restored = MatchSnapshot.restore(buffer, codec, events, 10);
+            assertThat(buffer.remaining(), is(0));
+
+            assertThat(restored.eventCount(), is(control.eventCount()));
+            assertThat(AsciiScorecardRenderer.toString(restored), equalTo(AsciiScorecardRenderer.toString(control)));
+            assertThat(restored.match().situation().toString(), equalTo(control.match().situation().toString()));
+            assertThat(restored.match().result(), equalTo(control.match().result()));
+            assertThat(events(restored), equalTo(events));
+
+            MatchControl restoredAtSnapshot = restored.asAt(snapshotted.event());
+            assertThat(AsciiScorecardRenderer.toString(restoredAtSnapshot), equalTo(AsciiScorecardRenderer.toString(snapshotted)));
+            assertThat(AsciiScorecardRenderer.toString(restoredAtSnapshot.parent()), equalTo(AsciiScorecardRenderer.toString(snapshotted.parent())));
+        }
+    }
+
+    @Test
+    void objectsSharedInTheMatchAreSharedAfterRestoring() {
+        MatchControl control = MatchControl.newMatch(MatchTest.aMatch()
+            .withInningsPerTeam(1).withOversPerInnings(10).withTeamLineUps(ImmutableList.of(nz, aus)).build());
+        control = playOvers(control.onEvent(inningsStarting().withBattingTeam(nz)).onEvent(batterInningsStarting())
+            .onEvent(batterInningsStarting()), aus, 3);
+        EventCodec codec = EventCodec.forLineUps(control.match().teams());
+        ByteBuffer buffer = ByteBuffer.allocate(65536);
+        MatchSnapshot.write(control, codec, buffer);
+        buffer.flip();
+
+        Innings innings = MatchSnapshot.restore(buffer, codec, events(control), 10).match().currentInnings();
+        assertThat(innings.completedOvers().size(), is(3));
+        Over over = innings.completedOvers().last();
+        assertThat(innings.bowlerInningsList().stream().flatMap(b -> b.overs().stream()).collect(toList()), hasItem(sameInstance(over)));
+        assertThat(innings.currentStriker(), is(sameInstance(innings.batterInningsList().stream()
+            .filter(b -> b.player() == innings.currentStriker().player()).findFirst().get())));
+        assertThat(innings.balls().last(), is(sameInstance(over.balls().last())));
+    }
+
+    @Test
+    void snapshotsCanOnlyBeRestoredWithTheEventsTheyWereTakenFrom() {
+        MatchControl control = MatchControl.newMatch(MatchTest.aMatch()
+            .withInningsPerTeam(1).withOversPerInnings(10).withTeamLineUps(ImmutableList.of(nz, aus)).build());
+        control = playOvers(control.onEvent(inningsStarting().withBattingTeam(nz)).onEvent(batterInningsStarting())
+            .onEvent(batterInningsStarting()), aus, 2);
+        EventCodec codec = EventCodec.forLineUps(control.match().teams());
+        ByteBuffer buffer = ByteBuffer.allocate(65536);
+
+        MatchControl midOver = control.onEvent(overStarting().withBowler(aus.battingOrder().get(10))).onEvent(ballCompleted("1"));
+        assertThrows(IllegalArgumentException.class, () -> MatchSnapshot.write(midOver, codec, buffer));
+
+        MatchSnapshot.write(control, codec, buffer);
+        buffer.flip();
+        List<MatchEvent> undone = events(control.undo());
+        assertThrows(IllegalArgumentException.class, () -> MatchSnapshot.restore(buffer.duplicate(), codec, undone, 10));
+        List<MatchEvent> forked = events(control.parent().parent().onEvent(ballCompleted("6")).onEvent(overCompleted()));
+        assertThrows(IllegalArgumentException.class, () -> MatchSnapshot.restore(buffer.duplicate(), codec, forked, 10));
+        assertThat(MatchSnapshot.restore(buffer.duplicate(), codec, events(control), 10).eventCount(), is(control.eventCount()));
+    }
+
+    private static MatchControl playInnings(MatchControl control, SimpleLineUp batting, SimpleLineUp bowling) {
+        control = control.onEvent(inningsStarting().withBattingTeam(batting))
+            .onEvent(batterInningsStarting()).onEvent(batterInningsStarting());
+        return playOvers(control, bowling, 10).onEvent(inningsCompleted());
+    }
+
+    private static MatchControl playOvers(MatchControl control, SimpleLineUp bowling, int overs) {
+        for (int over = 0; over < overs; over++) {
+            control = control.onEvent(overStarting().withBowler(bowling.battingOrder().get(over < 4 ? 9 + over % 2 : 7 + over % 3)));
+            for (int ball = 0; ball < 6; ball++) {
+                if (over % 3 == 1 && ball == 2) {
+                    control = control.onEvent(ballCompleted("W").withDismissal(DismissalType.CAUGHT).withFielder(bowling.battingOrder().get(ball)))
+                        .onEvent(batterInningsCompleted())
+                        .onEvent(batterInningsStarting());
+                } else {
+                    control = control.onEvent(ballCompleted(ball == 4 ? "2w" : ball == 5 ? "4" : "1"));
+                    if (ball == 4) {
+                        control = control.onEvent(ballCompleted("0"));
+                    }
+                }
+            }
+            control = control.onEvent(overCompleted());
+        }
+        return control;
+    }
+
+    private static List<MatchEvent> events(MatchControl control) {
+        return control.history().stream().map(MatchControl::event).collect(toList());
+    }
+}
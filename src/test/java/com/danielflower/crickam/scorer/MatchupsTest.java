@@ -0,0 +1,76 @@
+package com.danielflower.crickam.scorer;
+
+import com.danielflower.crickam.scorer.data.Australia;
+import com.danielflower.crickam.scorer.data.NewZealand;
+import com.danielflower.crickam.scorer.events.MatchEvents;
+import org.junit.jupiter.api.Test;
+
+import static com.danielflower.crickam.scorer.events.MatchEvents.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class MatchupsTest {
+
+    private final SimpleLineUp aus = Australia.oneDayLineUp().build();
+    private final SimpleLineUp nz = NewZealand.oneDayLineUp().build();
+
+    @Test
+    void eachBallIsAddedToTheMatchupOfTheStrikerAndBowler() {
+        Player first = nz.battingOrder().get(0);
+        Player second = nz.battingOrder().get(1);
+        Player third = nz.battingOrder().get(2);
+        Player starc = aus.battingOrder().get(10);
+        Player cummins = aus.battingOrder().get(9);
+
+        MatchControl control = MatchControl.newMatch(MatchEvents.matchStarting(1, 50).withTeamLineUps(ImmutableList.of(aus, nz)).build())
+            .onEvent(inningsStarting().withBattingTeam(nz))
+            .onEvent(batterInningsStarting())
+            .onEvent(batterInningsStarting())
+            .onEvent(overStarting(starc))
+            .onEvent(ballCompleted("4"))
+            .onEvent(ballCompleted("1"))
+            .onEvent(ballCompleted("2"))
+            .onEvent(ballCompleted("W").withDismissal(DismissalType.BOWLED))
+            .onEvent(batterInningsCompleted())
+            .onEvent(batterInningsStarting())
+            .onEvent(ballCompleted("1w"))
+            .onEvent(ballCompleted("0"))
+            .onEvent(ballCompleted("0"))
+            .onEvent(overCompleted());
+        Matchups afterFirstOver = control.match().currentInnings().matchups();
+
+        control = control.onEvent(overStarting(cummins))
+            .onEvent(ballCompleted("6"));
+        Matchups matchups = control.match().currentInnings().matchups();
+
+        assertThat(matchups.size(), is(4));
+        Matchup firstVsStarc = matchups.get(first, starc);
+        assertThat(firstVsStarc.batter(), is(sameInstance(first)));
+        assertThat(firstVsStarc.bowler(), is(sameInstance(starc)));
+        assertThat(firstVsStarc.score().batterRuns(), is(5));
+        assertThat(firstVsStarc.score().validDeliveries(), is(2));
+        assertThat(firstVsStarc.dismissals(), is(0));
+
+        Matchup secondVsStarc = matchups.get(second, starc);
+        assertThat(secondVsStarc.score().batterRuns(), is(2));
+        assertThat(secondVsStarc.score().facedByBatter(), is(2));
+        assertThat(secondVsStarc.dismissals(), is(1));
+
+        Matchup thirdVsStarc = matchups.get(third, starc);
+        assertThat(thirdVsStarc.score().teamRuns(), is(1));
+        assertThat(thirdVsStarc.score().validDeliveries(), is(2));
+
+        assertThat(matchups.get(first, cummins).score().batterRuns(), is(6));
+        assertThat(matchups.get(second, cummins), is(nullValue()));
+
+        assertThat(matchups.forBatter(first), contains(firstVsStarc, matchups.get(first, cummins)));
+        assertThat(matchups.forBowler(starc), contains(firstVsStarc, secondVsStarc, thirdVsStarc));
+        assertThat(matchups.forBowler(cummins).size(), is(1));
+        assertThat(matchups.forBatter(nz.battingOrder().get(5)).size(), is(0));
+
+        assertThat(afterFirstOver.size(), is(3));
+        assertThat(afterFirstOver.get(first, cummins), is(nullValue()));
+        assertThat(afterFirstOver.get(second, starc), is(sameInstance(secondVsStarc)));
+        assertThat(afterFirstOver.forBatter(first).size(), is(1));
+    }
+}
@@ -3,10 +3,12 @@ package com.danielflower.crickam.scorer;
 import org.junit.jupiter.api.Test;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static com.danielflower.crickam.scorer.Score.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class ScoreTest {
 
@@ -152,6 +154,50 @@ class ScoreTest {
         assertThat(score().build(), is(sameInstance(EMPTY)));
     }
 
+    @Test
+    public void singleBallScoresAreSharedInstances() {
+        assertThat(Score.parse("2lb"), is(sameInstance(Score.parse("2lb"))));
+        assertThat(Score.parse("5nb"), is(sameInstance(score().withNoBalls(1).withBatterRuns(4).withFours(1).build())));
+        assertThat(EMPTY.add(Score.parse("3w")), is(sameInstance(Score.parse("3w"))));
+        assertThat(SINGLE.add(SINGLE).subtract(SINGLE), is(sameInstance(SINGLE)));
+    }
+
+    @Test
+    public void scoresTooLargeToPackKeepTheirValues() {
+        Score large = score().withValidDeliveries(100000).withDots(70000).withSingles(20000).withBatterRuns(40000)
+            .withWides(300).withWideDeliveries(250).withWickets(900).withSixes(5000).build();
+        assertThat(large.validDeliveries(), is(100000));
+        assertThat(large.dots(), is(70000));
+        assertThat(large.singles(), is(20000));
+        assertThat(large.batterRuns(), is(40000));
+        assertThat(large.wides(), is(300));
+        assertThat(large.wideDeliveries(), is(250));
+        assertThat(large.wickets(), is(900));
+        assertThat(large.sixes(), is(5000));
+        assertThat(large.add(score).subtract(score), is(large));
+        assertThat(large.hashCode(), is(Builder.from(large).build().hashCode()));
+    }
+
+    @Test
+    public void addingPastThePackedLimitsDoesNotLoseRuns() {
+        Score total = EMPTY;
+        Score expected = score().withValidDeliveries(20000).withSixes(20000).withBatterRuns(120000).build();
+        for (int i = 0; i < 20000; i++) {
+            total = total.add(SIX);
+        }
+        assertThat(total, is(expected));
+        assertThat(total.hashCode(), is(expected.hashCode()));
+        assertThat(total.subtract(expected), is(sameInstance(EMPTY)));
+    }
+
+    @Test
+    public void subtractingMoreThanAScoreHasGivesNegativeValues() {
+        Score negative = EMPTY.subtract(FOUR);
+        assertThat(negative.batterRuns(), is(-4));
+        assertThat(negative.fours(), is(-1));
+        assertThat(negative.add(FOUR), is(sameInstance(EMPTY)));
+    }
+
     @Test
     public void stumpingFromWideHasRunsAndWicket() {
         Score stumpingFromWide = score().withWides(1).withWickets(1).build();
@@ -189,6 +235,44 @@ class ScoreTest {
         assertThat(Score.parse("7nb"), is(score().withNoBalls(1).withBatterRuns(6).withSixes(1).build()));
     }
 
+    @Test
+    public void unusualScoresCanBeParsed() {
+        assertThat(Score.parse("2W"), is(score().withValidDeliveries(1).withWickets(1).withBatterRuns(2).withTwos(1).build()));
+        assertThat(Score.parse("12"), is(score().withValidDeliveries(1).withBatterRuns(12).build()));
+        assertThat(Score.parse("11lb"), is(score().withValidDeliveries(1).withLegByes(11).withDots(1).build()));
+    }
+
+    @Test
+    public void unknownScoresAreNotParsed() {
+        for (String text : new String[]{"", "x", "1x", "lb", "1lbs", "w", "1 ", "0w", "0nb", "1234567890"}) {
+            assertThat(text, Score.parse(text), is(nullValue()));
+        }
+    }
+
+    @Test
+    public void aWholeOverCanBeParsed() {
+        assertThat(Score.parseAll(" 1 . 4  W 2lb\t1w "), contains(SINGLE, DOT_BALL, FOUR, WICKET, Score.parse("2lb"), WIDE));
+        assertThat(Score.parseAll("").size(), is(0));
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> Score.parseAll("1 2 3x 4"));
+        assertThat(ex.getMessage(), is("Unknown score: 3x"));
+    }
+
+    @Test
+    public void scoresCanBeTotalledWithAnAccumulator() {
+        Accumulator accumulator = Score.accumulator();
+        assertThat(accumulator.build(), is(sameInstance(EMPTY)));
+        ImmutableList<Score> over = Score.parseAll("1 . 4 W 2lb 1w 6");
+        Score expected = EMPTY;
+        for (Score ball : over) {
+            accumulator.add(ball);
+            expected = expected.add(ball);
+        }
+        assertThat(accumulator.build(), is(expected));
+        assertThat(accumulator.add(score).build(), is(expected.add(score)));
+        assertThat(over.stream().collect(Score.toTotal()), is(over.stream().reduce(EMPTY, Score::add)));
+        assertThat(Stream.of(score, score, score).parallel().collect(Score.toTotal()), is(score.add(score).add(score)));
+    }
+
     @Test
     public void invalidDeliveriesAreInferred() {
         assertThat(score().withWides(5).withWideDeliveries(1).withNoBalls(2).build().invalidDeliveries(), is(3));
@@ -0,0 +1,213 @@
+package com.danielflower.crickam.scorer;
+
+import com.danielflower.crickam.scorer.data.Australia;
+import com.danielflower.crickam.scorer.data.NewZealand;
+import com.danielflower.crickam.scorer.events.MatchEvents;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.danielflower.crickam.scorer.events.MatchEvents.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StatsQueryTest {
+
+    private final SimpleLineUp aus = Australia.oneDayLineUp().build();
+    private final SimpleLineUp nz = NewZealand.oneDayLineUp().build();
+    private final Player opener = nz.battingOrder().get(0);
+    private final Player secondBatter = nz.battingOrder().get(1);
+    private final Player firstBowler = aus.battingOrder().get(10);
+    private final Player secondBowler = aus.battingOrder().get(9);
+
+    @Test
+    void battingAndBowlingRecordsAreTotalledAcrossMatches() {
+        List<Match> matches = new ArrayList<>();
+        matches.add(match(50, Instant.parse("2020-01-01T00:00:00Z"), "4", "4", "0", "0", "0", "0"));
+        matches.add(match(50, Instant.parse("2020-02-01T00:00:00Z"), "6", "6", "6", "6", "6", "6", "6", "6", "6"));
+
+        PlayerStats stats = StatsQuery.statsQuery().build().run(matches);
+        assertThat(stats.matches(), is(2));
+
+        BattingStats openerStats = stats.batting(opener);
+        assertThat(openerStats.innings(), is(2));
+        assertThat(openerStats.notOuts(), is(2));
+        assertThat(openerStats.runs(), is(62));
+        assertThat(openerStats.balls(), is(15));
+        assertThat(openerStats.fifties(), is(1));
+        assertThat(openerStats.hundreds(), is(0));
+        assertThat(openerStats.highestScore(), is(54));
+        assertThat(openerStats.highestScoreNotOut(), is(true));
+        assertThat(openerStats.average(), is(nullValue()));
+        assertThat(openerStats.strikeRate(), closeTo(413.33, 0.01));
+
+        BattingStats secondStats = stats.batting(secondBatter);
+        assertThat(secondStats.innings(), is(2));
+        assertThat(secondStats.notOuts(), is(0));
+        assertThat(secondStats.runs(), is(0));
+        assertThat(secondStats.balls(), is(12));
+        assertThat(secondStats.average(), is(0.0));
+
+        BowlingStats first = stats.bowling(firstBowler);
+        assertThat(first.innings(), is(2));
+        assertThat(first.balls(), is(15));
+        assertThat(first.runs(), is(62));
+        assertThat(first.wickets(), is(0));
+        assertThat(first.average(), is(nullValue()));
+        assertThat(first.economy(), closeTo(24.8, 0.001));
+        assertThat(first.bestFigures(), is("0/8"));
+
+        BowlingStats second = stats.bowling(secondBowler);
+        assertThat(second.balls(), is(12));
+        assertThat(second.runs(), is(0));
+        assertThat(second.wickets(), is(2));
+        assertThat(second.maidens(), is(2));
+        assertThat(second.average(), is(0.0));
+        assertThat(second.strikeRate(), is(6.0));
+        assertThat(second.bestFigures(), is("1/0"));
+
+        assertThat(stats.battingStats().get(0).player(), is(sameInstance(opener)));
+        assertThat(stats.bowlingStats().get(0).player(), is(sameInstance(secondBowler)));
+        assertThat(stats.batting(aus.battingOrder().get(0)), is(nullValue()));
+        assertThat(stats.bowling(opener), is(nullValue()));
+    }
+
+    @Test
+    void matchesCanBeFilteredByFormatTeamAndDate() {
+        List<Match> matches = new ArrayList<>();
+        matches.add(match(50, Instant.parse("2020-01-01T00:00:00Z"), "4", "4", "0", "0", "0", "0"));
+        matches.add(match(20, Instant.parse("2020-02-01T00:00:00Z"), "2", "0", "0", "0", "0", "0"));
+        matches.add(match(20, Instant.parse("2020-03-01T00:00:00Z"), "4", "0", "0", "0", "0", "0"));
+
+        assertThat(StatsQuery.statsQuery().withOversPerInnings(20).build().run(matches).batting(opener).runs(), is(6));
+        assertThat(StatsQuery.statsQuery().withOversPerInnings(50).build().run(matches).batting(opener).runs(), is(8));
+        assertThat(StatsQuery.statsQuery().withInningsPerTeam(2).build().run(matches).matches(), is(0));
+
+        PlayerStats february = StatsQuery.statsQuery()
+            .withStartTime(Instant.parse("2020-02-01T00:00:00Z"))
+            .withEndTime(Instant.parse("2020-03-01T00:00:00Z"))
+            .build().run(matches);
+        assertThat(february.matches(), is(1));
+        assertThat(february.batting(opener).runs(), is(2));
+
+        PlayerStats forNewZealand = StatsQuery.statsQuery().withTeamName(nz.teamName()).build().run(matches);
+        assertThat(forNewZealand.batting(opener).runs(), is(14));
+        assertThat(forNewZealand.bowling(firstBowler), is(nullValue()));
+        PlayerStats forAustralia = StatsQuery.statsQuery().withTeamName(aus.teamName()).build().run(matches);
+        assertThat(forAustralia.batting(opener), is(nullValue()));
+        assertThat(forAustralia.bowling(firstBowler).runs(), is(14));
+
+        assertThrows(IllegalArgumentException.class, () -> StatsQuery.statsQuery()
+            .withStartTime(Instant.parse("2020-02-01T00:00:00Z"))
+            .withEndTime(Instant.parse("2020-01-01T00:00:00Z")).build());
+    }
+
+    @Test
+    void theResultIsTheSameNoMatterHowTheMatchesAreSplit() {
+        List<Match> matches = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            matches.add(match(50, Instant.parse("2020-01-01T00:00:00Z").plusSeconds(86400L * i),
+                i % 2 == 0 ? "4" : "2", i % 3 == 0 ? "6" : "0", "0", "2", "0", "0"));
+        }
+        StatsQuery query = StatsQuery.statsQuery().build();
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool several = new ForkJoinPool(4);
+        try {
+            PlayerStats serial = query.run(matches, single);
+            PlayerStats parallel = query.run(matches, several);
+            assertThat(parallel.matches(), is(250));
+            assertThat(parallel.battingStats().toString(), equalTo(serial.battingStats().toString()));
+            assertThat(parallel.bowlingStats().toString(), equalTo(serial.bowlingStats().toString()));
+            assertThat(parallel.batting(opener).runs(), is(125 * 4 + 125 * 2 + 84 * 6 + 2 * 250));
+            assertThat(parallel.batting(opener).highestScore(), is(12));
+            assertThat(parallel.bowling(secondBowler).wickets(), is(250));
+        } finally {
+            single.shutdown();
+            several.shutdown();
+        }
+    }
+
+    @Test
+    void playersAreMatchedWithSamePlayerEvenIfTheyAreNotEqual() {
+        List<Match> matches = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            // each match has its own player objects, which are neither equal nor have the same hash codes
+            matches.add(match(registeredLineUp("Home", 100), registeredLineUp("Away", 200), 50,
+                Instant.parse("2020-01-01T00:00:00Z").plusSeconds(86400L * i), "4", "0", "0", "0", "0", "0"));
+        }
+        Player opener = new RegisteredPlayer(100, "Player 100");
+        Player bowler = new RegisteredPlayer(210, "Player 210");
+        assertThat(opener, not(equalTo(matches.get(0).inningsList().get(0).batterInningsList().get(0).player())));
+
+        ForkJoinPool several = new ForkJoinPool(4);
+        try {
+            PlayerStats stats = StatsQuery.statsQuery().build().run(matches, several);
+            assertThat(stats.batting(opener).innings(), is(10));
+            assertThat(stats.batting(opener).runs(), is(40));
+            assertThat(stats.bowling(bowler).runs(), is(40));
+            assertThat(stats.battingStats().size(), is(2));
+            assertThat(stats.bowlingStats().size(), is(2));
+        } finally {
+            several.shutdown();
+        }
+    }
+
+    private static SimpleLineUp registeredLineUp(String teamName, int firstID) {
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            players.add(new RegisteredPlayer(firstID + i, "Player " + (firstID + i)));
+        }
+        return SimpleLineUp.lineUp().withTeamName(teamName).withBattingOrder(new ImmutableList<>(players)).build();
+    }
+
+    /**
+     * A player identified by a registration number, where different objects for the same registration number are
+     * the same player but are not equal
+     */
+    private static final class RegisteredPlayer extends SimplePlayer {
+        private final int registration;
+
+        private RegisteredPlayer(int registration, String name) {
+            super(name);
+            this.registration = registration;
+        }
+
+        @Override
+        public boolean samePlayer(Player other) {
+            return other instanceof RegisteredPlayer && ((RegisteredPlayer) other).registration == registration;
+        }
+    }
+
+    /**
+     * A match where the opener faces the first over from one bowler, and then the second batter is out to the last
+     * ball of a maiden from the other bowler.
+     */
+    private Match match(int overs, Instant time, String... firstOver) {
+        return match(nz, aus, overs, time, firstOver);
+    }
+
+    private static Match match(SimpleLineUp batting, SimpleLineUp bowling, int overs, Instant time, String... firstOver) {
+        MatchControl control = MatchControl.newMatch(MatchEvents.matchStarting(1, overs)
+                .withTeamLineUps(ImmutableList.of(bowling, batting)).withTime(time).build())
+            .onEvent(inningsStarting().withBattingTeam(batting))
+            .onEvent(batterInningsStarting())
+            .onEvent(batterInningsStarting())
+            .onEvent(overStarting(bowling.battingOrder().get(10)).withBallsInOver(firstOver.length));
+        for (String ball : firstOver) {
+            control = control.onEvent(ballCompleted(ball));
+        }
+        control = control.onEvent(overCompleted())
+            .onEvent(overStarting(bowling.battingOrder().get(9)));
+        for (int i = 0; i < 5; i++) {
+            control = control.onEvent(ballCompleted("0"));
+        }
+        return control.onEvent(ballCompleted("W").withDismissal(DismissalType.BOWLED))
+            .onEvent(batterInningsCompleted())
+            .onEvent(overCompleted())
+            .match();
+    }
+}
@@ -0,0 +1,113 @@
+package com.danielflower.crickam.scorer.events;
+
+import com.danielflower.crickam.scorer.*;
+import com.danielflower.crickam.scorer.data.Australia;
+import com.danielflower.crickam.scorer.data.NewZealand;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.TimeZone;
+
+import static com.danielflower.crickam.scorer.events.MatchEvents.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EventCodecTest {
+
+    private final SimpleLineUp nz = NewZealand.oneDayLineUp().build();
+    private final SimpleLineUp aus = Australia.oneDayLineUp().build();
+
+    @Test
+    void everyEventOfAMatchCanBeEncodedAndDecoded() {
+        Instant start = Instant.parse("2020-01-03T23:30:00.123456789Z");
+        MatchStartingEvent matchStarting = MatchEvents.matchStarting(1, 2)
+            .withTeamLineUps(ImmutableList.of(nz, aus))
+            .withScheduledStartTime(start)
+            .withTimeZone(TimeZone.getTimeZone("Pacific/Auckland"))
+            .withTime(start)
+            .build();
+        MatchControl control = MatchControl.newMatch(matchStarting)
+            .onEvent(inningsStarting().withBattingTeam(nz).withTime(start.plusSeconds(60)))
+            .onEvent(batterInningsStarting())
+            .onEvent(batterInningsStarting())
+            .onEvent(overStarting(aus.battingOrder().get(10)))
+            .onEvent(ballCompleted("4")
+                .withDelivery(Delivery.delivery().withDeliveryType(DeliveryType.ARM_BALL).withSpeedInKilometers(86)
+                    .withPositionOfBounce(8.25).withBowledFrom(WicketSide.AROUND).build())
+                .withSwing(Swing.swing().withShotType(ShotType.CUT).withImpact(ImpactOnBat.MIDDLED).withPower(0.65).build())
+                .withTrajectoryAtImpact(Trajectory.trajectory().withSpeedInKms(123).withLaunchAngle(-3.5).build()))
+            .onEvent(ballCompleted("2w").withTime(start.minusSeconds(3600)))
+            .onEvent(ballCompleted("1nb").withUndoPoint(false))
+            .onEvent(ballCompleted("3lb"))
+            .onEvent(ballCompleted("W").withDismissal(DismissalType.CAUGHT).withFielder(aus.battingOrder().get(2)))
+            .onEvent(batterInningsCompleted())
+            .onEvent(batterInningsStarting())
+            .onEvent(ballCompleted("W").withDismissal(DismissalType.RUN_OUT).withPlayersCrossed(true)
+                .withDismissedBatter(nz.battingOrder().get(2)).withFielder(aus.battingOrder().get(0)))
+            .onEvent(batterInningsCompleted())
+            .onEvent(batterInningsStarting())
+            .onEvent(ballCompleted("0"))
+            .onEvent(ballCompleted("6"))
+            .onEvent(overCompleted())
+            .onEvent(inningsCompleted().withDeclared(true))
+            .onEvent(inningsStarting().withStartingScore(Score.score().withPenaltyRuns(5).build()))
+            .onEvent(batterInningsStarting())
+            .onEvent(batterInningsStarting())
+            .onEvent(overStarting(nz.battingOrder().get(10)).withBallsInOver(8))
+            .onEvent(ballCompleted("0"))
+            .onEvent(inningsCompleted())
+            .onEvent(matchCompleted());
+
+        EventCodec codec = EventCodec.forMatch(matchStarting);
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        for (MatchControl mc : control.history()) {
+            codec.encode(mc.event(), buffer);
+        }
+        buffer.flip();
+        for (MatchControl mc : control.history()) {
+            MatchEvent decoded = codec.decode(buffer);
+            assertThat(decoded, equalTo(mc.event()));
+        }
+        assertThat(buffer.remaining(), is(0));
+    }
+
+    @Test
+    void aTypicalBallTakesAFewBytesMoreThanItsID() {
+        EventCodec codec = EventCodec.forMatch(MatchEvents.matchStarting().withTeamLineUps(ImmutableList.of(nz, aus)).build());
+        BallCompletedEvent ball = ballCompleted("1")
+            .withBowler(aus.battingOrder().get(10))
+            .withStriker(nz.battingOrder().get(0))
+            .withNonStriker(nz.battingOrder().get(1))
+            .withPlayersCrossed(true)
+            .withOverNumber(12)
+            .withNumberInOver(3)
+            .withNumberInMatch(75)
+            .build();
+        ByteBuffer buffer = ByteBuffer.allocate(100);
+        codec.encode(ball, buffer);
+        assertThat(buffer.position(), lessThanOrEqualTo(16 + 12));
+        buffer.flip();
+        BallCompletedEvent decoded = (BallCompletedEvent) codec.decode(buffer);
+        assertThat(decoded, equalTo(ball));
+        assertThat(decoded.striker(), is(sameInstance(nz.battingOrder().get(0))));
+        assertThat(decoded.runsScored(), is(sameInstance(Score.SINGLE)));
+    }
+
+    @Test
+    void eventsThatCannotBeRepresentedAreRejected() {
+        EventCodec codec = EventCodec.forMatch(MatchEvents.matchStarting().withTeamLineUps(ImmutableList.of(nz, aus)).build());
+        ByteBuffer buffer = ByteBuffer.allocate(100);
+        assertThrows(IllegalArgumentException.class, () -> codec.encode(batterInningsStarting()
+            .withBatter(nz.battingOrder().get(0)).withCustomData("custom").build(), buffer));
+        assertThrows(IllegalArgumentException.class, () -> codec.encode(batterInningsStarting()
+            .withBatter(new SimplePlayer("Somebody Else")).build(), buffer));
+
+        buffer.clear();
+        buffer.put((byte) 0x20);
+        buffer.flip();
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(buffer));
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.danielflower.crickam.scorer.events;
+
+import com.danielflower.crickam.scorer.*;
+import com.danielflower.crickam.scorer.data.Australia;
+import com.danielflower.crickam.scorer.data.NewZealand;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.UUID;
+
+import static com.danielflower.crickam.scorer.events.MatchEvents.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EventJsonTest {
+
+    private final SimpleLineUp nz = NewZealand.oneDayLineUp().build();
+    private final SimpleLineUp aus = Australia.oneDayLineUp().build();
+
+    @Test
+    void everyEventOfAMatchCanBeWrittenAndRead() throws IOException {
+        Instant start = Instant.parse("2020-01-03T23:30:00.123456789Z");
+        MatchStartingEvent matchStarting = MatchEvents.matchStarting(1, 2)
+            .withTeamLineUps(ImmutableList.of(nz, aus))
+            .withScheduledStartTime(start)
+            .withTimeZone(TimeZone.getTimeZone("Pacific/Auckland"))
+            .withTime(start)
+            .build();
+        MatchControl control = MatchControl.newMatch(matchStarting)
+            .onEvent(inningsStarting().withBattingTeam(nz).withTime(start.plusSeconds(60)))
+            .onEvent(batterInningsStarting())
+            .onEvent(batterInningsStarting())
+            .onEvent(overStarting(aus.battingOrder().get(10)))
+            .onEvent(ballCompleted("4")
+                .withDelivery(Delivery.delivery().withDeliveryType(DeliveryType.ARM_BALL).withSpeedInKilometers(86)
+                    .withPositionOfBounce(8.25).withBowledFrom(WicketSide.AROUND).build())
+                .withSwing(Swing.swing().withShotType(ShotType.CUT).withImpact(ImpactOnBat.MIDDLED).withPower(0.65).build())
+                .withTrajectoryAtImpact(Trajectory.trajectory().withSpeedInKms(123).withLaunchAngle(-3.5).build()))
+            .onEvent(ballCompleted("2w"))
+            .onEvent(ballCompleted("1nb").withUndoPoint(false))
+            .onEvent(ballCompleted("W").withDismissal(DismissalType.CAUGHT).withFielder(aus.battingOrder().get(2)))
+            .onEvent(batterInningsCompleted())
+            .onEvent(batterInningsStarting())
+            .onEvent(ballCompleted("W").withDismissal(DismissalType.RUN_OUT).withPlayersCrossed(true)
+                .withDismissedBatter(nz.battingOrder().get(2)).withFielder(aus.battingOrder().get(0)))
+            .onEvent(batterInningsCompleted())
+            .onEvent(batterInningsStarting())
+            .onEvent(ballCompleted("6"))
+            .onEvent(overCompleted())
+            .onEvent(inningsCompleted().withDeclared(true))
+            .onEvent(inningsStarting().withStartingScore(Score.score().withPenaltyRuns(5).build()))
+            .onEvent(batterInningsStarting())
+            .onEvent(batterInningsStarting())
+            .onEvent(overStarting(nz.battingOrder().get(10)).withBallsInOver(8))
+            .onEvent(ballCompleted("0"))
+            .onEvent(inningsCompleted())
+            .onEvent(matchCompleted());
+
+        EventJson json = EventJson.forMatch(matchStarting);
+        StringBuilder ndjson = new StringBuilder();
+        for (MatchControl mc : control.history()) {
+            String written = json.toJson(mc.event());
+            assertThat(json.read(written), equalTo(mc.event()));
+            ndjson.append(written).append('\n');
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (MatchControl mc : control.history()) {
+            json.write(mc.event(), bytes);
+            bytes.write('\n');
+        }
+        assertThat(new String(bytes.toByteArray(), StandardCharsets.UTF_8), equalTo(ndjson.toString()));
+
+        List<MatchEvent> read = new ArrayList<>();
+        json.readAll(new InputStreamReader(new ByteArrayInputStream(bytes.toByteArray()), StandardCharsets.UTF_8), read::add);
+        assertThat(read.size(), is(control.eventCount()));
+        for (int i = 0; i < read.size(); i++) {
+            assertThat(read.get(i), equalTo(control.history().get(i).event()));
+        }
+        MatchControl replayed = MatchControl.replay((MatchStartingEvent) read.get(0), read.subList(1, read.size()));
+        assertThat(AsciiScorecardRenderer.toString(replayed), equalTo(AsciiScorecardRenderer.toString(control)));
+    }
+
+    @Test
+    void eventsAreWrittenWithReadableNames() {
+        EventJson json = EventJson.forLineUps(ImmutableList.of(nz, aus));
+        UUID id = UUID.fromString("1b4e28ba-2fa1-11d2-883f-0016d3cca427");
+        BallCompletedEvent ball = ballCompleted("4")
+            .withID(id)
+            .withBowler(aus.battingOrder().get(10))
+            .withStriker(nz.battingOrder().get(0))
+            .withNonStriker(nz.battingOrder().get(1))
+            .withPlayersCrossed(false)
+            .withOverNumber(12)
+            .withNumberInOver(3)
+            .withNumberInMatch(75)
+            .build();
+        String expected = "{\"type\":\"BallCompleted\",\"id\":\"1b4e28ba-2fa1-11d2-883f-0016d3cca427\",\"undoPoint\":true," +
+            "\"bowler\":\"" + aus.battingOrder().get(10).name() + "\",\"striker\":\"" + nz.battingOrder().get(0).name() + "\"," +
+            "\"nonStriker\":\"" + nz.battingOrder().get(1).name() + "\",\"runsScored\":{\"validDeliveries\":1,\"batterRuns\":4,\"fours\":1}," +
+            "\"playersCrossed\":false,\"overNumber\":12,\"numberInOver\":3,\"numberInMatch\":75}";
+        assertThat(json.toJson(ball), equalTo(expected));
+
+        BallCompletedEvent read = (BallCompletedEvent) json.read(" {\"type\":\"BallCompleted\",\"unknown\":[1,{\"a\":null}],\n" +
+            expected.substring(expected.indexOf("\"id\"")) + " ");
+        assertThat(read, equalTo(ball));
+        assertThat(read.striker(), is(sameInstance(nz.battingOrder().get(0))));
+        assertThat(read.runsScored(), is(sameInstance(Score.FOUR)));
+    }
+
+    @Test
+    void theValuesThatMakeUpEventsCanBeWrittenOnTheirOwn() throws IOException {
+        EventJson json = EventJson.forLineUps(ImmutableList.of(nz, aus));
+        StringBuilder sb = new StringBuilder();
+        EventJson.writeScore(Score.EMPTY, sb);
+        EventJson.writeDelivery(Delivery.delivery().withSpeedInKilometers(140).build(), sb);
+        EventJson.writeSwing(Swing.swing().withTiming(0.5).build(), sb);
+        EventJson.writeTrajectory(Trajectory.trajectory().withDistanceInMeters(71.5).build(), sb);
+        json.writeDismissal(Dismissal.dismissal().withType(DismissalType.BOWLED).withBatter(nz.battingOrder().get(0))
+            .withBowler(aus.battingOrder().get(10)).build(), sb);
+        assertThat(sb.toString(), equalTo("{}{\"speedInKilometers\":140}{\"timing\":0.5}{\"distanceInMeters\":71.5}" +
+            "{\"type\":\"BOWLED\",\"batter\":\"" + nz.battingOrder().get(0).name() + "\",\"bowler\":\"" + aus.battingOrder().get(10).name() + "\"}"));
+    }
+
+    @Test
+    void invalidEventsAreRejected() {
+        EventJson json = EventJson.forLineUps(ImmutableList.of(nz, aus));
+        assertThrows(IllegalArgumentException.class, () -> json.toJson(batterInningsStarting()
+            .withBatter(nz.battingOrder().get(0)).withCustomData("custom").build()));
+        assertThrows(IllegalArgumentException.class, () -> json.toJson(batterInningsStarting()
+            .withBatter(new SimplePlayer("Somebody Else")).build()));
+
+        String valid = json.toJson(batterInningsStarting().withBatter(nz.battingOrder().get(0)).build());
+        assertThat(json.read(valid), instanceOf(BatterInningsStartingEvent.class));
+        assertThrows(IllegalArgumentException.class, () -> json.read(valid.replace(nz.battingOrder().get(0).name(), "Somebody Else")));
+        assertThrows(IllegalArgumentException.class, () -> json.read(valid.substring(0, valid.length() - 1)));
+        assertThrows(IllegalArgumentException.class, () -> json.read(valid + "{}"));
+        assertThrows(IllegalArgumentException.class, () -> json.read(valid.replace(",", ",,")));
+        assertThrows(IllegalArgumentException.class, () -> json.read("{\"id\":\"1b4e28ba-2fa1-11d2-883f-0016d3cca427\",\"type\":\"BatterInningsStarting\"}"));
+        assertThrows(IllegalArgumentException.class, () -> json.read("{\"type\":\"SomethingElse\"}"));
+    }
+
+    @Test
+    void eventsThatLeaveOutValuesFromTheMatchCanBeReadAsBuilders() {
+        MatchStartingEvent matchStarting = MatchEvents.matchStarting(1, 50).withTeamLineUps(ImmutableList.of(nz, aus)).build();
+        EventJson json = EventJson.forMatch(matchStarting);
+        String bowler = aus.battingOrder().get(10).name();
+        String[] events = {
+            "{\"type\":\"InningsStarting\",\"battingTeam\":\"" + nz.teamName() + "\"}",
+            "{\"type\":\"BatterInningsStarting\"}",
+            "{\"type\":\"BatterInningsStarting\"}",
+            "{\"type\":\"OverStarting\",\"bowler\":\"" + bowler + "\"}",
+            "{\"type\":\"BallCompleted\",\"runsScored\":{\"validDeliveries\":1,\"batterRuns\":4,\"fours\":1}}",
+        };
+
+        MatchControl control = MatchControl.newMatch(matchStarting);
+        for (String event : events) {
+            IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> json.read(event));
+            assertThat(error.getMessage(), containsString("at character"));
+            control = control.onEvent(json.readBuilder(event));
+        }
+
+        Innings innings = control.match().currentInnings();
+        assertThat(innings.battingTeam(), is(sameInstance(nz)));
+        assertThat(innings.currentOver().bowler(), is(sameInstance(aus.battingOrder().get(10))));
+        assertThat(innings.score().teamRuns(), is(4));
+        assertThat(innings.batterInnings(nz.battingOrder().get(0)).score().batterRuns(), is(4));
+        assertThat(json.read(json.toJson(control.event())), equalTo(control.event()));
+        assertThrows(IllegalArgumentException.class, () -> json.readBuilder("{\"type\":\"BatterInningsStarting\"}{}"));
+    }
+}
@@ -0,0 +1,213 @@
+package com.danielflower.crickam.scorer.events;
+
+import com.danielflower.crickam.scorer.*;
+import com.danielflower.crickam.scorer.data.Australia;
+import com.danielflower.crickam.scorer.data.NewZealand;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.danielflower.crickam.scorer.events.MatchEvents.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EventLogTest {
+
+    private final SimpleLineUp nz = NewZealand.oneDayLineUp().build();
+    private final SimpleLineUp aus = Australia.oneDayLineUp().build();
+    private final ImmutableList<LineUp<?>> lineUps = ImmutableList.of(nz, aus);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void aMatchCanBeRecoveredFromTheLog() throws IOException {
+        MatchControl control;
+        try (EventLog log = EventLog.open(dir, EventCodec.forLineUps(lineUps))) {
+            assertThat(log.recovered(), is(nullValue()));
+            control = MatchControl.newMatch(matchStarting(1, 50).withTeamLineUps(lineUps).build());
+            log.append(control.event());
+            control = play(control, log, inningsStarting().withBattingTeam(nz), batterInningsStarting(), batterInningsStarting(),
+                overStarting(aus.battingOrder().get(10)), ballCompleted("1"), ballCompleted("4"), ballCompleted("0"));
+        }
+
+        try (EventLog log = EventLog.open(dir, EventCodec.forLineUps(lineUps))) {
+            MatchControl recovered = log.recovered();
+            assertThat(recovered, is(notNullValue()));
+            assertThat(events(recovered), equalTo(events(control)));
+            assertThat(recovered.match().currentInnings().score(), equalTo(control.match().currentInnings().score()));
+            assertThat(log.eventCount(), is(control.eventCount()));
+
+            control = play(recovered, log, ballCompleted("6"));
+        }
+        try (EventLog log = EventLog.open(dir, EventCodec.forLineUps(lineUps))) {
+            assertThat(events(log.recovered()), equalTo(events(control)));
+        }
+    }
+
+    @Test
+    void undosAreRecordedAndReplayed() throws IOException {
+        MatchControl control;
+        try (EventLog log = EventLog.open(dir, EventCodec.forLineUps(lineUps))) {
+            control = MatchControl.newMatch(matchStarting(1, 50).withTeamLineUps(lineUps).build());
+            log.append(control.event());
+            control = play(control, log, inningsStarting().withBattingTeam(nz), batterInningsStarting(), batterInningsStarting(),
+                overStarting(aus.battingOrder().get(10)), ballCompleted("1"), ballCompleted("4"));
+            control = control.undo();
+            log.undo();
+            control = play(control, log, ballCompleted("2"));
+            control = control.undo().undo();
+            log.undo();
+            log.undo();
+            assertThat(log.eventCount(), is(control.eventCount()));
+        }
+        try (EventLog log = EventLog.open(dir, EventCodec.forLineUps(lineUps))) {
+            assertThat(events(log.recovered()), equalTo(events(control)));
+            assertThat(log.recovered().match().balls().size(), is(0));
+        }
+    }
+
+    @Test
+    void aTornWriteAtTheEndOfTheLogIsDiscarded() throws IOException {
+        MatchControl control;
+        try (EventLog log = EventLog.open(dir, EventCodec.forLineUps(lineUps))) {
+            control = MatchControl.newMatch(matchStarting(1, 50).withTeamLineUps(lineUps).build());
+            log.append(control.event());
+            control = play(control, log, inningsStarting().withBattingTeam(nz), batterInningsStarting(), batterInningsStarting(),
+                overStarting(aus.battingOrder().get(10)), ballCompleted("1"));
+        }
+        MatchControl beforeLastBall = control.parent();
+
+        // corrupt the last byte of the last frame
+        Path segment = segmentFiles().get(0);
+        int end = endOfFrames(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), end - 1);
+        }
+
+        try (EventLog log = EventLog.open(dir, EventCodec.forLineUps(lineUps))) {
+            assertThat(events(log.recovered()), equalTo(events(beforeLastBall)));
+            control = play(log.recovered(), log, ballCompleted("3"));
+        }
+        try (EventLog log = EventLog.open(dir, EventCodec.forLineUps(lineUps))) {
+            assertThat(events(log.recovered()), equalTo(events(control)));
+        }
+    }
+
+    @Test
+    void eventsRollOverToNewSegments() throws IOException {
+        MatchControl control;
+        try (EventLog log = EventLog.open(dir, EventCodec.forLineUps(lineUps), 200, Duration.ZERO)) {
+            control = MatchControl.newMatch(matchStarting(1, 50).withTeamLineUps(lineUps).build());
+            log.append(control.event());
+            control = play(control, log, inningsStarting().withBattingTeam(nz), batterInningsStarting(), batterInningsStarting(),
+                overStarting(aus.battingOrder().get(10)));
+            for (int i = 0; i < 6; i++) {
+                control = play(control, log, ballCompleted("1"));
+            }
+            control = play(control, log, overCompleted());
+        }
+        assertThat(segmentFiles().size(), greaterThan(2));
+        try (EventLog log = EventLog.open(dir, EventCodec.forLineUps(lineUps), 200, Duration.ZERO)) {
+            assertThat(events(log.recovered()), equalTo(events(control)));
+        }
+    }
+
+    @Test
+    void matchesAreRestoredFromTheLatestUsableSnapshot() throws IOException {
+        MatchControl control;
+        MatchControl latestSnapshot;
+        try (EventLog log = EventLog.open(dir, EventCodec.forLineUps(lineUps))) {
+            control = MatchControl.newMatch(matchStarting(1, 50).withTeamLineUps(lineUps).build());
+            log.append(control.event());
+            control = play(control, log, inningsStarting().withBattingTeam(nz), batterInningsStarting(), batterInningsStarting());
+            for (int over = 0; over < 3; over++) {
+                control = play(control, log, overStarting(aus.battingOrder().get(9 + over % 2)), ballCompleted("1"),
+                    ballCompleted("4"), ballCompleted("0"), ballCompleted("0"), ballCompleted("6"), ballCompleted("2"), overCompleted());
+                log.writeSnapshot(control);
+            }
+            latestSnapshot = control;
+            assertThrows(IllegalArgumentException.class, () -> log.writeSnapshot(latestSnapshot.parent()));
+            control = play(control, log, overStarting(aus.battingOrder().get(9)), ballCompleted("1"));
+        }
+        assertThat(snapshotFiles().size(), is(2));
+
+        try (EventLog log = EventLog.open(dir, EventCodec.forLineUps(lineUps))) {
+            assertThat(events(log.recovered()), equalTo(events(control)));
+            assertThat(AsciiScorecardRenderer.toString(log.recovered()), equalTo(AsciiScorecardRenderer.toString(control)));
+
+            // the latest snapshot is of events that are about to be undone
+            while (control.eventCount() >= latestSnapshot.eventCount()) {
+                control = control.undo();
+                log.undo();
+            }
+        }
+        try (EventLog log = EventLog.open(dir, EventCodec.forLineUps(lineUps))) {
+            assertThat(events(log.recovered()), equalTo(events(control)));
+            assertThat(AsciiScorecardRenderer.toString(log.recovered()), equalTo(AsciiScorecardRenderer.toString(control)));
+        }
+
+        // a corrupt snapshot is ignored
+        MatchControl afterFirstOver = control.asAt(control.eventStream(OverCompletedEvent.class).findFirst().get());
+        Files.write(snapshotFiles().get(0), new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+        try (EventLog log = EventLog.open(dir, EventCodec.forLineUps(lineUps))) {
+            assertThat(events(log.recovered()), equalTo(events(control)));
+            assertThat(AsciiScorecardRenderer.toString(log.recovered().asAt(afterFirstOver.event())),
+                equalTo(AsciiScorecardRenderer.toString(afterFirstOver)));
+        }
+    }
+
+    @Test
+    void theFirstEventMustStartTheMatch() throws IOException {
+        try (EventLog log = EventLog.open(dir, EventCodec.forLineUps(lineUps))) {
+            assertThrows(IllegalArgumentException.class, () -> log.append(batterInningsStarting().withBatter(nz.battingOrder().get(0)).build()));
+            assertThrows(IllegalStateException.class, log::undo);
+        }
+    }
+
+    private static MatchControl play(MatchControl control, EventLog log, MatchEventBuilder<?, ?>... builders) throws IOException {
+        for (MatchEventBuilder<?, ?> builder : builders) {
+            control = control.onEvent(builder);
+            log.append(control.event());
+        }
+        return control;
+    }
+
+    private static List<MatchEvent> events(MatchControl control) {
+        return control.history().stream().map(MatchControl::event).collect(Collectors.toList());
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        return files("segment-");
+    }
+
+    private List<Path> snapshotFiles() throws IOException {
+        return files("snapshot-");
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().startsWith(prefix)).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static int endOfFrames(Path segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        int position = 8;
+        while (buffer.getInt(position) != 0) {
+            position += 8 + buffer.getInt(position);
+        }
+        return position;
+    }
+}
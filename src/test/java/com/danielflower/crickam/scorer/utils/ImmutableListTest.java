@@ -181,4 +181,79 @@ class ImmutableListTest {
         assertThrows(NoSuchElementException.class, iter::next);
     }
 
+    @Test
+    public void largeListsCanBeBuiltAndIndexed() {
+        ImmutableList<Integer> list = ImmutableList.emptyList();
+        for (int i = 0; i < 40000; i++) {
+            list = list.add(i);
+        }
+        assertThat(list.size(), is(40000));
+        for (int i = 0; i < 40000; i++) {
+            assertThat(list.get(i), is(i));
+        }
+        int expected = 0;
+        for (Integer integer : list) {
+            assertThat(integer, is(expected++));
+        }
+        Iterator<Integer> reversed = list.reverseIterator();
+        while (reversed.hasNext()) {
+            assertThat(reversed.next(), is(--expected));
+        }
+        assertThat(list, equalTo(new ImmutableList<>(list.stream().collect(Collectors.toList()))));
+        assertThat(list.hashCode(), equalTo(java.util.Objects.hash(list.stream().collect(Collectors.toList()))));
+    }
+
+    @Test
+    public void branchingFromAnOlderVersionDoesNotChangeEitherBranch() {
+        ImmutableList<Integer> trunk = ImmutableList.emptyList();
+        for (int i = 0; i < 2000; i++) {
+            trunk = trunk.add(i);
+        }
+        ImmutableList<Integer> base = trunk.subList(0, 999);
+        ImmutableList<Integer> branch = base.add(-1).add(-2);
+        ImmutableList<Integer> otherBranch = base.removeLast().add(-3);
+
+        assertThat(trunk.size(), is(2000));
+        assertThat(trunk.get(1000), is(1000));
+        assertThat(trunk.get(1001), is(1001));
+        assertThat(branch.size(), is(1002));
+        assertThat(branch.get(999), is(999));
+        assertThat(branch.get(1000), is(-1));
+        assertThat(branch.get(1001), is(-2));
+        assertThat(otherBranch.size(), is(1000));
+        assertThat(otherBranch.get(998), is(998));
+        assertThat(otherBranch.get(999), is(-3));
+        assertThat(base.last(), is(999));
+    }
+
+    @Test
+    public void getIsRelativeToTheStartOfASubList() {
+        ImmutableList<Integer> list = ImmutableList.of(0, 1, 2, 3, 4).subList(2, 3);
+        assertThat(list.get(0), is(2));
+        assertThat(list.get(1), is(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(2));
+    }
+
+    @Test
+    public void valuesCanBeChangedByPosition() {
+        ImmutableList<Integer> list = ImmutableList.of(1, 2, 3, 4);
+        assertThat(list.set(0, 10), contains(10, 2, 3, 4));
+        assertThat(list.set(3, 40), contains(1, 2, 3, 40));
+        assertThat(list.update(1, i -> i * 10), contains(1, 20, 3, 4));
+        assertThat(list.subList(1, 2).set(1, 30), contains(2, 30));
+        assertThat(list, contains(1, 2, 3, 4));
+
+        assertThat(list.set(2, list.get(2)), is(sameInstance(list)));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.set(4, 5));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.subList(0, 1).update(2, i -> i));
+    }
+
+    @Test
+    public void canFindIndexesWithPredicates() {
+        ImmutableList<Integer> list = ImmutableList.of(1, 2, 3, 4, 3);
+        assertThat(list.indexWhere(i -> i == 3), is(2));
+        assertThat(list.indexWhere(i -> i > 10), is(-1));
+        assertThat(list.subList(3, 4).indexWhere(i -> i == 3), is(1));
+    }
+
 }
\ No newline at end of file
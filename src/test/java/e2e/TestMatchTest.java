@@ -1,24 +1,39 @@
 package e2e;
 
 import com.danielflower.crickam.scorer.*;
+import com.danielflower.crickam.scorer.events.EventCodec;
+import com.danielflower.crickam.scorer.events.EventLog;
 import com.danielflower.crickam.scorer.events.InningsCompletedEvent;
+import com.danielflower.crickam.scorer.events.MatchEvent;
+import com.danielflower.crickam.scorer.events.MatchStartingEvent;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import scaffolding.ScorecardLoader;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static com.danielflower.crickam.scorer.data.England.*;
 import static com.danielflower.crickam.scorer.data.SouthAfrica.*;
 import static com.danielflower.crickam.scorer.events.MatchEvents.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestMatchTest {
 
     private static final TimeZone JOHANNESBURG = TimeZone.getTimeZone("Africa/Johannesburg");
     private MatchControl control;
 
+    @TempDir
+    Path tempDir;
+
     @Test
-    public void canScoreTestMatch() {
+    public void canScoreTestMatch() throws IOException {
 
         // A recreation of https://www.espncricinfo.com/series/19286/scorecard/1185304/south-africa-vs-england-1st-test-england-in-sa-2019-20
 
@@ -2828,6 +2843,67 @@ public class TestMatchTest {
         String actual = AsciiScorecardRenderer.toString(control);
         assertEquals(ScorecardLoader.load("sa-vs-eng-test-complete.txt"), actual);
 
+        // The same match can be rebuilt from its events in one go
+        ImmutableList<MatchControl> history = control.history();
+        MatchControl replayed = MatchControl.replay((MatchStartingEvent) history.first().event(),
+            history.subList(1, history.size() - 1).stream().map(MatchControl::event));
+        assertEquals(actual, AsciiScorecardRenderer.toString(replayed));
+        assertEquals(ScorecardLoader.load("sa-vs-eng-test-in-progress.txt"),
+            AsciiScorecardRenderer.toString(replayed.asAt(controlAtEndOfInnings2.event())));
+
+        // Replaying builds the event indexes once, so it allocates less than applying the events one at a time
+        MatchStartingEvent startingEvent = (MatchStartingEvent) history.first().event();
+        List<MatchEvent> events = history.subList(1, history.size() - 1).stream().map(MatchControl::event).collect(Collectors.toList());
+        long replayBytes = allocatedBytes(() -> MatchControl.replay(startingEvent, events));
+        long onEventBytes = allocatedBytes(() -> {
+            MatchControl rebuilt = MatchControl.newMatch(startingEvent);
+            for (MatchEvent event : events) {
+                rebuilt = rebuilt.onEvent(event);
+            }
+        });
+        assertTrue(replayBytes < onEventBytes * 0.9, "replay allocated " + replayBytes + " bytes and onEvent allocated " + onEventBytes);
+
+        // The match can be recovered from an event log by replaying its events, or from a snapshot
+        EventCodec codec = EventCodec.forLineUps(startingEvent.teamLineUps(), ImmutableList.of(CRAWLEY));
+        for (boolean withSnapshots : new boolean[]{false, true}) {
+            Path logDir = tempDir.resolve(withSnapshots ? "with-snapshots" : "without-snapshots");
+            try (EventLog log = EventLog.open(logDir, codec)) {
+                for (MatchControl state : history) {
+                    log.append(state.event());
+                    if (withSnapshots && state.event() instanceof InningsCompletedEvent) {
+                        log.writeSnapshot(state);
+                    }
+                }
+            }
+            long start = System.nanoTime();
+            try (EventLog log = EventLog.open(logDir, codec)) {
+                long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                assertEquals(actual, AsciiScorecardRenderer.toString(log.recovered()));
+                assertEquals(history.size(), log.eventCount());
+                assertTrue(millis < 1000, "recovery took " + millis + "ms");
+            }
+        }
+
+        // Team totals are carried forward with each event rather than summed on request
+        for (MatchControl state : history) {
+            Match match = state.match();
+            for (LineUp<?> team : match.teams()) {
+                Score expected = match.inningsList().stream()
+                    .filter(innings -> innings.battingTeam().equals(team))
+                    .map(Innings::score)
+                    .collect(Score.toTotal());
+                assertEquals(expected, match.scoredByTeam(team));
+            }
+        }
+
+    }
+
+    private static long allocatedBytes(Runnable action) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadID = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadID);
+        action.run();
+        return threads.getThreadAllocatedBytes(threadID) - before;
     }
 
     private Player findFielder(String name) {